@@ -29,7 +29,8 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 
 import eu.opends.car.Car;
-import eu.opends.car.LightTexturesContainer.TurnSignalState;
+import eu.opends.telemetry.CarSnapshot;
+import eu.opends.telemetry.TelemetrySubscriber;
 import eu.opends.tools.Util;
 import eu.opends.webcam.Grabber;
 import eu.opends.webcam.SoundRecorder;
@@ -55,7 +56,7 @@ public class DataWriter
 	private String newLine = System.getProperty("line.separator");
 	private Date lastAnalyzerDataSave;
 	private String outputFolder;
-	private Car car;
+	private TelemetrySubscriber telemetry;
 	private File analyzerDataFile;
 	private boolean dataWriterEnabled = false;
 	private String driverName = "";
@@ -68,7 +69,7 @@ public class DataWriter
 	public DataWriter(String outputFolder, Car car, String driverName, String drivingTaskFileName) 
 	{	
 		this.outputFolder = outputFolder;
-		this.car = car;
+		this.telemetry = car.getSimulator().getTelemetryBus().subscribe("DataWriter");
 		this.driverName = driverName;
 		this.drivingTaskFileName = drivingTaskFileName;
 
@@ -136,23 +137,27 @@ public class DataWriter
 
 		if (curDate.getTime() - lastAnalyzerDataSave.getTime() >= 50) 
 		{
+			// all values of a row are taken from the same physics step
+			CarSnapshot car = telemetry.current();
+			if(car == null)
+				return;
 			
 			write(
 					curDate,
-					Math.round(car.getPosition().x * 1000) / 1000.,
-					Math.round(car.getPosition().y * 1000) / 1000.,
-					Math.round(car.getPosition().z * 1000) / 1000.,
-					Math.round(car.getRotation().getX() * 10000) / 10000.,
-					Math.round(car.getRotation().getY() * 10000) / 10000.,
-					Math.round(car.getRotation().getZ() * 10000) / 10000.,
-					Math.round(car.getRotation().getW() * 10000) / 10000.,
-					car.getCurrentSpeedKmhRounded(), Math.round(car.getSteeringWheelState() * 100000) / 100000., 
+					Math.round(car.getPositionX() * 1000) / 1000.,
+					Math.round(car.getPositionY() * 1000) / 1000.,
+					Math.round(car.getPositionZ() * 1000) / 1000.,
+					Math.round(car.getRotationX() * 10000) / 10000.,
+					Math.round(car.getRotationY() * 10000) / 10000.,
+					Math.round(car.getRotationZ() * 10000) / 10000.,
+					Math.round(car.getRotationW() * 10000) / 10000.,
+					car.getSpeedKmhRounded(), Math.round(car.getSteeringWheelState() * 100000) / 100000., 
 					car.getGasPedalPressIntensity(), car.getBrakePedalPressIntensity(),
 					car.isEngineOn(),
 					car.getLightIntensity(),
-					car.getTurnSignal() == TurnSignalState.BOTH || car.getTurnSignal() == TurnSignalState.LEFT ? true : false,
-					car.getTurnSignal() == TurnSignalState.BOTH || car.getTurnSignal() == TurnSignalState.RIGHT ? true : false,
-					car.getSimulator().getGhostWheelIsActive()
+					car.isTurnSignalLeft(),
+					car.isTurnSignalRight(),
+					car.isGhostWheelActive()
 				);
 
 			/*
@@ -241,6 +246,7 @@ public class DataWriter
 	public void quit() 
 	{
 		dataWriterEnabled = false;
+		telemetry.close();
 		flush();
 		try {
 			if (out != null)
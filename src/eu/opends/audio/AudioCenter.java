@@ -18,9 +18,10 @@
 
 package eu.opends.audio;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.jme3.audio.AudioNode;
 import com.jme3.audio.AudioRenderer;
@@ -32,17 +33,31 @@ import com.jme3.renderer.Camera;
 import eu.opends.main.Simulator;
 
 /**
+ * Plays all sounds of the simulator. Sound commands may be issued from any 
+ * thread; they are queued and processed on the jME update thread. Delayed 
+ * commands and fade outs are scheduled on the simulation clock and hence 
+ * will not proceed while the simulation is paused.
  * 
  * @author Rafael Math
  */
 public class AudioCenter 
 {
+	private enum CommandType
+	{
+		PLAY, STOP, SET_VOLUME, FADE_OUT;
+	}
+	
+	// interval and volume decrease of fade out steps
+	private static final float FADE_OUT_INTERVAL = 0.2f;
+	private static final float FADE_OUT_STEP = 0.1f;
+	
 	private static Simulator sim;
 	private static float engineVolume;
 	private static AudioRenderer audioRenderer;
 	private static Listener listener;
 	private static Map<String,AudioNode> audioNodeList;
-	private static Map<String,Float> audioNodeVolumeList;
+	private static Queue<AudioCommand> commandQueue = new ConcurrentLinkedQueue<AudioCommand>();
+	private static boolean isPaused = false;
 
 
 	public static void init(Simulator sim) 
@@ -51,7 +66,6 @@ public class AudioCenter
 		audioRenderer = sim.getAudioRenderer();
 		listener = sim.getListener();
 		audioNodeList = AudioFiles.load(sim);
-		audioNodeVolumeList = new HashMap<String,Float>();
 		engineVolume = Simulator.getDrivingTask().getScenarioLoader().getEngineSoundIntensity(-1f);
 		
 		//audioRenderer.setEnvironment(new Environment(Environment.Dungeon));
@@ -80,49 +94,57 @@ public class AudioCenter
 	public static void playSound(String soundID)
 	{
 		if(soundID != null)
-		{
-			AudioNode audioNode = audioNodeList.get(soundID);
-			if(audioNode != null)
-				audioRenderer.playSource(audioNode);
-			else
-				System.err.println("AudioNode '" + soundID + "' does not exist!");
-		}
+			commandQueue.add(new AudioCommand(CommandType.PLAY, soundID, 0, 0));
 	}
 	
 	
 	public static void playSoundDelayed(String soundID, int milliSeconds)
 	{
-		AudioDelayThread t = new AudioDelayThread(soundID, milliSeconds, "playSound");
-		t.start();
+		if(soundID != null)
+			commandQueue.add(new AudioCommand(CommandType.PLAY, soundID, 0, milliSeconds/1000f));
 	}
 	
 	
 	private static void fadeOut(String soundID, int milliSeconds) 
 	{
-		AudioDelayThread t = new AudioDelayThread(soundID, milliSeconds, "fadeOut");
-		t.start();
+		commandQueue.add(new AudioCommand(CommandType.FADE_OUT, soundID, 0, milliSeconds/1000f));
 	}
 
 	
 	public static void stopSound(String soundID)
 	{
-		audioRenderer.stopSource(audioNodeList.get(soundID));
+		commandQueue.add(new AudioCommand(CommandType.STOP, soundID, 0, 0));
 	}
 	
 	
 	public static void setVolume(String soundID, float volume)
 	{
-		audioNodeVolumeList.put(soundID, volume);
+		commandQueue.add(new AudioCommand(CommandType.SET_VOLUME, soundID, volume, 0));
 	}
 	
 	
 	public static void update(float tpf, Camera cam)
 	{
 		// when simulator is paused, all sound output will be paused
-		if(sim.isPause())
-			pauseAllSoundEffects();
-		else
-			resumeAllSoundEffects();
+		if(sim.isPause() != isPaused)
+		{
+			isPaused = sim.isPause();
+			
+			if(isPaused)
+				pauseAllSoundEffects();
+			else
+				resumeAllSoundEffects();
+		}
+		
+		// process queued commands (delayed commands will be passed to the simulation clock)
+		AudioCommand command;
+		while((command = commandQueue.poll()) != null)
+		{
+			if(command.delay > 0)
+				Simulator.getSimulationClock().schedule(command, command.delay);
+			else
+				command.run();
+		}
 		
 		// adjust listener's position to camera position
 		listener.setLocation(cam.getLocation());
@@ -131,23 +153,26 @@ public class AudioCenter
 		// engine sound (pitch and volume) is adjusted to current RPM
 		float engineSpeedPercentage = sim.getCar().getTransmission().getRPMPercentage();
 		AudioNode engineIdle = audioNodeList.get("engineIdle");
-		engineIdle.setPitch(1f + engineSpeedPercentage);
+		
+		float enginePitch = 1f + engineSpeedPercentage;
+		if(engineIdle.getPitch() != enginePitch)
+			engineIdle.setPitch(enginePitch);
 		
 		if(engineVolume == -1)
-			engineIdle.setVolume(0.25f + 0.5f * engineSpeedPercentage);
+			applyVolume(engineIdle, 0.25f + 0.5f * engineSpeedPercentage);
 		else
-			engineIdle.setVolume(engineVolume);
-		
-		// perform volume updates
-		for(Entry<String, Float> entry : audioNodeVolumeList.entrySet())
-			getAudioNode(entry.getKey()).setVolume(entry.getValue());
+			applyVolume(engineIdle, engineVolume);
 	}
 
 	
 	private static void pauseAllSoundEffects() 
 	{
 		for(Entry<String, AudioNode> entry : audioNodeList.entrySet())
-			audioRenderer.pauseSource(entry.getValue());
+		{
+			AudioNode audioNode = entry.getValue();
+			if(audioNode.getStatus() == Status.Playing)
+				audioRenderer.pauseSource(audioNode);
+		}
 	}
 
 	
@@ -160,10 +185,107 @@ public class AudioCenter
 				audioRenderer.playSource(audioNode);
 		}
 	}
+	
+	
+	private static void applyVolume(AudioNode audioNode, float volume)
+	{
+		if(audioNode.getVolume() != volume)
+			audioNode.setVolume(volume);
+	}
 
 
 	public static AudioNode getAudioNode(String soundID) 
 	{
 		return audioNodeList.get(soundID);
 	}
+	
+	
+	/**
+	 * Sound command to be executed on the jME update thread.
+	 */
+	private static class AudioCommand implements Runnable
+	{
+		private CommandType type;
+		private String soundID;
+		private float volume;
+		private float delay;
+		
+		
+		public AudioCommand(CommandType type, String soundID, float volume, float delay)
+		{
+			this.type = type;
+			this.soundID = soundID;
+			this.volume = volume;
+			this.delay = delay;
+		}
+		
+		
+		@Override
+		public void run()
+		{
+			AudioNode audioNode = audioNodeList.get(soundID);
+			if(audioNode == null)
+			{
+				System.err.println("AudioNode '" + soundID + "' does not exist!");
+				return;
+			}
+			
+			switch(type)
+			{
+				case PLAY :
+					audioRenderer.playSource(audioNode);
+					
+					// sounds started during pause will be played after pause
+					if(isPaused)
+						audioRenderer.pauseSource(audioNode);
+					break;
+					
+				case STOP : audioRenderer.stopSource(audioNode); break;
+				
+				case SET_VOLUME : applyVolume(audioNode, volume); break;
+				
+				case FADE_OUT : new FadeOutTask(audioNode).run(); break;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Decreases the volume of a sound step by step until it is silent. Then 
+	 * the sound will be stopped and the initial volume restored.
+	 */
+	private static class FadeOutTask implements Runnable
+	{
+		private AudioNode audioNode;
+		private float initialVolume;
+		private boolean started = false;
+		
+		
+		public FadeOutTask(AudioNode audioNode)
+		{
+			this.audioNode = audioNode;
+			this.initialVolume = audioNode.getVolume();
+		}
+		
+		
+		@Override
+		public void run()
+		{
+			if(started)
+			{
+				float volume = Math.max(audioNode.getVolume() - FADE_OUT_STEP, 0);
+				applyVolume(audioNode, volume);
+				
+				if(volume <= 0)
+				{
+					audioRenderer.stopSource(audioNode);
+					applyVolume(audioNode, initialVolume);
+					return;
+				}
+			}
+			
+			started = true;
+			Simulator.getSimulationClock().schedule(this, FADE_OUT_INTERVAL);
+		}
+	}
 }
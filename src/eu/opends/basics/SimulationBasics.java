@@ -51,6 +51,7 @@ import eu.opends.niftyGui.InstructionScreenGUI;
 import eu.opends.niftyGui.KeyMappingGUI;
 import eu.opends.niftyGui.ShutDownGUI;
 import eu.opends.tools.PropertiesLoader;
+import eu.opends.tools.StartupProfiler;
 import eu.opends.tools.XMLLoader;
 import eu.opends.trigger.TriggerAction;
 
@@ -60,15 +61,20 @@ import eu.opends.trigger.TriggerAction;
  */
 public class SimulationBasics extends SimpleApplication 
 {
+	public static final int SHADOW_MAP_SIZE = 512;
+	
 	protected static DrivingTask drivingTask;
 	protected static SceneLoader sceneLoader;
 	protected static ScenarioLoader scenarioLoader;
 	protected static InteractionLoader interactionLoader;
 	protected static SettingsLoader settingsLoader;
 	protected static Map<String,List<TriggerAction>> triggerActionListMap = new HashMap<String,List<TriggerAction>>();
+	protected static SimulationClock simulationClock = new SimulationClock();
+	protected static StartupProfiler startupProfiler = new StartupProfiler();
 	protected BulletAppState bulletAppState;
 	protected LightFactory lightFactory;
 	protected BasicShadowRenderer basicShadowRenderer;
+	protected int shadowMapSize = 0;
 	protected CameraFactory cameraFactory;
 	protected Node sceneNode;
 	protected Node triggerNode;
@@ -149,6 +155,18 @@ public class SimulationBasics extends SimpleApplication
 	{
 		return triggerActionListMap;
 	}
+	
+	
+	public static SimulationClock getSimulationClock() 
+	{
+		return simulationClock;
+	}
+	
+	
+	public static StartupProfiler getStartupProfiler() 
+	{
+		return startupProfiler;
+	}
 
 	
 	public AppSettings getSettings() 
@@ -207,6 +225,8 @@ public class SimulationBasics extends SimpleApplication
     {    	
     	lookupNumberOfScreens();
     	
+    	startupProfiler.begin("Physics");
+    	
     	// init physics
         bulletAppState = new BulletAppState();
         stateManager.attach(bulletAppState);
@@ -222,6 +242,9 @@ public class SimulationBasics extends SimpleApplication
 		
 		triggerNode = new Node("triggerNode");
 		rootNode.attachChild(triggerNode);
+		
+		startupProfiler.end();
+		startupProfiler.begin("Shadows, light and sky");
     	
         // apply shadow casting       
 		initShadows();
@@ -243,9 +266,14 @@ public class SimulationBasics extends SimpleApplication
         }
         rootNode.attachChild(sky);
         
+        startupProfiler.end();
+        startupProfiler.begin("GUI screens");
+        
         keyMappingGUI = new KeyMappingGUI(this);
         shutDownGUI = new ShutDownGUI(this);
         instructionScreenGUI = new InstructionScreenGUI(this);
+        
+        startupProfiler.end();
     }
 
     
@@ -255,20 +283,57 @@ public class SimulationBasics extends SimpleApplication
         if (settings.getRenderer().startsWith("LWJGL")) 
         {
         	// TODO customize shadow rendering
-        	basicShadowRenderer = new BasicShadowRenderer(assetManager, 512);
-        	basicShadowRenderer.setDirection(new Vector3f(-0.5f, -0.3f, -0.3f).normalizeLocal());
-            viewPort.addProcessor(basicShadowRenderer);
+        	setShadowMapSize(SHADOW_MAP_SIZE);
             
             // Default mode is Off -- Every node declares own shadow mode!
             rootNode.setShadowMode(ShadowMode.Off);
         }
     }
     
+    
+    /**
+     * @return size of the current shadow map (0 if shadows are off)
+     */
+    public int getShadowMapSize()
+    {
+    	return (basicShadowRenderer != null ? shadowMapSize : 0);
+    }
+    
+    
+    /**
+     * Replaces the shadow renderer by one with the given shadow map size. 
+     * Has no effect if shadows are not supported by the renderer.
+     * 
+     * @param size
+     * 			Size of the shadow map in pixels (0: shadows off).
+     */
+    public void setShadowMapSize(int size)
+    {
+    	if(!settings.getRenderer().startsWith("LWJGL") || size == getShadowMapSize())
+    		return;
+    	
+    	if(basicShadowRenderer != null)
+    	{
+    		viewPort.removeProcessor(basicShadowRenderer);
+    		basicShadowRenderer = null;
+    	}
+    	
+    	if(size > 0)
+    	{
+    		basicShadowRenderer = new BasicShadowRenderer(assetManager, size);
+    		basicShadowRenderer.setDirection(new Vector3f(-0.5f, -0.3f, -0.3f).normalizeLocal());
+    		viewPort.addProcessor(basicShadowRenderer);
+    	}
+    	
+    	shadowMapSize = size;
+    }
+    
 
     @Override
     public void simpleUpdate(float tpf) 
     {
-    	
+    	// advance simulation time and run delayed tasks
+    	simulationClock.update(tpf, isPause());
     }
     
     
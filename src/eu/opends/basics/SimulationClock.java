@@ -0,0 +1,132 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.basics;
+
+import eu.opends.tools.TimerWheel;
+import eu.opends.tools.TimerWheel.Timer;
+
+/**
+ * Clock of the simulation. Advances by the frame time on every update of the 
+ * jME thread and stands still while the simulation is paused. Delayed tasks 
+ * (e.g. trigger actions) can be scheduled on this clock and will be run on 
+ * the jME thread, too. For animations and tasks that continue during pause 
+ * (e.g. turn signals, end of a timed pause) the frame time is accumulated 
+ * separately.
+ * 
+ * @author agent
+ */
+public class SimulationClock 
+{
+	// resolution of scheduled tasks (in seconds) and number of slots of the timer wheel
+	private static final double TICK_DURATION = 0.01;
+	private static final int WHEEL_SIZE = 512;
+	
+	private double time = 0;
+	private double frameTime = 0;
+	private TimerWheel timerWheel = new TimerWheel(TICK_DURATION, WHEEL_SIZE);
+	private TimerWheel frameTimerWheel = new TimerWheel(TICK_DURATION, WHEEL_SIZE);
+	
+	
+	/**
+	 * Advances the clock (unless paused) and runs all tasks that are due.
+	 * Must be called once per frame on the jME update thread.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 * 
+	 * @param pause
+	 * 			True, if the simulation is paused.
+	 */
+	public void update(float tpf, boolean pause)
+	{
+		if(!pause)
+			time += tpf;
+		
+		frameTime += tpf;
+		
+		timerWheel.advanceTo(time);
+		frameTimerWheel.advanceTo(frameTime);
+	}
+	
+	
+	/**
+	 * @return seconds of (unpaused) simulation since start
+	 */
+	public double getTime()
+	{
+		return time;
+	}
+	
+	
+	/**
+	 * @return seconds since start, including pauses
+	 */
+	public double getFrameTime()
+	{
+		return frameTime;
+	}
+	
+	
+	/**
+	 * Runs the given task on the jME thread after the given amount of 
+	 * simulation time has passed by.
+	 * 
+	 * @param task
+	 * 			Task to run.
+	 * 
+	 * @param delay
+	 * 			Delay (in seconds of simulation time).
+	 * 
+	 * @return
+	 * 			Handle to cancel the task.
+	 */
+	public Timer schedule(Runnable task, float delay)
+	{
+		return timerWheel.schedule(task, delay);
+	}
+	
+	
+	/**
+	 * Runs the given task on the jME thread after the given amount of frame 
+	 * time has passed by, i.e. the delay elapses during pause, too.
+	 * 
+	 * @param task
+	 * 			Task to run.
+	 * 
+	 * @param delay
+	 * 			Delay (in seconds of frame time).
+	 * 
+	 * @return
+	 * 			Handle to cancel the task.
+	 */
+	public Timer scheduleOnFrameTime(Runnable task, float delay)
+	{
+		return frameTimerWheel.schedule(task, delay);
+	}
+	
+	
+	/**
+	 * @return number of tasks waiting to be run
+	 */
+	public int getPendingTasks()
+	{
+		return timerWheel.getPendingTimers() + frameTimerWheel.getPendingTimers();
+	}
+}
@@ -19,6 +19,9 @@
 package eu.opends.camera;
 
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.jme3.input.ChaseCamera;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.FastMath;
@@ -34,6 +37,7 @@ import com.jme3.scene.control.CameraControl.ControlDirection;
 import eu.opends.basics.SimulationBasics;
 import eu.opends.drivingTask.settings.SettingsLoader;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.main.SimulationDefaults;
 
 
 /**
@@ -51,7 +55,11 @@ public abstract class CameraFactory
 	
 	protected Node targetNode;
 	protected Camera cam;
-	protected ViewPort backViewPort;
+	protected RearviewMirror rearviewMirror;
+	protected Camera backCam;
+	
+	// cameras rendering the scene (except rear view mirror)
+	private ArrayList<Camera> sceneCameraList = new ArrayList<Camera>();
 
 	private float angleBetweenAdjacentCameras;
     
@@ -73,6 +81,19 @@ public abstract class CameraFactory
 	}
 	
 	
+	/**
+	 * Get all cameras rendering the scene (one per screen, rear view mirror 
+	 * excluded).
+	 * 
+	 * @return
+	 * 		List of scene cameras (must not be modified).
+	 */
+	public List<Camera> getSceneCameraList()
+	{
+		return sceneCameraList;
+	}
+	
+	
 	/**
 	 * Camera views that can be activated while driving 
 	 */
@@ -135,7 +156,23 @@ public abstract class CameraFactory
 	    		setupCamera(i,numberOfScreens);
 	    }
 	    else
-	    	setupCenterCamera();
+	    {
+	    	// a render slave shows the view of a single screen of the cluster
+	    	float angle = 0;
+	    	String renderClusterMode = settingsLoader.getSetting(Setting.RenderCluster_mode, SimulationDefaults.RenderCluster_mode);
+	    	if(renderClusterMode.equalsIgnoreCase("slave"))
+	    	{
+	    		int totalScreens = settingsLoader.getSetting(Setting.RenderCluster_numberOfScreens, SimulationDefaults.RenderCluster_numberOfScreens);
+	    		int screenIndex = settingsLoader.getSetting(Setting.RenderCluster_screenIndex, SimulationDefaults.RenderCluster_screenIndex);
+	    		angle = (((totalScreens+1)/2)-screenIndex) * angleBetweenAdjacentCameras;
+	    		
+	    		// same frustum as a screen of the single-process multi-screen setup 
+	    		// (there, a screen covers 1/total of the window; here, the whole window)
+	    		cam.setFrustumPerspective(frameOfView, aspectRatio, 1f, 2000);
+	    	}
+	    	
+	    	setupCenterCamera(angle);
+	    }
 
 		setupBackCamera();
     	
@@ -155,6 +192,12 @@ public abstract class CameraFactory
 	}
 	
 	
+	public RearviewMirror getRearviewMirror()
+	{
+		return rearviewMirror;
+	}
+	
+	
 	/**
 	 * Set whether back view mirror is visible or not
 	 * 
@@ -169,9 +212,60 @@ public abstract class CameraFactory
 	}
 	
 	
+	/**
+	 * @return
+	 * 			Far plane (in meters) of the scene cameras.
+	 */
+	public float getViewDistance()
+	{
+		if(sceneCameraList.isEmpty())
+			return cam.getFrustumFar();
+		
+		return sceneCameraList.get(0).getFrustumFar();
+	}
+	
+	
+	/**
+	 * Sets the far plane of all scene cameras including the rear view mirror.
+	 * 
+	 * @param distance
+	 * 			Maximum distance (in meters) of rendered objects.
+	 */
+	public void setViewDistance(float distance)
+	{
+		for(Camera sceneCam : sceneCameraList)
+			sceneCam.setFrustumFar(distance);
+		
+		// recompute the projection of the mirror before inverting it again
+		backCam.setProjectionMatrix(null);
+		backCam.setFrustumFar(distance);
+		applyMirrorProjection(backCam);
+	}
+	
+	
 	public abstract void setCamMode(CameraMode mode);
 	
 	
+	/**
+	 * Sets the camera mode of a render slave. The pose of the main camera 
+	 * node is replicated from the master, hence the camera stays attached 
+	 * to that node in CHASE mode, too (the chase camera remains off).
+	 * 
+	 * @param mode
+	 * 			Camera mode of the master.
+	 */
+	public void setReplicatedCamMode(CameraMode mode)
+	{
+		setCamMode(mode);
+		
+		if(mode == CameraMode.CHASE)
+		{
+			chaseCam.setEnabled(false);
+			mainCameraNode.getChild("CamNode1").getControl(0).setEnabled(true);
+		}
+	}
+	
+	
 	public abstract void changeCamera();
 
 	
@@ -183,6 +277,7 @@ public abstract class CameraFactory
 		float total = totalInt;
 		Camera cam = new Camera(width, height);
 		cam.setFrustumPerspective(frameOfView, aspectRatio/total, 1f, 2000);
+		sceneCameraList.add(cam);
 		
 		float additionalPixel = 1f/width;
 		float viewPortLeft = (index-1)/total;
@@ -206,15 +301,20 @@ public abstract class CameraFactory
 	
 	/**
 	 * 	Setup center camera (always on)
+	 * 
+	 * @param angle
+	 * 		Horizontal angle (in degrees) between camera and driving direction.
 	 */
-	private void setupCenterCamera() 
+	private void setupCenterCamera(float angle) 
 	{
+		sceneCameraList.add(cam);
+		
 		// add center camera to main camera node
 		CameraNode centerCamNode = new CameraNode("CamNode1", cam);	
 		centerCamNode.setControlDir(ControlDirection.SpatialToCamera);
 		mainCameraNode.attachChild(centerCamNode);
 		centerCamNode.setLocalTranslation(new Vector3f(0, 0, 0));
-		centerCamNode.setLocalRotation(new Quaternion().fromAngles(0, 180*FastMath.DEG_TO_RAD, 0));
+		centerCamNode.setLocalRotation(new Quaternion().fromAngles(0, (180+angle)*FastMath.DEG_TO_RAD, 0));
 	}
 
 
@@ -223,7 +323,7 @@ public abstract class CameraFactory
 	 */
 	private void setupBackCamera() 
 	{
-		Camera backCam = cam.clone();
+		backCam = cam.clone();
 		
 		float left = settingsLoader.getSetting(Setting.General_rearviewMirrorViewPortLeft, 0.3f);
 		float right = settingsLoader.getSetting(Setting.General_rearviewMirrorViewPortRight, 0.7f);
@@ -241,17 +341,13 @@ public abstract class CameraFactory
 		float aspect = ((right-left)*width)/((top-bottom)*height);
 		
 		backCam.setFrustumPerspective(30.0f, aspect, 1, 2000);
-		backCam.setViewPort(left, right, bottom, top);
 		
-		// inverse back view cam (=> back view mirror)
-		Matrix4f matrix = backCam.getProjectionMatrix().clone();
-		matrix.m00 = - matrix.m00;
-		backCam.setProjectionMatrix(matrix);
+		applyMirrorProjection(backCam);
 		
-		// set view port (needed to show/hide mirror)
-	    backViewPort = sim.getRenderManager().createMainView("BackView", backCam);
-	    backViewPort.attachScene(sim.getRootNode());
-	    backViewPort.setEnabled(false);
+		// render mirror offscreen (optionally at lower resolution and refresh rate)
+		float resolution = settingsLoader.getSetting(Setting.General_rearviewMirrorResolution, 1.0f);
+		float refreshRate = settingsLoader.getSetting(Setting.General_rearviewMirrorRefreshRate, 30f);
+		rearviewMirror = new RearviewMirror(sim, backCam, left, right, bottom, top, resolution, refreshRate);
 	    
 	    // add back camera to main camera node
     	CameraNode backCamNode = new CameraNode("BackCamNode", backCam);
@@ -260,6 +356,20 @@ public abstract class CameraFactory
 	}
 	
 
+	/**
+	 * Inverts the projection of the given camera horizontally (=> back view mirror).
+	 * 
+	 * @param mirrorCam
+	 * 			Camera with a regular perspective projection.
+	 */
+	private void applyMirrorProjection(Camera mirrorCam)
+	{
+		Matrix4f matrix = mirrorCam.getProjectionMatrix().clone();
+		matrix.m00 = - matrix.m00;
+		mirrorCam.setProjectionMatrix(matrix);
+	}
+	
+
 	/**
 	 *	Setup free camera (can be controlled with mouse)
 	 */
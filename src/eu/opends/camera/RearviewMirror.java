@@ -0,0 +1,269 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.camera;
+
+import com.jme3.math.ColorRGBA;
+import com.jme3.post.SceneProcessor;
+import com.jme3.renderer.Camera;
+import com.jme3.renderer.RenderManager;
+import com.jme3.renderer.ViewPort;
+import com.jme3.renderer.queue.RenderQueue;
+import com.jme3.scene.Spatial.CullHint;
+import com.jme3.texture.FrameBuffer;
+import com.jme3.texture.Image.Format;
+import com.jme3.texture.Texture.MagFilter;
+import com.jme3.texture.Texture.MinFilter;
+import com.jme3.texture.Texture2D;
+import com.jme3.ui.Picture;
+
+import eu.opends.basics.SimulationBasics;
+import eu.opends.tools.LatencyHistogram;
+
+/**
+ * Rear view mirror rendered into an offscreen frame buffer, which is shown as 
+ * a picture in the GUI. The resolution of the frame buffer may be lower than 
+ * the size of the mirror on screen and the mirror may be refreshed at a lower 
+ * rate than the frame rate; in between, the last image is held.<br>
+ * <br>
+ * The duration of each mirror pass is measured, so the time saved per frame 
+ * can be estimated (CPU time of the render calls only, the GPU works 
+ * asynchronously).
+ * 
+ * @author agent
+ */
+public class RearviewMirror 
+{
+	private ViewPort viewPort;
+	private Picture picture;
+	private float refreshInterval;
+	private float timeSinceRefresh = 0;
+	private boolean visible = false;
+	private boolean hasContent = false;
+	private int textureWidth, textureHeight;
+	
+	private long visibleFrames = 0;
+	private long renderedFrames = 0;
+	private LatencyHistogram renderTimeHistogram = new LatencyHistogram();
+	
+	
+	/**
+	 * Creates the offscreen view of the mirror.
+	 * 
+	 * @param sim
+	 * 			Simulator providing render manager, root node and GUI node.
+	 * 
+	 * @param mirrorCam
+	 * 			Camera with mirrored projection (will be resized to the frame buffer).
+	 * 
+	 * @param left
+	 * 			Left border of the mirror on screen (0..1).
+	 * 
+	 * @param right
+	 * 			Right border of the mirror on screen (0..1).
+	 * 
+	 * @param bottom
+	 * 			Bottom border of the mirror on screen (0..1).
+	 * 
+	 * @param top
+	 * 			Top border of the mirror on screen (0..1).
+	 * 
+	 * @param resolutionFactor
+	 * 			Resolution of the frame buffer relative to the size of the mirror 
+	 * 			on screen (0..1].
+	 * 
+	 * @param refreshRate
+	 * 			Number of mirror updates per second (0: every frame).
+	 */
+	public RearviewMirror(SimulationBasics sim, Camera mirrorCam, float left, float right, 
+			float bottom, float top, float resolutionFactor, float refreshRate)
+	{
+		int screenWidth = sim.getSettings().getWidth();
+		int screenHeight = sim.getSettings().getHeight();
+		
+		resolutionFactor = Math.max(0.1f, Math.min(resolutionFactor, 1f));
+		textureWidth = Math.max(1, Math.round((right-left) * screenWidth * resolutionFactor));
+		textureHeight = Math.max(1, Math.round((top-bottom) * screenHeight * resolutionFactor));
+		refreshInterval = (refreshRate > 0 ? 1f/refreshRate : 0);
+		
+		// render the whole camera image into the frame buffer (projection is kept)
+		mirrorCam.resize(textureWidth, textureHeight, false);
+		mirrorCam.setViewPort(0, 1, 0, 1);
+		
+		Texture2D texture = new Texture2D(textureWidth, textureHeight, Format.RGBA8);
+		texture.setMinFilter(MinFilter.BilinearNoMipMaps);
+		texture.setMagFilter(MagFilter.Bilinear);
+		
+		FrameBuffer frameBuffer = new FrameBuffer(textureWidth, textureHeight, 1);
+		frameBuffer.setDepthBuffer(Format.Depth);
+		frameBuffer.setColorTexture(texture);
+		
+		viewPort = sim.getRenderManager().createPreView("BackView", mirrorCam);
+		viewPort.setClearFlags(true, true, true);
+		viewPort.setBackgroundColor(ColorRGBA.Black);
+		viewPort.setOutputFrameBuffer(frameBuffer);
+		viewPort.attachScene(sim.getRootNode());
+		viewPort.addProcessor(new RenderTimer());
+		viewPort.setEnabled(false);
+		
+		picture = new Picture("RearviewMirror");
+		picture.setTexture(sim.getAssetManager(), texture, false);
+		picture.setWidth((right-left) * screenWidth);
+		picture.setHeight((top-bottom) * screenHeight);
+		picture.setPosition(left * screenWidth, bottom * screenHeight);
+		picture.setCullHint(CullHint.Always);
+		sim.getGuiNode().attachChild(picture);
+	}
+	
+	
+	public boolean isVisible()
+	{
+		return visible;
+	}
+	
+	
+	public void setVisible(boolean visible)
+	{
+		if(this.visible == visible)
+			return;
+		
+		this.visible = visible;
+		
+		// do not show an outdated image when the mirror appears again
+		hasContent = false;
+		picture.setCullHint(CullHint.Always);
+	}
+	
+	
+	/**
+	 * Decides whether the mirror will be rendered in the current frame. Must 
+	 * be called on the jME update thread every frame.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 */
+	public void update(float tpf)
+	{
+		if(!visible)
+		{
+			viewPort.setEnabled(false);
+			return;
+		}
+		
+		visibleFrames++;
+		timeSinceRefresh += tpf;
+		
+		// frame buffer has been filled in a previous frame
+		if(hasContent)
+			picture.setCullHint(CullHint.Never);
+		
+		boolean refresh = !hasContent || timeSinceRefresh >= refreshInterval;
+		if(refresh)
+		{
+			// keep the refresh rate, but do not catch up on missed refreshes
+			if(hasContent)
+				timeSinceRefresh = Math.min(timeSinceRefresh - refreshInterval, refreshInterval);
+			else
+				timeSinceRefresh = 0;
+			
+			hasContent = true;
+			renderedFrames++;
+		}
+		
+		viewPort.setEnabled(refresh);
+	}
+	
+	
+	/**
+	 * Statistics as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Resolution, rendered frames and estimated time saved per frame.
+	 */
+	public String getReport()
+	{
+		double meanRenderTime = renderTimeHistogram.getMean() / 1000000d;
+		long skippedFrames = visibleFrames - renderedFrames;
+		double savedPerFrame = (visibleFrames > 0 ? skippedFrames * meanRenderTime / visibleFrames : 0);
+		
+		return "resolution=" + textureWidth + "x" + textureHeight + 
+				", refreshRate=" + (refreshInterval > 0 ? String.valueOf(1f/refreshInterval) + " Hz" : "every frame") + 
+				", rendered=" + renderedFrames + "/" + visibleFrames + " frames" + 
+				", meanPass=" + ((float) meanRenderTime) + " ms" +
+				", p99Pass=" + (renderTimeHistogram.getValueAtPercentile(99) / 1000000f) + " ms" +
+				", savedPerFrame=" + ((float) savedPerFrame) + " ms";
+	}
+	
+	
+	/**
+	 * Measures the duration of the mirror pass.
+	 */
+	private class RenderTimer implements SceneProcessor
+	{
+		private boolean initialized = false;
+		private long startTime;
+		
+		
+		@Override
+		public void initialize(RenderManager rm, ViewPort vp) 
+		{
+			initialized = true;
+		}
+
+		
+		@Override
+		public void reshape(ViewPort vp, int w, int h) 
+		{
+		}
+
+		
+		@Override
+		public boolean isInitialized() 
+		{
+			return initialized;
+		}
+
+		
+		@Override
+		public void preFrame(float tpf) 
+		{
+			startTime = System.nanoTime();
+		}
+
+		
+		@Override
+		public void postQueue(RenderQueue rq) 
+		{
+		}
+
+		
+		@Override
+		public void postFrame(FrameBuffer out) 
+		{
+			renderTimeHistogram.record(System.nanoTime() - startTime);
+		}
+
+		
+		@Override
+		public void cleanup() 
+		{
+			initialized = false;
+		}
+	}
+}
@@ -123,9 +123,11 @@ public class SimulatorCam extends CameraFactory
 	public void updateCamera()
 	{
 		if(camMode == CameraMode.EGO)
-			backViewPort.setEnabled(showBackViewMirror);
+			rearviewMirror.setVisible(showBackViewMirror);
 		else
-			backViewPort.setEnabled(false);
+			rearviewMirror.setVisible(false);
+		
+		rearviewMirror.update(sim.getTimer().getTimePerFrame());
 		
 		if(camMode == CameraMode.TOP && sim.getNumberOfScreens() == 1)
 		{
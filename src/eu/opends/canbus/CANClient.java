@@ -25,14 +25,14 @@ import java.io.*;
 
 //import sun.net.www.protocol.http.HttpURLConnection.TunnelState;
 
-import com.jme3.math.Vector3f;
-
 import eu.opends.car.Car;
 import eu.opends.car.LightTexturesContainer.TurnSignalState;
 import eu.opends.drivingTask.settings.SettingsLoader;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.main.SimulationDefaults;
 import eu.opends.main.Simulator;
+import eu.opends.telemetry.CarSnapshot;
+import eu.opends.telemetry.TelemetrySubscriber;
 
 /**
  * This class represents the connector to the CAN-Interface. Steering, gas, brake and 
@@ -49,6 +49,7 @@ public class CANClient extends Thread
 	private float maxSteeringAngle;	
 	private Simulator sim;
 	private Car car;
+	private TelemetrySubscriber telemetry;
 	private int framerate;
 	private boolean stoprequested;
 	private boolean errorOccurred;
@@ -79,6 +80,7 @@ public class CANClient extends Thread
 		
 		this.sim = sim;
 		this.car = sim.getCar();
+		this.telemetry = sim.getTelemetryBus().subscribe("CANClient");
 		stoprequested = false;
 		errorOccurred = false;
 		steeringAngle = 0.0f;
@@ -184,15 +186,18 @@ public class CANClient extends Thread
 		// if enough time has passed by since last fire, the event will be forwarded
 		if(forwardEvent(currentTime))
 		{
+			// all values are taken from the same physics step
+			CarSnapshot snapshot = telemetry.current();
+			if(snapshot == null)
+				return;
 			
-			float speed = ((float) car.getCurrentSpeedKmhRounded());  // in km/h
-			//float heading = car.getHeadingDegree();       // 0..360 degree
-			Vector3f geoPosition = car.getGeoPosition();
-			float latitude = geoPosition.getX();          // N-S position in model coordinates
-			float longitude = geoPosition.getY();         // W-E position in model coordinates
-			float tspeed = ((float) car.getCurrentSpeedKmh());	//TODO muss noch rausgefunden werden
-			int blk_left = car.getTurnSignal() == TurnSignalState.LEFT || car.getTurnSignal() == TurnSignalState.BOTH ? 1 : 0;
-			int blk_right = car.getTurnSignal() == TurnSignalState.RIGHT || car.getTurnSignal() == TurnSignalState.BOTH ? 1 : 0;
+			float speed = snapshot.getSpeedKmhRounded();  // in km/h
+			//float heading = snapshot.getHeadingDegree();  // 0..360 degree
+			float latitude = snapshot.getLatitude();      // N-S position in model coordinates
+			float longitude = snapshot.getLongitude();    // W-E position in model coordinates
+			float tspeed = snapshot.getSpeedKmh();	//TODO muss noch rausgefunden werden
+			int blk_left = snapshot.isTurnSignalLeft() ? 1 : 0;
+			int blk_right = snapshot.isTurnSignalRight() ? 1 : 0;
 			
 			outputMessage.delete(0, outputMessage.length());
 			try { 	
@@ -18,8 +18,6 @@
 
 package eu.opends.car;
 
-import java.io.File;
-
 import com.jme3.bullet.control.VehicleControl;
 import com.jme3.light.SpotLight;
 import com.jme3.math.ColorRGBA;
@@ -29,6 +27,7 @@ import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
 
 import eu.opends.audio.AudioCenter;
+import eu.opends.car.LightTexturesContainer.LightState;
 import eu.opends.car.LightTexturesContainer.TurnSignalState;
 import eu.opends.environment.GeoPosition;
 import eu.opends.main.Simulator;
@@ -76,6 +75,8 @@ public abstract class Car
     protected SpotLight leftHeadLight;
     protected SpotLight rightHeadLight;
     protected float lightIntensity = 0; //TODO: get value from scenario.xml
+    private ColorRGBA replicatedLightColor = new ColorRGBA();
+    private Vector3f replicatedLightDirection = new Vector3f();
     protected String modelPath = "Test";
 
     
@@ -86,16 +87,12 @@ public abstract class Car
 		mileage = 0;
 		
         // load car model
-		carModel = new CarModelLoader(sim, modelPath, mass);
+		carModel = createCarModel();
 		carControl = carModel.getCarControl();
 		carNode = carModel.getCarNode();
 		
-		// generate path to light textures from model path
-		File modelFile = new File(modelPath);
-		String lightTexturesPath = modelFile.getPath().replace(modelFile.getName(), "lightTextures.xml");
-		
 		// load light textures
-		lightTexturesContainer = new LightTexturesContainer(sim, carNode, lightTexturesPath);
+		lightTexturesContainer = createLightTexturesContainer();
 		//lightTexturesContainer.printAllContent();
 		
         // add car node to rendering node
@@ -116,6 +113,31 @@ public abstract class Car
     }
 	
 	
+	/**
+	 * Loads the model of this car (not shared with other vehicles by default).
+	 * 
+	 * @return
+	 * 			Model with physics control.
+	 */
+	protected CarModelLoader createCarModel()
+	{
+		return new CarModelLoader(sim, modelPath, mass);
+	}
+	
+	
+	/**
+	 * Loads the light textures of this car from the directory of the model.
+	 * 
+	 * @return
+	 * 			Light textures assigned to the car node.
+	 */
+	protected LightTexturesContainer createLightTexturesContainer()
+	{
+		String lightTexturesPath = VehicleTemplate.getLightTexturesPath(modelPath);
+		return new LightTexturesContainer(sim, carNode, lightTexturesPath);
+	}
+	
+	
 	private void setupHeadlight(Simulator sim) 
 	{
 		leftHeadLight = new SpotLight();
@@ -257,8 +279,23 @@ public abstract class Car
 	{
 		return carControl.getPhysicsLocation();
 	}
-	
-	
+
+
+	/**
+	 * Writes the position of the car to the given vector (no allocation).
+	 *
+	 * @param store
+	 * 			Vector to write to.
+	 *
+	 * @return
+	 * 			The given vector.
+	 */
+	public Vector3f getPosition(Vector3f store)
+	{
+		return carControl.getPhysicsLocation(store);
+	}
+
+
 	public Vector3f getGeoPosition() 
 	{
 		return GeoPosition.modelToGeo(getPosition());
@@ -603,6 +640,47 @@ public abstract class Car
 	}
 	
 	
+	/**
+	 * @return state of brake lights and turn signals as currently shown 
+	 * 			(including the blinking phase of the turn signals)
+	 */
+	public LightState getLightTexturesState()
+	{
+		return lightTexturesContainer.getLightState();
+	}
+	
+	
+	/**
+	 * Shows the lights of this car as replicated from a render master (head 
+	 * light intensity, brake lights and turn signals) and moves the head lights
+	 * to the current world pose of the car node. Must be called on the jME 
+	 * update thread after the world transforms have been updated.
+	 * 
+	 * @param lightIntensity
+	 * 			Head light intensity (0: off, 1: low beam, 2: high beam).
+	 * 
+	 * @param lightState
+	 * 			State of brake lights and turn signals.
+	 */
+	public void applyReplicatedLights(int lightIntensity, LightState lightState)
+	{
+		this.lightIntensity = lightIntensity;
+		
+		if(lightState != lightTexturesContainer.getLightState())
+			lightTexturesContainer.setLightState(lightState);
+		
+		replicatedLightColor.set(ColorRGBA.White).multLocal(lightIntensity);
+		
+		leftHeadLight.setColor(replicatedLightColor);
+		leftHeadLight.setPosition(carModel.getLeftLightPosition());
+		leftHeadLight.setDirection(carModel.getLeftLightDirection(replicatedLightDirection));
+		
+		rightHeadLight.setColor(replicatedLightColor);
+		rightHeadLight.setPosition(carModel.getRightLightPosition());
+		rightHeadLight.setDirection(carModel.getRightLightDirection(replicatedLightDirection));
+	}
+	
+	
 	public void close()
 	{
 		lightTexturesContainer.close();
@@ -19,8 +19,10 @@
 package eu.opends.car;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 
 import org.w3c.dom.Document;
@@ -45,7 +47,16 @@ public class LightTexturesContainer
 	private Node carNode;
 	private LightState lightState;
 	private HashMap<LightState,HashMap<Spatial,Material>> lightTexturesContainer;
-	private TurnSignalThread turnSignalThread;
+	
+	// turn signal requested by any thread
+	private volatile TurnSignalState turnSignalState = TurnSignalState.OFF;
+	private volatile boolean closed = false;
+	
+	// turn signal blinking (only accessed by the jME update thread, see TurnSignalCenter)
+	private TurnSignalState activeTurnSignalState = TurnSignalState.OFF;
+	private double turnSignalStartTime;
+	private boolean turnSignalLightOn;
+	private boolean blinking = false;
 	
 	
 	public enum LightState
@@ -61,7 +72,46 @@ public class LightTexturesContainer
 	}
 	
 	
+	/**
+	 * Material of a part of the car (given by its path in the car node) in 
+	 * a light state, as loaded from a light textures file. Materials may be 
+	 * shared by several cars of the same model.
+	 */
+	public static class LightTexture
+	{
+		private String spatialPath;
+		private LightState lightState;
+		private Material material;
+		
+		
+		private LightTexture(String spatialPath, LightState lightState, Material material)
+		{
+			this.spatialPath = spatialPath;
+			this.lightState = lightState;
+			this.material = material;
+		}
+	}
+	
+	
 	public LightTexturesContainer(Simulator sim, Node carNode, String lightTexturesPath) 
+	{
+		this(sim, carNode, loadLightTextures(sim, lightTexturesPath));
+	}
+	
+	
+	/**
+	 * Assigns already loaded light textures to the given car node.
+	 * 
+	 * @param sim
+	 * 			Simulator.
+	 * 
+	 * @param carNode
+	 * 			Car node containing the parts referred to by the light textures.
+	 * 
+	 * @param lightTextureList
+	 * 			Light textures (see {@link #loadLightTextures(Simulator, String)}).
+	 */
+	public LightTexturesContainer(Simulator sim, Node carNode, List<LightTexture> lightTextureList) 
 	{
 		this.sim = sim;
 		this.carNode = carNode;
@@ -71,11 +121,9 @@ public class LightTexturesContainer
 		for(LightState lightState : LightState.values())
 			lightTexturesContainer.put(lightState, new HashMap<Spatial,Material>());
 		
-		// load lights texture file
-		processLightTexturesFile(lightTexturesPath);
-		
-		// init turn signal thread
-		turnSignalThread = new TurnSignalThread(this);
+		// assign textures to parts of this car
+		for(LightTexture lightTexture : lightTextureList)
+			addTexture(lightTexture.spatialPath, lightTexture.lightState, lightTexture.material);
 		
 		// init light state
 		//lightState = LightState.AllOff;
@@ -130,24 +178,23 @@ public class LightTexturesContainer
 	}
 	
 	
+	/**
+	 * Requests the given turn signal state. May be called from any thread; lights 
+	 * will be switched by the {@link TurnSignalCenter} on the next update.
+	 * 
+	 * @param turnSignalState
+	 * 			Turn signal state to set.
+	 */
 	public void setTurnSignal(TurnSignalState turnSignalState)
 	{
-		//start turn signal thread if not running
-		if(!turnSignalThread.isAlive())
-			turnSignalThread.start();
-
-		// set requested turn signal
-		turnSignalThread.setTurnSignalState(turnSignalState);
+		this.turnSignalState = turnSignalState;
+		TurnSignalCenter.requestTurnSignal(this);
 	}
 
 	
 	public TurnSignalState getTurnSignal() 
 	{
-		// if not running
-		if(!turnSignalThread.isAlive())
-			return TurnSignalState.OFF;
-		else
-			return turnSignalThread.getTurnSignalState();
+		return turnSignalState;
 	}
 	
 	
@@ -184,7 +231,98 @@ public class LightTexturesContainer
 	
 	public void close() 
 	{
-		turnSignalThread.requestStop();
+		closed = true;
+		TurnSignalCenter.requestTurnSignal(this);
+	}
+	
+	
+	/**
+	 * Takes over the requested turn signal state and switches the turn signal 
+	 * lights on.
+	 * 
+	 * @param time
+	 * 			Current time of the turn signal clock (in seconds).
+	 * 
+	 * @return
+	 * 			True, if the turn signal lights have to blink from now on.
+	 */
+	boolean startTurnSignal(double time)
+	{
+		if(closed)
+			return false;
+		
+		activeTurnSignalState = turnSignalState;
+		turnSignalStartTime = time;
+		turnSignalLightOn = true;
+		applyTurnSignal(activeTurnSignalState);
+		
+		return (activeTurnSignalState != TurnSignalState.OFF);
+	}
+	
+	
+	/**
+	 * Switches the turn signal lights on in the even and off in the odd 
+	 * intervals since the turn signal has been set.
+	 * 
+	 * @param time
+	 * 			Current time of the turn signal clock (in seconds).
+	 */
+	void updateTurnSignal(double time)
+	{
+		long interval = (long) ((time - turnSignalStartTime) / TurnSignalCenter.LIGHT_CHANGE_INTERVAL);
+		boolean lightOn = (interval % 2 == 0);
+		
+		if(lightOn != turnSignalLightOn)
+		{
+			turnSignalLightOn = lightOn;
+			
+			if(lightOn)
+				applyTurnSignal(activeTurnSignalState);
+			else
+				applyTurnSignal(TurnSignalState.OFF);
+		}
+	}
+	
+	
+	boolean isBlinking()
+	{
+		return blinking;
+	}
+	
+	
+	void setBlinking(boolean blinking)
+	{
+		this.blinking = blinking;
+	}
+	
+	
+	private void applyTurnSignal(TurnSignalState turnSignalState)
+	{
+		LightState targetLightState = null;
+		
+		if(isBrakeLightOn())
+		{
+			switch(turnSignalState)
+			{
+				case LEFT : targetLightState = LightState.LeftTurnBrakeLights; break;
+				case RIGHT : targetLightState = LightState.RightTurnBrakeLights; break;
+				case BOTH : targetLightState = LightState.HazardLightsBrakeLights; break;
+				case OFF : targetLightState = LightState.BrakeLights; break;
+			}
+		}
+		else
+		{
+			switch(turnSignalState)
+			{
+				case LEFT : targetLightState = LightState.LeftTurn; break;
+				case RIGHT : targetLightState = LightState.RightTurn; break;
+				case BOTH : targetLightState = LightState.HazardLights; break;
+				case OFF : targetLightState = LightState.AllOff; break;
+			}
+		}
+		
+		if((targetLightState != null) && (targetLightState != getLightState()))
+			setLightState(targetLightState);
 	}
 	
 	
@@ -204,8 +342,22 @@ public class LightTexturesContainer
 	}
 	
 	
-	private void processLightTexturesFile(String lightTexturesPath) 
+	/**
+	 * Parses the given light textures file and loads all referenced textures.
+	 * 
+	 * @param sim
+	 * 			Simulator providing the asset manager.
+	 * 
+	 * @param lightTexturesPath
+	 * 			Path to the light textures file.
+	 * 
+	 * @return
+	 * 			List of light textures (empty, if file could not be processed).
+	 */
+	public static List<LightTexture> loadLightTextures(Simulator sim, String lightTexturesPath) 
 	{
+		List<LightTexture> lightTextureList = new ArrayList<LightTexture>();
+		
 		File lightTexturesFile = new File(lightTexturesPath);
 		String parentDirectory = lightTexturesFile.getParent();
 
@@ -240,7 +392,11 @@ public class LightTexturesContainer
 									{
 										String textureString = texture.getNodeValue();
 										if(!textureString.isEmpty())
-											addTexture(path, state, parentDirectory + "/" + textureString);
+										{
+											Material material = loadMaterial(sim, parentDirectory + "/" + textureString);
+											if(material != null)
+												lightTextureList.add(new LightTexture(path, state, material));
+										}
 									}
 								}
 							}
@@ -251,15 +407,16 @@ public class LightTexturesContainer
 		} catch (Exception e){
 			System.err.println("Could not process file: " + lightTexturesPath);
 		}
+		
+		return lightTextureList;
 	}
 
 
-	private void addTexture(String spatialPath, LightState lightState, String texturePath)
+	private void addTexture(String spatialPath, LightState lightState, Material material)
 	{
 		Spatial partOfCar = lookupInCarNode(spatialPath);
-		Material material = loadMaterial(texturePath);
 		
-		if(partOfCar != null && material != null)
+		if(partOfCar != null)
 		{
 			//System.err.println("SET: " + spatialPath + " - " + lightState.toString() + " - " + texturePath);
 			
@@ -272,7 +429,7 @@ public class LightTexturesContainer
 	}
 
 
-	private Material loadMaterial(String texturePath)
+	private static Material loadMaterial(Simulator sim, String texturePath)
 	{
 		Material material = null;
 		
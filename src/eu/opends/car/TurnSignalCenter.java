@@ -0,0 +1,86 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.car;
+
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Lets the turn signals of all cars (driving car, traffic and remote drivers) 
+ * blink. The blink phase of each car is derived from a shared clock and the 
+ * time its turn signal has been set, so no thread per car is needed and light 
+ * textures are only changed on the jME update thread.
+ * 
+ * @author agent
+ */
+public class TurnSignalCenter 
+{
+	// interval between switching the turn signal lights on and off (in seconds)
+	public static final double LIGHT_CHANGE_INTERVAL = 0.375;
+	
+	// containers whose turn signal has been set (from any thread) since the last update
+	private static Queue<LightTexturesContainer> requestQueue = new ConcurrentLinkedQueue<LightTexturesContainer>();
+	
+	// containers with an active turn signal (only accessed by the jME update thread)
+	private static ArrayList<LightTexturesContainer> blinkingList = new ArrayList<LightTexturesContainer>();
+	
+	
+	static void requestTurnSignal(LightTexturesContainer lightTexturesContainer)
+	{
+		requestQueue.add(lightTexturesContainer);
+	}
+	
+	
+	/**
+	 * Applies all requested turn signal changes and switches the turn signal 
+	 * lights that are due. Must be called once per frame on the jME update thread.
+	 * 
+	 * @param time
+	 * 			Current time (in seconds) of a clock that advances every frame.
+	 */
+	public static void update(double time)
+	{
+		LightTexturesContainer lightTexturesContainer;
+		while((lightTexturesContainer = requestQueue.poll()) != null)
+		{
+			boolean blinking = lightTexturesContainer.startTurnSignal(time);
+			
+			if(blinking && !lightTexturesContainer.isBlinking())
+				blinkingList.add(lightTexturesContainer);
+			else if(!blinking && lightTexturesContainer.isBlinking())
+				blinkingList.remove(lightTexturesContainer);
+			
+			lightTexturesContainer.setBlinking(blinking);
+		}
+		
+		for(int i=0; i<blinkingList.size(); i++)
+			blinkingList.get(i).updateTurnSignal(time);
+	}
+	
+	
+	/**
+	 * @return number of cars with an active turn signal
+	 */
+	public static int getBlinkingCount()
+	{
+		return blinkingList.size();
+	}
+}
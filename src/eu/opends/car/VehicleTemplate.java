@@ -0,0 +1,443 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.car;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bullet.collision.shapes.CollisionShape;
+import com.jme3.bullet.collision.shapes.CompoundCollisionShape;
+import com.jme3.bullet.util.CollisionShapeFactory;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.queue.RenderQueue.ShadowMode;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.jme3.scene.Spatial.CullHint;
+import com.jme3.scene.shape.Box;
+
+import eu.opends.car.LightTexturesContainer.LightTexture;
+import eu.opends.main.Simulator;
+import eu.opends.tools.Util;
+
+/**
+ * Everything of a vehicle that can be shared between all instances of the same 
+ * model: the prepared scene graph (scaled chassis and wheels, head light 
+ * markers), the values of the properties file, the chassis collision shape, 
+ * the wheel mount points and the light textures. Instances are created by 
+ * {@link CarModelLoader} as clones sharing meshes and materials with the 
+ * template. Templates for traffic vehicles are cached by model path (see 
+ * {@link #getInstance(Simulator, String)}).
+ * 
+ * @author agent
+ */
+public class VehicleTemplate
+{
+	private static HashMap<String, VehicleTemplate> templateCache = new HashMap<String, VehicleTemplate>();
+	private static int cacheRequests = 0;
+	private static int cacheMisses = 0;
+	private static long totalLoadingTime = 0;
+	
+	private CullHint showHeadLightDebugBoxes = CullHint.Always;
+	
+	private String modelPath;
+	private Node model;
+	private Vector3f egoCamPos;
+	private Vector3f staticBackCamPos;
+	private CollisionShape collisionShape;
+	private float suspensionStiffness;
+	private float suspensionCompression;
+	private float suspensionDamping;
+	private float suspensionLength;
+	private float wheelRadius;
+	private float frictionSlip;
+	private List<WheelData> wheelList = new ArrayList<WheelData>();
+	private List<LightTexture> lightTextureList;
+	private int instanceCount = 0;
+	
+	
+	/**
+	 * Mount point of a wheel geometry of the model.
+	 */
+	public static class WheelData
+	{
+		private String geometryName;
+		private Vector3f connectionPoint;
+		private boolean isFrontWheel;
+		
+		
+		private WheelData(String geometryName, Vector3f connectionPoint, boolean isFrontWheel)
+		{
+			this.geometryName = geometryName;
+			this.connectionPoint = connectionPoint;
+			this.isFrontWheel = isFrontWheel;
+		}
+		
+		
+		public String getGeometryName()
+		{
+			return geometryName;
+		}
+		
+		
+		public Vector3f getConnectionPoint()
+		{
+			return connectionPoint;
+		}
+		
+		
+		public boolean isFrontWheel()
+		{
+			return isFrontWheel;
+		}
+	}
+	
+	
+	/**
+	 * Returns the (shared) template of the given model. The model, its 
+	 * properties and light textures will only be loaded on the first request.
+	 * Must be called on the jME update thread.
+	 * 
+	 * @param sim
+	 * 			Simulator providing the asset manager.
+	 * 
+	 * @param modelPath
+	 * 			Path to the model file.
+	 * 
+	 * @return
+	 * 			Template of the model.
+	 */
+	public static synchronized VehicleTemplate getInstance(Simulator sim, String modelPath)
+	{
+		cacheRequests++;
+		
+		VehicleTemplate template = templateCache.get(modelPath);
+		if(template == null)
+		{
+			cacheMisses++;
+			template = new VehicleTemplate(sim, modelPath);
+			templateCache.put(modelPath, template);
+		}
+		return template;
+	}
+	
+	
+	/**
+	 * Releases all cached templates (e.g. at the end of a session).
+	 */
+	public static synchronized void clearCache()
+	{
+		templateCache.clear();
+	}
+	
+	
+	/**
+	 * Cache statistics as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Number of templates, instances and loading time.
+	 */
+	public static synchronized String getReport()
+	{
+		int instances = 0;
+		for(VehicleTemplate template : templateCache.values())
+			instances += template.instanceCount;
+		
+		return "templates=" + templateCache.size() + ", requests=" + cacheRequests + ", misses=" + 
+				cacheMisses + ", instances=" + instances + ", loading time=" + 
+				(totalLoadingTime / 1000000) + " ms";
+	}
+	
+	
+	/**
+	 * Loads the given model and prepares it for instantiation.
+	 * 
+	 * @param sim
+	 * 			Simulator providing the asset manager.
+	 * 
+	 * @param modelPath
+	 * 			Path to the model file.
+	 */
+	public VehicleTemplate(Simulator sim, String modelPath)
+	{
+		long startTime = System.nanoTime();
+		
+		this.modelPath = modelPath;
+		
+		model = (Node)sim.getAssetManager().loadModel(modelPath);
+		
+		// set car's shadow mode
+		model.setShadowMode(ShadowMode.Cast);
+		
+		// load settings from car properties file
+		String propertiesPath = modelPath.replace(".j3o", ".properties");
+		propertiesPath = propertiesPath.replace(".scene", ".properties");
+		Properties properties = (Properties) sim.getAssetManager().loadAsset(propertiesPath);
+		
+		// ego camera properties
+		egoCamPos = getVector3f(properties, "egoCamPos");
+		
+		// static back camera properties
+		staticBackCamPos = getVector3f(properties, "staticBackCamPos");
+		
+		// chassis properties
+		Vector3f chassisScale = getVector3f(properties, "chassisScale");
+		
+		// wheel properties
+		wheelRadius = Float.parseFloat(properties.getProperty("wheelRadius"));
+		frictionSlip = Float.parseFloat(properties.getProperty("wheelFrictionSlip"));
+		
+		// suspension properties
+		suspensionStiffness = Float.parseFloat(properties.getProperty("suspensionStiffness"));
+		suspensionCompression = Float.parseFloat(properties.getProperty("suspensionCompression"));
+		suspensionDamping = Float.parseFloat(properties.getProperty("suspensionDamping"));
+		suspensionLength = Float.parseFloat(properties.getProperty("suspensionLenght"));
+		
+		// wheel position
+		float frontAxlePos = Float.parseFloat(properties.getProperty("frontAxlePos"));
+		float backAxlePos = Float.parseFloat(properties.getProperty("backAxlePos"));
+		float leftWheelsPos = Float.parseFloat(properties.getProperty("leftWheelsPos"));
+		float rightWheelsPos = Float.parseFloat(properties.getProperty("rightWheelsPos"));
+		float frontAxleHeight = Float.parseFloat(properties.getProperty("frontAxleHeight"));
+		float backAxleHeight = Float.parseFloat(properties.getProperty("backAxleHeight"));
+		
+		// setup position and direction of head lights
+		setupHeadLight(sim, properties);
+		
+		// get chassis geometry and corresponding node
+		Geometry chassis = Util.findGeom(model, "Chassis");
+		Node chassisNode = chassis.getParent();
+		
+		// scale chassis
+		for(Geometry geo : Util.getAllGeometries(chassisNode))
+			geo.setLocalScale(chassisScale);
+		
+		// create a collision shape for the largest spatial (= hull) of the chassis
+		Spatial largestSpatial = findLargestSpatial(chassisNode);
+		CollisionShape carHull = CollisionShapeFactory.createDynamicMeshShape(largestSpatial);
+		
+		// add collision shape to compound collision shape in order to 
+		// apply chassis's translation and rotation to collision shape
+		CompoundCollisionShape compoundShape = new CompoundCollisionShape();
+		Vector3f location = chassis.getWorldTranslation();
+		Matrix3f rotation = (new Matrix3f()).set(chassis.getWorldRotation());
+		compoundShape.addChildShape(carHull, location , rotation);
+		collisionShape = compoundShape;
+		
+		// wheels (note that the car actually goes backwards)
+		addWheel("WheelFrontRight", rightWheelsPos, frontAxleHeight, frontAxlePos, true);
+		addWheel("WheelFrontLeft", leftWheelsPos, frontAxleHeight, frontAxlePos, true);
+		addWheel("WheelBackRight", rightWheelsPos, backAxleHeight, backAxlePos, false);
+		addWheel("WheelBackLeft", leftWheelsPos, backAxleHeight, backAxlePos, false);
+		
+		if(properties.getProperty("thirdAxlePos") != null && properties.getProperty("thirdAxleHeight") != null)
+		{
+			float thirdAxlePos = Float.parseFloat(properties.getProperty("thirdAxlePos"));
+			float thirdAxleHeight = Float.parseFloat(properties.getProperty("thirdAxleHeight"));
+			
+			addWheel("WheelBackRight2", rightWheelsPos, thirdAxleHeight, thirdAxlePos, false);
+			addWheel("WheelBackLeft2", leftWheelsPos, thirdAxleHeight, thirdAxlePos, false);
+		}
+		
+		// load light textures (from the directory of the model)
+		lightTextureList = LightTexturesContainer.loadLightTextures(sim, getLightTexturesPath(modelPath));
+		
+		synchronized(VehicleTemplate.class)
+		{
+			totalLoadingTime += System.nanoTime() - startTime;
+		}
+	}
+	
+	
+	/**
+	 * Returns the path of the light textures file belonging to the given model.
+	 * 
+	 * @param modelPath
+	 * 			Path to the model file.
+	 * 
+	 * @return
+	 * 			Path to "lightTextures.xml" in the directory of the model.
+	 */
+	public static String getLightTexturesPath(String modelPath)
+	{
+		File modelFile = new File(modelPath);
+		return modelFile.getPath().replace(modelFile.getName(), "lightTextures.xml");
+	}
+	
+	
+	/**
+	 * Creates a new instance of the prepared model. Meshes and materials are 
+	 * shared with the template, transforms and render states are not.
+	 * 
+	 * @return
+	 * 			Clone of the model (without physics control).
+	 */
+	public Node createModel()
+	{
+		instanceCount++;
+		return (Node) model.clone(false);
+	}
+	
+	
+	public String getModelPath()
+	{
+		return modelPath;
+	}
+	
+	
+	public Vector3f getEgoCamPos()
+	{
+		return egoCamPos;
+	}
+	
+	
+	public Vector3f getStaticBackCamPos()
+	{
+		return staticBackCamPos;
+	}
+	
+	
+	/**
+	 * @return chassis collision shape (shared by all instances, must not be modified)
+	 */
+	public CollisionShape getCollisionShape()
+	{
+		return collisionShape;
+	}
+	
+	
+	public float getSuspensionStiffness()
+	{
+		return suspensionStiffness;
+	}
+	
+	
+	public float getSuspensionCompression()
+	{
+		return suspensionCompression;
+	}
+	
+	
+	public float getSuspensionDamping()
+	{
+		return suspensionDamping;
+	}
+	
+	
+	public float getSuspensionLength()
+	{
+		return suspensionLength;
+	}
+	
+	
+	public float getWheelRadius()
+	{
+		return wheelRadius;
+	}
+	
+	
+	public float getFrictionSlip()
+	{
+		return frictionSlip;
+	}
+	
+	
+	public List<WheelData> getWheelList()
+	{
+		return wheelList;
+	}
+	
+	
+	public List<LightTexture> getLightTextureList()
+	{
+		return lightTextureList;
+	}
+	
+	
+	private void addWheel(String geometryName, float lateralPos, float axleHeight, float axlePos, 
+			boolean isFrontWheel)
+	{
+		Geometry wheel = Util.findGeom(model, geometryName);
+		wheel.setLocalScale(wheelRadius*2);
+		wheel.center();
+		BoundingBox box = (BoundingBox) wheel.getModelBound();
+		Vector3f connectionPoint = box.getCenter().add(lateralPos, axleHeight, axlePos);
+		wheelList.add(new WheelData(geometryName, connectionPoint, isFrontWheel));
+	}
+	
+	
+	private Spatial findLargestSpatial(Node chassisNode) 
+	{
+		// if no child larger than chassisNode available, return chassisNode
+		Spatial largestSpatial = chassisNode;
+		int vertexCount = 0;
+		
+		for(Spatial n : chassisNode.getChildren())
+		{
+			if(n.getVertexCount() > vertexCount)
+			{
+				largestSpatial = n;
+				vertexCount = n.getVertexCount();
+			}
+		}
+		
+		return largestSpatial;
+	}
+	
+	
+	private void setupHeadLight(Simulator sim, Properties properties) 
+	{
+		// nodes representing position and target position of both head lights
+		addLightMarker(sim, "leftLightBox", getVector3f(properties, "leftHeadlightPos"), ColorRGBA.Red);
+		addLightMarker(sim, "leftLightTargetBox", getVector3f(properties, "leftHeadlightTarget"), ColorRGBA.Red);
+		addLightMarker(sim, "rightLightBox", getVector3f(properties, "rightHeadlightPos"), ColorRGBA.Green);
+		addLightMarker(sim, "rightLightTargetBox", getVector3f(properties, "rightHeadlightTarget"), ColorRGBA.Green);
+	}
+	
+	
+	private void addLightMarker(Simulator sim, String name, Vector3f position, ColorRGBA color)
+	{
+		Box box = new Box(new Vector3f(0, 0, 0), 0.01f, 0.01f, 0.01f);
+		Geometry geometry = new Geometry(name, box);
+		geometry.setLocalTranslation(position);
+		Material material = new Material(sim.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
+		material.setColor("Color", color);
+		geometry.setMaterial(material);
+		Node node = new Node();
+		node.attachChild(geometry);
+		node.setCullHint(showHeadLightDebugBoxes);
+		model.attachChild(node);
+	}
+	
+	
+	private Vector3f getVector3f(Properties properties, String key)
+	{
+		float x = Float.parseFloat(properties.getProperty(key + ".x"));
+		float y = Float.parseFloat(properties.getProperty(key + ".y"));
+		float z = Float.parseFloat(properties.getProperty(key + ".z"));
+		return new Vector3f(x,y,z);
+	}
+}
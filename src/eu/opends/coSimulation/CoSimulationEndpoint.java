@@ -0,0 +1,452 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.coSimulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import com.jme3.math.Vector3f;
+
+import eu.opends.car.Car;
+import eu.opends.drivingTask.settings.SettingsLoader;
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.environment.TrafficLightCenter;
+import eu.opends.environment.TrafficLightCenter.TrafficLightMode;
+import eu.opends.environment.XMLParser;
+import eu.opends.environment.TrafficLightException.InvalidStateCharacterException;
+import eu.opends.main.SimulationDefaults;
+import eu.opends.main.Simulator;
+import eu.opends.tools.Util;
+
+/**
+ * Co-simulation endpoint for an external traffic microsimulator (e.g. SUMO
+ * via an adapter). The external simulator connects via TCP (see 
+ * {@link CoSimulationProtocol}); afterwards both simulators advance in 
+ * lockstep with a fixed step size: at every step boundary of the simulation
+ * time, OpenDS sends the state of its driving car and waits for the batched 
+ * states of all external vehicles and signals of the same step. Step n is 
+ * due at n * step size after connecting; steps that are still due after 
+ * {@link #MAX_STEPS_PER_FRAME} steps in one frame will be skipped, announced 
+ * to the external simulator with the next step and counted in the report.<br>
+ * <br>
+ * The round trip time of every step is written to "coSimulation.txt" in the
+ * output folder; a summary will be logged on shutdown.
+ *
+ * @author agent
+ */
+public class CoSimulationEndpoint extends Thread
+{
+	// maximum number of steps performed within a single frame
+	private static final int MAX_STEPS_PER_FRAME = 10;
+	
+	// lowest frame rate at which no steps will be skipped
+	private static final int MIN_FRAME_RATE = 20;
+	
+	private Simulator sim;
+	private int port;
+	private int stepSizeMs;
+	private float stepSize;
+	private int timeout;
+	private ServerSocket serverSocket;
+	private volatile Socket pendingSocket = null;
+	private volatile boolean stopRequested = false;
+	
+	// only accessed by the jME update thread (socket also read by accepting thread)
+	private volatile Socket socket = null;
+	private DataInputStream in;
+	private DataOutputStream out;
+	private BufferedWriter latencyLog;
+	private HashMap<Integer, ExternalVehicle> vehicleMap = new HashMap<Integer, ExternalVehicle>();
+	private long step = 0;
+	private double simulationTime = 0;
+	private int pendingSkippedSteps = 0;
+	
+	// step latency statistics (ns)
+	private long stepCount = 0;
+	private long totalLatency = 0;
+	private long minLatency = Long.MAX_VALUE;
+	private long maxLatency = 0;
+	private long delayedSteps = 0;
+	private long skippedSteps = 0;
+	
+	
+	public CoSimulationEndpoint(Simulator sim)
+	{
+		super("CoSimulationEndpoint");
+		setDaemon(true);
+		
+		this.sim = sim;
+		
+		SettingsLoader settingsLoader = Simulator.getSettingsLoader();
+		port = settingsLoader.getSetting(Setting.CoSimulation_port, SimulationDefaults.CoSimulation_port);
+		stepSizeMs = settingsLoader.getSetting(Setting.CoSimulation_stepSize, SimulationDefaults.CoSimulation_stepSize);
+		timeout = settingsLoader.getSetting(Setting.CoSimulation_timeout, SimulationDefaults.CoSimulation_timeout);
+		
+		// MAX_STEPS_PER_FRAME steps must cover a frame at MIN_FRAME_RATE
+		int minStepSizeMs = (int) Math.ceil(1000f / (MIN_FRAME_RATE * MAX_STEPS_PER_FRAME));
+		if(stepSizeMs < minStepSizeMs)
+		{
+			System.err.println("Co-simulation step size of " + stepSizeMs + " ms is too small for " + 
+					MAX_STEPS_PER_FRAME + " steps per frame at " + MIN_FRAME_RATE + " fps; using " + 
+					minStepSizeMs + " ms");
+			stepSizeMs = minStepSizeMs;
+		}
+		stepSize = stepSizeMs / 1000f;
+	}
+	
+	
+	/**
+	 * Accepts connections of the external simulator (one at a time).
+	 */
+	@Override
+	public void run()
+	{
+		try {
+			
+			serverSocket = new ServerSocket(port);
+			
+		} catch (IOException e) {
+			System.err.println("Could not open co-simulation port " + port);
+			return;
+		}
+		
+		while(!stopRequested)
+		{
+			try {
+				
+				Socket clientSocket = serverSocket.accept();
+				
+				if(pendingSocket == null && socket == null)
+					pendingSocket = clientSocket;
+				else
+				{
+					System.err.println("Co-simulation: rejected second connection from " + 
+							clientSocket.getRemoteSocketAddress());
+					clientSocket.close();
+				}
+				
+			} catch (IOException e) {
+				
+				if(!stopRequested)
+					System.err.println("CoSimulationEndpoint_run(): " + e.toString());
+			}
+		}
+	}
+	
+	
+	/**
+	 * Performs all co-simulation steps due in this frame and interpolates the
+	 * external vehicles. Must be called on the jME update thread once per frame.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 */
+	public void update(float tpf)
+	{
+		if(socket == null && pendingSocket != null)
+		{
+			connect(pendingSocket);
+			pendingSocket = null;
+		}
+		
+		if(socket != null)
+		{
+			if(!sim.isPause())
+				simulationTime += tpf;
+			
+			try {
+				
+				// lockstep: do not advance further than one step ahead of the external simulator
+				int steps = 0;
+				while(socket != null && simulationTime >= getStepTime(step) && steps < MAX_STEPS_PER_FRAME)
+				{
+					doStep();
+					steps++;
+				}
+				
+				// do not try to catch up after long frames: skip all steps still due 
+				// (the external simulator will be told with the next step)
+				if(socket != null && simulationTime >= getStepTime(step))
+				{
+					long lastDueStep = (long) Math.floor(simulationTime * 1000 / stepSizeMs);
+					int skipped = (int) Math.max(1, lastDueStep - step + 1);
+					step += skipped;
+					pendingSkippedSteps += skipped;
+					skippedSteps += skipped;
+				}
+				
+			} catch (IOException e) {
+				
+				System.err.println("Co-simulation step " + step + " failed: " + e.toString());
+				disconnect();
+			}
+		}
+		
+		for(ExternalVehicle vehicle : vehicleMap.values())
+			vehicle.update(tpf);
+	}
+
+
+	private void connect(Socket clientSocket)
+	{
+		try {
+			
+			clientSocket.setTcpNoDelay(true);
+			clientSocket.setSoTimeout(timeout);
+			in = new DataInputStream(new BufferedInputStream(clientSocket.getInputStream()));
+			out = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+			
+			CoSimulationProtocol.writeHello(out, stepSizeMs);
+			CoSimulationProtocol.readHello(in);
+			
+			socket = clientSocket;
+			step = 0;
+			simulationTime = 0;
+			pendingSkippedSteps = 0;
+			openLatencyLog();
+			
+			System.out.println("Co-simulation connected: " + clientSocket.getRemoteSocketAddress() + 
+					" (step size: " + stepSizeMs + " ms)");
+			
+		} catch (IOException e) {
+			
+			System.err.println("Co-simulation handshake failed: " + e.toString());
+			try {
+				clientSocket.close();
+			} catch (IOException e2) {
+			}
+		}
+	}
+
+
+	private void doStep() throws IOException
+	{
+		long startTime = System.nanoTime();
+		
+		// send state of all vehicles controlled by OpenDS (in one batch)
+		Car car = sim.getCar();
+		Vector3f position = car.getPosition();
+		float yaw = car.getRotation().toAngles(null)[1];
+		
+		out.writeByte(CoSimulationProtocol.TYPE_STEP);
+		out.writeLong(step);
+		out.writeInt(pendingSkippedSteps);
+		out.writeFloat((float) getStepTime(step));
+		out.writeShort(1);
+		CoSimulationProtocol.writeVehicle(out, new VehicleState(0, position.getX(), position.getY(), 
+				position.getZ(), yaw, car.getCurrentSpeedMs()));
+		out.flush();
+		pendingSkippedSteps = 0;
+		
+		// wait for result of the same step
+		byte type = in.readByte();
+		if(type == CoSimulationProtocol.TYPE_CLOSE)
+		{
+			System.out.println("Co-simulation closed by external simulator");
+			disconnect();
+			return;
+		}
+		else if(type != CoSimulationProtocol.TYPE_RESULT)
+			throw new IOException("Unexpected message type " + type);
+		
+		long resultStep = in.readLong();
+		if(resultStep != step)
+			throw new IOException("Out of step (expected " + step + ", received " + resultStep + ")");
+		
+		int numberOfVehicles = in.readUnsignedShort();
+		for(int i=0; i<numberOfVehicles; i++)
+		{
+			VehicleState state = CoSimulationProtocol.readVehicle(in);
+			ExternalVehicle vehicle = vehicleMap.get(state.getID());
+			if(vehicle == null)
+			{
+				vehicle = new ExternalVehicle(sim, state, stepSize);
+				vehicleMap.put(state.getID(), vehicle);
+			}
+			vehicle.setState(state, step);
+		}
+		
+		// remove vehicles not reported in this step
+		Iterator<ExternalVehicle> iterator = vehicleMap.values().iterator();
+		while(iterator.hasNext())
+		{
+			ExternalVehicle vehicle = iterator.next();
+			if(vehicle.getLastStep() != step)
+			{
+				vehicle.close();
+				iterator.remove();
+			}
+		}
+		
+		int numberOfSignals = in.readUnsignedShort();
+		for(int i=0; i<numberOfSignals; i++)
+		{
+			String intersectionID = in.readUTF();
+			String stateString = in.readUTF();
+			
+			// signals are controlled by the external simulator
+			if(TrafficLightCenter.getMode() != TrafficLightMode.EXTERNAL)
+				TrafficLightCenter.setMode(TrafficLightMode.EXTERNAL);
+			
+			try {
+				XMLParser.applySUMOStateString(intersectionID, stateString);
+			} catch (InvalidStateCharacterException e) {
+				System.err.println("Co-simulation: invalid signal state '" + stateString + "' at " + intersectionID);
+			}
+		}
+		
+		long latency = System.nanoTime() - startTime;
+		registerLatency(latency, numberOfVehicles, numberOfSignals);
+		
+		step++;
+	}
+
+
+	/**
+	 * @return
+	 * 			Simulation time (s since connecting) at which the given step is due.
+	 */
+	private double getStepTime(long step)
+	{
+		return step * stepSizeMs / 1000d;
+	}
+	
+	
+	private void registerLatency(long latency, int numberOfVehicles, int numberOfSignals)
+	{
+		stepCount++;
+		totalLatency += latency;
+		minLatency = Math.min(minLatency, latency);
+		maxLatency = Math.max(maxLatency, latency);
+		
+		// external simulator cannot keep up with real time
+		if(latency > stepSizeMs * 1000000L)
+			delayedSteps++;
+		
+		if(latencyLog != null)
+		{
+			try {
+				
+				latencyLog.write(step + ";" + (float) getStepTime(step) + ";" + (latency / 1000000f) + ";" + 
+						numberOfVehicles + ";" + numberOfSignals);
+				latencyLog.newLine();
+				
+			} catch (IOException e) {
+				System.err.println("Could not write co-simulation log: " + e.toString());
+				latencyLog = null;
+			}
+		}
+	}
+
+
+	private void openLatencyLog()
+	{
+		String outputFolder = Simulator.getOutputFolder();
+		Util.makeDirectory(outputFolder);
+		
+		try {
+			
+			latencyLog = new BufferedWriter(new FileWriter(new File(outputFolder, "coSimulation.txt"), true));
+			latencyLog.write("step;simulationTime (s);latency (ms);vehicles;signals");
+			latencyLog.newLine();
+			
+		} catch (IOException e) {
+			System.err.println("Could not open co-simulation log: " + e.toString());
+		}
+	}
+
+
+	private void disconnect()
+	{
+		try {
+			
+			if(socket != null && !socket.isClosed())
+			{
+				out.writeByte(CoSimulationProtocol.TYPE_CLOSE);
+				out.flush();
+			}
+			
+		} catch (IOException e) {
+		}
+		
+		try {
+			
+			if(socket != null)
+				socket.close();
+			
+			if(latencyLog != null)
+				latencyLog.close();
+			
+		} catch (IOException e) {
+		}
+		
+		socket = null;
+		latencyLog = null;
+		
+		for(ExternalVehicle vehicle : vehicleMap.values())
+			vehicle.close();
+		vehicleMap.clear();
+	}
+	
+	
+	/**
+	 * Step latency statistics as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Number of performed and skipped steps, min/avg/max round trip time.
+	 */
+	public String getReport()
+	{
+		if(stepCount == 0)
+			return "no steps performed";
+		
+		return "steps=" + stepCount + ", stepSize=" + stepSizeMs + " ms, minLatency=" + (minLatency / 1000000f) + 
+				" ms, avgLatency=" + ((totalLatency / stepCount) / 1000000f) + " ms, maxLatency=" + 
+				(maxLatency / 1000000f) + " ms, stepsExceedingStepSize=" + delayedSteps + 
+				", skippedSteps=" + skippedSteps;
+	}
+	
+	
+	/**
+	 * Closes the connection to the external simulator. Must be called on the 
+	 * jME update thread.
+	 */
+	public void close()
+	{
+		stopRequested = true;
+		
+		disconnect();
+		
+		try {
+			if(serverSocket != null)
+				serverSocket.close();
+		} catch (IOException e) {
+		}
+	}
+}
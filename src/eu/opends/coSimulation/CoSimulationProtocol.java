@@ -0,0 +1,121 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.coSimulation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary protocol between OpenDS (server) and an external traffic simulator
+ * (client), sent over a TCP connection in network byte order. Both simulators
+ * advance in lockstep: OpenDS sends one STEP message per step and does not 
+ * continue before the corresponding RESULT has been received.
+ * <pre>
+ * HELLO   (both directions, once after connecting)
+ *         int magic ("ODCS"), short version, int step size (ms)
+ *         
+ * STEP    (OpenDS to external simulator)
+ *         byte type, long step number, int number of steps skipped since 
+ *         the previous STEP (the external simulator has to advance by this 
+ *         number + 1 steps), float simulation time (s, step number * step 
+ *         size), short number of vehicles controlled by OpenDS, followed by the
+ *         vehicle states
+ *         
+ * RESULT  (external simulator to OpenDS)
+ *         byte type, long step number (same as in STEP),
+ *         short number of external vehicles, followed by the vehicle states
+ *         (vehicles not contained will be removed),
+ *         short number of signal states, each: intersection ID (UTF) and 
+ *         SUMO state string (UTF), e.g. "01", "rrGGyyrr"
+ *         
+ * CLOSE   (both directions) byte type
+ * 
+ * vehicle state: int ID, float x, y, z (OpenDS world coordinates), 
+ *         float yaw (rad, rotation around y axis), float speed (m/s)
+ * </pre>
+ *
+ * @author agent
+ */
+public class CoSimulationProtocol
+{
+	public static final int MAGIC = 0x4F444353; // "ODCS"
+	public static final short PROTOCOL_VERSION = 2;
+	
+	public static final byte TYPE_STEP = 1;
+	public static final byte TYPE_RESULT = 2;
+	public static final byte TYPE_CLOSE = 3;
+	
+	
+	public static void writeHello(DataOutputStream out, int stepSize) throws IOException
+	{
+		out.writeInt(MAGIC);
+		out.writeShort(PROTOCOL_VERSION);
+		out.writeInt(stepSize);
+		out.flush();
+	}
+	
+	
+	/**
+	 * Reads and validates the HELLO message of the remote side.
+	 * 
+	 * @param in
+	 * 			Input stream of the connection.
+	 * 
+	 * @return
+	 * 			Step size (ms) sent by the remote side.
+	 * 
+	 * @throws IOException
+	 * 			if the remote side does not speak this protocol.
+	 */
+	public static int readHello(DataInputStream in) throws IOException
+	{
+		if(in.readInt() != MAGIC)
+			throw new IOException("Invalid co-simulation handshake");
+		
+		short version = in.readShort();
+		if(version != PROTOCOL_VERSION)
+			throw new IOException("Unsupported co-simulation protocol version: " + version);
+		
+		return in.readInt();
+	}
+	
+	
+	public static void writeVehicle(DataOutputStream out, VehicleState vehicle) throws IOException
+	{
+		out.writeInt(vehicle.getID());
+		out.writeFloat(vehicle.getX());
+		out.writeFloat(vehicle.getY());
+		out.writeFloat(vehicle.getZ());
+		out.writeFloat(vehicle.getYaw());
+		out.writeFloat(vehicle.getSpeed());
+	}
+	
+	
+	public static VehicleState readVehicle(DataInputStream in) throws IOException
+	{
+		int id = in.readInt();
+		float x = in.readFloat();
+		float y = in.readFloat();
+		float z = in.readFloat();
+		float yaw = in.readFloat();
+		float speed = in.readFloat();
+		return new VehicleState(id, x, y, z, yaw, speed);
+	}
+}
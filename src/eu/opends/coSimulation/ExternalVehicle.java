@@ -0,0 +1,150 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.coSimulation;
+
+import com.jme3.bullet.control.RigidBodyControl;
+import com.jme3.bullet.control.VehicleControl;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+
+import eu.opends.car.CarModelLoader;
+import eu.opends.drivingTask.scenario.ScenarioLoader;
+import eu.opends.main.Simulator;
+
+/**
+ * Vehicle controlled by the external traffic simulator. The vehicle is moved
+ * kinematically: between two step results, its pose will be interpolated from
+ * the previous to the latest reported state (i.e. the vehicle is displayed 
+ * one step behind the external simulation).
+ *
+ * @author agent
+ */
+public class ExternalVehicle
+{
+	private Simulator sim;
+	private int id;
+	private Node carNode;
+	private RigidBodyControl proxyControl;
+	private float stepSize;
+	private float elapsedTime = 0;
+	private long lastStep = -1;
+	
+	private Vector3f previousPosition = new Vector3f();
+	private Vector3f targetPosition = new Vector3f();
+	private Quaternion previousRotation = new Quaternion();
+	private Quaternion targetRotation = new Quaternion();
+	private Vector3f displayedPosition = new Vector3f();
+	private Quaternion displayedRotation = new Quaternion();
+	
+	
+	public ExternalVehicle(Simulator sim, VehicleState state, float stepSize)
+	{
+		this.sim = sim;
+		this.id = state.getID();
+		this.stepSize = stepSize;
+		
+		ScenarioLoader scenarioLoader = Simulator.getDrivingTask().getScenarioLoader();
+		float mass = scenarioLoader.getChassisMass();
+		CarModelLoader carModel = new CarModelLoader(sim, scenarioLoader.getModelPath(), mass);
+		carNode = carModel.getCarNode();
+		carNode.setName("ExternalVehicle_" + id);
+		
+		// replace vehicle physics by a kinematic body following the node
+		VehicleControl vehicleControl = carModel.getCarControl();
+		carNode.removeControl(vehicleControl);
+		proxyControl = new RigidBodyControl(vehicleControl.getCollisionShape(), mass);
+		proxyControl.setKinematic(true);
+		carNode.addControl(proxyControl);
+		
+		// start at the first reported state
+		targetPosition.set(state.getX(), state.getY(), state.getZ());
+		targetRotation.fromAngles(0, state.getYaw(), 0);
+		previousPosition.set(targetPosition);
+		previousRotation.set(targetRotation);
+		
+		sim.getRootNode().attachChild(carNode);
+		sim.getPhysicsSpace().add(proxyControl);
+		
+		update(0);
+	}
+	
+	
+	public int getID()
+	{
+		return id;
+	}
+	
+	
+	/**
+	 * @return number of the step the vehicle has been reported last
+	 */
+	public long getLastStep()
+	{
+		return lastStep;
+	}
+	
+	
+	/**
+	 * Sets the state reported in the given step as new interpolation target.
+	 * 
+	 * @param state
+	 * 			Vehicle state of the external simulator.
+	 * 
+	 * @param step
+	 * 			Number of the current step.
+	 */
+	public void setState(VehicleState state, long step)
+	{
+		previousPosition.set(displayedPosition);
+		previousRotation.set(displayedRotation);
+		targetPosition.set(state.getX(), state.getY(), state.getZ());
+		targetRotation.fromAngles(0, state.getYaw(), 0);
+		elapsedTime = 0;
+		lastStep = step;
+	}
+	
+	
+	/**
+	 * Interpolates the pose between previous and latest state. Must be called
+	 * on the jME update thread once per frame.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 */
+	public void update(float tpf)
+	{
+		elapsedTime += tpf;
+		float blendFactor = (stepSize > 0) ? FastMath.clamp(elapsedTime / stepSize, 0, 1) : 1;
+		
+		displayedPosition.interpolateLocal(previousPosition, targetPosition, blendFactor);
+		displayedRotation.slerp(previousRotation, targetRotation, blendFactor);
+		
+		carNode.setLocalTranslation(displayedPosition);
+		carNode.setLocalRotation(displayedRotation);
+	}
+	
+	
+	public void close()
+	{
+		sim.getPhysicsSpace().remove(proxyControl);
+		carNode.removeFromParent();
+	}
+}
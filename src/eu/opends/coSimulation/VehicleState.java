@@ -0,0 +1,85 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.coSimulation;
+
+/**
+ * Immutable state of one vehicle exchanged with the external simulator.
+ *
+ * @author agent
+ */
+public class VehicleState
+{
+	private final int id;
+	private final float x, y, z;
+	private final float yaw;
+	private final float speed;
+	
+	
+	public VehicleState(int id, float x, float y, float z, float yaw, float speed)
+	{
+		this.id = id;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.yaw = yaw;
+		this.speed = speed;
+	}
+
+
+	public int getID() 
+	{
+		return id;
+	}
+
+
+	public float getX() 
+	{
+		return x;
+	}
+
+
+	public float getY() 
+	{
+		return y;
+	}
+
+
+	public float getZ() 
+	{
+		return z;
+	}
+
+
+	/**
+	 * @return rotation around the y axis (in radians)
+	 */
+	public float getYaw() 
+	{
+		return yaw;
+	}
+
+
+	/**
+	 * @return speed in m/s
+	 */
+	public float getSpeed() 
+	{
+		return speed;
+	}
+}
@@ -25,6 +25,7 @@ import eu.opends.drivingTask.interaction.InteractionLoader;
 import eu.opends.drivingTask.scenario.ScenarioLoader;
 import eu.opends.drivingTask.scene.SceneLoader;
 import eu.opends.drivingTask.settings.SettingsLoader;
+import eu.opends.tools.StartupProfiler;
 
 
 /**
@@ -82,7 +83,10 @@ public class DrivingTask
 		this.drivingTaskFileName = xmlfile.getName();
 		this.drivingTaskPath = xmlfile.getPath();
 			
+		StartupProfiler profiler = SimulationBasics.getStartupProfiler();
+		
 		// init Driving Task Data Query
+		profiler.begin("Parse and validate");
 		dtData = new DrivingTaskDataQuery(drivingTaskPath);
 		if(!dtData.isValidDrivingTask())
 		{
@@ -90,11 +94,23 @@ public class DrivingTask
 					drivingTaskFileName + "\nExit simulator");
 			sim.stop();
 		}			
+		profiler.end();
 		
+		profiler.begin("Scene loader");
 		sceneLoader = new SceneLoader(dtData, sim);
+		profiler.end();
+		
+		profiler.begin("Scenario loader");
 		scenarioLoader = new ScenarioLoader(dtData, sim, this);
+		profiler.end();
+		
+		profiler.begin("Interaction loader");
 		interactionLoader = new InteractionLoader(dtData, sim);
+		profiler.end();
+		
+		profiler.begin("Settings loader");
 		settingsLoader = new SettingsLoader(dtData);
+		profiler.end();
 	}
 	
 	
@@ -0,0 +1,175 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.drivingTask.interaction;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import eu.opends.basics.SimulationBasics;
+import eu.opends.trigger.TriggerAction;
+
+/**
+ * Registry of all trigger actions provided by {@link InteractionMethods}. Action 
+ * methods are looked up once by their {@link Action} annotation and invoked on a 
+ * shared instance, hence loading an interaction layer does not need any further 
+ * reflective look-ups. The parameters given to an action in the driving task can 
+ * be validated against the parameters declared by the annotation at load time.
+ * 
+ * @author agent
+ */
+public class ActionRegistry 
+{
+	private static final Class<?>[] PARAMETER_TYPES = new Class<?>[] 
+			{SimulationBasics.class, Float.TYPE, Integer.TYPE, Properties.class};
+	
+	private static ActionRegistry instance;
+	
+	private InteractionMethods interactionMethods = new InteractionMethods();
+	private Map<String,Method> actionMethodMap = new HashMap<String,Method>();
+	private Map<String,Set<String>> actionParameterMap = new HashMap<String,Set<String>>();
+	
+	
+	/**
+	 * Returns the registry (will be set up on first call).
+	 * 
+	 * @return
+	 * 			Action registry.
+	 */
+	public static synchronized ActionRegistry getInstance()
+	{
+		if(instance == null)
+			instance = new ActionRegistry();
+		
+		return instance;
+	}
+	
+	
+	private ActionRegistry()
+	{
+		for(Method method : InteractionMethods.class.getMethods())
+		{
+			Action action = method.getAnnotation(Action.class);
+			if(action == null)
+				continue;
+			
+			if(!Arrays.equals(method.getParameterTypes(), PARAMETER_TYPES) || 
+					!TriggerAction.class.isAssignableFrom(method.getReturnType()))
+			{
+				System.err.println("ActionRegistry: method '" + method.getName() + 
+						"' does not match the signature of an action");
+				continue;
+			}
+			
+			Set<String> parameterNames = new HashSet<String>();
+			for(Parameter parameter : action.param())
+				parameterNames.add(parameter.name());
+			
+			// actions are referred to by method name in the driving task
+			actionMethodMap.put(method.getName(), method);
+			actionParameterMap.put(method.getName(), parameterNames);
+		}
+	}
+	
+	
+	/**
+	 * Checks whether the given action exists and whether all given parameters 
+	 * are declared by this action. Unknown actions will be reported as error, 
+	 * unknown parameters as warning.
+	 * 
+	 * @param actionDescription
+	 * 			Action as read from the driving task.
+	 * 
+	 * @param activityName
+	 * 			Activity containing the action (for error output).
+	 * 
+	 * @return
+	 * 			True, if the action exists.
+	 */
+	public boolean validate(ActionDescription actionDescription, String activityName)
+	{
+		String name = actionDescription.getName();
+		
+		Set<String> parameterNames = actionParameterMap.get(name);
+		if(parameterNames == null)
+		{
+			System.err.println("Error in activity '" + activityName + "': action \"" + name + 
+					"\" does not exist");
+			return false;
+		}
+		
+		for(String parameterName : actionDescription.getParameterList().stringPropertyNames())
+		{
+			if(!parameterNames.contains(parameterName))
+				System.err.println("Warning in action \"" + name + "\" (activity '" + activityName + 
+						"'): unknown parameter \"" + parameterName + "\" will be ignored");
+		}
+		
+		return true;
+	}
+	
+	
+	/**
+	 * Creates a new trigger action from the given description.
+	 * 
+	 * @param sim
+	 * 			Simulator.
+	 * 
+	 * @param actionDescription
+	 * 			Action as read from the driving task.
+	 * 
+	 * @return
+	 * 			New trigger action or null, if the action does not exist or its 
+	 * 			parameters are invalid.
+	 */
+	public TriggerAction createTriggerAction(SimulationBasics sim, ActionDescription actionDescription)
+	{
+		Method method = actionMethodMap.get(actionDescription.getName());
+		if(method == null)
+			return null;
+		
+		try {
+
+			return (TriggerAction) method.invoke(interactionMethods, sim, actionDescription.getDelay(), 
+					actionDescription.getRepeat(), actionDescription.getParameterList());
+			
+		} catch (InvocationTargetException e) {
+			e.getCause().printStackTrace();
+		} catch (IllegalAccessException e) {
+			e.printStackTrace();
+		}
+		
+		return null;
+	}
+	
+	
+	/**
+	 * @return names of all available actions
+	 */
+	public Set<String> getActionNames()
+	{
+		return actionMethodMap.keySet();
+	}
+}
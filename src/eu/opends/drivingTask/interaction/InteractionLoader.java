@@ -19,7 +19,6 @@
 package eu.opends.drivingTask.interaction;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -52,18 +51,27 @@ public class InteractionLoader
 	private SimulationBasics sim;
 	private Map<String,List<ActionDescription>> activityMap;
 	private List<TriggerDescription> triggerList;
+	private ActionRegistry actionRegistry;
+	private int triggerActionCount = 0;
 	
 	
 	public InteractionLoader(DrivingTaskDataQuery dtData, SimulationBasics sim) 
 	{
+		long startTime = System.currentTimeMillis();
+		
 		this.dtData = dtData;
 		this.sim = sim;
 		this.activityMap = new HashMap<String,List<ActionDescription>>();
 		this.triggerList = new ArrayList<TriggerDescription>();
+		this.actionRegistry = ActionRegistry.getInstance();
 		readActivities();
 		readTriggers();
 		if(sim instanceof Simulator)
 			evaluateTriggers();
+		
+		System.out.println("Interaction layer loaded in " + (System.currentTimeMillis() - startTime) + 
+				" ms (" + activityMap.size() + " activities, " + triggerList.size() + " triggers, " + 
+				triggerActionCount + " actions): " + dtData.getInteractionPath());
 	}
 
 
@@ -158,7 +166,10 @@ public class InteractionLoader
 					}
 				}
 				
-				actionList.add(new ActionDescription(actionName, delay, repeat, parameterList));
+				// unknown actions will be reported and discarded at load time
+				ActionDescription actionDescription = new ActionDescription(actionName, delay, repeat, parameterList);
+				if(actionRegistry.validate(actionDescription, activityName))
+					actionList.add(actionDescription);
 			}
 		}
 		
@@ -319,46 +330,16 @@ public class InteractionLoader
 			List<ActionDescription> actionDescriptionList = activityMap.get(activityRef);
 			for(ActionDescription actionDescription : actionDescriptionList)
 			{
-				TriggerAction triggerAction = createTriggerAction(actionDescription);
+				TriggerAction triggerAction = actionRegistry.createTriggerAction(sim, actionDescription);
 				if(triggerAction != null)
+				{
 					triggerActionList.add(triggerAction);
+					triggerActionCount++;
+				}
 			}
 		}
 		return triggerActionList;
 	}
-    
-	
-	@SuppressWarnings("unchecked")
-	private TriggerAction createTriggerAction(ActionDescription actionDescription) 
-	{
-		String name = actionDescription.getName();
-		float delay = actionDescription.getDelay();
-		int repeat = actionDescription.getRepeat();
-		Properties parameterList = actionDescription.getParameterList();
-
-		TriggerAction triggerAction = null;
-		
-		// reflection to corresponding method
-		try {
-
-			// argument list with corresponding types
-			Object argumentList[] = new Object[] {sim, delay, repeat, parameterList};
-			Class parameterTypes[] = new Class[] {SimulationBasics.class, Float.TYPE, Integer.TYPE, Properties.class};
-			
-			// get method to call
-			Class interactionMethodsClass = Class.forName("eu.opends.drivingTask.interaction.InteractionMethods");
-			Method method = interactionMethodsClass.getMethod(name, parameterTypes);
-			
-			// call method and get return value
-			triggerAction = (TriggerAction) method.invoke(new InteractionMethods(), argumentList);
-
-		} catch (Throwable e) {
-			e.printStackTrace();
-		}
-
-		
-		return triggerAction;
-	}
 
 
 }
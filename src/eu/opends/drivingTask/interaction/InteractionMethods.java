@@ -727,12 +727,16 @@ public class InteractionMethods
 			description = "Sets up a reaction timer (Deprecated)",
 			defaultDelay = 0,
 			defaultRepeat = 0,
-			param = {@Parameter(name="reactionGroup", type="String", defaultValue="timer1", 
+			param = {@Parameter(name="timerID", type="String", defaultValue="timer1", 
+								description="ID of the timer for scheduling the measurement"),
+					 @Parameter(name="reactionGroup", type="String", defaultValue="timer1", 
 								description="ID of the timer for identification in output file"),
 					 @Parameter(name="correctReaction", type="String", defaultValue="C", 
 								description="list of keys triggering the correct reaction"),
 					 @Parameter(name="failureReaction", type="String", defaultValue="F", 
-								description="list of keys triggering the failure reaction")
+								description="list of keys triggering the failure reaction"),
+					 @Parameter(name="comment", type="String", defaultValue="", 
+								description="optional comment")
 					}
 		)
 	public TriggerAction setupReactionTimer(SimulationBasics sim, float delay, int repeat, Properties parameterList)
@@ -789,12 +793,16 @@ public class InteractionMethods
 			description = "Sets up a key reaction timer",
 			defaultDelay = 0,
 			defaultRepeat = 0,
-			param = {@Parameter(name="reactionGroup", type="String", defaultValue="timer1", 
+			param = {@Parameter(name="timerID", type="String", defaultValue="timer1", 
+								description="ID of the timer for scheduling the measurement"),
+					 @Parameter(name="reactionGroup", type="String", defaultValue="timer1", 
 								description="ID of the timer for identification in output file"),
 					 @Parameter(name="correctReaction", type="String", defaultValue="C", 
 								description="list of keys triggering the correct reaction"),
 					 @Parameter(name="failureReaction", type="String", defaultValue="F", 
-								description="list of keys triggering the failure reaction")
+								description="list of keys triggering the failure reaction"),
+					 @Parameter(name="comment", type="String", defaultValue="", 
+								description="optional comment")
 					}
 		)
 	public TriggerAction setupKeyReactionTimer(SimulationBasics sim, float delay, int repeat, Properties parameterList)
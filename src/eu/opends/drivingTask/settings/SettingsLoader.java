@@ -49,6 +49,8 @@ public class SettingsLoader
 		General_rearviewMirrorViewPortRight("settings:general/settings:rearviewMirror/settings:viewPortRight"),
 		General_rearviewMirrorViewPortTop("settings:general/settings:rearviewMirror/settings:viewPortTop"),
 		General_rearviewMirrorViewPortBottom("settings:general/settings:rearviewMirror/settings:viewPortBottom"),
+		General_rearviewMirrorResolution("settings:general/settings:rearviewMirror/settings:resolution"),
+		General_rearviewMirrorRefreshRate("settings:general/settings:rearviewMirror/settings:refreshRate"),
 		General_numberOfScreens("settings:general/settings:numberOfScreens"),
 		General_angleBetweenAdjacentCameras("settings:general/settings:angleBetweenAdjacentCameras"),
 		General_frameOfView("settings:general/settings:frameOfView"),
@@ -74,6 +76,39 @@ public class SettingsLoader
 		CANInterface_port("settings:CANInterface/settings:port"),
 		CANInterface_updateRate("settings:CANInterface/settings:updateRate"),
 		CANInterface_maxSteeringAngle("settings:CANInterface/settings:maxSteeringAngle"),
+		Telemetry_enableConnection("settings:telemetry/settings:enableConnection"),
+		Telemetry_ip("settings:telemetry/settings:ip"),
+		Telemetry_port("settings:telemetry/settings:port"),
+		Telemetry_physicsRate("settings:telemetry/settings:physicsRate"),
+		RenderCluster_mode("settings:renderCluster/settings:mode"),
+		RenderCluster_masterIP("settings:renderCluster/settings:masterIP"),
+		RenderCluster_masterPort("settings:renderCluster/settings:masterPort"),
+		RenderCluster_slaves("settings:renderCluster/settings:slaves"),
+		RenderCluster_slavePort("settings:renderCluster/settings:slavePort"),
+		RenderCluster_numberOfScreens("settings:renderCluster/settings:numberOfScreens"),
+		RenderCluster_screenIndex("settings:renderCluster/settings:screenIndex"),
+		RenderCluster_syncTimeout("settings:renderCluster/settings:syncTimeout"),
+		MultiDriver_enableConnection("settings:multiDriver/settings:enableConnection"),
+		MultiDriver_participantID("settings:multiDriver/settings:participantID"),
+		MultiDriver_authorityID("settings:multiDriver/settings:authorityID"),
+		MultiDriver_port("settings:multiDriver/settings:port"),
+		MultiDriver_peers("settings:multiDriver/settings:peers"),
+		MultiDriver_sendRate("settings:multiDriver/settings:sendRate"),
+		MultiDriver_bandwidthBudget("settings:multiDriver/settings:bandwidthBudget"),
+		MultiDriver_latencyBudget("settings:multiDriver/settings:latencyBudget"),
+		CoSimulation_enableConnection("settings:coSimulation/settings:enableConnection"),
+		CoSimulation_port("settings:coSimulation/settings:port"),
+		CoSimulation_stepSize("settings:coSimulation/settings:stepSize"),
+		CoSimulation_timeout("settings:coSimulation/settings:timeout"),
+		Traffic_senseThreads("settings:traffic/settings:senseThreads"),
+		Traffic_lodRadius("settings:traffic/settings:lodRadius"),
+		Traffic_poolSize("settings:traffic/settings:poolSize"),
+		Traffic_spawnRadiusMin("settings:traffic/settings:spawnRadiusMin"),
+		Traffic_spawnRadiusMax("settings:traffic/settings:spawnRadiusMax"),
+		Traffic_maxHeadLights("settings:traffic/settings:maxHeadLights"),
+		Profiling_enableFrameProfiler("settings:profiling/settings:enableFrameProfiler"),
+		QualityGovernor_enable("settings:qualityGovernor/settings:enable"),
+		QualityGovernor_targetFrameRate("settings:qualityGovernor/settings:targetFrameRate"),
 		VsimrtiServer_startServer("settings:vsimrtiServer/settings:startServer"),
 		VsimrtiServer_port("settings:vsimrtiServer/settings:port"),
 		SettingsControllerServer_startServer("settings:settingsControllerServer/settings:startServer"),
@@ -223,6 +258,11 @@ public class SettingsLoader
 	 */
 	public <T> T getSetting(Setting setting, T defaultValue)
 	{		
+		// settings may be overridden at the command line, e.g. -Dopends.General_showStats=true
+		T overrideValue = getOverrideValue(setting, defaultValue);
+		if(overrideValue != null)
+			return overrideValue;
+		
 		try {
 			
 			Class<T> cast = (Class<T>) defaultValue.getClass();
@@ -241,6 +281,36 @@ public class SettingsLoader
 	}
 	
 	
+	private <T> T getOverrideValue(Setting setting, T defaultValue)
+	{
+		String value = System.getProperty("opends." + setting.toString());
+		if(value == null || defaultValue == null)
+			return null;
+		
+		try {
+			
+			Object returnvalue;
+			if(defaultValue instanceof Integer)
+				returnvalue = Integer.valueOf(value.trim());
+			else if(defaultValue instanceof Float)
+				returnvalue = Float.valueOf(value.trim());
+			else if(defaultValue instanceof Double)
+				returnvalue = Double.valueOf(value.trim());
+			else if(defaultValue instanceof Boolean)
+				returnvalue = Boolean.valueOf(value.trim());
+			else
+				returnvalue = value;
+			
+			return (T) returnvalue;
+			
+		} catch (NumberFormatException e) {
+			System.err.println("Invalid value '" + value + "' for setting " + setting.toString());
+		}
+		
+		return null;
+	}
+	
+	
 	public List<KeyMapping> lookUpKeyMappings(ArrayList<KeyMapping> keyMappingList)
 	{
 		for(KeyMapping keyMapping : keyMappingList)
@@ -39,6 +39,8 @@ public class EffectCenter
 	private boolean isRaining;
 	private boolean isFog;
 	private boolean isBloom;
+	private FogFilter fog;
+	private BloomFilter bloom;
 
 	
 	public EffectCenter(Simulator sim) 
@@ -74,7 +76,7 @@ public class EffectCenter
 		    if(isFog)
 		    {
 		    	float percentage = Math.max(weatherSettings.getFogPercentage(),0);
-			    FogFilter fog = new FogFilter();
+			    fog = new FogFilter();
 		        fog.setFogColor(new ColorRGBA(0.9f, 0.9f, 0.9f, 1.0f));
 		        fog.setFogDistance(155);
 		        fog.setFogDensity(2.0f * (percentage/100f));
@@ -86,7 +88,7 @@ public class EffectCenter
 		    	// ensure any object is set to glow, e.g. car chassis:
 		    	// chassis.getMaterial().setColor("GlowColor", ColorRGBA.Orange);
 		    	
-		    	BloomFilter bloom = new BloomFilter(GlowMode.Objects);
+		    	bloom = new BloomFilter(GlowMode.Objects);
 		    	processor.addFilter(bloom);
 		    }
 		    
@@ -103,5 +105,67 @@ public class EffectCenter
 		if(isRaining)
 			rainParticleEmitter.setLocalTranslation(sim.getCar().getPosition());
 	}
+	
+	
+	/**
+	 * Scales the number of snow and rain particles.
+	 * 
+	 * @param factor
+	 * 			Factor in the range of 0 to 1 (1: as given by the weather settings).
+	 */
+	public void setParticleFactor(float factor)
+	{
+		if(isSnowing)
+			snowParticleEmitter.setIntensityFactor(factor);
+		
+		if(isRaining)
+			rainParticleEmitter.setIntensityFactor(factor);
+	}
+	
+	
+	/**
+	 * @return
+	 * 			True, if fog has been set up and is enabled.
+	 */
+	public boolean isFogEnabled()
+	{
+		return fog != null && fog.isEnabled();
+	}
+	
+	
+	/**
+	 * Enables or disables the fog filter (if fog has been set up).
+	 * 
+	 * @param enabled
+	 * 			False to skip the fog pass.
+	 */
+	public void setFogEnabled(boolean enabled)
+	{
+		if(fog != null)
+			fog.setEnabled(enabled);
+	}
+	
+	
+	/**
+	 * @return
+	 * 			True, if bloom has been set up and is enabled.
+	 */
+	public boolean isBloomEnabled()
+	{
+		return bloom != null && bloom.isEnabled();
+	}
+	
+	
+	/**
+	 * Enables or disables the bloom filter (if bloom has been set up).
+	 * 
+	 * @param enabled
+	 * 			False to skip the bloom pass.
+	 */
+	public void setBloomEnabled(boolean enabled)
+	{
+		if(bloom != null)
+			bloom.setEnabled(enabled);
+	}
 
 }
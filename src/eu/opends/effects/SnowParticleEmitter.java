@@ -45,6 +45,21 @@ public class SnowParticleEmitter extends ParticleEmitter
 	}
 
 	
+	/**
+	 * Scales number and emission rate of the particles (e.g. to reduce 
+	 * rendering costs).
+	 * 
+	 * @param factor
+	 * 			Factor in the range of 0 to 1 (1: as given by the weather settings).
+	 */
+	public void setIntensityFactor(float factor)
+	{
+		factor = Math.max(0, Math.min(factor, 1));
+		this.setNumParticles(Math.max(1, (int) (50 * percentage * factor)));
+		this.setParticlesPerSec(20 * percentage * factor);
+	}
+	
+	
 	private void setupMaterial() 
 	{
 		Material mat_red = new Material(assetManager, "Common/MatDefs/Misc/Particle.j3md");
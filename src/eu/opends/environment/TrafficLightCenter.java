@@ -20,6 +20,7 @@ package eu.opends.environment;
 
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -35,7 +36,8 @@ import eu.opends.visualization.*;
 /**
  * This class represents the management of all traffic lights within a model. It 
  * contains a complete list of all traffic lights and a list of traffic light 
- * programs for each intersection
+ * programs for each intersection. Traffic lights and programs are indexed by 
+ * ID, name, location and intersection when the center is set up.
  * 
  * @author Rafael Math
  */
@@ -55,15 +57,21 @@ public class TrafficLightCenter
 	private static Simulator sim;
 	private static TrafficLightMode mode;
 	private static TrafficLightExternalConnector trafficLightExternalConnector;
-	private static List<TrafficLightInternalProgram> trafficLightProgramList = 
-		new LinkedList<TrafficLightInternalProgram>();
+	private static TrafficLightScheduler trafficLightScheduler = new TrafficLightScheduler();
+	
+	// indices built at setup (null before)
+	private static HashMap<String, TrafficLight> trafficLightByID;
+	private static HashMap<String, TrafficLight> trafficLightByName;
+	private static HashMap<String, TrafficLight> trafficLightByLocation;
+	private static HashMap<String, TrafficLightInternalProgram> programByIntersection = 
+		new HashMap<String, TrafficLightInternalProgram>();
 	
 	
 	/**
 	 * Setup initializes the traffic light center. Traffic light rules will 
 	 * be loaded from a *-tlr.xml file, traffic lights will be loaded from the 
 	 * map model, rules will be attached to traffic lights and traffic light
-	 * programs will be started
+	 * programs will be added to the scheduler
 	 * 
 	 * @param _sim
 	 * 			Simulator for map data
@@ -81,6 +89,9 @@ public class TrafficLightCenter
 		
 		trafficLightsList.addAll(Simulator.getDrivingTask().getScenarioLoader().getTrafficLights());
 		
+		// look-up by name is needed when attaching the rules below
+		buildNameIndices();
+		
 		// set internal traffic light program as default
 		mode = TrafficLightMode.TRIGGER;
 
@@ -117,12 +128,15 @@ public class TrafficLightCenter
 			LinkedList<TrafficLightPhase> currentTrafficLightsPhases = 
 				TrafficLightRules.getTrafficLightPhases(intersectionID);
 
-			// create and start program
+			// create and schedule program
 			TrafficLightInternalProgram trafficLightInternalProgram = 
-				new TrafficLightInternalProgram(sim,intersectionID,trafficLightsList,currentTrafficLightsPhases);
-			trafficLightInternalProgram.start();
-			trafficLightProgramList.add(trafficLightInternalProgram);
-		}	
+				new TrafficLightInternalProgram(intersectionID,trafficLightsList,currentTrafficLightsPhases);
+			trafficLightScheduler.add(trafficLightInternalProgram);
+			programByIntersection.put(intersectionID, trafficLightInternalProgram);
+		}
+		
+		// position data has been attached above
+		buildLocationIndex();
 		
 		// start trafficLight-thread
 		trafficLightExternalConnector = new TrafficLightExternalConnector(sim,2001,2048);
@@ -130,6 +144,17 @@ public class TrafficLightCenter
 	}
 	
 	
+	/**
+	 * Performs all steps of the internal traffic light programs that are due 
+	 * according to the simulation clock. Must be called once per frame on the 
+	 * jME update thread.
+	 */
+	public static void update()
+	{
+		trafficLightScheduler.update(Simulator.getSimulationClock().getTime());
+	}
+	
+	
 	/**
 	 * Evaluates an XML-string containing traffic light circuits from 
 	 * external sources
@@ -160,17 +185,33 @@ public class TrafficLightCenter
 		if((mode == TrafficLightMode.TRIGGER) && (type.equals("TrafficLightTrigger")))
 		{
 			TrafficLight trafficLight = getTrafficLightByName(trafficLightName);
-			for(TrafficLightInternalProgram trafficLightInternalProgram : trafficLightProgramList)
+			if(trafficLight == null)
+				return;
+			
+			TrafficLightInternalProgram trafficLightInternalProgram = 
+				programByIntersection.get(trafficLight.getIntersectionID());
+			if(trafficLightInternalProgram != null)
 			{
-				if(trafficLightInternalProgram.getIntersectionID().equals(trafficLight.getIntersectionID()))
-				{
-					trafficLightInternalProgram.requestGreen(trafficLight);
-				}
+				trafficLightInternalProgram.requestGreen(trafficLight);
+				trafficLightScheduler.wakeUp(trafficLightInternalProgram);
 			}
 		}
 	}
 
 	
+	/**
+	 * Returns the list of all traffic lights (order is the same on every 
+	 * simulator instance loading the same driving task)
+	 * 
+	 * @return
+	 * 			list of all traffic lights
+	 */
+	public static List<TrafficLight> getTrafficLightsList()
+	{
+		return trafficLightsList;
+	}
+	
+	
 	/**
 	 * Returns current mode of traffic light center
 	 * 
@@ -195,6 +236,7 @@ public class TrafficLightCenter
 		{
 			setStateAll(TrafficLightState.OFF);
 			mode = _mode;
+			trafficLightScheduler.wakeUpAll();
 			System.out.println("Switched mode to " + _mode.toString());
 		}
 	}
@@ -236,12 +278,10 @@ public class TrafficLightCenter
 	 */
 	public static TrafficLight getTrafficLightByName(String trafficLightName)
 	{		
-		for(TrafficLight trafficLight : trafficLightsList)
-		{
-			if(trafficLight.getName().equals(trafficLightName))
-				return trafficLight;
-		}
-		return null;
+		if(trafficLightByName == null)
+			return null;
+		
+		return trafficLightByName.get(trafficLightName);
 	}
 	
 	
@@ -257,12 +297,10 @@ public class TrafficLightCenter
 	 */
 	public static TrafficLight getTrafficLightByID(String trafficLightID)
 	{		
-		for(TrafficLight trafficLight : trafficLightsList)
-		{
-			if(trafficLight.getObjectID().equals(trafficLightID))
-				return trafficLight;
-		}
-		return null;
+		if(trafficLightByID == null)
+			return null;
+		
+		return trafficLightByID.get(trafficLightID);
 	}
 	
 	
@@ -285,26 +323,23 @@ public class TrafficLightCenter
 	 */
 	public static TrafficLight getTrafficLightByLocation(String intersectionID, String roadID, int lane) 
 	{
-		try{
-			
-			// go through traffic light list
-			for(TrafficLight trafficLight : trafficLightsList)
-			{
-				if(
-						   trafficLight.getIntersectionID().equals(intersectionID)
-						&& trafficLight.getPositionData().getRoadID().equals(roadID)
-						&& trafficLight.getPositionData().getLane() == lane
-				   )
-					// return traffic light that matches with the given intersectionID, 
-					// roadID and lane
-					return trafficLight;
-			}
-			
-		}catch(NullPointerException e){
+		if(trafficLightByLocation == null)
 			return null;
-		}
 		
-		return null;
+		return trafficLightByLocation.get(getLocationKey(intersectionID, roadID, lane));
+	}
+	
+	
+	/**
+	 * Returns whether the traffic light center has been set up, i.e. whether 
+	 * look-ups are available.
+	 * 
+	 * @return
+	 * 			true, if set up
+	 */
+	public static boolean isInitialized()
+	{
+		return trafficLightByLocation != null;
 	}
 	
 	
@@ -323,13 +358,10 @@ public class TrafficLightCenter
 	public static TrafficLightInternalProgram getInternalProgram(String IntersectionID) 
 			throws NoInternalProgramException
 	{
-		// go through all internal programs (normally one program for each intersection)
-		for(TrafficLightInternalProgram trafficLightInternalProgram : trafficLightProgramList)
-		{
-			// return internal program if it matches the given intersectionID
-			if(trafficLightInternalProgram.getIntersectionID().equals(IntersectionID))
-				return trafficLightInternalProgram;
-		}
+		// normally one program for each intersection
+		TrafficLightInternalProgram trafficLightInternalProgram = programByIntersection.get(IntersectionID);
+		if(trafficLightInternalProgram != null)
+			return trafficLightInternalProgram;
 		
 		// if no internal program found --> throw exception
 		throw new NoInternalProgramException("Traffic light not assigned to any internal program!");
@@ -371,6 +403,62 @@ public class TrafficLightCenter
 	}
 	
 	
+	/**
+	 * Builds the look-up tables by ID and name of all traffic lights. If several 
+	 * traffic lights match the same key, the first one in list order will be 
+	 * returned (as done by a linear search).
+	 */
+	private static void buildNameIndices()
+	{
+		HashMap<String, TrafficLight> byID = new HashMap<String, TrafficLight>();
+		HashMap<String, TrafficLight> byName = new HashMap<String, TrafficLight>();
+		
+		for(TrafficLight trafficLight : trafficLightsList)
+		{
+			if(!byID.containsKey(trafficLight.getObjectID()))
+				byID.put(trafficLight.getObjectID(), trafficLight);
+			
+			if(!byName.containsKey(trafficLight.getName()))
+				byName.put(trafficLight.getName(), trafficLight);
+		}
+		
+		trafficLightByName = byName;
+		trafficLightByID = byID;
+	}
+	
+	
+	/**
+	 * Builds the look-up table by location of all traffic lights. Requires the
+	 * position data to be attached. If several traffic lights match the same 
+	 * location, the first one in list order will be returned.
+	 */
+	private static void buildLocationIndex()
+	{
+		HashMap<String, TrafficLight> byLocation = new HashMap<String, TrafficLight>();
+		
+		for(TrafficLight trafficLight : trafficLightsList)
+		{
+			// traffic lights without position data cannot be looked up by location
+			TrafficLightPositionData positionData = trafficLight.getPositionData();
+			if(positionData != null && trafficLight.getIntersectionID() != null && positionData.getRoadID() != null)
+			{
+				String locationKey = getLocationKey(trafficLight.getIntersectionID(), positionData.getRoadID(), 
+						positionData.getLane());
+				if(!byLocation.containsKey(locationKey))
+					byLocation.put(locationKey, trafficLight);
+			}
+		}
+		
+		trafficLightByLocation = byLocation;
+	}
+	
+	
+	private static String getLocationKey(String intersectionID, String roadID, int lane)
+	{
+		return intersectionID + "|" + roadID + "|" + lane;
+	}
+	
+	
 	/**
 	 * Creates the list of traffic lights from the list of all spatial objects 
 	 * in the model
@@ -436,12 +524,11 @@ public class TrafficLightCenter
 	
 	
 	/**
-	 * Closes all internal threads
+	 * Removes all internal programs and closes the external connector thread
 	 */
 	public static void close()
 	{
-		for(TrafficLightInternalProgram tlip : trafficLightProgramList)
-			tlip.requestStop();
+		trafficLightScheduler.clear();
 		
 		trafficLightExternalConnector.requestStop();
 	}
@@ -18,9 +18,9 @@
 
 package eu.opends.environment;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 
 import eu.opends.basics.SimulationBasics;
 import eu.opends.environment.TrafficLight.*;
@@ -31,27 +31,47 @@ import eu.opends.environment.TrafficLightException.*;
 /**
  * This class represents the internal traffic light program. It provides 
  * rules to switch traffic lights of a specific intersection. Each intersection
- * requires an individual instance which runs as thread. Before a traffic light
+ * requires an individual instance which will be stepped by the 
+ * {@link TrafficLightScheduler} on the jME update thread. Before a traffic light
  * will be switched to green, all traffic lights as given in the *-tlr.xml file 
  * will be switched to red first. If no rules file available, all other traffic 
  * lights will be switched to red. Traffic lights to switch green will be queued 
- * in a list (trafficLightsListForGreen) and be processed every 5 seconds.
+ * in a list (trafficLightsListForGreen) and be processed one after another.
  * 
  * @author Rafael Math
  */
-public class TrafficLightInternalProgram extends Thread
+public class TrafficLightInternalProgram implements Comparable<TrafficLightInternalProgram>
 {
-	private SimulationBasics sim;
-	private boolean stoprequested;
+	/**
+	 * Return value of {@link #step(double)} if the program does not need to be 
+	 * stepped until a green light is requested or the mode changes.
+	 */
+	public static final float NO_FURTHER_STEP = Float.POSITIVE_INFINITY;
+	
+	/**
+	 * Steps of the sequence switching a requested traffic light to green in TRIGGER mode
+	 */
+	private enum TriggerStep
+	{
+		IDLE, INITIAL_RED, SECOND_SHIFT, CHECK_RED, GREEN, RELEASE;
+	}
+	
 	private String intersectionID;
 	private List<TrafficLight> trafficLightsListForGreen = new LinkedList<TrafficLight>();
 	private List<TrafficLight> intersectionTrafficLightsList = new LinkedList<TrafficLight>();
-	private LinkedList<TrafficLightPhase>intersectionPhasesList = new LinkedList<TrafficLightPhase>();
+	private ArrayList<TrafficLightPhase> intersectionPhasesList;
 	private TrafficLightMode previousMode;
 	private TrafficLightPhase phase;
-	private ListIterator<TrafficLightPhase> iterator;
-	private int currentTime;
+	private int phaseIndex;
+	private double phaseExpirationTime;
+	private double remainingPhaseTime;
 	private boolean allTrafficLightsOff;
+	private TriggerStep triggerStep = TriggerStep.IDLE;
+	private TrafficLight trafficLightForGreen;
+	
+	// maintained by the scheduler
+	private double nextStepTime = Double.POSITIVE_INFINITY;
+	private long scheduleSequence;
 
 	
 	/**
@@ -65,24 +85,23 @@ public class TrafficLightInternalProgram extends Thread
 	 * 
 	 * @param allTrafficLightsList
 	 * 			List of all traffic lights in the model
+	 * 
+	 * @param intersectionPhasesList
+	 * 			Phases of the PROGRAM mode (may be null)
 	 */
-	public TrafficLightInternalProgram(SimulationBasics sim, String intersectionID, List<TrafficLight> allTrafficLightsList, 
+	public TrafficLightInternalProgram(String intersectionID, List<TrafficLight> allTrafficLightsList, 
 			LinkedList<TrafficLightPhase> intersectionPhasesList) 
 	{
-		super();
-		this.sim = sim;
 		this.intersectionID = intersectionID;
 		this.intersectionTrafficLightsList = filterTrafficLightsOfIntersection(intersectionID,allTrafficLightsList);
-		this.intersectionPhasesList = intersectionPhasesList;
-		stoprequested = false;
-		currentTime = 0;
 		allTrafficLightsOff = false;
 		
-		if(intersectionPhasesList != null)
+		if(intersectionPhasesList != null && !intersectionPhasesList.isEmpty())
 		{
-			iterator = intersectionPhasesList.listIterator(0);
-			phase = gotoNextPhase();
-			phase.activate(currentTime);
+			this.intersectionPhasesList = new ArrayList<TrafficLightPhase>(intersectionPhasesList);
+			phaseIndex = 0;
+			phase = this.intersectionPhasesList.get(0);
+			remainingPhaseTime = getDuration(phase);
 			if(TrafficLightCenter.getMode() == TrafficLightMode.PROGRAM)
 				setPhaseToTrafficLights();
 		}
@@ -121,36 +140,41 @@ public class TrafficLightInternalProgram extends Thread
 	
 	/**
 	 * This method adds a traffic light to the queue of traffic lights waiting 
-	 * to turn green, if it is not contained yet.
+	 * to turn green, if it is not contained yet. The program has to be woken 
+	 * up by the scheduler afterwards.
 	 * 
 	 * @param trafficLight
 	 * 			Traffic light to be added to the green-light-queue
 	 */
-	public synchronized void requestGreen(TrafficLight trafficLight)
+	public void requestGreen(TrafficLight trafficLight)
 	{
 		if(!trafficLightsListForGreen.contains(trafficLight))
 			trafficLightsListForGreen.add(trafficLight);
 	}
 	
-
+	
 	/**
-	 * Stops the traffic light program by exiting the loop
+	 * Returns the ID of the intersection which has been assigned to this internal program
+	 * 
+	 * @return
+	 * 			intersectionID
 	 */
-	public synchronized void requestStop()
+	public String getIntersectionID()
 	{
-		stoprequested = true;
+		return intersectionID;
 	}
 	
 	
 	/**
-	 * Returns the ID of the intersection which has been assigned to this internal program
+	 * Returns the simulation time of the next scheduled step of this program, 
+	 * i.e. the next time a traffic light of this intersection may be switched.
 	 * 
 	 * @return
-	 * 			intersectionID
+	 * 			Simulation time (in seconds) or infinity, if no step is scheduled
 	 */
-	public synchronized String getIntersectionID()
+	public double getNextSwitchTime()
 	{
-		return intersectionID;
+		return nextStepTime;
 	}
 	
 	
@@ -172,31 +196,26 @@ public class TrafficLightInternalProgram extends Thread
 	 * @throws IsGreenException
 	 * 			If given traffic light has already turned to green
 	 */
-	public synchronized int getRemainingRed(TrafficLight trafficLight) throws NeverGreenException, IsGreenException
+	public int getRemainingRed(TrafficLight trafficLight) throws NeverGreenException, IsGreenException
 	{
 		// if traffic light is green --> exception, since no remaining red
 		if(phase.getState(trafficLight) == TrafficLightState.GREEN)
 			throw new IsGreenException("Traffic light is green");
 		
 		// get remaining time (usually in seconds) for current phase
-		int remainingRed = phase.timeToExpiration(currentTime);
-		
-		// remember start phase to avoid cycles
-		String startPhaseID = phase.getID();
-		
-		// compute next phase
-		TrafficLightPhase nextPhase = getNextPhase(phase);
+		int remainingRed = getRemainingPhaseTime();
 		
 		// go through phases until next green-phase is reached
-		while(nextPhase.getState(trafficLight) != TrafficLightState.GREEN)
+		int nextIndex = getNextPhaseIndex(phaseIndex);
+		while(intersectionPhasesList.get(nextIndex).getState(trafficLight) != TrafficLightState.GREEN)
 		{
 			// if start phase was reached again --> break the cycle, since no green at all
-			if(nextPhase.getID().equals(startPhaseID))
+			if(nextIndex == phaseIndex)
 				throw new NeverGreenException("Traffic light will never be green");
 
 			// add duration of this red-phase and continue with next one
-			remainingRed += nextPhase.getDuration();
-			nextPhase = getNextPhase(nextPhase);
+			remainingRed += getDuration(intersectionPhasesList.get(nextIndex));
+			nextIndex = getNextPhaseIndex(nextIndex);
 		}
 
 		return remainingRed;
@@ -219,31 +238,26 @@ public class TrafficLightInternalProgram extends Thread
 	 * @throws IsNotGreenException
 	 * 			If given traffic light is not green
 	 */
-	public synchronized int getRemainingGreen(TrafficLight trafficLight) throws AlwaysGreenException, IsNotGreenException
+	public int getRemainingGreen(TrafficLight trafficLight) throws AlwaysGreenException, IsNotGreenException
 	{
 		// if traffic light is not green --> exception, since no remaining green
 		if(phase.getState(trafficLight) != TrafficLightState.GREEN)
 			throw new IsNotGreenException("Traffic light is not green");
 		
 		// get remaining time (usually in seconds) for current phase
-		int remainingGreen = phase.timeToExpiration(currentTime);
-		
-		// remember start phase to avoid cycles
-		String startPhaseID = phase.getID();
-		
-		// compute next phase
-		TrafficLightPhase nextPhase = getNextPhase(phase);
+		int remainingGreen = getRemainingPhaseTime();
 		
 		// go through phases until next non-green-phase is reached
-		while(nextPhase.getState(trafficLight) == TrafficLightState.GREEN)
+		int nextIndex = getNextPhaseIndex(phaseIndex);
+		while(intersectionPhasesList.get(nextIndex).getState(trafficLight) == TrafficLightState.GREEN)
 		{
 			// if start phase was reached again --> break the cycle, since all phases are green
-			if(nextPhase.getID().equals(startPhaseID))
+			if(nextIndex == phaseIndex)
 				throw new AlwaysGreenException("Traffic light is always green");
 
 			// add duration of this green-phase and continue with next one
-			remainingGreen += nextPhase.getDuration();
-			nextPhase = getNextPhase(nextPhase);
+			remainingGreen += getDuration(intersectionPhasesList.get(nextIndex));
+			nextIndex = getNextPhaseIndex(nextIndex);
 		}
 		
 		return remainingGreen;
@@ -251,42 +265,50 @@ public class TrafficLightInternalProgram extends Thread
 	
 	
 	/**
-	 * This method contains a loop with the basic rules to switch the traffic lights
-	 * of a certain intersection. Instructions will only be carried out in TRIGGER,
-	 * PROGRAMM or BLINKING mode. Each execution of this loop takes at least 1 second.
+	 * Performs one step of the program according to the current mode. Instructions 
+	 * will only be carried out in TRIGGER, PROGRAM or BLINKING mode. Will be called by 
+	 * the scheduler on the jME update thread when the time returned by the previous 
+	 * step has passed by or when the program has been woken up (green light request, 
+	 * mode change).
+	 * 
+	 * @param time
+	 * 			Simulation time (in seconds) this step was scheduled for.
+	 * 
+	 * @return
+	 * 			Seconds until the next step or {@link #NO_FURTHER_STEP}.
 	 */
-	@Override
-	public void run() 
-	{		
-		while (!stoprequested) 
+	float step(double time) 
+	{
+		TrafficLightMode currentMode = TrafficLightCenter.getMode();
+		
+		// if PROGRAM mode is left --> freeze current phase
+		if(previousMode == TrafficLightMode.PROGRAM && currentMode != TrafficLightMode.PROGRAM)
+			remainingPhaseTime = Math.max(0, phaseExpirationTime - time);
+		
+		// if TRIGGER mode is left --> abort pending green light sequence
+		if(currentMode != TrafficLightMode.TRIGGER)
 		{
-			TrafficLightMode currentMode = TrafficLightCenter.getMode();
-
-			if(!sim.isPause())
-			{
-				if(currentMode == TrafficLightMode.TRIGGER)
-					runTriggerMode();
-	
-				else if(currentMode == TrafficLightMode.BLINKING)
-					runBlinkingMode();
-				
-				else if(currentMode == TrafficLightMode.PROGRAM)
-					runProgramMode();
-			}
+			triggerStep = TriggerStep.IDLE;
+			trafficLightForGreen = null;
+		}
+		
+		float delay = NO_FURTHER_STEP;
+		
+		if(currentMode == TrafficLightMode.TRIGGER)
+			delay = stepTriggerMode();
 
-			previousMode = currentMode;
-			
-			try {
-				// halt thread for 1 second to provide a clock for PROGRAMM 
-				// and BLINKING mode; otherwise prevent loop from repeating 
-				// to fast in OFF or EXTERNAL mode 
-				Thread.sleep(1000);
-				
-			} catch (InterruptedException e){}
+		else if(currentMode == TrafficLightMode.BLINKING)
+		{
+			runBlinkingMode();
+			delay = 1;
 		}
+		
+		else if(currentMode == TrafficLightMode.PROGRAM)
+			delay = stepProgramMode(time);
 
-		// if loop was left: traffic light program will be terminated
-		//System.out.println("Program terminated");
+		previousMode = currentMode;
+		
+		return delay;
 	}
 
 
@@ -296,11 +318,14 @@ public class TrafficLightInternalProgram extends Thread
 	 * have to be switched to red first. The traffic lights required to turn red will 
 	 * be loaded from an external source; if not available, all other traffic lights 
 	 * will be switched to red. After this, the selected traffic light will be switched
-	 * to yellow-red and finally to green. After processing, it will be removed from queue. 
+	 * to yellow-red and finally to green. After processing, it will be removed from queue.
+	 * Every call performs one step of this sequence.
+	 * 
+	 * @return
+	 * 			Seconds until the next step or {@link #NO_FURTHER_STEP}.
 	 */
-	private void runTriggerMode() 
+	private float stepTriggerMode() 
 	{
-		
 		// if mode has changed to TRIGGER mode --> initialize first
 		if(previousMode != TrafficLightMode.TRIGGER)
 		{
@@ -308,47 +333,109 @@ public class TrafficLightInternalProgram extends Thread
 			trafficLightsListForGreen.clear();
 			
 			// switch all traffic lights of current intersection to red
-			requestIntersectionRed(null);
+			// (all yellow lights to red and all green lights to yellow)
+			shiftIntersectionToRed(null);
+			
+			if(!isIntersectionRed(null))
+			{
+				triggerStep = TriggerStep.INITIAL_RED;
+				return 1;
+			}
+			
+			return NO_FURTHER_STEP;
 		}
 		
+		if(triggerStep == TriggerStep.INITIAL_RED)
+		{
+			// shift one further step (all remaining yellow lights to red)
+			shiftIntersectionToRed(null);
+			triggerStep = TriggerStep.IDLE;
+			return 1;
+		}
 		
-		// if there are traffic lights waiting to be switched to green --> process queue
-		if(!trafficLightsListForGreen.isEmpty())
+		else if(triggerStep == TriggerStep.SECOND_SHIFT)
 		{
-			// get first traffic light in queue
-			TrafficLight trafficLight = trafficLightsListForGreen.get(0);
-				
-			// if traffic light belongs to current intersection and is not green yet
-			if((trafficLight.getIntersectionID().equals(intersectionID)) && 
-					(trafficLight.getState() != TrafficLightState.GREEN))
+			// shift one further step and wait a second
+			shiftIntersectionToRed(trafficLightForGreen);
+			triggerStep = TriggerStep.CHECK_RED;
+			return 1;
+		}
+		
+		else if(triggerStep == TriggerStep.CHECK_RED)
+		{
+			// if all required traffic lights are red
+			if(isIntersectionRed(trafficLightForGreen))
 			{
-				// switch all those traffic lights of the current intersection to red, 
-				// that are required to switch the selected traffic light to green and 
-				// wait a second
-				requestIntersectionRed(trafficLight);
-				wait(1);
-				
-				// if all required traffic lights are red
-				if(isIntersectionRed(trafficLight))
-				{
-					// switch selected traffic light to YELLOWRED and wait 1 second
-					trafficLight.setState(TrafficLightState.YELLOWRED);
-					wait(1);
-					
-					// switch selected traffic light to GREEN and wait 3 seconds
-					trafficLight.setState(TrafficLightState.GREEN);
-					wait(3);
-				}
+				// switch selected traffic light to YELLOWRED and wait 1 second
+				trafficLightForGreen.setState(TrafficLightState.YELLOWRED);
+				triggerStep = TriggerStep.GREEN;
+				return 1;
 			}
 			
-			// remove processed traffic light from queue
-			trafficLightsListForGreen.remove(0);
+			return releaseTrafficLightForGreen();
+		}
+		
+		else if(triggerStep == TriggerStep.GREEN)
+		{
+			// switch selected traffic light to GREEN and wait 3 seconds
+			trafficLightForGreen.setState(TrafficLightState.GREEN);
+			triggerStep = TriggerStep.RELEASE;
+			return 3;
+		}
+		
+		else if(triggerStep == TriggerStep.RELEASE)
+			return releaseTrafficLightForGreen();
+		
+		
+		// if there are no traffic lights waiting to be switched to green --> wait for request
+		if(trafficLightsListForGreen.isEmpty())
+			return NO_FURTHER_STEP;
+		
+		// get first traffic light in queue
+		TrafficLight trafficLight = trafficLightsListForGreen.get(0);
+			
+		// if traffic light belongs to current intersection and is not green yet
+		if((trafficLight.getIntersectionID().equals(intersectionID)) && 
+				(trafficLight.getState() != TrafficLightState.GREEN))
+		{
+			// switch all those traffic lights of the current intersection to red, 
+			// that are required to switch the selected traffic light to green 
+			// (green lights to yellow first) and wait a second
+			trafficLightForGreen = trafficLight;
+			shiftIntersectionToRed(trafficLight);
+			
+			if(isIntersectionRed(trafficLight))
+				triggerStep = TriggerStep.CHECK_RED;
+			else
+				triggerStep = TriggerStep.SECOND_SHIFT;
+			
+			return 1;
 		}
+		
+		// remove traffic light from queue
+		trafficLightsListForGreen.remove(0);
+		return 1;
+	}
+	
+	
+	/**
+	 * Removes the processed traffic light from the queue of traffic lights 
+	 * waiting for green.
+	 * 
+	 * @return
+	 * 			Seconds until the next traffic light will be processed.
+	 */
+	private float releaseTrafficLightForGreen()
+	{
+		trafficLightsListForGreen.remove(0);
+		trafficLightForGreen = null;
+		triggerStep = TriggerStep.IDLE;
+		return 1;
 	}
 
 
 	/**
-	 * Traffic light program for BLINKING mode. Since this method is called every 
+	 * Traffic light program for BLINKING mode. As this method is called every 
 	 * second (when active), all traffic lights of a certain intersection will be 
 	 * changed from OFF to YELLOW in the odd calls, and from YELLOW to OFF in the 
 	 * even calls.
@@ -367,34 +454,42 @@ public class TrafficLightInternalProgram extends Thread
 	
 	/**
 	 * Traffic light program for PROGRAM mode. Traffic light states will be scheduled
-	 * according to a given external XML file. Every step (usually 1 second) this method
-	 * checks whether the current phase has changed and if so, the traffic light states
-	 * will be changed.
+	 * according to a given external XML file. This method will be called whenever the
+	 * current phase expires and sets the states of the next phase to the traffic lights.
+	 * 
+	 * @param time
+	 * 			Simulation time (in seconds) this step was scheduled for.
+	 * 
+	 * @return
+	 * 			Seconds until the current phase expires or {@link #NO_FURTHER_STEP}.
 	 */
-	private void runProgramMode() 
+	private float stepProgramMode(double time) 
 	{
 		// if no external phases list available 
 		// --> switch all traffic lights off (only once)
 		if(intersectionPhasesList == null)
 		{
 			switchAllTrafficLightsOff();
-			return;
+			return NO_FURTHER_STEP;
 		}
 		
-		// if changed from different mode --> initialize PROGRAM mode
+		// if changed from different mode --> continue current phase
 		if(previousMode != TrafficLightMode.PROGRAM)
+		{
+			phaseExpirationTime = time + remainingPhaseTime;
 			setPhaseToTrafficLights();
+		}
 
 		// if current phase has expired, set next phase to traffic lights
-		if(phase.hasExpired(currentTime))
+		if(phaseExpirationTime <= time)
 		{
-			phase = gotoNextPhase();
-			phase.activate(currentTime);
+			phaseIndex = getNextPhaseIndex(phaseIndex);
+			phase = intersectionPhasesList.get(phaseIndex);
+			phaseExpirationTime += getDuration(phase);
 			setPhaseToTrafficLights();
 		}
 		
-		// increment clock
-		currentTime++;
+		return (float) (phaseExpirationTime - time);
 	}
 
 
@@ -414,36 +509,43 @@ public class TrafficLightInternalProgram extends Thread
 	
 
 	/**
-	 * Computes the traffic light phase that follows the given one. If the given 
-	 * phase is the last one in the list, the first phase will be returned instead.
+	 * Computes the index of the traffic light phase that follows the given one. 
+	 * If the given phase is the last one in the list, the first phase will be 
+	 * returned instead.
 	 * 
-	 * @param phase
-	 * 			Traffic light phase to determine the successor of
+	 * @param index
+	 * 			Index of the traffic light phase to determine the successor of
 	 * @return
-	 * 			successor phase of the given phase
+	 * 			Index of the successor phase of the given phase
 	 */
-	private TrafficLightPhase getNextPhase(TrafficLightPhase phase) 
+	private int getNextPhaseIndex(int index) 
 	{
-		int index = intersectionPhasesList.lastIndexOf(phase);		
-		int size  = intersectionPhasesList.size();
-		
-		int nextIndex = (index+1) % size;
-		
-		return intersectionPhasesList.get(nextIndex);
+		return (index+1) % intersectionPhasesList.size();
 	}
 	
 	
 	/**
-	 * Computes the next traffic light phase AND moves the iterator to the next phase. 
-	 * If the last phase in the list is reached, the first one will be returned instead.
+	 * Returns the number of steps (usually in seconds) until the current phase expires
+	 * 
 	 * @return
+	 * 			Remaining time of the current phase
 	 */
-	private TrafficLightPhase gotoNextPhase() 
+	private int getRemainingPhaseTime()
 	{
-		if(!iterator.hasNext())
-			iterator = intersectionPhasesList.listIterator(0);
+		double remainingTime = remainingPhaseTime;
+		if(previousMode == TrafficLightMode.PROGRAM)
+			remainingTime = phaseExpirationTime - SimulationBasics.getSimulationClock().getTime();
 		
-		return iterator.next();
+		return (int) Math.ceil(Math.max(0, remainingTime));
+	}
+	
+	
+	/**
+	 * Duration of the given phase (at least one step)
+	 */
+	private static int getDuration(TrafficLightPhase phase)
+	{
+		return Math.max(1, phase.getDuration());
 	}
 
 	
@@ -465,34 +567,6 @@ public class TrafficLightInternalProgram extends Thread
 	}
 	
 	
-	/**
-	 * Switches all traffic lights to red which are required to switch the 
-	 * given one to green. Green traffic lights will first be switched to
-	 * yellow, after a second they will be switched to red.
-	 * 
-	 * @param trafficLightForGreen
-	 *  		Traffic light waiting for green, while all other interfering 
-	 *  		traffic lights at this intersection will be switched to red.
-	 *  		If null, all traffic lights at this intersection will be 
-	 *  		switched to red.
-	 */
-	private void requestIntersectionRed(TrafficLight trafficLightForGreen)
-	{
-		// shift rules: 1. GREEN --> YELLOW
-		//				2. wait 1 second
-		//				3. YELLOW --> RED
-		
-		// shift one step (all yellow lights to red and all green lights to yellow) 
-		shiftIntersectionToRed(trafficLightForGreen);
-		
-		if(!isIntersectionRed(trafficLightForGreen))
-		{
-			wait(1);
-			// shift one further step (all remaining yellow lights to red)
-			shiftIntersectionToRed(trafficLightForGreen);
-		}
-	}
-	
 	
 	/**
 	 * Walks through the list of all traffic lights of the current intersection
@@ -575,22 +649,35 @@ public class TrafficLightInternalProgram extends Thread
 	}
 
 	
+	
+	boolean isScheduled()
+	{
+		return nextStepTime != Double.POSITIVE_INFINITY;
+	}
+	
+	
+	void setSchedule(double nextStepTime, long scheduleSequence)
+	{
+		this.nextStepTime = nextStepTime;
+		this.scheduleSequence = scheduleSequence;
+	}
+	
+	
 	/**
-	 * Stops the loop for the given number of seconds (for INTERNAL mode only)
-	 * 
-	 * @param seconds
-	 * 			number of seconds to stop the thread
+	 * Orders programs by their next step time (programs scheduled for the same 
+	 * time will be stepped in order of scheduling)
 	 */
-	private void wait(int seconds)
+	@Override
+	public int compareTo(TrafficLightInternalProgram other)
 	{
-		// wait only if INTERNAL mode is still running
-		if(TrafficLightCenter.getMode() == TrafficLightMode.TRIGGER)
-		{
-			try {
-				Thread.sleep(seconds*1000);
-			} catch (InterruptedException e){}
-		}
+		if(nextStepTime < other.nextStepTime)
+			return -1;
+		else if(nextStepTime > other.nextStepTime)
+			return 1;
+		else if(scheduleSequence < other.scheduleSequence)
+			return -1;
+		else if(scheduleSequence > other.scheduleSequence)
+			return 1;
+		return 0;
 	}
-
-	
 }
@@ -0,0 +1,147 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+
+/**
+ * Drives the internal traffic light programs of all intersections. Programs are 
+ * kept in a priority queue ordered by the simulation time of their next step 
+ * (e.g. the next phase change), so an update only touches programs that are due.
+ * Programs waiting for a green light request or a mode change are not queued at
+ * all. All methods have to be called from the jME update thread.
+ * 
+ * @author agent
+ */
+public class TrafficLightScheduler 
+{
+	private List<TrafficLightInternalProgram> programList = new ArrayList<TrafficLightInternalProgram>();
+	private PriorityQueue<TrafficLightInternalProgram> queue = new PriorityQueue<TrafficLightInternalProgram>();
+	private double time = 0;
+	private long nextSequence = 0;
+	private long stepCount = 0;
+	
+	
+	/**
+	 * Adds a program to the scheduler. Its first step will be performed 
+	 * on the next update.
+	 * 
+	 * @param program
+	 * 			Traffic light program to add.
+	 */
+	public void add(TrafficLightInternalProgram program)
+	{
+		programList.add(program);
+		schedule(program, time);
+	}
+	
+	
+	/**
+	 * Steps the given program on the next update, unless a step has already 
+	 * been scheduled (e.g. after a green light has been requested).
+	 * 
+	 * @param program
+	 * 			Traffic light program to wake up.
+	 */
+	public void wakeUp(TrafficLightInternalProgram program)
+	{
+		if(!program.isScheduled())
+			schedule(program, time);
+	}
+	
+	
+	/**
+	 * Steps all programs on the next update (e.g. after the mode has changed).
+	 */
+	public void wakeUpAll()
+	{
+		queue.clear();
+		for(TrafficLightInternalProgram program : programList)
+			schedule(program, time);
+	}
+	
+	
+	/**
+	 * Performs all program steps that are due up to the given time. Steps will be 
+	 * performed in order of their scheduled time; a program that is due more than 
+	 * once (e.g. after a long frame) will be stepped several times.
+	 * 
+	 * @param currentTime
+	 * 			Current simulation time (in seconds).
+	 */
+	public void update(double currentTime)
+	{
+		time = currentTime;
+		
+		while(!queue.isEmpty() && queue.peek().getNextSwitchTime() <= time)
+		{
+			TrafficLightInternalProgram program = queue.poll();
+			double stepTime = program.getNextSwitchTime();
+			program.setSchedule(Double.POSITIVE_INFINITY, 0);
+			
+			float delay = program.step(stepTime);
+			stepCount++;
+			
+			// program might have been woken up during its step already
+			if(delay != TrafficLightInternalProgram.NO_FURTHER_STEP && !program.isScheduled())
+				schedule(program, stepTime + delay);
+		}
+	}
+	
+	
+	/**
+	 * Removes all programs.
+	 */
+	public void clear()
+	{
+		queue.clear();
+		for(TrafficLightInternalProgram program : programList)
+			program.setSchedule(Double.POSITIVE_INFINITY, 0);
+		programList.clear();
+	}
+	
+	
+	/**
+	 * @return number of programs waiting for their next step
+	 */
+	public int getScheduledPrograms()
+	{
+		return queue.size();
+	}
+	
+	
+	/**
+	 * @return number of program steps performed so far
+	 */
+	public long getStepCount()
+	{
+		return stepCount;
+	}
+	
+	
+	private void schedule(TrafficLightInternalProgram program, double stepTime)
+	{
+		program.setSchedule(stepTime, nextSequence++);
+		queue.offer(program);
+	}
+}
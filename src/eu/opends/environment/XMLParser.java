@@ -534,22 +534,7 @@ public class XMLParser
 			// read state string and id string from SUMO instruction
 			String stateString = trafficLightInstruction.getAttribute("state");
 			String idString    = trafficLightInstruction.getAttribute("id");
-			String intersectionID = String.format("%2s", idString).replace(' ', '0');
-	
-			for(int i=0; i<stateString.length(); i++)
-			{
-				// get traffic light object from intersection ID and traffic light ID
-				String trafficlightID     = String.format("%2s", i).replace(' ', '0');
-				String trafficLightName   = "TrafficLight." + intersectionID + "_" + trafficlightID;
-				TrafficLight trafficLight = TrafficLightCenter.getTrafficLightByName(trafficLightName);
-	
-				if(trafficLight != null)
-				{
-					// assign state to traffic light object
-					TrafficLightState state = parseSUMOStateCharacter(stateString.charAt(i));
-					trafficLight.setState(state);
-				}
-			}
+			applySUMOStateString(idString, stateString);
 			
 		} catch (InvalidStateCharacterException e) {
 			e.printStackTrace();
@@ -557,6 +542,40 @@ public class XMLParser
 	}
 	
 	
+	/**
+	 * Sets the states of all traffic lights of the given intersection from a
+	 * SUMO state string (one character per traffic light, e.g. "rrGGyyrr").
+	 * 
+	 * @param idString
+	 * 			intersection ID (e.g. "1" or "01")
+	 * 
+	 * @param stateString
+	 * 			SUMO state string; position i refers to "TrafficLight.&lt;id&gt;_&lt;i&gt;"
+	 * 
+	 * @throws InvalidStateCharacterException
+	 * 			if the state string contains an unknown character
+	 */
+	public static void applySUMOStateString(String idString, String stateString) throws InvalidStateCharacterException
+	{
+		String intersectionID = String.format("%2s", idString).replace(' ', '0');
+		
+		for(int i=0; i<stateString.length(); i++)
+		{
+			// get traffic light object from intersection ID and traffic light ID
+			String trafficlightID     = String.format("%2s", i).replace(' ', '0');
+			String trafficLightName   = "TrafficLight." + intersectionID + "_" + trafficlightID;
+			TrafficLight trafficLight = TrafficLightCenter.getTrafficLightByName(trafficLightName);
+
+			if(trafficLight != null)
+			{
+				// assign state to traffic light object
+				TrafficLightState state = parseSUMOStateCharacter(stateString.charAt(i));
+				trafficLight.setState(state);
+			}
+		}
+	}
+	
+	
 	/**
 	 * Evaluates a (manual) XML instruction and sets the given traffic lights' 
 	 * states to the given state values.
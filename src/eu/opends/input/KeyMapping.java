@@ -66,6 +66,7 @@ public class KeyMapping
 	public static KeyMapping RESET_CAR_POS10 = new KeyMapping("reset_car_pos10", "reset car (pos 10)", new String[] {"0"});
 	public static KeyMapping RESET_FUEL_CONSUMPTION = new KeyMapping("reset_fuel_consumption", "reset fuel consumption", new String[] {"T"});
 	public static KeyMapping TOGGLE_STATS = new KeyMapping("toggle_stats", "toggle stats", new String[] {"F4"});
+	public static KeyMapping TOGGLE_FRAME_PROFILER = new KeyMapping("toggle_frame_profiler", "toggle frame profiler", new String[] {"F3"});
 	public static KeyMapping TOGGLE_CINEMATIC = new KeyMapping("toggle_cinematics", "toggle camera flight", new String[] {"RETURN"});
 	public static KeyMapping TOGGLE_HEADLIGHT = new KeyMapping("toggle_headlight", "toggle head light", new String[] {"L"});
 	public static KeyMapping REPORT_LANDMARK = new KeyMapping("report_landmark", "report landmark", new String[] {"SPACE"});
@@ -133,6 +134,7 @@ public class KeyMapping
 		keyMappingList.add(KeyMapping.RESET_CAR_POS10);
 		keyMappingList.add(KeyMapping.RESET_FUEL_CONSUMPTION);
 		keyMappingList.add(KeyMapping.TOGGLE_STATS);
+		keyMappingList.add(KeyMapping.TOGGLE_FRAME_PROFILER);
 		keyMappingList.add(KeyMapping.TOGGLE_CINEMATIC);
 		keyMappingList.add(KeyMapping.TOGGLE_HEADLIGHT);
 		keyMappingList.add(KeyMapping.REPORT_LANDMARK);
@@ -29,6 +29,7 @@ import eu.opends.car.LightTexturesContainer.TurnSignalState;
 import eu.opends.environment.TrafficLightCenter;
 import eu.opends.main.Simulator;
 import eu.opends.niftyGui.MessageBoxGUI;
+import eu.opends.tools.FrameProfiler;
 import eu.opends.tools.PanelCenter;
 import eu.opends.tools.Util;
 
@@ -346,6 +347,11 @@ public class SimulatorActionListener implements ActionListener {
 				sim.toggleStats();
 		}
 
+		else if (binding.equals(KeyMapping.TOGGLE_FRAME_PROFILER.getID())) {
+			if (value)
+				FrameProfiler.toggleOverlay();
+		}
+
 		else if (binding.equals(KeyMapping.TOGGLE_CINEMATIC.getID())) {
 			if (value) {
 				if (sim.getCameraFlight() != null)
@@ -22,8 +22,9 @@ import de.dfki.automotive.kapcom.knowledgebase.KAPcomException;
 import de.dfki.automotive.kapcom.knowledgebase.NetClient;
 import de.dfki.automotive.kapcom.knowledgebase.PropertyValue;
 import de.dfki.automotive.kapcom.knowledgebase.ontology.*;
-import eu.opends.car.Car;
 import eu.opends.main.Simulator;
+import eu.opends.telemetry.CarSnapshot;
+import eu.opends.telemetry.TelemetrySubscriber;
 
 /**
  * 
@@ -37,7 +38,7 @@ final public class KnowledgeBase extends Thread
 	/** Singleton KB instance */
 	public static KnowledgeBase KB = new KnowledgeBase(true, true);
 	
-	private Car car;
+	private TelemetrySubscriber telemetry;
 	private boolean isRunning = true;
 	private boolean connect = false;
 	private boolean fallback = true;
@@ -87,7 +88,7 @@ final public class KnowledgeBase extends Thread
 	 */
 	public void Initialize(Simulator sim)
 	{
-		this.car = sim.getCar();
+		this.telemetry = sim.getTelemetryBus().subscribe("KnowledgeBase");
 		
 		if (connect) {
 			System.out.println("Connecting to KAPcom knowledge base...");
@@ -210,7 +211,10 @@ final public class KnowledgeBase extends Thread
 			if (System.currentTimeMillis() - lastOutgoingUpdate > outgoingUpdateIntervalMsec) {
 				lastOutgoingUpdate = System.currentTimeMillis();
 				try{
-					getVehicle().sendCarData(car);
+					// consistent state of the car as published by the simulation thread
+					CarSnapshot snapshot = telemetry.current();
+					if(snapshot != null)
+						getVehicle().sendCarData(snapshot);
 				} catch (Exception ex) {
 					ex.printStackTrace();
 					System.err.println("Failed to send update to KAPcom. Will stop sending updates for 60 seconds.");
@@ -18,15 +18,12 @@
 
 package eu.opends.knowledgeBase;
 
-import com.jme3.math.FastMath;
-import com.jme3.math.Vector3f;
-
 import de.dfki.automotive.kapcom.knowledgebase.KAPcomException;
 import de.dfki.automotive.kapcom.knowledgebase.ontology.*;
-import eu.opends.car.Car;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.main.SimulationDefaults;
 import eu.opends.main.Simulator;
+import eu.opends.telemetry.CarSnapshot;
 
 /**
  * 
@@ -70,7 +67,7 @@ public class VehicleKnowledge
 	private float oldRise = 0;
 	private float oldSpeed = 0;
 	private long oldTime = 0;
-	void sendCarData(Car car) throws KAPcomException
+	void sendCarData(CarSnapshot car) throws KAPcomException
 	{
 		if (vehicle == null) return;
 		
@@ -87,13 +84,12 @@ public class VehicleKnowledge
 		//engine.setActualSpeed((double) speed);
 		*/
 		
-		long time = System.currentTimeMillis();  // in milliseconds
+		long time = car.getTimestamp();  // in milliseconds
 		float timeDiff = ((float) (time - oldTime)) / 1000f; // in seconds
 
-		Vector3f geoPosition = car.getGeoPosition();
-		float latitude = geoPosition.getX();  // N-S position in geo coordinates
-		float longitude = geoPosition.getY(); // W-E position in geo coordinates
-		float altitude = geoPosition.getZ();  // meters above sea level
+		float latitude = car.getLatitude();   // N-S position in geo coordinates
+		float longitude = car.getLongitude(); // W-E position in geo coordinates
+		float altitude = car.getAltitude();   // meters above sea level
 		
 		float orientation = car.getHeadingDegree();  // 0..360 degree
 		
@@ -105,7 +101,7 @@ public class VehicleKnowledge
 		
 		float rotationAcceleration = (rotation - oldRotation)/timeDiff; // in degree/s^2
 		
-		float speed = FastMath.abs(car.getCarControl().getCurrentVehicleSpeedKmHour());  // in Km/h
+		float speed = car.getSpeedKmh();  // in Km/h
 		
 		float rise = (altitude - oldAltitude)/timeDiff; // in m/s
 		
@@ -123,12 +119,12 @@ public class VehicleKnowledge
 
 		String lightState = car.getLightState();
 		
-		float fuelConsumption = car.getPowerTrain().getLitersPer100Km();  // current fuel consumption
+		float fuelConsumption = car.getLitersPer100Km();  // current fuel consumption
 		
 		float maxFuelCapacity = 60; //TODO set max Capacity
-		float fuelLeft = maxFuelCapacity - car.getPowerTrain().getTotalFuelConsumption();
+		float fuelLeft = maxFuelCapacity - car.getTotalFuelConsumption();
 		
-		int selectedGear = car.getTransmission().getGear();
+		int selectedGear = car.getGear();
 		
 		int engineOn;
 		if(car.isEngineOn())
@@ -136,7 +132,7 @@ public class VehicleKnowledge
 		else
 			engineOn = 0;
 		
-		int rpm = (int) car.getTransmission().getRPM();
+		int rpm = (int) car.getRPM();
 		
 		String xml = "<root>" +
 						"<thisVehicle>" +
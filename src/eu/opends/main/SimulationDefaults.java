@@ -47,6 +47,47 @@ public class SimulationDefaults
 	public static int CANInterface_updateRate = 20;
 	public static float CANInterface_maxSteeringAngle = 270;
 	
+	public static int Telemetry_bufferSize = 256;
+	public static boolean Telemetry_enableConnection = false;
+	public static String Telemetry_ip = "127.0.0.1";
+	public static int Telemetry_port = 5700;
+	public static int Telemetry_physicsRate = 60;
+	
+	public static String RenderCluster_mode = "off";
+	public static String RenderCluster_masterIP = "127.0.0.1";
+	public static int RenderCluster_masterPort = 5800;
+	public static String RenderCluster_slaves = "127.0.0.1:5801,127.0.0.1:5802,127.0.0.1:5803";
+	public static int RenderCluster_slavePort = 5801;
+	public static int RenderCluster_numberOfScreens = 3;
+	public static int RenderCluster_screenIndex = 1;
+	public static int RenderCluster_syncTimeout = 100;
+	
+	public static boolean MultiDriver_enableConnection = false;
+	public static int MultiDriver_participantID = 1;
+	public static int MultiDriver_authorityID = 1;
+	public static int MultiDriver_port = 5900;
+	public static String MultiDriver_peers = "127.0.0.1:5901";
+	public static int MultiDriver_sendRate = 30;
+	public static int MultiDriver_bandwidthBudget = 1000;
+	public static int MultiDriver_latencyBudget = 50;
+	
+	public static boolean CoSimulation_enableConnection = false;
+	public static int CoSimulation_port = 5950;
+	public static int CoSimulation_stepSize = 100;
+	public static int CoSimulation_timeout = 1000;
+	
+	public static int Traffic_senseThreads = 0;
+	public static float Traffic_lodRadius = 0;
+	public static int Traffic_poolSize = 0;
+	public static float Traffic_spawnRadiusMin = 150;
+	public static float Traffic_spawnRadiusMax = 300;
+	public static int Traffic_maxHeadLights = 8;
+	
+	public static boolean Profiling_enableFrameProfiler = false;
+	
+	public static boolean QualityGovernor_enable = false;
+	public static int QualityGovernor_targetFrameRate = 60;
+	
 	public static boolean vsimrtiServer_startServer = false;
 	public static int vsimrtiServer_port = 1234;
 	
@@ -29,6 +29,7 @@ import org.apache.log4j.PropertyConfigurator;
 import com.jme3.input.Joystick;
 import com.jme3.math.Vector3f;
 import com.jme3.niftygui.NiftyJmeDisplay;
+import com.jme3.renderer.RenderManager;
 import com.jme3.system.AppSettings;
 
 import de.lessvoid.nifty.Nifty;
@@ -43,21 +44,34 @@ import eu.opends.cameraFlight.NotEnoughWaypointsException;
 import eu.opends.canbus.CANClient;
 import eu.opends.car.ResetPosition;
 import eu.opends.car.SteeringCar;
+import eu.opends.car.TurnSignalCenter;
+import eu.opends.car.VehicleTemplate;
+import eu.opends.coSimulation.CoSimulationEndpoint;
 import eu.opends.drivingTask.DrivingTask;
 import eu.opends.drivingTask.settings.SettingsLoader.Setting;
 import eu.opends.effects.EffectCenter;
 import eu.opends.environment.TrafficLightCenter;
 import eu.opends.input.KeyBindingCenter;
 import eu.opends.knowledgeBase.KnowledgeBase;
+import eu.opends.multiDriver.MultiDriverCenter;
 import eu.opends.niftyGui.DrivingTaskSelectionGUIController;
 import eu.opends.reactionCenter.ReactionCenter;
+import eu.opends.renderCluster.RenderMaster;
+import eu.opends.renderCluster.RenderSlave;
 import eu.opends.settingsController.SettingsControllerServer;
 import eu.opends.steeringTask.SteeringTask;
+import eu.opends.telemetry.TelemetryBus;
+import eu.opends.telemetry.TelemetryTickListener;
+import eu.opends.telemetry.TelemetryUDPSender;
+import eu.opends.tools.FrameProfiler;
+import eu.opends.tools.FrameProfiler.Section;
 import eu.opends.tools.ObjectManipulationCenter;
 import eu.opends.tools.PanelCenter;
+import eu.opends.tools.QualityGovernor;
 import eu.opends.tools.SpeedControlCenter;
 import eu.opends.tools.Util;
 import eu.opends.traffic.PhysicalTraffic;
+import eu.opends.traffic.TrafficRoute;
 import eu.opends.trigger.TriggerCenter;
 import eu.opends.visualization.LightningClient;
 import eu.opends.eventLogger.*;
@@ -69,6 +83,9 @@ import eu.opends.eventLogger.*;
 public class Simulator extends SimulationBasics
 {
 	private final static Logger logger = Logger.getLogger(Simulator.class);
+	
+	// lowest frame rate at which the physics still runs in real time
+	private final static int MIN_PHYSICS_FRAME_RATE = 20;
 
     private Nifty nifty;
     private boolean drivingTaskGiven = false;
@@ -94,6 +111,33 @@ public class Simulator extends SimulationBasics
     {
     	return physicalTraffic;
     }
+    
+    private TelemetryBus telemetryBus;
+    public TelemetryBus getTelemetryBus()
+    {
+    	return telemetryBus;
+    }
+    
+    private TelemetryUDPSender telemetryUDPSender;
+    
+    private MultiDriverCenter multiDriverCenter;
+    public MultiDriverCenter getMultiDriverCenter()
+    {
+    	return multiDriverCenter;
+    }
+    
+    private CoSimulationEndpoint coSimulationEndpoint;
+    public CoSimulationEndpoint getCoSimulationEndpoint()
+    {
+    	return coSimulationEndpoint;
+    }
+    
+    private RenderMaster renderMaster;
+    private RenderSlave renderSlave;
+    public boolean isRenderSlave()
+    {
+    	return renderSlave != null;
+    }
 	
 	private static DrivingTaskLogger drivingTaskLogger;
 	public static DrivingTaskLogger getDrivingTaskLogger()
@@ -174,6 +218,12 @@ public class Simulator extends SimulationBasics
 		return effectCenter;
 	}
 	
+	private QualityGovernor qualityGovernor;
+	public QualityGovernor getQualityGovernor()
+	{
+		return qualityGovernor;
+	}
+	
 	private ObjectManipulationCenter objectManipulationCenter;
 	public ObjectManipulationCenter getObjectManipulationCenter()
 	{
@@ -258,41 +308,75 @@ public class Simulator extends SimulationBasics
     	Util.makeDirectory("analyzerData");
     	outputFolder = "analyzerData/" + Util.getDateTimeString();
     	
+    	startupProfiler.start(drivingTaskFileName);
+    	
+    	startupProfiler.begin("Driving task");
     	initDrivingTaskLayers();
+    	startupProfiler.end();
     	
     	// show stats if set in driving task
     	showStats(drivingTask.getSettingsLoader().getSetting(Setting.General_showStats, false));  	
     	
     	// sets up physics, camera, light, shadows and sky
+    	startupProfiler.begin("Simulation basics");
     	super.simpleInitApp();
     	
     	// set gravity
     	gravityConstant = drivingTask.getSceneLoader().getGravity(SimulationDefaults.gravity);
     	getPhysicsSpace().setGravity(new Vector3f(0, -gravityConstant, 0));	
-    	//getPhysicsSpace().setAccuracy(0.005f);
     	
+    	// set physics rate (= rate of telemetry output)
+    	int physicsRate = settingsLoader.getSetting(Setting.Telemetry_physicsRate, SimulationDefaults.Telemetry_physicsRate);
+    	if(physicsRate > 0)
+    	{
+    		getPhysicsSpace().setAccuracy(1f/physicsRate);
+    		
+    		// allow enough steps per frame to keep up with real time down to the 
+    		// minimum frame rate (Bullet drops simulated time beyond max sub steps)
+    		int maxSubSteps = Math.max(4, (int) Math.ceil(physicsRate / (float) MIN_PHYSICS_FRAME_RATE));
+    		getPhysicsSpace().setMaxSubSteps(maxSubSteps);
+    		logger.info("Physics rate: " + physicsRate + " Hz, max sub steps per frame: " + maxSubSteps + 
+    				" (real time down to " + MIN_PHYSICS_FRAME_RATE + " fps)");
+    	}
+    	startupProfiler.end();
+    	
+    	startupProfiler.begin("Panels and input devices");
     	PanelCenter.init(this);
+    	FrameProfiler.init(this);
 	
         Joystick[] joysticks = inputManager.getJoysticks();
         if(joysticks != null)
         	for (Joystick joy : joysticks)
         		System.out.println("Connected joystick: " + joy.toString());
+        startupProfiler.end();
 		
     	//load map model
+        startupProfiler.begin("Map");
 		new InternalMapProcessing(this);
+		startupProfiler.end();
 		
 		// create and place steering car
+		startupProfiler.begin("Driving car");
 		car = new SteeringCar(this);
 		
+		// single source of car state for all external connectors (updated every physics step)
+		telemetryBus = new TelemetryBus(car, SimulationDefaults.Telemetry_bufferSize);
+		telemetryBus.publish();
+		getPhysicsSpace().addTickListener(new TelemetryTickListener(telemetryBus));
+		startupProfiler.end();
+		
 		// initialize physical vehicles
+		startupProfiler.begin("Traffic");
 		physicalTraffic = new PhysicalTraffic(this);
-		//physicalTraffic.start(); //TODO
+		startupProfiler.end();
 		
+		startupProfiler.begin("Knowledge base");
 		// open TCP connection to KAPcom (knowledge component) [affects the driver name, see below]
 		//KnowledgeBase.KB.setConnect(true);
 		KnowledgeBase.KB.setCulture("en-US");
 		KnowledgeBase.KB.Initialize(this);
 		KnowledgeBase.KB.start();
+		startupProfiler.end();
 		
 		// sync driver name with KAPcom. May provide suggestion for driver name if NULL.
 		//driverName = KnowledgeBase.User().initUserName(driverName);  
@@ -302,20 +386,27 @@ public class Simulator extends SimulationBasics
     	SimulationDefaults.driverName = driverName;
 
         // setup key binding
+        startupProfiler.begin("Key bindings and audio");
 		keyBindingCenter = new KeyBindingCenter(this);
         
         AudioCenter.init(this);
+        startupProfiler.end();
 
         // setup camera settings
+        startupProfiler.begin("Camera");
         cameraFactory = new SimulatorCam(this, car);
+        startupProfiler.end();
 
 		// init trigger center
+        startupProfiler.begin("Triggers and traffic lights");
 		triggerCenter.setup();
 
 		// start trafficLightCenter
 		TrafficLightCenter.setup(this);
+		startupProfiler.end();
 
 		// open TCP connection to Lightning
+		startupProfiler.begin("External connections");
 		if(settingsLoader.getSetting(Setting.ExternalVisualization_enableConnection, SimulationDefaults.Lightning_enableConnection))
 		{
 			lightningClient = new LightningClient();
@@ -327,7 +418,18 @@ public class Simulator extends SimulationBasics
 			canClient = new CANClient(this);
 			canClient.start();
 		}
+		
+		// stream car state via UDP at physics rate
+		if(settingsLoader.getSetting(Setting.Telemetry_enableConnection, SimulationDefaults.Telemetry_enableConnection))
+		{
+			String ip = settingsLoader.getSetting(Setting.Telemetry_ip, SimulationDefaults.Telemetry_ip);
+			int port = settingsLoader.getSetting(Setting.Telemetry_port, SimulationDefaults.Telemetry_port);
+			telemetryUDPSender = new TelemetryUDPSender(telemetryBus, ip, port);
+			telemetryUDPSender.start();
+		}
+		startupProfiler.end();
 
+		startupProfiler.begin("Logger and tasks");
 		drivingTaskLogger = new DrivingTaskLogger(outputFolder, driverName, drivingTask.getFileName());
 		
 		SpeedControlCenter.init(this);
@@ -351,13 +453,65 @@ public class Simulator extends SimulationBasics
 		effectCenter = new EffectCenter(this);
 		
 		objectManipulationCenter = new ObjectManipulationCenter(this);
+		startupProfiler.end();
 		
+		startupProfiler.begin("Servers and clusters");
 		if(settingsLoader.getSetting(Setting.SettingsControllerServer_startServer, SimulationDefaults.SettingsControllerServer_startServer))
 		{
 			settingsControllerServer = new SettingsControllerServer(this);
 			settingsControllerServer.start();
 		}
 		
+		// share the world with the drivers of other simulator instances
+		if(settingsLoader.getSetting(Setting.MultiDriver_enableConnection, SimulationDefaults.MultiDriver_enableConnection))
+		{
+			multiDriverCenter = new MultiDriverCenter(this);
+			multiDriverCenter.start();
+		}
+		
+		// wait for an external traffic simulator to connect
+		if(settingsLoader.getSetting(Setting.CoSimulation_enableConnection, SimulationDefaults.CoSimulation_enableConnection))
+		{
+			coSimulationEndpoint = new CoSimulationEndpoint(this);
+			coSimulationEndpoint.start();
+		}
+		
+		// distribute rendering of multiple screens to several machines
+		String renderClusterMode = settingsLoader.getSetting(Setting.RenderCluster_mode, SimulationDefaults.RenderCluster_mode);
+		if(renderClusterMode.equalsIgnoreCase("master"))
+		{
+			renderMaster = new RenderMaster(this);
+			renderMaster.start();
+		}
+		else if(renderClusterMode.equalsIgnoreCase("slave"))
+		{
+			renderSlave = new RenderSlave(this);
+			renderSlave.start();
+		}
+		
+		// run traffic AI on its own thread (controls will be applied before each physics step)
+		if(!isRenderSlave())
+		{
+			getPhysicsSpace().addTickListener(physicalTraffic);
+			physicalTraffic.start();
+		}
+		
+		// reduce rendering quality if target frame rate cannot be held (not in a render 
+		// cluster, since all screens must be rendered in the same quality)
+		if(settingsLoader.getSetting(Setting.QualityGovernor_enable, SimulationDefaults.QualityGovernor_enable))
+		{
+			if(renderMaster == null && renderSlave == null)
+				qualityGovernor = new QualityGovernor(this, outputFolder);
+			else
+				System.err.println("Quality governor disabled in render cluster mode");
+		}
+		startupProfiler.end();
+		
+		float startupTime = startupProfiler.finish();
+		startupProfiler.writeReport(outputFolder, drivingTaskFileName);
+		logger.info("Startup profile:\n" + startupProfiler.getSummary());
+		System.out.println("Driving task '" + drivingTask.getFileName() + "' initialized in " + (int) startupTime + " ms");
+		
 		initializationFinished = true;
 		
 		//
@@ -393,51 +547,98 @@ public class Simulator extends SimulationBasics
     @Override
     public void simpleUpdate(float tpf) 
     {
-    	if(initializationFinished)
+    	if(initializationFinished && renderSlave != null)
+    	{
+    		// render slaves show the state received from the master only
+    		renderSlave.update();
+    		cameraFactory.updateCamera();
+    		effectCenter.update(tpf);
+    	}
+    	else if(initializationFinished)
     	{
+    		// measure every subsystem (no-op unless frame profiler enabled)
+    		long time = FrameProfiler.beginFrame();
+    		
 			super.simpleUpdate(tpf);
+			time = FrameProfiler.record(Section.SIMULATION_CLOCK, time);
 			
 			// updates camera
 			cameraFactory.updateCamera();
+			time = FrameProfiler.record(Section.CAMERA, time);
 		
 			if(!isPause())
 				car.getTransmission().updateRPM(tpf);
+			time = FrameProfiler.record(Section.TRANSMISSION, time);
 		
 			PanelCenter.update();
+			time = FrameProfiler.record(Section.PANEL, time);
+			
+			// switch traffic lights according to their internal programs
+			TrafficLightCenter.update();
+			time = FrameProfiler.record(Section.TRAFFIC_LIGHTS, time);
 		
 			triggerCenter.doTriggerChecks();
+			time = FrameProfiler.record(Section.TRIGGERS, time);
 		
 			updateDataWriter();
+			time = FrameProfiler.record(Section.DATA_WRITER, time);
 			
 			// send camera data via TCP to Lightning
 			if(lightningClient != null)
 				lightningClient.sendCameraData(cam);
+			time = FrameProfiler.record(Section.LIGHTNING, time);
 			
 			// send car data via TCP to CAN-bus
 			if(canClient != null)
 				canClient.sendCarData();
+			time = FrameProfiler.record(Section.CAN, time);
 			
 			if(!isPause())
 				car.update(tpf);
+			time = FrameProfiler.record(Section.CAR, time);
 			
-			// TODO start thread in init-method to update traffic
+			// update lights and follow boxes of traffic (AI runs on traffic thread)
 			physicalTraffic.update(); 
+			time = FrameProfiler.record(Section.TRAFFIC, time);
+			
+			// move cars of remote drivers and apply replicated world state
+			if(multiDriverCenter != null)
+				multiDriverCenter.update(tpf);
+			time = FrameProfiler.record(Section.MULTI_DRIVER, time);
+			
+			// advance external traffic simulator in lockstep
+			if(coSimulationEndpoint != null)
+				coSimulationEndpoint.update(tpf);
+			time = FrameProfiler.record(Section.CO_SIMULATION, time);
+			
+			// blink turn signals of all cars (continues during pause)
+			TurnSignalCenter.update(getSimulationClock().getFrameTime());
+			time = FrameProfiler.record(Section.TURN_SIGNALS, time);
 			
 			SpeedControlCenter.update();
+			time = FrameProfiler.record(Section.SPEED_CONTROL, time);
 			
 			// update necessary even in pause
 			AudioCenter.update(tpf, cam);
+			time = FrameProfiler.record(Section.AUDIO, time);
 			
 			if(!isPause())
 				steeringTask.update(tpf);
+			time = FrameProfiler.record(Section.STEERING_TASK, time);
 			
 			//if(!isPause())
 				//getCameraFlight().play();
 			
 			reactionCenter.update();
+			time = FrameProfiler.record(Section.REACTION_CENTER, time);
 			
 			// update effects
 			effectCenter.update(tpf);
+			time = FrameProfiler.record(Section.EFFECTS, time);
+			
+			if(qualityGovernor != null)
+				qualityGovernor.update(tpf);
+			FrameProfiler.record(Section.QUALITY_GOVERNOR, time);
 			
 			// forward instruction screen if available
 			if(instructionScreenID != null)
@@ -445,10 +646,21 @@ public class Simulator extends SimulationBasics
 				instructionScreenGUI.showDialog(instructionScreenID);
 				instructionScreenID = null;
 			}
+			
+			FrameProfiler.endFrame();
     	}
     }
 
     
+    @Override
+    public void simpleRender(RenderManager rm) 
+    {
+    	// send state of the current frame after the scene graph has been updated
+    	if(initializationFinished && renderMaster != null)
+    		renderMaster.update();
+    }
+    
+    
 	private void updateDataWriter() 
 	{
 		if (dataWriter != null && dataWriter.isDataWriterEnabled()) 
@@ -508,6 +720,50 @@ public class Simulator extends SimulationBasics
 			if(canClient != null)
 				canClient.requestStop();
 			
+			if(telemetryUDPSender != null)
+				telemetryUDPSender.requestStop();
+			
+			logger.info("Telemetry subscribers:\n" + telemetryBus.getLagReport());
+			
+			if(cameraFactory.getShowBackViewMirror())
+				logger.info("Rear view mirror: " + cameraFactory.getRearviewMirror().getReport());
+			
+			if(qualityGovernor != null)
+			{
+				qualityGovernor.close();
+				logger.info("Quality governor: " + qualityGovernor.getReport());
+			}
+			
+			if(FrameProfiler.getHistogram(Section.UPDATE).getCount() > 0)
+			{
+				FrameProfiler.writeReport(outputFolder);
+				logger.info("Frame profile:\n" + FrameProfiler.getSummary());
+			}
+			
+			if(multiDriverCenter != null)
+			{
+				multiDriverCenter.close();
+				logger.info("Multi-driver connections:\n" + multiDriverCenter.getReport());
+			}
+			
+			if(coSimulationEndpoint != null)
+			{
+				coSimulationEndpoint.close();
+				logger.info("Co-simulation: " + coSimulationEndpoint.getReport());
+			}
+			
+			if(renderMaster != null)
+			{
+				renderMaster.requestStop();
+				logger.info("Render master: " + renderMaster.getReport());
+			}
+			
+			if(renderSlave != null)
+			{
+				renderSlave.requestStop();
+				logger.info("Render slave: " + renderSlave.getReport());
+			}
+			
 			TrafficLightCenter.close();
 			
 			steeringTask.close();
@@ -519,6 +775,10 @@ public class Simulator extends SimulationBasics
 			car.close();
 			
 			physicalTraffic.close();
+			logger.info("Physical traffic: " + physicalTraffic.getReport());
+			logger.info("Vehicle templates: " + VehicleTemplate.getReport());
+			VehicleTemplate.clearCache();
+			TrafficRoute.clearCache();
 
 			if(settingsControllerServer != null)
 				settingsControllerServer.close();
@@ -0,0 +1,567 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+import eu.opends.drivingTask.settings.SettingsLoader;
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.environment.TrafficLight;
+import eu.opends.environment.TrafficLight.TrafficLightState;
+import eu.opends.environment.TrafficLightCenter;
+import eu.opends.environment.TrafficLightCenter.TrafficLightMode;
+import eu.opends.main.SimulationDefaults;
+import eu.opends.main.Simulator;
+import eu.opends.trigger.TriggerCenter;
+
+/**
+ * Couples several simulator instances, each of them driven by one participant,
+ * in a shared world. Every instance sends the state of its driving car at a 
+ * fixed rate to all peers (see {@link MultiDriverSender}) and shows the cars
+ * of all other participants as kinematic proxies (see {@link RemoteDriver}).<br>
+ * <br>
+ * One node is authoritative for the world state: it runs the traffic light 
+ * programs and evaluates all triggers hit by any participant. Traffic light
+ * states and accepted trigger events are replicated to all other nodes, which
+ * perform each trigger event exactly once. Traffic cars are not replicated;
+ * they follow the same scripted paths on every node.<br>
+ * <br>
+ * This class receives all messages (thread) and applies them to the scene 
+ * (update(), jME update thread).
+ *
+ * @author agent
+ */
+public class MultiDriverCenter extends Thread
+{
+	// number of recent trigger events repeated in every WORLD message
+	private static final int MAX_TRIGGER_EVENTS = 16;
+	
+	private Simulator sim;
+	private int participantID;
+	private int authorityID;
+	private DatagramSocket socket;
+	private List<InetSocketAddress> peerList = new ArrayList<InetSocketAddress>();
+	private MultiDriverSender sender;
+	private int bandwidthBudget;
+	private int latencyBudget;
+	private volatile boolean stopRequested = false;
+	
+	// written by the receiver thread, read by the update thread
+	private ConcurrentHashMap<Integer, RemoteDriverState> remoteStateMap = new ConcurrentHashMap<Integer, RemoteDriverState>();
+	private ConcurrentHashMap<Integer, PeerStatistics> peerStatisticsMap = new ConcurrentHashMap<Integer, PeerStatistics>();
+	private ConcurrentLinkedQueue<TriggerEvent> receivedTriggerEvents = new ConcurrentLinkedQueue<TriggerEvent>();
+	private volatile byte[] trafficLightStates = null;
+	private AtomicLong receivedBytes = new AtomicLong(0);
+	private int lastReceivedTriggerEvent = -1;
+	
+	// authoritative node: hits reported by other participants (to be evaluated)
+	// other nodes: hits of the local car (to be sent to the authoritative node)
+	private Set<TriggerHit> pendingTriggerHits = Collections.newSetFromMap(new ConcurrentHashMap<TriggerHit, Boolean>());
+	
+	// authoritative node only: recently accepted trigger events
+	private LinkedList<TriggerEvent> triggerEventList = new LinkedList<TriggerEvent>();
+	private int nextTriggerEventSequence = 0;
+	
+	// update thread only
+	private HashMap<Integer, RemoteDriver> remoteDriverMap = new HashMap<Integer, RemoteDriver>();
+	
+	// bandwidth in kbit/s (updated by the sender once per second)
+	private volatile float sendBandwidth = 0;
+	private volatile float receiveBandwidth = 0;
+	private volatile float maxBandwidth = 0;
+	private boolean bandwidthBudgetExceeded = false;
+	private boolean latencyBudgetExceeded = false;
+	
+	
+	public MultiDriverCenter(Simulator sim)
+	{
+		super("MultiDriverCenter");
+		setDaemon(true);
+		
+		this.sim = sim;
+		
+		SettingsLoader settingsLoader = Simulator.getSettingsLoader();
+		participantID = settingsLoader.getSetting(Setting.MultiDriver_participantID, SimulationDefaults.MultiDriver_participantID);
+		authorityID = settingsLoader.getSetting(Setting.MultiDriver_authorityID, SimulationDefaults.MultiDriver_authorityID);
+		int port = settingsLoader.getSetting(Setting.MultiDriver_port, SimulationDefaults.MultiDriver_port);
+		String peers = settingsLoader.getSetting(Setting.MultiDriver_peers, SimulationDefaults.MultiDriver_peers);
+		int sendRate = settingsLoader.getSetting(Setting.MultiDriver_sendRate, SimulationDefaults.MultiDriver_sendRate);
+		bandwidthBudget = settingsLoader.getSetting(Setting.MultiDriver_bandwidthBudget, SimulationDefaults.MultiDriver_bandwidthBudget);
+		latencyBudget = settingsLoader.getSetting(Setting.MultiDriver_latencyBudget, SimulationDefaults.MultiDriver_latencyBudget);
+		
+		// list of peers, e.g. "192.168.0.11:5900,192.168.0.12:5900"
+		for(String peer : peers.split(","))
+		{
+			peer = peer.trim();
+			int separatorIndex = peer.lastIndexOf(':');
+			
+			try {
+				
+				String ip = peer.substring(0, separatorIndex);
+				int peerPort = Integer.parseInt(peer.substring(separatorIndex+1));
+				peerList.add(new InetSocketAddress(ip, peerPort));
+				
+			} catch (Exception e) {
+				if(!peer.isEmpty())
+					System.err.println("Invalid multi-driver peer address: " + peer);
+			}
+		}
+		
+		try {
+			
+			socket = new DatagramSocket(port);
+			sender = new MultiDriverSender(this, socket, peerList, sim.getTelemetryBus(), sendRate);
+			
+		} catch (SocketException e) {
+			System.err.println("Could not open multi-driver port " + port);
+		}
+		
+		// traffic light states will be set by the authoritative node only
+		if(!isAuthority())
+			TrafficLightCenter.setMode(TrafficLightMode.OFF);
+	}
+	
+	
+	@Override
+	public void start()
+	{
+		super.start();
+		
+		if(sender != null)
+			sender.start();
+	}
+	
+	
+	public int getParticipantID()
+	{
+		return participantID;
+	}
+	
+	
+	public boolean isAuthority()
+	{
+		return participantID == authorityID;
+	}
+	
+	
+	@Override
+	public void run()
+	{
+		if(socket == null)
+			return;
+		
+		byte[] receiveData = new byte[MultiDriverProtocol.MAX_PACKET_SIZE];
+		ByteBuffer receiveBuffer = ByteBuffer.wrap(receiveData);
+		DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
+		
+		byte[] pongData = new byte[MultiDriverProtocol.HEADER_SIZE + 8];
+		ByteBuffer pongBuffer = ByteBuffer.wrap(pongData);
+		long pongSequence = 0;
+		
+		while(!stopRequested)
+		{
+			try {
+				
+				receivePacket.setLength(receiveData.length);
+				socket.receive(receivePacket);
+				receivedBytes.addAndGet(receivePacket.getLength());
+				
+				byte type = MultiDriverProtocol.getType(receiveBuffer, receivePacket.getLength());
+				if(type < 0)
+					continue;
+				
+				int senderID = receiveBuffer.get() & 0xFF;
+				long sequence = receiveBuffer.getLong();
+				long sendTime = receiveBuffer.getLong();
+				
+				if(senderID == participantID)
+					continue;
+				
+				PeerStatistics peerStatistics = getPeerStatistics(senderID);
+				
+				switch(type)
+				{
+					case MultiDriverProtocol.TYPE_EGO :
+						if(peerStatistics.registerEgoMessage(sequence))
+							remoteStateMap.put(senderID, decodeEgoState(receiveBuffer, sequence));
+						break;
+						
+					case MultiDriverProtocol.TYPE_WORLD :
+						if(senderID == authorityID && !isAuthority())
+							decodeWorldState(receiveBuffer);
+						break;
+						
+					case MultiDriverProtocol.TYPE_TRIGGER_HIT :
+						if(isAuthority())
+						{
+							byte kind = receiveBuffer.get();
+							String name = MultiDriverProtocol.getString(receiveBuffer);
+							String hitType = MultiDriverProtocol.getString(receiveBuffer);
+							pendingTriggerHits.add(new TriggerHit(senderID, kind, name, hitType));
+						}
+						break;
+						
+					case MultiDriverProtocol.TYPE_PING :
+						MultiDriverProtocol.putHeader(pongBuffer, MultiDriverProtocol.TYPE_PONG, participantID, pongSequence++);
+						pongBuffer.putLong(sendTime);
+						socket.send(new DatagramPacket(pongData, pongBuffer.position(), receivePacket.getSocketAddress()));
+						sender.addSentBytes(pongBuffer.position());
+						break;
+						
+					case MultiDriverProtocol.TYPE_PONG :
+						long pingTime = receiveBuffer.getLong();
+						peerStatistics.registerRoundTripTime((System.nanoTime() - pingTime) / 1000000f);
+						break;
+				}
+				
+			} catch (IOException e) {
+				
+				if(!stopRequested)
+					System.err.println("MultiDriverCenter_run(): " + e.toString());
+				
+			} catch (RuntimeException e) {
+				
+				// malformed message
+				System.err.println("MultiDriverCenter_run(): " + e.toString());
+			}
+		}
+	}
+
+
+	private PeerStatistics getPeerStatistics(int senderID)
+	{
+		PeerStatistics peerStatistics = peerStatisticsMap.get(senderID);
+		if(peerStatistics == null)
+		{
+			peerStatistics = new PeerStatistics(senderID);
+			peerStatisticsMap.put(senderID, peerStatistics);
+		}
+		return peerStatistics;
+	}
+	
+	
+	private RemoteDriverState decodeEgoState(ByteBuffer buffer, long sequence)
+	{
+		Vector3f position = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		Quaternion rotation = new Quaternion(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		Vector3f linearVelocity = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		Vector3f angularVelocity = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		float speedKmh = buffer.getFloat();
+		float steeringWheelState = buffer.getFloat();
+		float brakePedalPressIntensity = buffer.getFloat();
+		int flags = buffer.get();
+		
+		return new RemoteDriverState(sequence, System.nanoTime(), position, rotation, linearVelocity, 
+				angularVelocity, speedKmh, steeringWheelState, brakePedalPressIntensity, flags);
+	}
+
+
+	private void decodeWorldState(ByteBuffer buffer)
+	{
+		byte[] states = new byte[buffer.getShort()];
+		buffer.get(states);
+		trafficLightStates = states;
+		
+		// events that happened before joining will not be performed
+		boolean hasJoined = (lastReceivedTriggerEvent >= 0);
+		
+		int numberOfEvents = buffer.get();
+		for(int i=0; i<numberOfEvents; i++)
+		{
+			int sequence = buffer.getInt();
+			int hitParticipantID = buffer.get() & 0xFF;
+			String triggerName = MultiDriverProtocol.getString(buffer);
+			
+			if(sequence > lastReceivedTriggerEvent)
+			{
+				if(hasJoined)
+					receivedTriggerEvents.add(new TriggerEvent(sequence, hitParticipantID, triggerName));
+				lastReceivedTriggerEvent = sequence;
+			}
+		}
+		
+		if(lastReceivedTriggerEvent < 0)
+			lastReceivedTriggerEvent = 0;
+	}
+	
+	
+	/**
+	 * Writes traffic light states and recent trigger events (authoritative
+	 * node only). Called by the sender thread.
+	 * 
+	 * @param buffer
+	 * 			Buffer positioned behind the message header.
+	 */
+	void encodeWorldState(ByteBuffer buffer)
+	{
+		List<TrafficLight> trafficLightsList = TrafficLightCenter.getTrafficLightsList();
+		buffer.putShort((short) trafficLightsList.size());
+		for(TrafficLight trafficLight : trafficLightsList)
+			buffer.put((byte) trafficLight.getState().ordinal());
+		
+		synchronized(triggerEventList)
+		{
+			buffer.put((byte) triggerEventList.size());
+			for(TriggerEvent triggerEvent : triggerEventList)
+			{
+				buffer.putInt(triggerEvent.getSequence());
+				buffer.put((byte) triggerEvent.getParticipantID());
+				MultiDriverProtocol.putString(buffer, triggerEvent.getTriggerName());
+			}
+		}
+	}
+	
+	
+	Set<TriggerHit> getPendingTriggerHits()
+	{
+		return pendingTriggerHits;
+	}
+	
+	
+	/**
+	 * Reports a road object trigger hit by the local driving car. The trigger
+	 * action will be performed as soon as the authoritative node has accepted
+	 * the hit.
+	 * 
+	 * @param triggerName
+	 * 			Name of the trigger.
+	 */
+	public void reportTriggerHit(String triggerName)
+	{
+		TriggerHit triggerHit = new TriggerHit(participantID, TriggerHit.KIND_ROAD_OBJECT, triggerName, "");
+		
+		if(isAuthority())
+			evaluateTriggerHit(triggerHit);
+		else
+			pendingTriggerHits.add(triggerHit);
+	}
+	
+	
+	/**
+	 * Reports a traffic light trigger hit by the local driving car to the
+	 * authoritative node, which runs the traffic light programs.
+	 * 
+	 * @param trafficLightName
+	 * 			Name of the traffic light.
+	 * 
+	 * @param type
+	 * 			Type of trigger (e.g. "TrafficLightTrigger").
+	 */
+	public void reportTrafficLightHit(String trafficLightName, String type)
+	{
+		TriggerHit triggerHit = new TriggerHit(participantID, TriggerHit.KIND_TRAFFIC_LIGHT, trafficLightName, type);
+		
+		if(isAuthority())
+			evaluateTriggerHit(triggerHit);
+		else
+			pendingTriggerHits.add(triggerHit);
+	}
+
+
+	private void evaluateTriggerHit(TriggerHit triggerHit)
+	{
+		if(triggerHit.getKind() == TriggerHit.KIND_TRAFFIC_LIGHT)
+			TrafficLightCenter.reportCollision(triggerHit.getName(), triggerHit.getType());
+		
+		else if(TriggerCenter.performTriggerAction(triggerHit.getName(), sim.getCar()))
+		{
+			// trigger accepted --> replicate to all participants
+			synchronized(triggerEventList)
+			{
+				triggerEventList.add(new TriggerEvent(++nextTriggerEventSequence, 
+						triggerHit.getParticipantID(), triggerHit.getName()));
+				
+				if(triggerEventList.size() > MAX_TRIGGER_EVENTS)
+					triggerEventList.removeFirst();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Moves the proxies of all remote drivers and applies the replicated 
+	 * world state. Must be called on the jME update thread once per frame.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 */
+	public void update(float tpf)
+	{
+		for(Entry<Integer, RemoteDriverState> entry : remoteStateMap.entrySet())
+		{
+			int remoteID = entry.getKey();
+			RemoteDriver remoteDriver = remoteDriverMap.get(remoteID);
+			if(remoteDriver == null)
+			{
+				remoteDriver = new RemoteDriver(sim, remoteID);
+				remoteDriverMap.put(remoteID, remoteDriver);
+				System.out.println("Participant " + remoteID + " joined");
+			}
+			
+			PeerStatistics peerStatistics = peerStatisticsMap.get(remoteID);
+			float latency = (peerStatistics != null) ? peerStatistics.getLatency() / 1000f : 0;
+			remoteDriver.update(entry.getValue(), tpf, latency);
+		}
+		
+		if(isAuthority())
+		{
+			// evaluate triggers hit by other participants
+			Iterator<TriggerHit> iterator = pendingTriggerHits.iterator();
+			while(iterator.hasNext())
+			{
+				TriggerHit triggerHit = iterator.next();
+				iterator.remove();
+				evaluateTriggerHit(triggerHit);
+			}
+		}
+		else
+		{
+			applyTrafficLightStates();
+			
+			TriggerEvent triggerEvent;
+			while((triggerEvent = receivedTriggerEvents.poll()) != null)
+				TriggerCenter.performTriggerAction(triggerEvent.getTriggerName(), sim.getCar());
+		}
+	}
+
+
+	private void applyTrafficLightStates()
+	{
+		byte[] states = trafficLightStates;
+		if(states == null)
+			return;
+		
+		List<TrafficLight> trafficLightsList = TrafficLightCenter.getTrafficLightsList();
+		TrafficLightState[] values = TrafficLightState.values();
+		for(int i=0; i<states.length && i<trafficLightsList.size(); i++)
+		{
+			if(states[i] >= 0 && states[i] < values.length)
+				trafficLightsList.get(i).setState(values[states[i]]);
+		}
+	}
+	
+	
+	/**
+	 * Updates the bandwidth figures and checks them against the configured 
+	 * budgets. Called by the sender thread once per second.
+	 * 
+	 * @param sendBandwidth
+	 * 			Outgoing bandwidth of the last second (in kbit/s).
+	 * 
+	 * @param receivedBytesSinceLastCall
+	 * 			Number of bytes received since the previous call.
+	 * 
+	 * @param elapsedSeconds
+	 * 			Time since the previous call (in seconds).
+	 */
+	void updateStatistics(float sendBandwidth, long receivedBytesSinceLastCall, float elapsedSeconds)
+	{
+		this.sendBandwidth = sendBandwidth;
+		receiveBandwidth = (receivedBytesSinceLastCall * 8 / 1000f) / elapsedSeconds;
+		maxBandwidth = Math.max(maxBandwidth, this.sendBandwidth + receiveBandwidth);
+		
+		boolean bandwidthExceeded = (this.sendBandwidth + receiveBandwidth > bandwidthBudget);
+		if(bandwidthExceeded && !bandwidthBudgetExceeded)
+			System.err.println("Multi-driver bandwidth budget (" + bandwidthBudget + " kbit/s) exceeded: " + 
+					getBandwidthString());
+		bandwidthBudgetExceeded = bandwidthExceeded;
+		
+		boolean latencyExceeded = false;
+		for(PeerStatistics peerStatistics : peerStatisticsMap.values())
+		{
+			if(peerStatistics.getLatency() > latencyBudget)
+			{
+				latencyExceeded = true;
+				if(!latencyBudgetExceeded)
+					System.err.println("Multi-driver latency budget (" + latencyBudget + " ms) exceeded: " + 
+							peerStatistics.toString());
+			}
+		}
+		latencyBudgetExceeded = latencyExceeded;
+	}
+	
+	
+	long getReceivedBytes()
+	{
+		return receivedBytes.get();
+	}
+
+
+	private String getBandwidthString()
+	{
+		return "sent=" + sendBandwidth + " kbit/s, received=" + receiveBandwidth + " kbit/s, max=" + 
+				maxBandwidth + " kbit/s";
+	}
+	
+	
+	/**
+	 * Bandwidth and latency of all connections as human readable string, 
+	 * e.g. for log output.
+	 * 
+	 * @return
+	 * 			One line for the local node and each remote participant.
+	 */
+	public String getReport()
+	{
+		String newLine = System.getProperty("line.separator");
+		StringBuffer report = new StringBuffer();
+		report.append("participant " + participantID + (isAuthority() ? " (authority)" : "") + ": " + 
+				getBandwidthString() + " (budget: " + bandwidthBudget + " kbit/s, " + latencyBudget + " ms)");
+		for(PeerStatistics peerStatistics : peerStatisticsMap.values())
+			report.append(newLine).append(peerStatistics.toString());
+		return report.toString();
+	}
+	
+	
+	/**
+	 * Stops sending and receiving and removes all remote driver proxies
+	 */
+	public synchronized void close()
+	{
+		stopRequested = true;
+		
+		if(sender != null)
+			sender.requestStop();
+		
+		if(socket != null)
+			socket.close();
+		
+		for(RemoteDriver remoteDriver : remoteDriverMap.values())
+			remoteDriver.close();
+	}
+}
@@ -0,0 +1,125 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Wire format of the multi-driver mode. All datagrams are big endian and 
+ * start with the same header:
+ * <pre>
+ * int    magic ("ODMD")
+ * short  protocol version
+ * byte   message type
+ * byte   participant ID of the sender
+ * long   sequence number (per sender and message type)
+ * long   send time (ns, clock of the sender)
+ * </pre>
+ * Message types:
+ * <pre>
+ * EGO          state of the sender's driving car: position (3 floats), 
+ *              rotation (4), linear velocity (3), angular velocity (3), 
+ *              speed, steering wheel, brake pedal (1 each), flags (byte)
+ * WORLD        (authoritative node only) number of traffic lights (short), 
+ *              one state byte per traffic light, number of trigger events 
+ *              (byte), per event: sequence (int), participant (byte), trigger 
+ *              name (string)
+ * TRIGGER_HIT  (to authoritative node) kind (byte), name (string), type (string)
+ * PING         no body
+ * PONG         send time of the PING (long)
+ * </pre>
+ * Strings are encoded as length (short) followed by UTF-8 bytes.
+ *
+ * @author agent
+ */
+public class MultiDriverProtocol
+{
+	public static final int MAGIC = 0x4F444D44; // "ODMD"
+	public static final short PROTOCOL_VERSION = 1;
+	
+	public static final byte TYPE_EGO = 1;
+	public static final byte TYPE_WORLD = 2;
+	public static final byte TYPE_TRIGGER_HIT = 3;
+	public static final byte TYPE_PING = 4;
+	public static final byte TYPE_PONG = 5;
+	
+	public static final int FLAG_TURN_SIGNAL_LEFT = 1;
+	public static final int FLAG_TURN_SIGNAL_RIGHT = 2;
+	public static final int FLAG_LOW_BEAM = 4;
+	public static final int FLAG_HIGH_BEAM = 8;
+	
+	public static final int HEADER_SIZE = 4 + 2 + 1 + 1 + 8 + 8;
+	public static final int MAX_PACKET_SIZE = 65507;
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	
+	public static void putHeader(ByteBuffer buffer, byte type, int participantID, long sequence)
+	{
+		buffer.clear();
+		buffer.putInt(MAGIC);
+		buffer.putShort(PROTOCOL_VERSION);
+		buffer.put(type);
+		buffer.put((byte) participantID);
+		buffer.putLong(sequence);
+		buffer.putLong(System.nanoTime());
+	}
+	
+	
+	/**
+	 * Validates the header of a received message and returns its type. If 
+	 * valid, the buffer will be positioned at the participant ID field.
+	 * 
+	 * @param buffer
+	 * 			Buffer containing the message (from position 0).
+	 * 
+	 * @param length
+	 * 			Number of valid bytes in the buffer.
+	 * 
+	 * @return
+	 * 			Message type or -1 if the datagram is not a valid message.
+	 */
+	public static byte getType(ByteBuffer buffer, int length)
+	{
+		buffer.clear();
+		buffer.limit(length);
+		
+		if(length < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getShort() != PROTOCOL_VERSION)
+			return -1;
+		
+		return buffer.get();
+	}
+	
+	
+	public static void putString(ByteBuffer buffer, String string)
+	{
+		byte[] bytes = string.getBytes(UTF8);
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+	
+	
+	public static String getString(ByteBuffer buffer)
+	{
+		byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+}
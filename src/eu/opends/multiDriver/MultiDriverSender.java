@@ -0,0 +1,250 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import eu.opends.telemetry.CarSnapshot;
+import eu.opends.telemetry.TelemetryBus;
+import eu.opends.telemetry.TelemetrySubscriber;
+
+/**
+ * Sends the state of the local driving car to all peers at a fixed rate,
+ * independent of the frame rate. The authoritative node additionally sends
+ * the world state (traffic lights, trigger events) at the same rate; all other
+ * nodes forward trigger hits of their car. Round trip times are measured by 
+ * pinging all peers once per second.
+ *
+ * @author agent
+ */
+public class MultiDriverSender extends Thread
+{
+	private static final long PING_INTERVAL = 1000000000L;
+	private static final long STATISTICS_INTERVAL = 1000000000L;
+	
+	private MultiDriverCenter multiDriverCenter;
+	private DatagramSocket socket;
+	private List<InetSocketAddress> peerList;
+	private TelemetrySubscriber telemetry;
+	private long sendInterval;
+	private volatile boolean stopRequested = false;
+	
+	private byte[] sendData = new byte[MultiDriverProtocol.MAX_PACKET_SIZE];
+	private ByteBuffer sendBuffer = ByteBuffer.wrap(sendData);
+	private DatagramPacket sendPacket = new DatagramPacket(sendData, sendData.length);
+	private AtomicLong sentBytes = new AtomicLong(0);
+	private long egoSequence = 0;
+	private long worldSequence = 0;
+	private long triggerHitSequence = 0;
+	private long pingSequence = 0;
+	
+	
+	public MultiDriverSender(MultiDriverCenter multiDriverCenter, DatagramSocket socket, 
+			List<InetSocketAddress> peerList, TelemetryBus telemetryBus, int sendRate)
+	{
+		super("MultiDriverSender");
+		setDaemon(true);
+		
+		this.multiDriverCenter = multiDriverCenter;
+		this.socket = socket;
+		this.peerList = peerList;
+		this.telemetry = telemetryBus.subscribe("MultiDriverSender");
+		this.sendInterval = 1000000000L / Math.max(1, sendRate);
+	}
+	
+	
+	@Override
+	public void run()
+	{
+		long nextSendTime = System.nanoTime();
+		long lastPingTime = 0;
+		long lastStatisticsTime = nextSendTime;
+		long lastSentBytes = 0;
+		long lastReceivedBytes = 0;
+		
+		while(!stopRequested)
+		{
+			try {
+				
+				sendEgoState();
+				
+				if(multiDriverCenter.isAuthority())
+					sendWorldState();
+				else
+					sendTriggerHits();
+				
+				long now = System.nanoTime();
+				if(now - lastPingTime >= PING_INTERVAL)
+				{
+					sendPing();
+					lastPingTime = now;
+				}
+				
+				if(now - lastStatisticsTime >= STATISTICS_INTERVAL)
+				{
+					float elapsedSeconds = (now - lastStatisticsTime) / 1000000000f;
+					long currentSentBytes = sentBytes.get();
+					long currentReceivedBytes = multiDriverCenter.getReceivedBytes();
+					float sendBandwidth = ((currentSentBytes - lastSentBytes) * 8 / 1000f) / elapsedSeconds;
+					multiDriverCenter.updateStatistics(sendBandwidth, currentReceivedBytes - lastReceivedBytes, elapsedSeconds);
+					lastSentBytes = currentSentBytes;
+					lastReceivedBytes = currentReceivedBytes;
+					lastStatisticsTime = now;
+				}
+				
+			} catch (IOException e) {
+				
+				if(!stopRequested)
+					System.err.println("MultiDriverSender_run(): " + e.toString());
+			}
+			
+			// wait for next send slot (do not catch up if late)
+			nextSendTime += sendInterval;
+			long waitTime = nextSendTime - System.nanoTime();
+			if(waitTime > 0)
+				LockSupport.parkNanos(waitTime);
+			else
+				nextSendTime = System.nanoTime();
+		}
+		
+		telemetry.close();
+	}
+
+
+	private void sendEgoState() throws IOException
+	{
+		CarSnapshot snapshot = telemetry.current();
+		if(snapshot == null)
+			return;
+		
+		int flags = 0;
+		if(snapshot.isTurnSignalLeft())
+			flags |= MultiDriverProtocol.FLAG_TURN_SIGNAL_LEFT;
+		if(snapshot.isTurnSignalRight())
+			flags |= MultiDriverProtocol.FLAG_TURN_SIGNAL_RIGHT;
+		if(snapshot.getLightIntensity() == 1)
+			flags |= MultiDriverProtocol.FLAG_LOW_BEAM;
+		if(snapshot.getLightIntensity() == 2)
+			flags |= MultiDriverProtocol.FLAG_HIGH_BEAM;
+		
+		MultiDriverProtocol.putHeader(sendBuffer, MultiDriverProtocol.TYPE_EGO, 
+				multiDriverCenter.getParticipantID(), egoSequence++);
+		sendBuffer.putFloat(snapshot.getPositionX());
+		sendBuffer.putFloat(snapshot.getPositionY());
+		sendBuffer.putFloat(snapshot.getPositionZ());
+		sendBuffer.putFloat(snapshot.getRotationX());
+		sendBuffer.putFloat(snapshot.getRotationY());
+		sendBuffer.putFloat(snapshot.getRotationZ());
+		sendBuffer.putFloat(snapshot.getRotationW());
+		sendBuffer.putFloat(snapshot.getLinearVelocityX());
+		sendBuffer.putFloat(snapshot.getLinearVelocityY());
+		sendBuffer.putFloat(snapshot.getLinearVelocityZ());
+		sendBuffer.putFloat(snapshot.getAngularVelocityX());
+		sendBuffer.putFloat(snapshot.getAngularVelocityY());
+		sendBuffer.putFloat(snapshot.getAngularVelocityZ());
+		sendBuffer.putFloat(snapshot.getSpeedKmh());
+		sendBuffer.putFloat(snapshot.getSteeringWheelState());
+		sendBuffer.putFloat(snapshot.getBrakePedalPressIntensity());
+		sendBuffer.put((byte) flags);
+		
+		sendToAllPeers();
+	}
+
+
+	private void sendWorldState() throws IOException
+	{
+		MultiDriverProtocol.putHeader(sendBuffer, MultiDriverProtocol.TYPE_WORLD, 
+				multiDriverCenter.getParticipantID(), worldSequence++);
+		multiDriverCenter.encodeWorldState(sendBuffer);
+		
+		sendToAllPeers();
+	}
+
+
+	private void sendTriggerHits() throws IOException
+	{
+		// only the authoritative node will evaluate trigger hits
+		Iterator<TriggerHit> iterator = multiDriverCenter.getPendingTriggerHits().iterator();
+		while(iterator.hasNext())
+		{
+			TriggerHit triggerHit = iterator.next();
+			iterator.remove();
+			
+			MultiDriverProtocol.putHeader(sendBuffer, MultiDriverProtocol.TYPE_TRIGGER_HIT, 
+					multiDriverCenter.getParticipantID(), triggerHitSequence++);
+			sendBuffer.put(triggerHit.getKind());
+			MultiDriverProtocol.putString(sendBuffer, triggerHit.getName());
+			MultiDriverProtocol.putString(sendBuffer, triggerHit.getType());
+			
+			sendToAllPeers();
+		}
+	}
+
+
+	private void sendPing() throws IOException
+	{
+		MultiDriverProtocol.putHeader(sendBuffer, MultiDriverProtocol.TYPE_PING, 
+				multiDriverCenter.getParticipantID(), pingSequence++);
+		
+		sendToAllPeers();
+	}
+
+
+	private void sendToAllPeers() throws IOException
+	{
+		int length = sendBuffer.position();
+		sendPacket.setLength(length);
+		
+		for(InetSocketAddress peer : peerList)
+		{
+			sendPacket.setSocketAddress(peer);
+			socket.send(sendPacket);
+			sentBytes.addAndGet(length);
+		}
+	}
+	
+	
+	/**
+	 * Accounts for messages sent by other threads (e.g. PONG replies)
+	 * 
+	 * @param bytes
+	 * 			Number of bytes sent.
+	 */
+	void addSentBytes(int bytes)
+	{
+		sentBytes.addAndGet(bytes);
+	}
+	
+	
+	/**
+	 * Requests the sender to stop after the current loop
+	 */
+	public synchronized void requestStop()
+	{
+		stopRequested = true;
+	}
+}
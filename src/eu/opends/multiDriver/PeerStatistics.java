@@ -0,0 +1,121 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+/**
+ * Connection statistics of one remote participant. Written by the receiver
+ * thread only; may be read from any thread.
+ *
+ * @author agent
+ */
+public class PeerStatistics
+{
+	// weight of a new round trip sample in the moving average
+	private static final float SMOOTHING_FACTOR = 0.125f;
+	
+	private final int participantID;
+	private volatile long receivedPackets = 0;
+	private volatile long lostPackets = 0;
+	private volatile long lastEgoSequence = -1;
+	private volatile float roundTripTime = -1;
+	private volatile float maxRoundTripTime = 0;
+	
+	
+	public PeerStatistics(int participantID)
+	{
+		this.participantID = participantID;
+	}
+	
+	
+	/**
+	 * Registers a received EGO message.
+	 * 
+	 * @param sequence
+	 * 			Sequence number of the message.
+	 * 
+	 * @return
+	 * 			False, if the message is older than the latest one received.
+	 */
+	boolean registerEgoMessage(long sequence)
+	{
+		receivedPackets++;
+		
+		if(sequence <= lastEgoSequence)
+			return false;
+		
+		if(lastEgoSequence >= 0)
+			lostPackets += sequence - lastEgoSequence - 1;
+		
+		lastEgoSequence = sequence;
+		return true;
+	}
+	
+	
+	void registerRoundTripTime(float milliseconds)
+	{
+		if(roundTripTime < 0)
+			roundTripTime = milliseconds;
+		else
+			roundTripTime += SMOOTHING_FACTOR * (milliseconds - roundTripTime);
+		
+		maxRoundTripTime = Math.max(maxRoundTripTime, milliseconds);
+	}
+	
+	
+	public int getParticipantID()
+	{
+		return participantID;
+	}
+	
+	
+	/**
+	 * @return estimated one-way latency in milliseconds (half the smoothed 
+	 * 			round trip time; 0 if not measured yet)
+	 */
+	public float getLatency()
+	{
+		return Math.max(0, roundTripTime / 2f);
+	}
+	
+	
+	public float getMaxRoundTripTime()
+	{
+		return maxRoundTripTime;
+	}
+	
+	
+	public long getReceivedPackets()
+	{
+		return receivedPackets;
+	}
+	
+	
+	public long getLostPackets()
+	{
+		return lostPackets;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "participant " + participantID + ": latency=" + getLatency() + " ms, maxRTT=" + 
+				maxRoundTripTime + " ms, received=" + receivedPackets + ", lost=" + lostPackets;
+	}
+}
@@ -0,0 +1,214 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+import java.io.File;
+
+import com.jme3.bullet.control.RigidBodyControl;
+import com.jme3.bullet.control.VehicleControl;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial.CullHint;
+
+import eu.opends.car.CarModelLoader;
+import eu.opends.car.LightTexturesContainer;
+import eu.opends.car.LightTexturesContainer.TurnSignalState;
+import eu.opends.drivingTask.scenario.ScenarioLoader;
+import eu.opends.main.Simulator;
+
+/**
+ * Kinematic proxy of the driving car of another participant. The proxy has no
+ * vehicle physics of its own; it follows the received states by dead reckoning
+ * (extrapolation of the latest state by its velocities over the time since it
+ * was sent) and converges smoothly towards the extrapolated pose in order to 
+ * avoid visible jumps when a new state arrives. The local driving car collides 
+ * with the proxy's kinematic body.
+ *
+ * @author agent
+ */
+public class RemoteDriver
+{
+	// do not extrapolate states older than this (in seconds)
+	private static final float MAX_EXTRAPOLATION_TIME = 0.5f;
+	
+	// time constant (in seconds) of the convergence to the extrapolated pose
+	private static final float CONVERGENCE_TIME = 0.1f;
+	
+	// larger deviations (in meters) will be corrected immediately (e.g. reset of car)
+	private static final float SNAP_DISTANCE = 5f;
+	
+	// hide proxy if no state has been received for this time (in seconds)
+	private static final float TIMEOUT = 5f;
+	
+	private Simulator sim;
+	private int participantID;
+	private Node carNode;
+	private RigidBodyControl proxyControl;
+	private LightTexturesContainer lightTexturesContainer;
+	private RemoteDriverState appliedState = null;
+	private TurnSignalState turnSignalState = TurnSignalState.OFF;
+	private boolean isPlaced = false;
+	
+	private Vector3f displayedPosition = new Vector3f();
+	private Quaternion displayedRotation = new Quaternion();
+	private Vector3f targetPosition = new Vector3f();
+	private Quaternion targetRotation = new Quaternion();
+	private Quaternion deltaRotation = new Quaternion();
+	private Vector3f rotationAxis = new Vector3f();
+	
+	
+	public RemoteDriver(Simulator sim, int participantID)
+	{
+		this.sim = sim;
+		this.participantID = participantID;
+		
+		ScenarioLoader scenarioLoader = Simulator.getDrivingTask().getScenarioLoader();
+		String modelPath = scenarioLoader.getModelPath();
+		float mass = scenarioLoader.getChassisMass();
+		
+		// load same car model as the local driving car
+		CarModelLoader carModel = new CarModelLoader(sim, modelPath, mass);
+		carNode = carModel.getCarNode();
+		carNode.setName("RemoteDriver_" + participantID);
+		
+		// replace vehicle physics by a kinematic body following the node
+		VehicleControl vehicleControl = carModel.getCarControl();
+		carNode.removeControl(vehicleControl);
+		proxyControl = new RigidBodyControl(vehicleControl.getCollisionShape(), mass);
+		proxyControl.setKinematic(true);
+		carNode.addControl(proxyControl);
+		
+		// load light textures (brake lights, turn signals)
+		File modelFile = new File(modelPath);
+		String lightTexturesPath = modelFile.getPath().replace(modelFile.getName(), "lightTextures.xml");
+		lightTexturesContainer = new LightTexturesContainer(sim, carNode, lightTexturesPath);
+		
+		// not visible before first state has been applied
+		carNode.setCullHint(CullHint.Always);
+		
+		sim.getRootNode().attachChild(carNode);
+		sim.getPhysicsSpace().add(proxyControl);
+	}
+	
+	
+	public int getParticipantID()
+	{
+		return participantID;
+	}
+	
+	
+	public Node getCarNode()
+	{
+		return carNode;
+	}
+	
+	
+	/**
+	 * Moves the proxy towards the pose extrapolated from the given state.
+	 * Must be called on the jME update thread once per frame.
+	 * 
+	 * @param state
+	 * 			Latest state received from the participant.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 * 
+	 * @param latency
+	 * 			Estimated one-way network latency (in seconds).
+	 */
+	public void update(RemoteDriverState state, float tpf, float latency)
+	{
+		float age = (System.nanoTime() - state.getReceiveTime()) / 1000000000f;
+		if(age > TIMEOUT)
+		{
+			carNode.setCullHint(CullHint.Always);
+			return;
+		}
+		carNode.setCullHint(CullHint.Dynamic);
+		
+		// dead reckoning: extrapolate state to the current time
+		float extrapolationTime = FastMath.clamp(age + latency, 0, MAX_EXTRAPOLATION_TIME);
+		
+		targetPosition.set(state.getLinearVelocity()).multLocal(extrapolationTime).addLocal(state.getPosition());
+		
+		Vector3f angularVelocity = state.getAngularVelocity();
+		float angularSpeed = angularVelocity.length();
+		if(angularSpeed > FastMath.ZERO_TOLERANCE)
+		{
+			rotationAxis.set(angularVelocity).divideLocal(angularSpeed);
+			deltaRotation.fromAngleNormalAxis(angularSpeed * extrapolationTime, rotationAxis);
+			deltaRotation.mult(state.getRotation(), targetRotation);
+		}
+		else
+			targetRotation.set(state.getRotation());
+		
+		// interpolation: converge smoothly unless deviation is too large
+		if(!isPlaced || displayedPosition.distance(targetPosition) > SNAP_DISTANCE)
+		{
+			displayedPosition.set(targetPosition);
+			displayedRotation.set(targetRotation);
+			isPlaced = true;
+		}
+		else
+		{
+			float blendFactor = 1f - FastMath.exp(-tpf / CONVERGENCE_TIME);
+			displayedPosition.interpolateLocal(targetPosition, blendFactor);
+			displayedRotation.slerp(targetRotation, blendFactor);
+		}
+		
+		carNode.setLocalTranslation(displayedPosition);
+		carNode.setLocalRotation(displayedRotation);
+		
+		if(state != appliedState)
+		{
+			updateLights(state);
+			appliedState = state;
+		}
+	}
+
+
+	private void updateLights(RemoteDriverState state)
+	{
+		lightTexturesContainer.setBrakeLight(state.getBrakePedalPressIntensity() > 0);
+		
+		TurnSignalState newTurnSignalState = TurnSignalState.OFF;
+		if(state.isTurnSignalLeft() && state.isTurnSignalRight())
+			newTurnSignalState = TurnSignalState.BOTH;
+		else if(state.isTurnSignalLeft())
+			newTurnSignalState = TurnSignalState.LEFT;
+		else if(state.isTurnSignalRight())
+			newTurnSignalState = TurnSignalState.RIGHT;
+		
+		if(newTurnSignalState != turnSignalState)
+		{
+			lightTexturesContainer.setTurnSignal(newTurnSignalState);
+			turnSignalState = newTurnSignalState;
+		}
+	}
+	
+	
+	public void close()
+	{
+		lightTexturesContainer.close();
+		sim.getPhysicsSpace().remove(proxyControl);
+		carNode.removeFromParent();
+	}
+}
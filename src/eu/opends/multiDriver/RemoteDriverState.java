@@ -0,0 +1,129 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+/**
+ * Immutable state of a remote driving car as received in an EGO message.
+ * Must not be modified after construction, as it is handed from the receiver
+ * thread to the jME update thread.
+ *
+ * @author agent
+ */
+public class RemoteDriverState
+{
+	private final long sequence;
+	private final long receiveTime;
+	private final Vector3f position;
+	private final Quaternion rotation;
+	private final Vector3f linearVelocity;
+	private final Vector3f angularVelocity;
+	private final float speedKmh;
+	private final float steeringWheelState;
+	private final float brakePedalPressIntensity;
+	private final int flags;
+	
+	
+	public RemoteDriverState(long sequence, long receiveTime, Vector3f position, Quaternion rotation,
+			Vector3f linearVelocity, Vector3f angularVelocity, float speedKmh, float steeringWheelState,
+			float brakePedalPressIntensity, int flags)
+	{
+		this.sequence = sequence;
+		this.receiveTime = receiveTime;
+		this.position = position;
+		this.rotation = rotation;
+		this.linearVelocity = linearVelocity;
+		this.angularVelocity = angularVelocity;
+		this.speedKmh = speedKmh;
+		this.steeringWheelState = steeringWheelState;
+		this.brakePedalPressIntensity = brakePedalPressIntensity;
+		this.flags = flags;
+	}
+
+
+	public long getSequence() 
+	{
+		return sequence;
+	}
+
+
+	/**
+	 * @return local time (System.nanoTime()) the state has been received
+	 */
+	public long getReceiveTime() 
+	{
+		return receiveTime;
+	}
+
+
+	public Vector3f getPosition() 
+	{
+		return position;
+	}
+
+
+	public Quaternion getRotation() 
+	{
+		return rotation;
+	}
+
+
+	public Vector3f getLinearVelocity() 
+	{
+		return linearVelocity;
+	}
+
+
+	public Vector3f getAngularVelocity() 
+	{
+		return angularVelocity;
+	}
+
+
+	public float getSpeedKmh() 
+	{
+		return speedKmh;
+	}
+
+
+	public float getSteeringWheelState() 
+	{
+		return steeringWheelState;
+	}
+
+
+	public float getBrakePedalPressIntensity() 
+	{
+		return brakePedalPressIntensity;
+	}
+
+
+	public boolean isTurnSignalLeft() 
+	{
+		return (flags & MultiDriverProtocol.FLAG_TURN_SIGNAL_LEFT) != 0;
+	}
+
+
+	public boolean isTurnSignalRight() 
+	{
+		return (flags & MultiDriverProtocol.FLAG_TURN_SIGNAL_RIGHT) != 0;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+/**
+ * Trigger accepted by the authoritative node. Trigger events are numbered 
+ * consecutively and will be performed by every participant exactly once.
+ *
+ * @author agent
+ */
+public class TriggerEvent
+{
+	private final int sequence;
+	private final int participantID;
+	private final String triggerName;
+	
+	
+	public TriggerEvent(int sequence, int participantID, String triggerName)
+	{
+		this.sequence = sequence;
+		this.participantID = participantID;
+		this.triggerName = triggerName;
+	}
+
+
+	public int getSequence() 
+	{
+		return sequence;
+	}
+
+
+	/**
+	 * @return ID of the participant whose car has hit the trigger
+	 */
+	public int getParticipantID() 
+	{
+		return participantID;
+	}
+
+
+	public String getTriggerName() 
+	{
+		return triggerName;
+	}
+}
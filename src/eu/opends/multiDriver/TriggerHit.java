@@ -0,0 +1,101 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.multiDriver;
+
+/**
+ * Trigger hit by the driving car of a participant, to be evaluated by the 
+ * authoritative node.
+ *
+ * @author agent
+ */
+public class TriggerHit
+{
+	public static final byte KIND_ROAD_OBJECT = 0;
+	public static final byte KIND_TRAFFIC_LIGHT = 1;
+	
+	private final int participantID;
+	private final byte kind;
+	private final String name;
+	private final String type;
+	
+	
+	/**
+	 * @param participantID
+	 * 			ID of the participant whose car has hit the trigger.
+	 * 
+	 * @param kind
+	 * 			KIND_ROAD_OBJECT or KIND_TRAFFIC_LIGHT
+	 * 
+	 * @param name
+	 * 			Trigger name (road object) or traffic light name.
+	 * 
+	 * @param type
+	 * 			Type of traffic light trigger (empty for road object triggers).
+	 */
+	public TriggerHit(int participantID, byte kind, String name, String type)
+	{
+		this.participantID = participantID;
+		this.kind = kind;
+		this.name = name;
+		this.type = type;
+	}
+
+
+	public int getParticipantID() 
+	{
+		return participantID;
+	}
+
+
+	public byte getKind() 
+	{
+		return kind;
+	}
+
+
+	public String getName() 
+	{
+		return name;
+	}
+
+
+	public String getType() 
+	{
+		return type;
+	}
+	
+	
+	@Override
+	public boolean equals(Object object)
+	{
+		if(!(object instanceof TriggerHit))
+			return false;
+		
+		TriggerHit other = (TriggerHit) object;
+		return participantID == other.participantID && kind == other.kind && 
+				name.equals(other.name) && type.equals(other.type);
+	}
+	
+	
+	@Override
+	public int hashCode()
+	{
+		return ((participantID * 31 + kind) * 31 + name.hashCode()) * 31 + type.hashCode();
+	}
+}
@@ -0,0 +1,112 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.renderCluster;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format shared by {@link RenderMaster} and {@link RenderSlave}. All
+ * datagrams are big endian and start with the same header:
+ * <pre>
+ * int    magic ("ODRC")
+ * short  protocol version
+ * short  message type (STATE or READY)
+ * long   frame number
+ * </pre>
+ * STATE (master to slaves), one per rendered frame:
+ * <pre>
+ * long   session time (ns)
+ * byte   camera mode (ordinal)
+ * byte   flags (bit 0: rear view mirror visible)
+ * float  camera position x, y, z and rotation x, y, z, w (pose of the main 
+ *        camera node; in CHASE mode derived from the chase camera)
+ * float  driving car position x, y, z and rotation x, y, z, w
+ * byte   driving car head light intensity (0: off, 1: low beam, 2: high beam)
+ * byte   driving car brake lights and turn signals (light state ordinal, 
+ *        including the blinking phase)
+ * byte   driving car flags (bit 0: head lights attached to the scene)
+ * short  number of traffic cars, followed by position, rotation and the 
+ *        three light bytes of each (as for the driving car)
+ * short  number of traffic lights, followed by one state (ordinal) byte each
+ * </pre>
+ * READY (slave to master) carries the number of the frame the slave has just
+ * presented and the slave's screen index (short).
+ *
+ * @author agent
+ */
+public class RenderClusterProtocol
+{
+	public static final int MAGIC = 0x4F445243; // "ODRC"
+	public static final short PROTOCOL_VERSION = 2;
+	
+	public static final short TYPE_STATE = 1;
+	public static final short TYPE_READY = 2;
+	
+	public static final int HEADER_SIZE = 4 + 2 + 2 + 8;
+	public static final int READY_SIZE = HEADER_SIZE + 2;
+	public static final int POSE_SIZE = 7*4;
+	public static final int CAR_SIZE = POSE_SIZE + 3;
+	public static final int MAX_PACKET_SIZE = 65507;
+	
+	
+	/**
+	 * Writes the header of a new message (from position 0).
+	 * 
+	 * @param buffer
+	 * 			Target buffer.
+	 * 
+	 * @param type
+	 * 			Message type (TYPE_STATE or TYPE_READY).
+	 * 
+	 * @param frame
+	 * 			Frame number.
+	 */
+	public static void putHeader(ByteBuffer buffer, short type, long frame)
+	{
+		buffer.clear();
+		buffer.putInt(MAGIC);
+		buffer.putShort(PROTOCOL_VERSION);
+		buffer.putShort(type);
+		buffer.putLong(frame);
+	}
+	
+	
+	/**
+	 * Reads and validates the header of a received message.
+	 * 
+	 * @param buffer
+	 * 			Buffer containing the message (from position 0).
+	 * 
+	 * @param length
+	 * 			Number of valid bytes in the buffer.
+	 * 
+	 * @return
+	 * 			Message type or -1 if the datagram is not a valid message.
+	 */
+	public static short getType(ByteBuffer buffer, int length)
+	{
+		buffer.clear();
+		buffer.limit(length);
+		
+		if(length < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getShort() != PROTOCOL_VERSION)
+			return -1;
+		
+		return buffer.getShort();
+	}
+}
@@ -0,0 +1,347 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.renderCluster;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import com.jme3.scene.Spatial;
+
+import eu.opends.camera.CameraFactory;
+import eu.opends.camera.CameraFactory.CameraMode;
+import eu.opends.car.Car;
+import eu.opends.drivingTask.settings.SettingsLoader;
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.environment.TrafficLight;
+import eu.opends.environment.TrafficLightCenter;
+import eu.opends.main.SimulationDefaults;
+import eu.opends.main.Simulator;
+import eu.opends.traffic.TrafficCar;
+
+/**
+ * Master node of a distributed multi-screen setup. The master runs the whole
+ * simulation (physics, traffic, triggers, ...) and sends the resulting state
+ * of every frame (camera, cars and their lights, traffic lights) to a number of render slaves,
+ * each of them rendering a single screen of the projection (see 
+ * {@link RenderSlave}).<br>
+ * <br>
+ * Frame barrier: the state of frame N will not be sent before all slaves have
+ * reported frame N-1 as presented. Hence, all screens show the same frame at 
+ * the same time. A slave that does not respond within the sync timeout is 
+ * skipped for the current frame (and counted); slaves that have not reported
+ * any frame yet or are far behind are not waited for at all.
+ *
+ * @author agent
+ */
+public class RenderMaster extends Thread
+{
+	// slaves lagging behind more than this number of frames are regarded as lost
+	private static final int MAX_FRAME_LAG = 60;
+	
+	private Simulator sim;
+	private DatagramSocket socket;
+	private List<InetSocketAddress> slaveList = new ArrayList<InetSocketAddress>();
+	private AtomicLongArray presentedFrames;
+	private final Object barrier = new Object();
+	private int syncTimeout;
+	private volatile boolean stopRequested = false;
+	private long startTime = System.nanoTime();
+	
+	// only accessed by the jME update thread
+	private byte[] sendData = new byte[RenderClusterProtocol.MAX_PACKET_SIZE];
+	private ByteBuffer sendBuffer = ByteBuffer.wrap(sendData);
+	private DatagramPacket sendPacket = new DatagramPacket(sendData, sendData.length);
+	private long frame = 0;
+	private long barrierTimeouts = 0;
+	private long totalWaitTime = 0;
+	private long maxWaitTime = 0;
+	private boolean overflowReported = false;
+	private Quaternion tempRotation = new Quaternion();
+	
+	
+	public RenderMaster(Simulator sim)
+	{
+		super("RenderMaster");
+		setDaemon(true);
+		
+		this.sim = sim;
+		
+		SettingsLoader settingsLoader = Simulator.getSettingsLoader();
+		int port = settingsLoader.getSetting(Setting.RenderCluster_masterPort, SimulationDefaults.RenderCluster_masterPort);
+		String slaves = settingsLoader.getSetting(Setting.RenderCluster_slaves, SimulationDefaults.RenderCluster_slaves);
+		syncTimeout = settingsLoader.getSetting(Setting.RenderCluster_syncTimeout, SimulationDefaults.RenderCluster_syncTimeout);
+		
+		// list of slaves, e.g. "192.168.0.11:5801,192.168.0.12:5801"
+		for(String slave : slaves.split(","))
+		{
+			slave = slave.trim();
+			int separatorIndex = slave.lastIndexOf(':');
+			
+			try {
+				
+				String ip = slave.substring(0, separatorIndex);
+				int slavePort = Integer.parseInt(slave.substring(separatorIndex+1));
+				slaveList.add(new InetSocketAddress(ip, slavePort));
+				
+			} catch (Exception e) {
+				if(!slave.isEmpty())
+					System.err.println("Invalid render slave address: " + slave);
+			}
+		}
+		
+		presentedFrames = new AtomicLongArray(slaveList.size());
+		for(int i=0; i<slaveList.size(); i++)
+			presentedFrames.set(i, -1);
+		
+		try {
+			
+			socket = new DatagramSocket(port);
+			
+		} catch (SocketException e) {
+			System.err.println("Could not open render cluster port " + port);
+		}
+	}
+	
+	
+	/**
+	 * Receives the READY messages of all slaves.
+	 */
+	@Override
+	public void run()
+	{
+		if(socket == null)
+			return;
+		
+		byte[] receiveData = new byte[RenderClusterProtocol.READY_SIZE];
+		ByteBuffer receiveBuffer = ByteBuffer.wrap(receiveData);
+		DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
+		
+		while(!stopRequested)
+		{
+			try {
+				
+				receivePacket.setLength(receiveData.length);
+				socket.receive(receivePacket);
+				
+				short type = RenderClusterProtocol.getType(receiveBuffer, receivePacket.getLength());
+				if(type == RenderClusterProtocol.TYPE_READY)
+				{
+					long presentedFrame = receiveBuffer.getLong();
+					int index = slaveList.indexOf(receivePacket.getSocketAddress());
+					if(index >= 0 && presentedFrame > presentedFrames.get(index))
+					{
+						presentedFrames.set(index, presentedFrame);
+						synchronized(barrier)
+						{
+							barrier.notifyAll();
+						}
+					}
+				}
+				
+			} catch (IOException e) {
+				
+				if(!stopRequested)
+					System.err.println("RenderMaster_run(): " + e.toString());
+			}
+		}
+	}
+	
+	
+	/**
+	 * Waits for all slaves to present the previous frame and sends the state
+	 * of the current frame. Must be called on the jME update thread after the
+	 * scene graph has been updated (i.e. from simpleRender()).
+	 */
+	public void update()
+	{
+		if(socket == null)
+			return;
+		
+		if(frame > 0)
+			waitForSlaves(frame-1);
+		
+		try {
+			
+			encodeState();
+			sendPacket.setLength(sendBuffer.position());
+			
+			for(InetSocketAddress slave : slaveList)
+			{
+				sendPacket.setSocketAddress(slave);
+				socket.send(sendPacket);
+			}
+			
+		} catch (BufferOverflowException e) {
+			
+			if(!overflowReported)
+				System.err.println("Render cluster state exceeds maximum datagram size");
+			overflowReported = true;
+			
+		} catch (IOException e) {
+			System.err.println("RenderMaster_update(): " + e.toString());
+		}
+		
+		frame++;
+	}
+
+
+	private void waitForSlaves(long previousFrame)
+	{
+		long start = System.nanoTime();
+		long deadline = start + syncTimeout * 1000000L;
+		
+		synchronized(barrier)
+		{
+			while(!allSlavesPresented(previousFrame))
+			{
+				long remaining = deadline - System.nanoTime();
+				if(remaining <= 0)
+				{
+					barrierTimeouts++;
+					break;
+				}
+				
+				try {
+					barrier.wait(remaining / 1000000L, (int) (remaining % 1000000L));
+				} catch (InterruptedException e) {
+					break;
+				}
+			}
+		}
+		
+		long waitTime = System.nanoTime() - start;
+		totalWaitTime += waitTime;
+		maxWaitTime = Math.max(maxWaitTime, waitTime);
+	}
+
+
+	private boolean allSlavesPresented(long previousFrame)
+	{
+		for(int i=0; i<presentedFrames.length(); i++)
+		{
+			long presentedFrame = presentedFrames.get(i);
+			
+			// do not wait for slaves not connected (yet) or lost
+			boolean isConnected = presentedFrame >= 0 && presentedFrame >= previousFrame - MAX_FRAME_LAG;
+			
+			if(isConnected && presentedFrame < previousFrame)
+				return false;
+		}
+		return true;
+	}
+	
+	
+	private void encodeState()
+	{
+		RenderClusterProtocol.putHeader(sendBuffer, RenderClusterProtocol.TYPE_STATE, frame);
+		sendBuffer.putLong(System.nanoTime() - startTime);
+		
+		CameraFactory cameraFactory = sim.getCameraFactory();
+		sendBuffer.put((byte) cameraFactory.getCamMode().ordinal());
+		sendBuffer.put((byte) (cameraFactory.getShowBackViewMirror() ? 1 : 0));
+		
+		if(cameraFactory.getCamMode() == CameraMode.CHASE)
+		{
+			// chase camera moves the camera itself: send the main camera node 
+			// pose that would result in the current camera pose
+			Camera cam = sim.getCamera();
+			Quaternion centerCamRotation = cameraFactory.getMainCameraNode().getChild("CamNode1").getLocalRotation();
+			tempRotation.set(centerCamRotation).inverseLocal();
+			putPose(cam.getLocation(), cam.getRotation().mult(tempRotation, tempRotation));
+		}
+		else
+			putPose(cameraFactory.getMainCameraNode());
+		
+		putCar(sim.getCar(), true);
+		
+		List<TrafficCar> vehicleList = sim.getPhysicalTraffic().getVehicleList();
+		sendBuffer.putShort((short) vehicleList.size());
+		for(TrafficCar vehicle : vehicleList)
+			putCar(vehicle, vehicle.isHeadLightsActive());
+		
+		List<TrafficLight> trafficLightsList = TrafficLightCenter.getTrafficLightsList();
+		sendBuffer.putShort((short) trafficLightsList.size());
+		for(TrafficLight trafficLight : trafficLightsList)
+			sendBuffer.put((byte) trafficLight.getState().ordinal());
+	}
+	
+	
+	private void putCar(Car car, boolean headLightsActive)
+	{
+		putPose(car.getCarNode());
+		sendBuffer.put((byte) car.getLightIntensity());
+		sendBuffer.put((byte) car.getLightTexturesState().ordinal());
+		sendBuffer.put((byte) (headLightsActive ? 1 : 0));
+	}
+	
+	
+	private void putPose(Spatial spatial)
+	{
+		putPose(spatial.getWorldTranslation(), spatial.getWorldRotation());
+	}
+	
+	
+	private void putPose(Vector3f position, Quaternion rotation)
+	{
+		sendBuffer.putFloat(position.getX());
+		sendBuffer.putFloat(position.getY());
+		sendBuffer.putFloat(position.getZ());
+		
+		sendBuffer.putFloat(rotation.getX());
+		sendBuffer.putFloat(rotation.getY());
+		sendBuffer.putFloat(rotation.getZ());
+		sendBuffer.putFloat(rotation.getW());
+	}
+	
+	
+	/**
+	 * Frame barrier statistics as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Number of frames, barrier timeouts and wait times.
+	 */
+	public String getReport()
+	{
+		float avgWaitTime = (frame > 0) ? (totalWaitTime / 1000000f) / frame : 0;
+		return "frames=" + frame + ", slaves=" + slaveList.size() + ", barrierTimeouts=" + barrierTimeouts + 
+				", avgWait=" + avgWaitTime + " ms, maxWait=" + (maxWaitTime / 1000000f) + " ms";
+	}
+	
+	
+	/**
+	 * Requests the master to stop receiving messages
+	 */
+	public synchronized void requestStop()
+	{
+		stopRequested = true;
+		if(socket != null)
+			socket.close();
+	}
+}
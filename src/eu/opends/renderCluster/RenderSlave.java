@@ -0,0 +1,341 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.renderCluster;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
+
+import eu.opends.camera.CameraFactory;
+import eu.opends.camera.CameraFactory.CameraMode;
+import eu.opends.car.Car;
+import eu.opends.car.LightTexturesContainer.LightState;
+import eu.opends.drivingTask.settings.SettingsLoader;
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.environment.TrafficLight;
+import eu.opends.environment.TrafficLight.TrafficLightState;
+import eu.opends.environment.TrafficLightCenter;
+import eu.opends.environment.TrafficLightCenter.TrafficLightMode;
+import eu.opends.main.SimulationDefaults;
+import eu.opends.main.Simulator;
+import eu.opends.traffic.TrafficCar;
+
+/**
+ * Render slave of a distributed multi-screen setup. A slave loads the same
+ * driving task as the master, but does not simulate anything: physics of all
+ * cars is disabled, traffic lights are switched to OFF mode and the driving
+ * car, the traffic cars, the traffic lights and the camera are positioned as
+ * reported by the {@link RenderMaster} for the current frame. Head lights, 
+ * brake lights and turn signals of all cars are shown as on the master (head 
+ * light budget and turn signal blinking are evaluated by the master only). Each slave
+ * renders the view of one screen only (see setting "screenIndex").<br>
+ * <br>
+ * At the beginning of every update, the slave reports the frame it has just 
+ * presented to the master and waits for the state of the next frame.
+ *
+ * @author agent
+ */
+public class RenderSlave extends Thread
+{
+	private static final LightState[] LIGHT_STATES = LightState.values();
+	
+	private Simulator sim;
+	private DatagramSocket socket;
+	private InetSocketAddress masterAddress;
+	private int screenIndex;
+	private int syncTimeout;
+	private volatile boolean stopRequested = false;
+	
+	// latest state received from the master (guarded by lock)
+	private final Object lock = new Object();
+	private byte[] latestState = null;
+	private long latestFrame = -1;
+	private long skippedFrames = 0;
+	
+	// only accessed by the jME update thread
+	private byte[] readyData = new byte[RenderClusterProtocol.READY_SIZE];
+	private ByteBuffer readyBuffer = ByteBuffer.wrap(readyData);
+	private long presentedFrame = -1;
+	private long waitTimeouts = 0;
+	private Vector3f tempPosition = new Vector3f();
+	private Quaternion tempRotation = new Quaternion();
+	private int[] lightIntensities = new int[0];
+	private LightState[] lightStates = new LightState[0];
+	private boolean[] headLightsActive = new boolean[0];
+	
+	
+	public RenderSlave(Simulator sim)
+	{
+		super("RenderSlave");
+		setDaemon(true);
+		
+		this.sim = sim;
+		
+		SettingsLoader settingsLoader = Simulator.getSettingsLoader();
+		String masterIP = settingsLoader.getSetting(Setting.RenderCluster_masterIP, SimulationDefaults.RenderCluster_masterIP);
+		int masterPort = settingsLoader.getSetting(Setting.RenderCluster_masterPort, SimulationDefaults.RenderCluster_masterPort);
+		int port = settingsLoader.getSetting(Setting.RenderCluster_slavePort, SimulationDefaults.RenderCluster_slavePort);
+		screenIndex = settingsLoader.getSetting(Setting.RenderCluster_screenIndex, SimulationDefaults.RenderCluster_screenIndex);
+		syncTimeout = settingsLoader.getSetting(Setting.RenderCluster_syncTimeout, SimulationDefaults.RenderCluster_syncTimeout);
+		
+		masterAddress = new InetSocketAddress(masterIP, masterPort);
+		
+		try {
+			
+			socket = new DatagramSocket(port);
+			
+		} catch (SocketException e) {
+			System.err.println("Could not open render cluster port " + port);
+		}
+		
+		// cars will be moved by the master only
+		sim.getCar().getCarControl().setEnabled(false);
+		for(TrafficCar vehicle : sim.getPhysicalTraffic().getVehicleList())
+			vehicle.getCarControl().setEnabled(false);
+		
+		// traffic light states will be set by the master only
+		TrafficLightCenter.setMode(TrafficLightMode.OFF);
+		
+		// camera will be positioned in world coordinates
+		sim.getRootNode().attachChild(sim.getCameraFactory().getMainCameraNode());
+	}
+	
+	
+	/**
+	 * Receives the STATE messages of the master. Only the latest state will
+	 * be kept; older states not applied yet will be skipped.
+	 */
+	@Override
+	public void run()
+	{
+		if(socket == null)
+			return;
+		
+		byte[] receiveData = new byte[RenderClusterProtocol.MAX_PACKET_SIZE];
+		ByteBuffer receiveBuffer = ByteBuffer.wrap(receiveData);
+		DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
+		
+		while(!stopRequested)
+		{
+			try {
+				
+				receivePacket.setLength(receiveData.length);
+				socket.receive(receivePacket);
+				
+				int length = receivePacket.getLength();
+				short type = RenderClusterProtocol.getType(receiveBuffer, length);
+				if(type == RenderClusterProtocol.TYPE_STATE)
+				{
+					long frame = receiveBuffer.getLong();
+					synchronized(lock)
+					{
+						if(frame > latestFrame)
+						{
+							if(latestState != null)
+								skippedFrames++;
+							
+							latestState = Arrays.copyOf(receiveData, length);
+							latestFrame = frame;
+							lock.notifyAll();
+						}
+					}
+				}
+				
+			} catch (IOException e) {
+				
+				if(!stopRequested)
+					System.err.println("RenderSlave_run(): " + e.toString());
+			}
+		}
+	}
+	
+	
+	/**
+	 * Reports the previously presented frame to the master, waits for the 
+	 * next state and applies it to the scene. Must be called on the jME update 
+	 * thread (from simpleUpdate()).
+	 */
+	public void update()
+	{
+		if(socket == null)
+			return;
+		
+		if(presentedFrame >= 0)
+			sendReady(presentedFrame);
+		
+		byte[] state = waitForState();
+		if(state != null)
+			applyState(ByteBuffer.wrap(state));
+	}
+
+
+	private void sendReady(long frame)
+	{
+		try {
+			
+			RenderClusterProtocol.putHeader(readyBuffer, RenderClusterProtocol.TYPE_READY, frame);
+			readyBuffer.putShort((short) screenIndex);
+			socket.send(new DatagramPacket(readyData, readyBuffer.position(), masterAddress));
+			
+		} catch (IOException e) {
+			System.err.println("RenderSlave_sendReady(): " + e.toString());
+		}
+	}
+
+
+	private byte[] waitForState()
+	{
+		long deadline = System.nanoTime() + syncTimeout * 1000000L;
+		
+		synchronized(lock)
+		{
+			while(latestState == null)
+			{
+				long remaining = deadline - System.nanoTime();
+				if(remaining <= 0)
+				{
+					waitTimeouts++;
+					return null;
+				}
+				
+				try {
+					lock.wait(remaining / 1000000L, (int) (remaining % 1000000L));
+				} catch (InterruptedException e) {
+					return null;
+				}
+			}
+			
+			byte[] state = latestState;
+			latestState = null;
+			return state;
+		}
+	}
+
+
+	private void applyState(ByteBuffer buffer)
+	{
+		buffer.position(RenderClusterProtocol.HEADER_SIZE - 8);
+		long frame = buffer.getLong();
+		
+		// session time of the master (not used yet)
+		buffer.getLong();
+		
+		CameraFactory cameraFactory = sim.getCameraFactory();
+		CameraMode camMode = CameraMode.values()[buffer.get()];
+		if(cameraFactory.getCamMode() != camMode)
+			cameraFactory.setReplicatedCamMode(camMode);
+		cameraFactory.setShowBackViewMirror((buffer.get() & 1) != 0);
+		readPose(buffer, cameraFactory.getMainCameraNode());
+		
+		// index 0: driving car, index i+1: traffic car i
+		List<TrafficCar> vehicleList = sim.getPhysicalTraffic().getVehicleList();
+		if(lightStates.length < vehicleList.size() + 1)
+		{
+			lightIntensities = new int[vehicleList.size() + 1];
+			lightStates = new LightState[vehicleList.size() + 1];
+			headLightsActive = new boolean[vehicleList.size() + 1];
+		}
+		
+		readCar(buffer, sim.getCar(), 0);
+		
+		int numberOfVehicles = buffer.getShort();
+		for(int i=0; i<numberOfVehicles; i++)
+		{
+			if(i < vehicleList.size())
+				readCar(buffer, vehicleList.get(i), i+1);
+			else
+				buffer.position(buffer.position() + RenderClusterProtocol.CAR_SIZE);
+		}
+		
+		List<TrafficLight> trafficLightsList = TrafficLightCenter.getTrafficLightsList();
+		TrafficLightState[] states = TrafficLightState.values();
+		int numberOfTrafficLights = buffer.getShort();
+		for(int i=0; i<numberOfTrafficLights; i++)
+		{
+			int state = buffer.get();
+			if(i < trafficLightsList.size() && state >= 0 && state < states.length)
+				trafficLightsList.get(i).setState(states[state]);
+		}
+		
+		// head lights follow the world transforms of the light sources in the car models
+		sim.getRootNode().updateGeometricState();
+		
+		sim.getCar().applyReplicatedLights(lightIntensities[0], lightStates[0]);
+		for(int i=0; i<Math.min(numberOfVehicles, vehicleList.size()); i++)
+			vehicleList.get(i).applyReplicatedLights(lightIntensities[i+1], lightStates[i+1], headLightsActive[i+1]);
+		
+		presentedFrame = frame;
+	}
+	
+	
+	private void readCar(ByteBuffer buffer, Car car, int index)
+	{
+		readPose(buffer, car.getCarNode());
+		
+		lightIntensities[index] = buffer.get();
+		int lightState = buffer.get();
+		lightStates[index] = (lightState >= 0 && lightState < LIGHT_STATES.length) ? 
+				LIGHT_STATES[lightState] : LightState.AllOff;
+		headLightsActive[index] = (buffer.get() & 1) != 0;
+	}
+	
+	
+	private void readPose(ByteBuffer buffer, Spatial spatial)
+	{
+		tempPosition.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		tempRotation.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		
+		// all replicated spatials are direct children of the root node
+		spatial.setLocalTranslation(tempPosition);
+		spatial.setLocalRotation(tempRotation);
+	}
+	
+	
+	/**
+	 * Synchronization statistics as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Last presented frame, skipped frames and wait timeouts.
+	 */
+	public String getReport()
+	{
+		return "screen=" + screenIndex + ", presentedFrame=" + presentedFrame + ", skippedFrames=" + 
+				skippedFrames + ", waitTimeouts=" + waitTimeouts;
+	}
+	
+	
+	/**
+	 * Requests the slave to stop receiving messages
+	 */
+	public synchronized void requestStop()
+	{
+		stopRequested = true;
+		if(socket != null)
+			socket.close();
+	}
+}
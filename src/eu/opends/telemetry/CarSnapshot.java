@@ -0,0 +1,395 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.telemetry;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+import eu.opends.car.Car;
+import eu.opends.car.LightTexturesContainer.TurnSignalState;
+
+/**
+ * Immutable state of the driving car at one instant. All values are stored
+ * as primitives, so a snapshot can be handed to any thread without exposing
+ * the physics object or the scene graph. Snapshots are produced by the
+ * {@link TelemetryBus} only.
+ *
+ * @author agent
+ */
+public final class CarSnapshot
+{
+	private final long sequence;
+	private final long timestamp;
+	private final long sessionTime;
+
+	private final float posX, posY, posZ;
+	private final float rotX, rotY, rotZ, rotW;
+	private final float linVelX, linVelY, linVelZ;
+	private final float angVelX, angVelY, angVelZ;
+	private final float latitude, longitude, altitude;
+	private final float heading;
+	private final float speedKmh;
+	private final float steeringWheelState;
+	private final float gasPedalPressIntensity;
+	private final float brakePedalPressIntensity;
+	private final boolean engineOn;
+	private final int lightIntensity;
+	private final boolean turnSignalLeft;
+	private final boolean turnSignalRight;
+	private final int gear;
+	private final float rpm;
+	private final float litersPer100Km;
+	private final float totalFuelConsumption;
+	private final boolean ghostWheelActive;
+
+
+	private CarSnapshot(long sequence, long timestamp, long sessionTime, Car car)
+	{
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.sessionTime = sessionTime;
+
+		Vector3f position = car.getPosition();
+		posX = position.getX();
+		posY = position.getY();
+		posZ = position.getZ();
+
+		Quaternion rotation = car.getRotation();
+		rotX = rotation.getX();
+		rotY = rotation.getY();
+		rotZ = rotation.getZ();
+		rotW = rotation.getW();
+
+		Vector3f linearVelocity = car.getCarControl().getLinearVelocity();
+		linVelX = linearVelocity.getX();
+		linVelY = linearVelocity.getY();
+		linVelZ = linearVelocity.getZ();
+
+		Vector3f angularVelocity = car.getCarControl().getAngularVelocity();
+		angVelX = angularVelocity.getX();
+		angVelY = angularVelocity.getY();
+		angVelZ = angularVelocity.getZ();
+
+		Vector3f geoPosition = car.getGeoPosition();
+		latitude = geoPosition.getX();
+		longitude = geoPosition.getY();
+		altitude = geoPosition.getZ();
+
+		heading = car.getHeadingDegree();
+		speedKmh = FastMath.abs(car.getCarControl().getCurrentVehicleSpeedKmHour());
+		steeringWheelState = car.getSteeringWheelState();
+		gasPedalPressIntensity = car.getGasPedalPressIntensity();
+		brakePedalPressIntensity = car.getBrakePedalPressIntensity();
+		engineOn = car.isEngineOn();
+		lightIntensity = car.getLightIntensity();
+
+		TurnSignalState turnSignal = car.getTurnSignal();
+		turnSignalLeft = (turnSignal == TurnSignalState.LEFT || turnSignal == TurnSignalState.BOTH);
+		turnSignalRight = (turnSignal == TurnSignalState.RIGHT || turnSignal == TurnSignalState.BOTH);
+
+		if(car.getTransmission() != null)
+		{
+			gear = car.getTransmission().getGear();
+			rpm = car.getTransmission().getRPM();
+		}
+		else
+		{
+			gear = 0;
+			rpm = 0;
+		}
+
+		if(car.getPowerTrain() != null)
+		{
+			litersPer100Km = car.getPowerTrain().getLitersPer100Km();
+			totalFuelConsumption = car.getPowerTrain().getTotalFuelConsumption();
+		}
+		else
+		{
+			litersPer100Km = 0;
+			totalFuelConsumption = 0;
+		}
+
+		ghostWheelActive = car.getSimulator().getGhostWheelIsActive();
+	}
+
+
+	/**
+	 * Reads the current state of the given car. Must be called on the thread
+	 * that owns the physics space (i.e. the jME update thread).
+	 *
+	 * @param sequence
+	 * 			Sequence number assigned by the bus.
+	 *
+	 * @param sessionTime
+	 * 			Nanoseconds since the bus has been created.
+	 *
+	 * @param car
+	 * 			Car to read from.
+	 *
+	 * @return
+	 * 			New snapshot of the car's state.
+	 */
+	static CarSnapshot capture(long sequence, long sessionTime, Car car)
+	{
+		return new CarSnapshot(sequence, System.currentTimeMillis(), sessionTime, car);
+	}
+
+
+	public long getSequence()
+	{
+		return sequence;
+	}
+
+
+	/**
+	 * @return wall clock time (in milliseconds) the snapshot was taken
+	 */
+	public long getTimestamp()
+	{
+		return timestamp;
+	}
+
+
+	/**
+	 * @return time (in nanoseconds) since the start of the session
+	 */
+	public long getSessionTime()
+	{
+		return sessionTime;
+	}
+
+
+	public Vector3f getPosition()
+	{
+		return new Vector3f(posX, posY, posZ);
+	}
+
+
+	public float getPositionX()
+	{
+		return posX;
+	}
+
+
+	public float getPositionY()
+	{
+		return posY;
+	}
+
+
+	public float getPositionZ()
+	{
+		return posZ;
+	}
+
+
+	public Quaternion getRotation()
+	{
+		return new Quaternion(rotX, rotY, rotZ, rotW);
+	}
+
+
+	public float getRotationX()
+	{
+		return rotX;
+	}
+
+
+	public float getRotationY()
+	{
+		return rotY;
+	}
+
+
+	public float getRotationZ()
+	{
+		return rotZ;
+	}
+
+
+	public float getRotationW()
+	{
+		return rotW;
+	}
+
+
+	/**
+	 * @return linear velocity in m/s (x component)
+	 */
+	public float getLinearVelocityX()
+	{
+		return linVelX;
+	}
+
+
+	public float getLinearVelocityY()
+	{
+		return linVelY;
+	}
+
+
+	public float getLinearVelocityZ()
+	{
+		return linVelZ;
+	}
+
+
+	/**
+	 * @return angular velocity in rad/s (x component)
+	 */
+	public float getAngularVelocityX()
+	{
+		return angVelX;
+	}
+
+
+	public float getAngularVelocityY()
+	{
+		return angVelY;
+	}
+
+
+	public float getAngularVelocityZ()
+	{
+		return angVelZ;
+	}
+
+
+	public float getLatitude()
+	{
+		return latitude;
+	}
+
+
+	public float getLongitude()
+	{
+		return longitude;
+	}
+
+
+	public float getAltitude()
+	{
+		return altitude;
+	}
+
+
+	/**
+	 * @return heading in degree (0..360)
+	 */
+	public float getHeadingDegree()
+	{
+		return heading;
+	}
+
+
+	public float getSpeedKmh()
+	{
+		return speedKmh;
+	}
+
+
+	public float getSpeedKmhRounded()
+	{
+		return ((int)(speedKmh * 100)) / 100f;
+	}
+
+
+	public float getSteeringWheelState()
+	{
+		return steeringWheelState;
+	}
+
+
+	public float getGasPedalPressIntensity()
+	{
+		return gasPedalPressIntensity;
+	}
+
+
+	public float getBrakePedalPressIntensity()
+	{
+		return brakePedalPressIntensity;
+	}
+
+
+	public boolean isEngineOn()
+	{
+		return engineOn;
+	}
+
+
+	public int getLightIntensity()
+	{
+		return lightIntensity;
+	}
+
+
+	public String getLightState()
+	{
+		if(lightIntensity == 2)
+			return "HighBeam";
+		else if(lightIntensity == 1)
+			return "LowBeam";
+		else
+			return "Off";
+	}
+
+
+	public boolean isTurnSignalLeft()
+	{
+		return turnSignalLeft;
+	}
+
+
+	public boolean isTurnSignalRight()
+	{
+		return turnSignalRight;
+	}
+
+
+	public int getGear()
+	{
+		return gear;
+	}
+
+
+	public float getRPM()
+	{
+		return rpm;
+	}
+
+
+	public float getLitersPer100Km()
+	{
+		return litersPer100Km;
+	}
+
+
+	public float getTotalFuelConsumption()
+	{
+		return totalFuelConsumption;
+	}
+
+
+	public boolean isGhostWheelActive()
+	{
+		return ghostWheelActive;
+	}
+}
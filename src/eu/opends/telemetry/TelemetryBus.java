@@ -0,0 +1,192 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.telemetry;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import eu.opends.car.Car;
+
+/**
+ * Single-writer, multi-reader ring buffer of {@link CarSnapshot}s. Exactly one
+ * thread (the jME update thread) captures the state of the driving car after
+ * every physics step (see {@link TelemetryTickListener}) and publishes it; any
+ * number of external connectors (CAN-bus, KAPcom, data writer, ...) read the
+ * published snapshots at their own rate through a {@link TelemetrySubscriber}.<br>
+ * <br>
+ * The producer never waits for or locks against readers. A reader that falls
+ * more than one buffer length behind will skip the overwritten snapshots and
+ * count them as dropped.
+ *
+ * @author agent
+ */
+public class TelemetryBus
+{
+	private final Car car;
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<CarSnapshot> ringBuffer;
+	private final AtomicLong cursor = new AtomicLong(-1);
+	private final List<TelemetrySubscriber> subscriberList = new CopyOnWriteArrayList<TelemetrySubscriber>();
+	private final long startTime = System.nanoTime();
+
+	// only accessed by the producer thread
+	private long nextSequence = 0;
+
+
+	/**
+	 * Creates a new telemetry bus for the given car.
+	 *
+	 * @param car
+	 * 			Car whose state will be published.
+	 *
+	 * @param capacity
+	 * 			Number of snapshots kept in the ring buffer (will be rounded
+	 * 			up to the next power of two).
+	 */
+	public TelemetryBus(Car car, int capacity)
+	{
+		this.car = car;
+		this.capacity = nextPowerOfTwo(Math.max(2, capacity));
+		this.mask = this.capacity - 1;
+		this.ringBuffer = new AtomicReferenceArray<CarSnapshot>(this.capacity);
+	}
+
+
+	/**
+	 * Captures the current state of the car and publishes it to all subscribers.
+	 * Must only be called from the thread updating the physics space.
+	 *
+	 * @return
+	 * 			The published snapshot.
+	 */
+	public CarSnapshot publish()
+	{
+		long sequence = nextSequence++;
+		CarSnapshot snapshot = CarSnapshot.capture(sequence, getSessionTime(), car);
+
+		// store snapshot before making it visible by advancing the cursor
+		ringBuffer.lazySet((int) (sequence & mask), snapshot);
+		cursor.lazySet(sequence);
+
+		return snapshot;
+	}
+
+
+	/**
+	 * Registers a new reader. The reader will start with the next snapshot
+	 * that is going to be published.
+	 *
+	 * @param name
+	 * 			Name of the consumer (used for reporting only).
+	 *
+	 * @return
+	 * 			Subscriber handle to read snapshots from.
+	 */
+	public TelemetrySubscriber subscribe(String name)
+	{
+		TelemetrySubscriber subscriber = new TelemetrySubscriber(this, name, cursor.get() + 1);
+		subscriberList.add(subscriber);
+		return subscriber;
+	}
+
+
+	public void unsubscribe(TelemetrySubscriber subscriber)
+	{
+		subscriberList.remove(subscriber);
+	}
+
+
+	public List<TelemetrySubscriber> getSubscriberList()
+	{
+		return subscriberList;
+	}
+
+
+	/**
+	 * @return sequence number of the latest published snapshot (-1 if none)
+	 */
+	public long getCursor()
+	{
+		return cursor.get();
+	}
+
+
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+
+	/**
+	 * @return time (in nanoseconds) since the bus has been created
+	 */
+	public long getSessionTime()
+	{
+		return System.nanoTime() - startTime;
+	}
+
+
+	/**
+	 * Returns the latest published snapshot without registering a subscriber.
+	 *
+	 * @return
+	 * 			Latest snapshot or null if nothing has been published yet.
+	 */
+	public CarSnapshot getLatest()
+	{
+		long sequence = cursor.get();
+		if(sequence < 0)
+			return null;
+
+		return get(sequence);
+	}
+
+
+	CarSnapshot get(long sequence)
+	{
+		return ringBuffer.get((int) (sequence & mask));
+	}
+
+
+	/**
+	 * Lag of all subscribers as human readable string, e.g. for log output.
+	 *
+	 * @return
+	 * 			One line per subscriber.
+	 */
+	public String getLagReport()
+	{
+		StringBuffer report = new StringBuffer();
+		for(TelemetrySubscriber subscriber : subscriberList)
+			report.append(subscriber.toString()).append(System.getProperty("line.separator"));
+		return report.toString();
+	}
+
+
+	private static int nextPowerOfTwo(int value)
+	{
+		int result = 1;
+		while(result < value)
+			result <<= 1;
+		return result;
+	}
+}
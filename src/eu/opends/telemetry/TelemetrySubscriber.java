@@ -0,0 +1,184 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.telemetry;
+
+/**
+ * Read position of one consumer on the {@link TelemetryBus}. Each subscriber
+ * must only be used by a single consumer thread. Lag and dropped counters may
+ * be read from any thread.
+ *
+ * @author agent
+ */
+public class TelemetrySubscriber
+{
+	private final TelemetryBus bus;
+	private final String name;
+
+	// next sequence number to read
+	private volatile long sequence;
+	private volatile long readCount = 0;
+	private volatile long droppedCount = 0;
+	private volatile long maxLag = 0;
+
+
+	TelemetrySubscriber(TelemetryBus bus, String name, long firstSequence)
+	{
+		this.bus = bus;
+		this.name = name;
+		this.sequence = firstSequence;
+	}
+
+
+	public String getName()
+	{
+		return name;
+	}
+
+
+	/**
+	 * Returns the next snapshot in order of publication. Snapshots that have
+	 * already been overwritten by the producer will be skipped and counted
+	 * as dropped.
+	 *
+	 * @return
+	 * 			Next unread snapshot or null if no new snapshot available.
+	 */
+	public CarSnapshot next()
+	{
+		long cursor = bus.getCursor();
+		if(sequence > cursor)
+			return null;
+
+		updateMaxLag(cursor);
+
+		// skip snapshots that are out of the ring buffer already
+		long oldestAvailable = cursor - bus.getCapacity() + 1;
+		if(sequence < oldestAvailable)
+		{
+			droppedCount += oldestAvailable - sequence;
+			sequence = oldestAvailable;
+		}
+
+		CarSnapshot snapshot = bus.get(sequence);
+
+		// producer might have overwritten the slot meanwhile
+		if(snapshot.getSequence() != sequence)
+		{
+			droppedCount += snapshot.getSequence() - sequence;
+			sequence = snapshot.getSequence();
+		}
+
+		sequence++;
+		readCount++;
+		return snapshot;
+	}
+
+
+	/**
+	 * Returns the most recent snapshot and marks all older ones as read. To be
+	 * used by consumers that are interested in the current state only and poll
+	 * at a lower rate than snapshots are produced (skipped snapshots will not
+	 * be counted as dropped).
+	 *
+	 * @return
+	 * 			Latest snapshot or null if no new snapshot available.
+	 */
+	public CarSnapshot latest()
+	{
+		long cursor = bus.getCursor();
+		if(sequence > cursor)
+			return null;
+
+		updateMaxLag(cursor);
+
+		CarSnapshot snapshot = bus.get(cursor);
+		sequence = snapshot.getSequence() + 1;
+		readCount++;
+		return snapshot;
+	}
+
+
+	/**
+	 * Same as {@link #latest()}, but returns the previously published snapshot
+	 * again if no new one is available (null only before the first publication).
+	 *
+	 * @return
+	 * 			Latest snapshot.
+	 */
+	public CarSnapshot current()
+	{
+		CarSnapshot snapshot = latest();
+		if(snapshot == null)
+			snapshot = bus.getLatest();
+		return snapshot;
+	}
+
+
+	/**
+	 * @return number of published snapshots not read by this subscriber yet
+	 */
+	public long getLag()
+	{
+		return Math.max(0, bus.getCursor() + 1 - sequence);
+	}
+
+
+	public long getMaxLag()
+	{
+		return maxLag;
+	}
+
+
+	public long getReadCount()
+	{
+		return readCount;
+	}
+
+
+	public long getDroppedCount()
+	{
+		return droppedCount;
+	}
+
+
+	/**
+	 * Removes this subscriber from the bus. Must be called by consumers that
+	 * are shut down before the end of the simulation.
+	 */
+	public void close()
+	{
+		bus.unsubscribe(this);
+	}
+
+
+	private void updateMaxLag(long cursor)
+	{
+		long lag = cursor + 1 - sequence;
+		if(lag > maxLag)
+			maxLag = lag;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return name + ": lag=" + getLag() + ", maxLag=" + maxLag + ", read=" + readCount +
+				", dropped=" + droppedCount;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.telemetry;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.PhysicsTickListener;
+
+/**
+ * Publishes a snapshot of the driving car to the {@link TelemetryBus} after
+ * every physics sub step. Hence, the telemetry rate equals the physics rate
+ * (1/accuracy of the physics space) and does not depend on the frame rate.
+ *
+ * @author agent
+ */
+public class TelemetryTickListener implements PhysicsTickListener
+{
+	private TelemetryBus telemetryBus;
+
+
+	public TelemetryTickListener(TelemetryBus telemetryBus)
+	{
+		this.telemetryBus = telemetryBus;
+	}
+
+
+	@Override
+	public void prePhysicsTick(PhysicsSpace space, float tpf)
+	{
+	}
+
+
+	@Override
+	public void physicsTick(PhysicsSpace space, float tpf)
+	{
+		telemetryBus.publish();
+	}
+}
@@ -0,0 +1,203 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.telemetry;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams every snapshot published on the {@link TelemetryBus} as a compact
+ * binary UDP datagram (e.g. to a motion platform or an external HMI). As the
+ * bus is fed from the physics tick, one datagram will be sent per physics sub
+ * step. The sender only holds a subscriber of the bus, no reference to the car,
+ * the physics space or the scene graph.<br>
+ * <br>
+ * Datagram layout (big endian, {@value #PACKET_SIZE} bytes):
+ * <pre>
+ * int    magic ("ODST")
+ * short  protocol version
+ * short  flags (bit 0: engine on, 1: turn signal left, 2: turn signal right,
+ *               3: low beam, 4: high beam)
+ * long   sequence number
+ * long   session time (ns)
+ * float  position x, y, z (m)
+ * float  rotation x, y, z, w
+ * float  linear velocity x, y, z (m/s)
+ * float  angular velocity x, y, z (rad/s)
+ * float  speed (km/h)
+ * float  heading (degree)
+ * float  steering wheel state [-1,1]
+ * float  gas pedal [0,1]
+ * float  brake pedal [0,1]
+ * float  rpm
+ * int    gear
+ * </pre>
+ *
+ * @author agent
+ */
+public class TelemetryUDPSender extends Thread
+{
+	public static final int MAGIC = 0x4F445354; // "ODST"
+	public static final short PROTOCOL_VERSION = 1;
+	public static final int PACKET_SIZE = 4 + 2 + 2 + 8 + 8 + 19*4 + 4;
+
+	private TelemetrySubscriber telemetry;
+	private DatagramSocket socket;
+	private DatagramPacket packet;
+	private ByteBuffer buffer;
+	private volatile boolean stopRequested = false;
+	private long sentPackets = 0;
+
+
+	/**
+	 * Creates a new UDP sender for the given target address.
+	 *
+	 * @param telemetryBus
+	 * 			Bus to read the snapshots from.
+	 *
+	 * @param ip
+	 * 			IP address of the receiver.
+	 *
+	 * @param port
+	 * 			Port of the receiver.
+	 */
+	public TelemetryUDPSender(TelemetryBus telemetryBus, String ip, int port)
+	{
+		super("TelemetryUDPSender");
+		setDaemon(true);
+
+		byte[] data = new byte[PACKET_SIZE];
+		buffer = ByteBuffer.wrap(data);
+
+		try {
+
+			socket = new DatagramSocket();
+			packet = new DatagramPacket(data, data.length, new InetSocketAddress(ip, port));
+			telemetry = telemetryBus.subscribe("TelemetryUDPSender");
+
+		} catch (Exception e) {
+			System.err.println("Could not open UDP telemetry connection to " + ip + ":" + port);
+		}
+	}
+
+
+	@Override
+	public void run()
+	{
+		if(telemetry == null)
+			return;
+
+		while(!stopRequested)
+		{
+			CarSnapshot snapshot = telemetry.next();
+
+			if(snapshot != null)
+			{
+				try {
+
+					encode(snapshot, buffer);
+					socket.send(packet);
+					sentPackets++;
+
+				} catch (IOException e) {
+					System.err.println("TelemetryUDPSender_run(): " + e.toString());
+				}
+			}
+			else
+			{
+				// wait 0.2 ms (physics steps will not be shorter than 1 ms)
+				LockSupport.parkNanos(200000L);
+			}
+		}
+
+		telemetry.close();
+		socket.close();
+	}
+
+
+	/**
+	 * Writes the given snapshot to the buffer (from position 0).
+	 *
+	 * @param snapshot
+	 * 			Snapshot to encode.
+	 *
+	 * @param buffer
+	 * 			Buffer with at least {@value #PACKET_SIZE} bytes remaining.
+	 */
+	public static void encode(CarSnapshot snapshot, ByteBuffer buffer)
+	{
+		short flags = 0;
+		if(snapshot.isEngineOn())
+			flags |= 1;
+		if(snapshot.isTurnSignalLeft())
+			flags |= 2;
+		if(snapshot.isTurnSignalRight())
+			flags |= 4;
+		if(snapshot.getLightIntensity() == 1)
+			flags |= 8;
+		if(snapshot.getLightIntensity() == 2)
+			flags |= 16;
+
+		buffer.clear();
+		buffer.putInt(MAGIC);
+		buffer.putShort(PROTOCOL_VERSION);
+		buffer.putShort(flags);
+		buffer.putLong(snapshot.getSequence());
+		buffer.putLong(snapshot.getSessionTime());
+		buffer.putFloat(snapshot.getPositionX());
+		buffer.putFloat(snapshot.getPositionY());
+		buffer.putFloat(snapshot.getPositionZ());
+		buffer.putFloat(snapshot.getRotationX());
+		buffer.putFloat(snapshot.getRotationY());
+		buffer.putFloat(snapshot.getRotationZ());
+		buffer.putFloat(snapshot.getRotationW());
+		buffer.putFloat(snapshot.getLinearVelocityX());
+		buffer.putFloat(snapshot.getLinearVelocityY());
+		buffer.putFloat(snapshot.getLinearVelocityZ());
+		buffer.putFloat(snapshot.getAngularVelocityX());
+		buffer.putFloat(snapshot.getAngularVelocityY());
+		buffer.putFloat(snapshot.getAngularVelocityZ());
+		buffer.putFloat(snapshot.getSpeedKmh());
+		buffer.putFloat(snapshot.getHeadingDegree());
+		buffer.putFloat(snapshot.getSteeringWheelState());
+		buffer.putFloat(snapshot.getGasPedalPressIntensity());
+		buffer.putFloat(snapshot.getBrakePedalPressIntensity());
+		buffer.putFloat(snapshot.getRPM());
+		buffer.putInt(snapshot.getGear());
+	}
+
+
+	public long getSentPackets()
+	{
+		return sentPackets;
+	}
+
+
+	/**
+	 * Requests the sender to stop after the current loop
+	 */
+	public synchronized void requestStop()
+	{
+		stopRequested = true;
+	}
+}
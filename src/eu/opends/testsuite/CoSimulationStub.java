@@ -0,0 +1,154 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.testsuite;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+
+import eu.opends.coSimulation.CoSimulationProtocol;
+import eu.opends.coSimulation.VehicleState;
+
+/**
+ * Minimal external traffic simulator for testing the co-simulation endpoint
+ * (run as separate process). Vehicles circle around the initial position of
+ * the driving car; the signals of one intersection cycle through a fixed 
+ * program.<br>
+ * <br>
+ * Usage: CoSimulationStub [host] [port] [number of vehicles] [intersection ID]
+ *
+ * @author agent
+ */
+public class CoSimulationStub
+{
+	private static final float VEHICLE_SPEED = 10f; // m/s
+	private static final float GREEN_TIME = 10f;
+	private static final float YELLOW_TIME = 2f;
+	
+	
+	public static void main(String[] args) 
+	{
+		String host = (args.length > 0) ? args[0] : "127.0.0.1";
+		int port = (args.length > 1) ? Integer.parseInt(args[1]) : 5950;
+		int numberOfVehicles = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+		String intersectionID = (args.length > 3) ? args[3] : "01";
+		
+		try {
+			
+			Socket socket = new Socket(host, port);
+			socket.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			
+			int stepSize = CoSimulationProtocol.readHello(in);
+			CoSimulationProtocol.writeHello(out, stepSize);
+			System.out.println("Connected to " + host + ":" + port + " (step size: " + stepSize + " ms)");
+			
+			float centerX = 0, centerY = 0, centerZ = 0;
+			long processingTime = 0;
+			long performedSteps = 0;
+			long skippedSteps = 0;
+			
+			while(true)
+			{
+				byte type = in.readByte();
+				if(type == CoSimulationProtocol.TYPE_CLOSE)
+					break;
+				
+				long step = in.readLong();
+				int skipped = in.readInt();
+				float time = in.readFloat();
+				
+				// vehicle positions depend on the time only, so skipped steps need no computation
+				skippedSteps += skipped;
+				performedSteps++;
+				int numberOfOpenDSVehicles = in.readUnsignedShort();
+				for(int i=0; i<numberOfOpenDSVehicles; i++)
+				{
+					VehicleState vehicle = CoSimulationProtocol.readVehicle(in);
+					
+					// vehicles circle around initial position of the driving car
+					if(step == 0 && i == 0)
+					{
+						centerX = vehicle.getX();
+						centerY = vehicle.getY();
+						centerZ = vehicle.getZ();
+					}
+				}
+				
+				long start = System.nanoTime();
+				
+				out.writeByte(CoSimulationProtocol.TYPE_RESULT);
+				out.writeLong(step);
+				
+				out.writeShort(numberOfVehicles);
+				for(int i=0; i<numberOfVehicles; i++)
+				{
+					float radius = 20 + 5*i;
+					float angle = (VEHICLE_SPEED / radius) * time + i;
+					float x = centerX + radius * (float) Math.sin(angle);
+					float z = centerZ + radius * (float) Math.cos(angle);
+					
+					// driving direction is tangential to the circle
+					float yaw = angle + (float) Math.PI/2f;
+					
+					CoSimulationProtocol.writeVehicle(out, new VehicleState(i+1, x, centerY, z, yaw, VEHICLE_SPEED));
+				}
+				
+				out.writeShort(1);
+				out.writeUTF(intersectionID);
+				out.writeUTF(getSignalState(time));
+				
+				out.flush();
+				
+				processingTime += System.nanoTime() - start;
+				if(performedSteps % 100 == 0)
+					System.out.println("Step " + step + " (t=" + time + " s), skipped steps: " + skippedSteps + 
+							", avg. processing time: " + (processingTime / performedSteps) / 1000 + " us");
+			}
+			
+			socket.close();
+			
+		} catch (EOFException e) {
+			System.out.println("Connection closed");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	private static String getSignalState(float time)
+	{
+		float cycleTime = 2 * (GREEN_TIME + YELLOW_TIME);
+		float cyclePosition = time % cycleTime;
+		
+		if(cyclePosition < GREEN_TIME)
+			return "GGrr";
+		else if(cyclePosition < GREEN_TIME + YELLOW_TIME)
+			return "yyrr";
+		else if(cyclePosition < 2*GREEN_TIME + YELLOW_TIME)
+			return "rrGG";
+		else
+			return "rryy";
+	}
+}
@@ -0,0 +1,335 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.testsuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+import eu.opends.environment.TrafficLight.TrafficLightState;
+import eu.opends.main.Simulator;
+import eu.opends.tools.AllocationCounter;
+import eu.opends.traffic.TrafficControl;
+import eu.opends.traffic.TrafficGrid;
+import eu.opends.traffic.TrafficRoute;
+import eu.opends.traffic.TrafficSensePhase;
+import eu.opends.traffic.TrafficSnapshot;
+import eu.opends.traffic.Waypoint;
+
+/**
+ * Measures the duration of one traffic step (grid rebuild and sense phase) 
+ * for 10 to 500 synthetic traffic cars driving on ring roads, serially and 
+ * in parallel, and checks that both modes compute identical controls. Also
+ * reports the bytes allocated by the complete traffic cycle (capture into 
+ * reused snapshots, grid rebuild, sense phase, application of the controls) 
+ * over all iterations on the calling thread and all sense threads, serially 
+ * and in parallel, which must be zero in the steady state (exit code 1 
+ * otherwise). Runs without scene graph and physics.<br>
+ * <br>
+ * With option -simulator, the given driving task is run in the simulator 
+ * with enabled frame profiler instead, so the real cycle (TrafficSnapshot 
+ * capture, TrafficCar.applyControl and TrafficCar.update with physics) is 
+ * measured. The allocated bytes per frame and per traffic step are logged 
+ * with the traffic report when the simulator is closed.<br>
+ * <br>
+ * Usage: TrafficBenchmark [number of threads (0: all processors)] [iterations]<br>
+ * Usage: TrafficBenchmark -simulator [driving task] [driver name]
+ *
+ * @author agent
+ */
+public class TrafficBenchmark
+{
+	private static final int[] NUMBER_OF_VEHICLES = {10, 25, 50, 100, 200, 500};
+	private static final int VEHICLES_PER_RING = 20;
+	private static final int WAYPOINTS_PER_RING = 16;
+	private static final float RING_RADIUS = 80f;
+	private static final float RING_DISTANCE = 200f;
+	private static final int WARM_UP_ITERATIONS = 200;
+	private static final int ALLOCATION_WARM_UP_ITERATIONS = 20000;
+	private static final float STEP_DURATION = 0.02f;
+	
+	
+	public static void main(String[] args) 
+	{
+		if(args.length > 0 && args[0].equals("-simulator"))
+		{
+			// settings may be overridden at the command line (see SettingsLoader)
+			System.setProperty("opends.Profiling_enableFrameProfiler", "true");
+			
+			String[] simulatorArgs = new String[args.length - 1];
+			System.arraycopy(args, 1, simulatorArgs, 0, simulatorArgs.length);
+			Simulator.main(simulatorArgs);
+			return;
+		}
+		
+		int numberOfThreads = (args.length > 0) ? Integer.parseInt(args[0]) : 0;
+		int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+		
+		TrafficSensePhase serialPhase = new TrafficSensePhase(1);
+		TrafficSensePhase parallelPhase = new TrafficSensePhase(numberOfThreads);
+		
+		System.out.println("threads: " + parallelPhase.getNumberOfThreads() + ", iterations: " + iterations);
+		System.out.println("vehicles\tserial [us]\tparallel [us]\tspeedup\tidentical\t" + 
+				"allocated serial [B]\tallocated parallel [B]");
+		
+		boolean allocationFree = true;
+		
+		for(int numberOfVehicles : NUMBER_OF_VEHICLES)
+		{
+			SyntheticTraffic traffic = new SyntheticTraffic(numberOfVehicles, new Random(numberOfVehicles));
+			TrafficSnapshot snapshot = traffic.capture();
+			TrafficGrid grid = new TrafficGrid(25);
+			
+			TrafficControl[] serialControls = createControls(numberOfVehicles);
+			TrafficControl[] parallelControls = createControls(numberOfVehicles);
+			
+			measure(serialPhase, snapshot, grid, serialControls, WARM_UP_ITERATIONS);
+			measure(parallelPhase, snapshot, grid, parallelControls, WARM_UP_ITERATIONS);
+			
+			float serialTime = measure(serialPhase, snapshot, grid, serialControls, iterations);
+			float parallelTime = measure(parallelPhase, snapshot, grid, parallelControls, iterations);
+			
+			boolean identical = true;
+			for(int i=0; i<numberOfVehicles; i++)
+			{
+				if(serialControls[i].getSteering() != parallelControls[i].getSteering() ||
+					serialControls[i].getGasPedalIntensity() != parallelControls[i].getGasPedalIntensity() ||
+					serialControls[i].getBrakePedalIntensity() != parallelControls[i].getBrakePedalIntensity())
+					identical = false;
+			}
+			
+			long serialBytes = measureAllocation(serialPhase, traffic, grid, serialControls, iterations);
+			long parallelBytes = measureAllocation(parallelPhase, traffic, grid, parallelControls, iterations);
+			if(serialBytes > 0 || parallelBytes > 0)
+				allocationFree = false;
+			
+			System.out.println(numberOfVehicles + "\t\t" + serialTime + "\t\t" + parallelTime + "\t\t" + 
+					(serialTime / parallelTime) + "\t" + identical + "\t\t" + 
+					(serialBytes < 0 ? "n/a" : String.valueOf(serialBytes)) + "\t\t\t" + 
+					(parallelBytes < 0 ? "n/a" : String.valueOf(parallelBytes)));
+		}
+		
+		serialPhase.close();
+		parallelPhase.close();
+		
+		if(!allocationFree)
+		{
+			System.err.println("Traffic cycle allocates memory in steady state");
+			System.exit(1);
+		}
+	}
+	
+	
+	/**
+	 * Measures the bytes allocated by the current thread and the worker threads 
+	 * of the given sense phase during the given number of complete traffic 
+	 * cycles (capture, grid rebuild, sense phase and application of the 
+	 * controls) after a warm-up.
+	 * 
+	 * @return
+	 * 			Total allocated bytes or -1 if not supported by the JVM.
+	 */
+	private static long measureAllocation(TrafficSensePhase sensePhase, SyntheticTraffic traffic, 
+			TrafficGrid grid, TrafficControl[] controls, int iterations)
+	{
+		if(!AllocationCounter.isSupported())
+			return -1;
+		
+		Thread[] workerThreads = sensePhase.getWorkerThreads();
+		
+		// reach steady state (snapshot slots allocated, code compiled by the JIT, 
+		// as deoptimizations may materialize objects that are otherwise eliminated)
+		runCycles(sensePhase, traffic, grid, controls, ALLOCATION_WARM_UP_ITERATIONS);
+		
+		// calibrate the allocation of the measurement itself
+		long calibrationStart = AllocationCounter.getAllocatedBytes() + AllocationCounter.getAllocatedBytes(workerThreads);
+		long calibrationEnd = AllocationCounter.getAllocatedBytes() + AllocationCounter.getAllocatedBytes(workerThreads);
+		long overhead = calibrationEnd - calibrationStart;
+		
+		long startBytes = AllocationCounter.getAllocatedBytes() + AllocationCounter.getAllocatedBytes(workerThreads);
+		
+		runCycles(sensePhase, traffic, grid, controls, iterations);
+		
+		long allocatedBytes = AllocationCounter.getAllocatedBytes() + 
+				AllocationCounter.getAllocatedBytes(workerThreads) - startBytes - overhead;
+		return Math.max(0, allocatedBytes);
+	}
+	
+	
+	private static void runCycles(TrafficSensePhase sensePhase, SyntheticTraffic traffic, 
+			TrafficGrid grid, TrafficControl[] controls, int iterations)
+	{
+		for(int i=0; i<iterations; i++)
+		{
+			TrafficSnapshot snapshot = traffic.capture();
+			grid.rebuild(snapshot);
+			sensePhase.run(snapshot, grid, controls);
+			traffic.apply(controls, STEP_DURATION);
+		}
+	}
+	
+	
+	private static float measure(TrafficSensePhase sensePhase, TrafficSnapshot snapshot, 
+			TrafficGrid grid, TrafficControl[] controls, int iterations)
+	{
+		long startTime = System.nanoTime();
+		
+		for(int i=0; i<iterations; i++)
+		{
+			grid.rebuild(snapshot);
+			sensePhase.run(snapshot, grid, controls);
+		}
+		
+		// average duration of one step in microseconds
+		return (System.nanoTime() - startTime) / (1000f * iterations);
+	}
+	
+	
+	private static TrafficRoute createRingRoute(int ring, float centerX, float centerZ)
+	{
+		List<Waypoint> wayPointList = new ArrayList<Waypoint>();
+		for(int i=0; i<WAYPOINTS_PER_RING; i++)
+		{
+			float angle = FastMath.TWO_PI * i / WAYPOINTS_PER_RING;
+			
+			// alternating speed limits in order to exercise speed reduction
+			float speed = (i % 2 == 0) ? 50 : 30;
+			
+			wayPointList.add(new Waypoint("WP_" + ring + "_" + i, 
+					getRingPosition(centerX, centerZ, angle, new Vector3f()), speed, null));
+		}
+		return new TrafficRoute(wayPointList, true, 0.05f);
+	}
+	
+	
+	private static Vector3f getRingPosition(float centerX, float centerZ, float angle, Vector3f store)
+	{
+		return store.set(centerX + RING_RADIUS * FastMath.cos(angle), 0, centerZ + RING_RADIUS * FastMath.sin(angle));
+	}
+	
+	
+	private static TrafficControl[] createControls(int numberOfVehicles)
+	{
+		TrafficControl[] controls = new TrafficControl[numberOfVehicles];
+		for(int i=0; i<numberOfVehicles; i++)
+			controls[i] = new TrafficControl();
+		return controls;
+	}
+	
+	
+	/**
+	 * Stands in for the jME thread: captures the vehicles into two alternately 
+	 * reused snapshots (like PhysicalTraffic) and moves the vehicles along 
+	 * their rings according to the pedal intensities of the controls.
+	 */
+	private static class SyntheticTraffic
+	{
+		private final int numberOfVehicles;
+		private final TrafficRoute[] routes;
+		private final float[] centerX;
+		private final float[] centerZ;
+		private final float[] angle;
+		private final float[] speedKmh;
+		private final TrafficLightState[] nextTrafficLightState;
+		
+		private final TrafficSnapshot[] snapshots = {new TrafficSnapshot(), new TrafficSnapshot()};
+		private int nextSnapshot = 0;
+		private long sequence = 0;
+		
+		private final Vector3f drivingCarPosition = new Vector3f(-1000, 0, -1000);
+		private final Vector3f position = new Vector3f();
+		private final Vector3f frontPosition = new Vector3f();
+		private final Vector3f followBoxPosition = new Vector3f();
+		
+		
+		public SyntheticTraffic(int numberOfVehicles, Random random)
+		{
+			this.numberOfVehicles = numberOfVehicles;
+			routes = new TrafficRoute[numberOfVehicles];
+			centerX = new float[numberOfVehicles];
+			centerZ = new float[numberOfVehicles];
+			angle = new float[numberOfVehicles];
+			speedKmh = new float[numberOfVehicles];
+			nextTrafficLightState = new TrafficLightState[numberOfVehicles];
+			
+			int numberOfRings = (numberOfVehicles + VEHICLES_PER_RING - 1) / VEHICLES_PER_RING;
+			int ringsPerRow = (int) Math.ceil(Math.sqrt(numberOfRings));
+			
+			TrafficRoute[] ringRoutes = new TrafficRoute[numberOfRings];
+			for(int ring=0; ring<numberOfRings; ring++)
+				ringRoutes[ring] = createRingRoute(ring, (ring % ringsPerRow) * RING_DISTANCE, 
+						(ring / ringsPerRow) * RING_DISTANCE);
+			
+			for(int i=0; i<numberOfVehicles; i++)
+			{
+				int ring = i / VEHICLES_PER_RING;
+				routes[i] = ringRoutes[ring];
+				centerX[i] = (ring % ringsPerRow) * RING_DISTANCE;
+				centerZ[i] = (ring / ringsPerRow) * RING_DISTANCE;
+				
+				// distribute vehicles along the ring (some of them close to each other)
+				angle[i] = FastMath.TWO_PI * ((i % VEHICLES_PER_RING) + 0.3f * random.nextFloat()) / VEHICLES_PER_RING;
+				speedKmh[i] = 40 * random.nextFloat();
+				nextTrafficLightState[i] = random.nextBoolean() ? TrafficLightState.RED : TrafficLightState.GREEN;
+			}
+		}
+		
+		
+		public TrafficSnapshot capture()
+		{
+			TrafficSnapshot snapshot = snapshots[nextSnapshot];
+			nextSnapshot = 1 - nextSnapshot;
+			
+			snapshot.begin(sequence++, false, drivingCarPosition, numberOfVehicles);
+			for(int i=0; i<numberOfVehicles; i++)
+			{
+				getRingPosition(centerX[i], centerZ[i], angle[i], position);
+				getRingPosition(centerX[i], centerZ[i], angle[i] + 1f/RING_RADIUS, frontPosition);
+				getRingPosition(centerX[i], centerZ[i], angle[i] + 8f/RING_RADIUS, followBoxPosition);
+				
+				float segment = angle[i] / FastMath.TWO_PI * WAYPOINTS_PER_RING;
+				int currentWayPointIndex = ((int) segment) % WAYPOINTS_PER_RING;
+				float wayPointProgress = segment - (int) segment;
+				
+				snapshot.getTrafficCarState(i).set(routes[i], position, frontPosition, followBoxPosition, 
+						speedKmh[i], currentWayPointIndex, wayPointProgress, 50, 0, 5f, 5, 2, 
+						nextTrafficLightState[i]);
+			}
+			return snapshot;
+		}
+		
+		
+		public void apply(TrafficControl[] controls, float tpf)
+		{
+			for(int i=0; i<numberOfVehicles; i++)
+			{
+				// accelerate/decelerate with up to 5 m/s^2 (gas pedal: -1 for full ahead)
+				float acceleration = -5f * (controls[i].getGasPedalIntensity() + controls[i].getBrakePedalIntensity());
+				speedKmh[i] = FastMath.clamp(speedKmh[i] + 3.6f * acceleration * tpf, 0, 60);
+				
+				angle[i] += (speedKmh[i] / 3.6f) * tpf / RING_RADIUS;
+				if(angle[i] >= FastMath.TWO_PI)
+					angle[i] -= FastMath.TWO_PI;
+			}
+		}
+	}
+}
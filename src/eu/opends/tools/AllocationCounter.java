@@ -0,0 +1,102 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.tools;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the number of bytes allocated on the heap by individual threads
+ * (HotSpot extension of the ThreadMXBean). Used to check that per-frame code
+ * paths do not allocate in the steady state.
+ *
+ * @author agent
+ */
+public class AllocationCounter
+{
+	private static com.sun.management.ThreadMXBean allocationBean = initAllocationBean();
+
+
+	/**
+	 * @return
+	 * 			True, if the JVM counts the bytes allocated per thread.
+	 */
+	public static boolean isSupported()
+	{
+		return allocationBean != null;
+	}
+
+
+	/**
+	 * @return
+	 * 			Bytes allocated by the calling thread since its start or -1
+	 * 			if not supported.
+	 */
+	public static long getAllocatedBytes()
+	{
+		if(allocationBean == null)
+			return -1;
+
+		return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+
+	/**
+	 * @param threads
+	 * 			Threads to sum up.
+	 *
+	 * @return
+	 * 			Bytes allocated by the given threads since their start or -1
+	 * 			if not supported.
+	 */
+	public static long getAllocatedBytes(Thread[] threads)
+	{
+		if(allocationBean == null)
+			return -1;
+
+		long allocatedBytes = 0;
+		for(int i=0; i<threads.length; i++)
+			allocatedBytes += Math.max(0, allocationBean.getThreadAllocatedBytes(threads[i].getId()));
+
+		return allocatedBytes;
+	}
+
+
+	private static com.sun.management.ThreadMXBean initAllocationBean()
+	{
+		try {
+
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			if(!(threadBean instanceof com.sun.management.ThreadMXBean))
+				return null;
+
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+			if(!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled())
+				return null;
+
+			return bean;
+
+		} catch (Throwable e) {
+
+			// JVM without HotSpot management extension
+			return null;
+		}
+	}
+}
@@ -0,0 +1,325 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.tools;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+import com.jme3.font.BitmapFont;
+import com.jme3.font.BitmapText;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Spatial.CullHint;
+
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.main.SimulationDefaults;
+import eu.opends.main.Simulator;
+
+/**
+ * Measures how long each subsystem updated in Simulator.simpleUpdate() takes 
+ * per frame. Durations are recorded into one {@link LatencyHistogram} per 
+ * section for the whole session (exported as CSV at the end) and into a 
+ * second one that is shown (p50, p99, max) and reset once per second by the 
+ * on-screen overlay.<br>
+ * <br>
+ * Usage on the jME thread:
+ * <pre>
+ * long time = FrameProfiler.beginFrame();
+ * camera.update();
+ * time = FrameProfiler.record(Section.CAMERA, time);
+ * ...
+ * FrameProfiler.endFrame();
+ * </pre>
+ * While disabled, every call returns immediately without reading the clock.
+ * 
+ * @author agent
+ */
+public class FrameProfiler 
+{
+	public enum Section
+	{
+		FRAME("frame interval"), UPDATE("update (total)"), SIMULATION_CLOCK("simulation clock"), 
+		CAMERA("camera"), TRANSMISSION("transmission"), PANEL("panel"), TRAFFIC_LIGHTS("traffic lights"), 
+		TRIGGERS("triggers"), DATA_WRITER("data writer"), LIGHTNING("lightning"), CAN("CAN-bus"), 
+		CAR("car"), TRAFFIC("traffic"), MULTI_DRIVER("multi-driver"), CO_SIMULATION("co-simulation"), 
+		TURN_SIGNALS("turn signals"), SPEED_CONTROL("speed control"), AUDIO("audio"), 
+		STEERING_TASK("steering task"), REACTION_CENTER("reaction center"), EFFECTS("effects"), 
+		QUALITY_GOVERNOR("quality governor");
+		
+		private String name;
+		
+		private Section(String name)
+		{
+			this.name = name;
+		}
+		
+		public String getName()
+		{
+			return name;
+		}
+	}
+	
+	private static final String REPORT_FILE = "frameProfile.csv";
+	
+	// update interval of the overlay (in nanoseconds)
+	private static final long OVERLAY_INTERVAL = 1000000000L;
+	
+	private static final Section[] sections = Section.values();
+	private static LatencyHistogram[] sessionHistograms = createHistograms();
+	private static LatencyHistogram[] intervalHistograms = createHistograms();
+	
+	private static volatile boolean enabled = false;
+	private static long frameStartTime = 0;
+	private static long nextOverlayUpdate = 0;
+	private static boolean overlayVisible = false;
+	private static BitmapText overlayText;
+	private static Simulator sim;
+	
+	
+	public static void init(Simulator simulator)
+	{
+		sim = simulator;
+		enabled = Simulator.getSettingsLoader().getSetting(Setting.Profiling_enableFrameProfiler, 
+				SimulationDefaults.Profiling_enableFrameProfiler);
+		
+		BitmapFont guiFont = sim.getAssetManager().loadFont("Interface/Fonts/Default.fnt");
+		overlayText = new BitmapText(guiFont, false);
+		overlayText.setName("frameProfilerText");
+		overlayText.setText("");
+		overlayText.setCullHint(CullHint.Always);
+		overlayText.setSize(guiFont.getCharSet().getRenderedSize());
+		overlayText.setColor(ColorRGBA.Yellow);
+		sim.getGuiNode().attachChild(overlayText);
+	}
+	
+	
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+	
+	
+	/**
+	 * Shows or hides the overlay. Showing the overlay enables the profiler 
+	 * if it has not been enabled in the settings.
+	 */
+	public static void toggleOverlay()
+	{
+		if(overlayText == null)
+			return;
+		
+		overlayVisible = !overlayVisible;
+		
+		if(overlayVisible)
+		{
+			enabled = true;
+			overlayText.setText("collecting frame times ...");
+			updateOverlayPosition();
+		}
+		
+		overlayText.setCullHint(overlayVisible ? CullHint.Dynamic : CullHint.Always);
+	}
+	
+	
+	/**
+	 * Starts the measurement of a frame and records the time since the start 
+	 * of the previous frame (including rendering).
+	 * 
+	 * @return
+	 * 			Start time to pass to the first {@link #record(Section, long)}.
+	 */
+	public static long beginFrame()
+	{
+		if(!enabled)
+			return 0;
+		
+		long time = System.nanoTime();
+		
+		if(frameStartTime != 0)
+			recordDuration(Section.FRAME, time - frameStartTime);
+		
+		frameStartTime = time;
+		return time;
+	}
+	
+	
+	/**
+	 * Records the time elapsed since the given start time for the given section.
+	 * 
+	 * @param section
+	 * 			Section that has been executed.
+	 * 
+	 * @param startTime
+	 * 			Return value of {@link #beginFrame()} or of the previous call.
+	 * 
+	 * @return
+	 * 			Start time of the next section.
+	 */
+	public static long record(Section section, long startTime)
+	{
+		if(!enabled || startTime == 0)
+			return 0;
+		
+		long time = System.nanoTime();
+		recordDuration(section, time - startTime);
+		return time;
+	}
+	
+	
+	/**
+	 * Ends the measurement of a frame and updates the overlay (once per second).
+	 */
+	public static void endFrame()
+	{
+		if(!enabled || frameStartTime == 0)
+			return;
+		
+		long time = System.nanoTime();
+		recordDuration(Section.UPDATE, time - frameStartTime);
+		
+		if(time >= nextOverlayUpdate)
+		{
+			if(overlayVisible)
+				updateOverlay();
+			
+			for(LatencyHistogram histogram : intervalHistograms)
+				histogram.reset();
+			
+			nextOverlayUpdate = time + OVERLAY_INTERVAL;
+		}
+	}
+	
+	
+	public static LatencyHistogram getHistogram(Section section)
+	{
+		return sessionHistograms[section.ordinal()];
+	}
+	
+	
+	/**
+	 * Writes the statistics of the whole session to the given folder (nothing 
+	 * will be written if the profiler has never been enabled).
+	 * 
+	 * @param outputFolder
+	 * 			Folder of the current session.
+	 */
+	public static void writeReport(String outputFolder)
+	{
+		if(getHistogram(Section.UPDATE).getCount() == 0)
+			return;
+		
+		Util.makeDirectory(outputFolder);
+		try {
+			
+			BufferedWriter out = new BufferedWriter(new FileWriter(outputFolder + "/" + REPORT_FILE));
+			out.write("section;count;meanMs;p50Ms;p90Ms;p99Ms;p99.9Ms;maxMs");
+			out.newLine();
+			
+			for(Section section : sections)
+			{
+				LatencyHistogram histogram = getHistogram(section);
+				out.write(section.getName() + ";" + histogram.getCount() + ";" + 
+						format(histogram.getMean() / 1000000d) + ";" +
+						toMillis(histogram.getValueAtPercentile(50)) + ";" + 
+						toMillis(histogram.getValueAtPercentile(90)) + ";" + 
+						toMillis(histogram.getValueAtPercentile(99)) + ";" + 
+						toMillis(histogram.getValueAtPercentile(99.9)) + ";" + 
+						toMillis(histogram.getMax()));
+				out.newLine();
+			}
+			
+			out.close();
+			
+		} catch (IOException e) {
+			System.err.println("FrameProfiler: could not write report to '" + outputFolder + "'");
+		}
+	}
+	
+	
+	/**
+	 * @return
+	 * 			Human readable summary of the whole session, e.g. for log output.
+	 */
+	public static String getSummary()
+	{
+		StringBuffer summary = new StringBuffer();
+		for(Section section : sections)
+		{
+			LatencyHistogram histogram = getHistogram(section);
+			summary.append(section.getName()).append(": p50=").append(toMillis(histogram.getValueAtPercentile(50)))
+				.append(" ms, p99=").append(toMillis(histogram.getValueAtPercentile(99)))
+				.append(" ms, max=").append(toMillis(histogram.getMax())).append(" ms")
+				.append(System.getProperty("line.separator"));
+		}
+		return summary.toString();
+	}
+	
+	
+	private static void recordDuration(Section section, long duration)
+	{
+		sessionHistograms[section.ordinal()].record(duration);
+		intervalHistograms[section.ordinal()].record(duration);
+	}
+	
+	
+	private static void updateOverlay()
+	{
+		StringBuffer text = new StringBuffer("frame profiler (ms)    p50    p99    max\n");
+		for(Section section : sections)
+		{
+			LatencyHistogram histogram = intervalHistograms[section.ordinal()];
+			text.append(String.format(Locale.US, "%-20s %6.2f %6.2f %6.2f\n", section.getName(), 
+					histogram.getValueAtPercentile(50) / 1000000f, 
+					histogram.getValueAtPercentile(99) / 1000000f, 
+					histogram.getMax() / 1000000f));
+		}
+		overlayText.setText(text.toString());
+		updateOverlayPosition();
+	}
+	
+	
+	private static void updateOverlayPosition()
+	{
+		// below jME's stats view
+		overlayText.setLocalTranslation(3, sim.getSettings().getHeight() - 260, 0);
+	}
+	
+	
+	private static LatencyHistogram[] createHistograms()
+	{
+		LatencyHistogram[] histograms = new LatencyHistogram[Section.values().length];
+		for(int i=0; i<histograms.length; i++)
+			histograms[i] = new LatencyHistogram();
+		return histograms;
+	}
+	
+	
+	private static String toMillis(long nanos)
+	{
+		return format(nanos / 1000000d);
+	}
+	
+	
+	private static String format(double value)
+	{
+		return String.format(Locale.US, "%.3f", value);
+	}
+}
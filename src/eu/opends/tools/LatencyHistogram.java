@@ -0,0 +1,176 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.tools;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations (in nanoseconds) with a constant relative precision 
+ * over the whole value range (same bucket layout as an HDR histogram): every 
+ * power of two is divided into {@value #SUB_BUCKET_COUNT} linear sub buckets, 
+ * so any percentile is reported with an error of less than about 3%. Values 
+ * above ~137 seconds are counted in the last bucket.<br>
+ * <br>
+ * Recording does not allocate and does not lock. Values may be recorded and 
+ * read from different threads; a reader running concurrently to the writer 
+ * may see a count that is off by the values recorded meanwhile.
+ * 
+ * @author agent
+ */
+public class LatencyHistogram 
+{
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int VALUE_BITS = 37;
+	private static final long HIGHEST_VALUE = (1L << VALUE_BITS) - 1;
+	private static final int BUCKET_COUNT = (VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong totalCount = new AtomicLong(0);
+	private final AtomicLong totalValue = new AtomicLong(0);
+	private final AtomicLong maxValue = new AtomicLong(0);
+	
+	
+	/**
+	 * Adds the given duration to the histogram.
+	 * 
+	 * @param value
+	 * 			Duration in nanoseconds (negative values will be counted as 0).
+	 */
+	public void record(long value)
+	{
+		if(value < 0)
+			value = 0;
+		
+		counts.incrementAndGet(getBucketIndex(Math.min(value, HIGHEST_VALUE)));
+		totalCount.incrementAndGet();
+		totalValue.addAndGet(value);
+		
+		long max = maxValue.get();
+		while(value > max && !maxValue.compareAndSet(max, value))
+			max = maxValue.get();
+	}
+	
+	
+	public long getCount()
+	{
+		return totalCount.get();
+	}
+	
+	
+	/**
+	 * @return largest recorded value (exact, in nanoseconds)
+	 */
+	public long getMax()
+	{
+		return maxValue.get();
+	}
+	
+	
+	/**
+	 * @return average of all recorded values (in nanoseconds)
+	 */
+	public double getMean()
+	{
+		long count = totalCount.get();
+		if(count == 0)
+			return 0;
+		
+		return totalValue.get() / (double) count;
+	}
+	
+	
+	/**
+	 * Returns the value below or equal to which the given percentage of all 
+	 * recorded values lie (the upper bound of the containing bucket).
+	 * 
+	 * @param percentile
+	 * 			Percentile in the range of 0 to 100 (e.g. 99.9).
+	 * 
+	 * @return
+	 * 			Value at the given percentile (in nanoseconds) or 0 if empty.
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		long count = 0;
+		for(int i=0; i<BUCKET_COUNT; i++)
+			count += counts.get(i);
+		
+		if(count == 0)
+			return 0;
+		
+		long requiredCount = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100d * count));
+		
+		long cumulativeCount = 0;
+		for(int i=0; i<BUCKET_COUNT; i++)
+		{
+			cumulativeCount += counts.get(i);
+			if(cumulativeCount >= requiredCount)
+			{
+				// last bucket also contains all values out of range
+				if(i == BUCKET_COUNT - 1)
+					return getMax();
+				
+				return Math.min(getHighestValueInBucket(i), getMax());
+			}
+		}
+		
+		return getMax();
+	}
+	
+	
+	/**
+	 * Removes all recorded values. Must not be called concurrently to 
+	 * {@link #record(long)} if exact results are needed.
+	 */
+	public void reset()
+	{
+		for(int i=0; i<BUCKET_COUNT; i++)
+			counts.set(i, 0);
+		
+		totalCount.set(0);
+		totalValue.set(0);
+		maxValue.set(0);
+	}
+	
+	
+	private static int getBucketIndex(long value)
+	{
+		// values below 2*SUB_BUCKET_COUNT are counted exactly
+		if(value < 2 * SUB_BUCKET_COUNT)
+			return (int) value;
+		
+		int highestBit = 63 - Long.numberOfLeadingZeros(value);
+		int shift = highestBit - SUB_BUCKET_BITS;
+		return (shift * SUB_BUCKET_COUNT) + (int) (value >>> shift);
+	}
+	
+	
+	private static long getHighestValueInBucket(int index)
+	{
+		if(index < 2 * SUB_BUCKET_COUNT)
+			return index;
+		
+		int shift = (index / SUB_BUCKET_COUNT) - 1;
+		long subBucket = index - (shift * SUB_BUCKET_COUNT);
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,292 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.tools;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+import eu.opends.basics.SimulationBasics;
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.main.SimulationDefaults;
+import eu.opends.main.Simulator;
+
+/**
+ * Holds a target frame rate by stepping the rendering quality down and up 
+ * through a fixed list of tiers (shadow map size, particle count, fog and 
+ * bloom filters, view distance and number of traffic head lights). The first 
+ * tier equals the quality at the time the governor is created (configured 
+ * shadow map size, far plane, filters), every further tier is cheaper and 
+ * never exceeds the first one.<br>
+ * <br>
+ * The frame rate is averaged over windows of one second. Quality is stepped 
+ * down after two consecutive windows below 90% of the target and stepped up 
+ * after several windows at the target. If a step up has to be reverted soon 
+ * after, the number of windows required for the next step up is doubled, so 
+ * the governor does not oscillate between two tiers (e.g. when vsync caps the 
+ * frame rate at the target). Every change is logged to the output folder of 
+ * the session. The governor is not used in a render cluster, as the screens 
+ * of all machines have to be rendered in the same quality.
+ * 
+ * @author agent
+ */
+public class QualityGovernor 
+{
+	private static final String LOG_FILE = "qualityGovernor.csv";
+	
+	private static final float WINDOW_LENGTH = 1f;
+	private static final float LOWER_THRESHOLD = 0.9f;
+	private static final float UPPER_THRESHOLD = 0.97f;
+	private static final int WINDOWS_TO_STEP_DOWN = 2;
+	private static final int MIN_WINDOWS_TO_STEP_UP = 5;
+	private static final int MAX_WINDOWS_TO_STEP_UP = 60;
+	
+	// a step down within this time (in seconds) after a step up counts as failed step up
+	private static final float PROBE_DURATION = 10f;
+	
+	private Simulator sim;
+	private QualityTier[] tiers;
+	private float targetFrameRate;
+	private int currentTier = 0;
+	
+	private float time = 0;
+	private float windowTime = 0;
+	private int windowFrames = 0;
+	private int windowsBelowTarget = 0;
+	private int windowsAtTarget = 0;
+	private int windowsToStepUp = MIN_WINDOWS_TO_STEP_UP;
+	private int windowsToSkip = 3;
+	private float lastStepUpTime = -PROBE_DURATION;
+	private int tierChanges = 0;
+	private BufferedWriter logWriter;
+	
+	
+	public QualityGovernor(Simulator sim, String outputFolder)
+	{
+		this.sim = sim;
+		this.targetFrameRate = Simulator.getSettingsLoader().getSetting(Setting.QualityGovernor_targetFrameRate, 
+				SimulationDefaults.QualityGovernor_targetFrameRate);
+		
+		// first tier: current quality (e.g. far plane of single-screen cameras is jME's default)
+		int shadowMapSize = sim.getShadowMapSize();
+		float viewDistance = sim.getCameraFactory().getViewDistance();
+		boolean fog = sim.getEffectCenter() != null && sim.getEffectCenter().isFogEnabled();
+		boolean bloom = sim.getEffectCenter() != null && sim.getEffectCenter().isBloomEnabled();
+		
+		tiers = new QualityTier[] {
+			new QualityTier("high", shadowMapSize, 1f, fog, bloom, viewDistance, -1),
+			new QualityTier("medium", Math.min(256, shadowMapSize), 0.6f, fog, false, Math.min(1200, viewDistance), 4),
+			new QualityTier("low", 0, 0.3f, fog, false, Math.min(800, viewDistance), 2),
+			new QualityTier("lowest", 0, 0.1f, false, false, Math.min(500, viewDistance), 0)
+		};
+		
+		Util.makeDirectory(outputFolder);
+		try {
+			
+			logWriter = new BufferedWriter(new FileWriter(outputFolder + "/" + LOG_FILE));
+			logWriter.write("time;frameRate;targetFrameRate;tier;shadowMapSize;particleFactor;fog;bloom;" +
+					"viewDistance;maxHeadLights");
+			logWriter.newLine();
+			
+		} catch (IOException e) {
+			System.err.println("QualityGovernor: could not open log file in '" + outputFolder + "'");
+		}
+		
+		log(0);
+	}
+	
+	
+	/**
+	 * Measures the frame rate and changes the quality tier if necessary. Must 
+	 * be called on the jME update thread every frame.
+	 * 
+	 * @param tpf
+	 * 			Time per frame (in seconds).
+	 */
+	public void update(float tpf)
+	{
+		time += tpf;
+		windowTime += tpf;
+		windowFrames++;
+		
+		if(windowTime < WINDOW_LENGTH)
+			return;
+		
+		float frameRate = windowFrames / windowTime;
+		windowTime = 0;
+		windowFrames = 0;
+		
+		// let frame rate settle after start-up and quality changes
+		if(windowsToSkip > 0)
+		{
+			windowsToSkip--;
+			return;
+		}
+		
+		if(frameRate < targetFrameRate * LOWER_THRESHOLD)
+		{
+			windowsBelowTarget++;
+			windowsAtTarget = 0;
+		}
+		else if(frameRate >= targetFrameRate * UPPER_THRESHOLD)
+		{
+			windowsAtTarget++;
+			windowsBelowTarget = 0;
+		}
+		else
+		{
+			windowsBelowTarget = 0;
+			windowsAtTarget = 0;
+		}
+		
+		if(windowsBelowTarget >= WINDOWS_TO_STEP_DOWN && currentTier < tiers.length - 1)
+		{
+			// back off if the previous step up did not hold
+			if(time - lastStepUpTime < PROBE_DURATION)
+				windowsToStepUp = Math.min(2 * windowsToStepUp, MAX_WINDOWS_TO_STEP_UP);
+			
+			setTier(currentTier + 1, frameRate);
+		}
+		else if(windowsAtTarget >= windowsToStepUp && currentTier > 0)
+		{
+			lastStepUpTime = time;
+			setTier(currentTier - 1, frameRate);
+		}
+		else if(windowsAtTarget >= MAX_WINDOWS_TO_STEP_UP)
+		{
+			// stable for a long time: allow quick recovery after the next drop
+			windowsToStepUp = MIN_WINDOWS_TO_STEP_UP;
+		}
+	}
+	
+	
+	public int getCurrentTier()
+	{
+		return currentTier;
+	}
+	
+	
+	public String getCurrentTierName()
+	{
+		return tiers[currentTier].name;
+	}
+	
+	
+	/**
+	 * Statistics as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Target frame rate, current tier and number of tier changes.
+	 */
+	public String getReport()
+	{
+		return "target=" + targetFrameRate + " fps, tier=" + getCurrentTierName() + ", changes=" + tierChanges;
+	}
+	
+	
+	public void close()
+	{
+		if(logWriter != null)
+		{
+			try {
+				logWriter.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			logWriter = null;
+		}
+	}
+	
+	
+	private void setTier(int tierIndex, float frameRate)
+	{
+		currentTier = tierIndex;
+		QualityTier tier = tiers[tierIndex];
+		
+		sim.setShadowMapSize(tier.shadowMapSize);
+		sim.getCameraFactory().setViewDistance(tier.viewDistance);
+		
+		if(sim.getEffectCenter() != null)
+		{
+			sim.getEffectCenter().setParticleFactor(tier.particleFactor);
+			sim.getEffectCenter().setFogEnabled(tier.fog);
+			sim.getEffectCenter().setBloomEnabled(tier.bloom);
+		}
+		
+		if(sim.getPhysicalTraffic() != null)
+			sim.getPhysicalTraffic().getHeadLightBudget().setQualityLimit(tier.maxHeadLights);
+		
+		windowsBelowTarget = 0;
+		windowsAtTarget = 0;
+		windowsToSkip = 1;
+		tierChanges++;
+		
+		System.out.println("Rendering quality changed to '" + tier.name + "' at " + 
+				String.format(Locale.US, "%.1f", frameRate) + " fps");
+		log(frameRate);
+	}
+	
+	
+	private void log(float frameRate)
+	{
+		if(logWriter == null)
+			return;
+		
+		QualityTier tier = tiers[currentTier];
+		try {
+			
+			logWriter.write(String.format(Locale.US, "%.3f;%.1f;%.1f;%s;%d;%.2f;%b;%b;%.0f;%d", 
+					SimulationBasics.getSimulationClock().getFrameTime(), frameRate, targetFrameRate, 
+					tier.name, tier.shadowMapSize, tier.particleFactor, tier.fog, tier.bloom, 
+					tier.viewDistance, tier.maxHeadLights));
+			logWriter.newLine();
+			logWriter.flush();
+			
+		} catch (IOException e) {
+			System.err.println("QualityGovernor: could not write log file");
+		}
+	}
+	
+	
+	private static class QualityTier
+	{
+		private String name;
+		private int shadowMapSize;
+		private float particleFactor;
+		private boolean fog;
+		private boolean bloom;
+		private float viewDistance;
+		private int maxHeadLights;
+		
+		
+		private QualityTier(String name, int shadowMapSize, float particleFactor, boolean fog, 
+				boolean bloom, float viewDistance, int maxHeadLights)
+		{
+			this.name = name;
+			this.shadowMapSize = shadowMapSize;
+			this.particleFactor = particleFactor;
+			this.fog = fog;
+			this.bloom = bloom;
+			this.viewDistance = viewDistance;
+			this.maxHeadLights = maxHeadLights;
+		}
+	}
+}
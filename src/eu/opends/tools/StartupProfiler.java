@@ -0,0 +1,430 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the duration of the phases of the simulator start-up. Phases may be 
+ * nested (e.g. the loaders of the driving task within "Driving task"). For each 
+ * phase the wall time, the CPU time and the number of bytes allocated by the 
+ * initializing thread are recorded, as well as the heap usage after the phase 
+ * (no garbage collection is forced, as this would distort the timings).<br>
+ * <br>
+ * At the end of the start-up the profile is written to the output folder of the 
+ * session (as JSON) and a summary line is appended to a history file. The run 
+ * is compared to the previous run of the same driving task in order to reveal 
+ * phases that became slower.
+ * 
+ * @author agent
+ */
+public class StartupProfiler 
+{
+	private static final String REPORT_FILE = "startupProfile.json";
+	private static final String HISTORY_FILE = "analyzerData/startupHistory.csv";
+	private static final String HISTORY_HEADER = "date;drivingTask;lastModified;wallMs;cpuMs;allocatedKB;heapKB;phases";
+	
+	// phases that became slower by more than this ratio and threshold will be reported
+	private static final float REGRESSION_RATIO = 1.2f;
+	private static final float REGRESSION_THRESHOLD_MS = 50;
+	
+	private static final String newLine = System.getProperty("line.separator");
+	
+	private ThreadMXBean threadBean;
+	private com.sun.management.ThreadMXBean allocationBean = null;
+	private MemoryMXBean memoryBean;
+	private LinkedList<Phase> phaseStack = new LinkedList<Phase>();
+	private Phase rootPhase = null;
+	
+	
+	public StartupProfiler()
+	{
+		threadBean = ManagementFactory.getThreadMXBean();
+		memoryBean = ManagementFactory.getMemoryMXBean();
+		
+		if(threadBean instanceof com.sun.management.ThreadMXBean)
+		{
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+			if(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+				allocationBean = bean;
+		}
+	}
+	
+	
+	/**
+	 * Starts a new profile. Any previously recorded profile will be discarded.
+	 * 
+	 * @param name
+	 * 			Name of the profile (e.g. file name of the driving task).
+	 */
+	public void start(String name)
+	{
+		phaseStack.clear();
+		rootPhase = new Phase(name);
+		rootPhase.begin();
+		phaseStack.push(rootPhase);
+	}
+	
+	
+	/**
+	 * Begins a new phase nested in the current phase. Will be ignored if no 
+	 * profile has been started (e.g. when a driving task is loaded by the 
+	 * analyzer).
+	 * 
+	 * @param name
+	 * 			Name of the phase.
+	 */
+	public void begin(String name)
+	{
+		if(phaseStack.isEmpty())
+			return;
+		
+		Phase phase = new Phase(name);
+		phaseStack.peek().children.add(phase);
+		phase.begin();
+		phaseStack.push(phase);
+	}
+	
+	
+	/**
+	 * Ends the current phase. The profile itself can only be ended by 
+	 * {@link #finish()}.
+	 */
+	public void end()
+	{
+		if(phaseStack.size() > 1)
+			phaseStack.pop().end();
+	}
+	
+	
+	/**
+	 * Ends all open phases and the profile.
+	 * 
+	 * @return
+	 * 			Wall time of the whole start-up (in milliseconds) or -1 if no 
+	 * 			profile has been started.
+	 */
+	public float finish()
+	{
+		if(rootPhase == null)
+			return -1;
+		
+		while(!phaseStack.isEmpty())
+			phaseStack.pop().end();
+		
+		return toMillis(rootPhase.wallTime);
+	}
+	
+	
+	/**
+	 * Writes the finished profile to the given folder and appends it to the 
+	 * start-up history. Prints phases that have become slower since the previous 
+	 * start-up of the same driving task.
+	 * 
+	 * @param outputFolder
+	 * 			Folder of the current session.
+	 * 
+	 * @param drivingTaskPath
+	 * 			Path of the driving task (the modification date of the file will be 
+	 * 			stored to distinguish versions of the driving task).
+	 */
+	public void writeReport(String outputFolder, String drivingTaskPath)
+	{
+		if(rootPhase == null || !phaseStack.isEmpty())
+			return;
+		
+		long lastModified = new File(drivingTaskPath).lastModified();
+		
+		// write JSON report
+		Util.makeDirectory(outputFolder);
+		try {
+			
+			BufferedWriter out = new BufferedWriter(new FileWriter(outputFolder + "/" + REPORT_FILE));
+			out.write("{" + newLine);
+			out.write("  \"drivingTask\": " + quote(drivingTaskPath) + "," + newLine);
+			out.write("  \"lastModified\": " + lastModified + "," + newLine);
+			out.write("  \"date\": " + quote(Util.getDateTimeString()) + "," + newLine);
+			out.write("  \"allocationSupported\": " + (allocationBean != null) + "," + newLine);
+			out.write("  \"profile\": " + rootPhase.toJSON("  ") + newLine);
+			out.write("}" + newLine);
+			out.close();
+			
+		} catch (IOException e) {
+			System.err.println("StartupProfiler: could not write report to '" + outputFolder + "'");
+		}
+		
+		// compare with previous start-up of the same driving task and extend history
+		String previousEntry = getPreviousEntry(drivingTaskPath);
+		if(previousEntry != null)
+			printRegressions(previousEntry, lastModified);
+		
+		appendHistory(drivingTaskPath, lastModified);
+	}
+	
+	
+	/**
+	 * @return
+	 * 			Human readable summary (one line per phase), e.g. for log output.
+	 */
+	public String getSummary()
+	{
+		StringBuffer summary = new StringBuffer();
+		if(rootPhase != null)
+			rootPhase.appendSummary(summary, "");
+		return summary.toString();
+	}
+
+
+	private void appendHistory(String drivingTaskPath, long lastModified)
+	{
+		File historyFile = new File(HISTORY_FILE);
+		Util.makeDirectory(historyFile.getParent());
+		boolean writeHeader = !historyFile.exists();
+		
+		StringBuffer phases = new StringBuffer();
+		for(Phase phase : rootPhase.children)
+		{
+			if(phases.length() > 0)
+				phases.append("|");
+			phases.append(phase.name.replace('|', '/').replace('=', '-').replace(';', ',')).append("=");
+			phases.append(format(toMillis(phase.wallTime)));
+		}
+		
+		try {
+			
+			BufferedWriter out = new BufferedWriter(new FileWriter(historyFile, true));
+			if(writeHeader)
+				out.write(HISTORY_HEADER + newLine);
+			out.write(Util.getDateTimeString() + ";" + drivingTaskPath.replace(';', ',') + ";" + 
+					lastModified + ";" + format(toMillis(rootPhase.wallTime)) + ";" + 
+					format(toMillis(rootPhase.cpuTime)) + ";" + toKiloBytes(rootPhase.allocatedBytes) + ";" + 
+					toKiloBytes(rootPhase.heapUsedAfter) + ";" + phases + newLine);
+			out.close();
+			
+		} catch (IOException e) {
+			System.err.println("StartupProfiler: could not write history to '" + HISTORY_FILE + "'");
+		}
+	}
+
+
+	private String getPreviousEntry(String drivingTaskPath)
+	{
+		File historyFile = new File(HISTORY_FILE);
+		if(!historyFile.exists())
+			return null;
+		
+		String previousEntry = null;
+		String key = ";" + drivingTaskPath.replace(';', ',') + ";";
+		
+		try {
+			
+			BufferedReader in = new BufferedReader(new FileReader(historyFile));
+			String line;
+			while((line = in.readLine()) != null)
+			{
+				if(line.indexOf(key) >= 0)
+					previousEntry = line;
+			}
+			in.close();
+			
+		} catch (IOException e) {
+			System.err.println("StartupProfiler: could not read history from '" + HISTORY_FILE + "'");
+		}
+		
+		return previousEntry;
+	}
+
+
+	private void printRegressions(String previousEntry, long lastModified)
+	{
+		String[] columns = previousEntry.split(";", -1);
+		if(columns.length < 8)
+			return;
+		
+		try {
+			
+			boolean sameVersion = (Long.parseLong(columns[2]) == lastModified);
+			float previousWallTime = Float.parseFloat(columns[3]);
+			float wallTime = toMillis(rootPhase.wallTime);
+			
+			System.out.println("Startup took " + format(wallTime) + " ms (previous run of " + 
+					(sameVersion ? "same" : "other") + " driving task version: " + 
+					format(previousWallTime) + " ms)");
+			
+			List<String> regressions = new ArrayList<String>();
+			for(String entry : columns[7].split("\\|"))
+			{
+				int separator = entry.lastIndexOf('=');
+				if(separator < 0)
+					continue;
+				
+				String name = entry.substring(0, separator);
+				float previousTime = Float.parseFloat(entry.substring(separator + 1));
+				
+				for(Phase phase : rootPhase.children)
+				{
+					float time = toMillis(phase.wallTime);
+					if(phase.name.equals(name) && time > previousTime * REGRESSION_RATIO 
+							&& time - previousTime > REGRESSION_THRESHOLD_MS)
+						regressions.add(name + ": " + format(previousTime) + " ms -> " + format(time) + " ms");
+				}
+			}
+			
+			for(String regression : regressions)
+				System.out.println("Startup phase became slower: " + regression);
+			
+		} catch (NumberFormatException e) {
+			System.err.println("StartupProfiler: invalid history entry '" + previousEntry + "'");
+		}
+	}
+	
+	
+	private long getCpuTime()
+	{
+		if(threadBean.isCurrentThreadCpuTimeSupported())
+			return threadBean.getCurrentThreadCpuTime();
+		return 0;
+	}
+	
+	
+	private long getAllocatedBytes()
+	{
+		if(allocationBean != null)
+			return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+	
+	
+	private static float toMillis(long nanos)
+	{
+		return nanos / 1000000f;
+	}
+	
+	
+	private static long toKiloBytes(long bytes)
+	{
+		return bytes / 1024;
+	}
+	
+	
+	private static String format(float value)
+	{
+		return String.format(Locale.US, "%.3f", value);
+	}
+	
+	
+	private static String quote(String value)
+	{
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+	
+	
+	private class Phase
+	{
+		private String name;
+		private List<Phase> children = new ArrayList<Phase>();
+		private long wallTime, cpuTime, allocatedBytes, heapUsedAfter;
+		
+		
+		private Phase(String name)
+		{
+			this.name = name;
+		}
+		
+		
+		private void begin()
+		{
+			// stored negatively until the phase ends
+			allocatedBytes = -getAllocatedBytes();
+			cpuTime = -getCpuTime();
+			wallTime = -System.nanoTime();
+		}
+		
+		
+		private void end()
+		{
+			wallTime += System.nanoTime();
+			cpuTime += getCpuTime();
+			allocatedBytes += getAllocatedBytes();
+			heapUsedAfter = memoryBean.getHeapMemoryUsage().getUsed();
+		}
+		
+		
+		private long getSelfTime()
+		{
+			long selfTime = wallTime;
+			for(Phase child : children)
+				selfTime -= child.wallTime;
+			return selfTime;
+		}
+		
+		
+		private String toJSON(String indent)
+		{
+			String innerIndent = indent + "  ";
+			
+			StringBuffer json = new StringBuffer();
+			json.append("{").append(newLine);
+			json.append(innerIndent).append("\"name\": ").append(quote(name)).append(",").append(newLine);
+			json.append(innerIndent).append("\"wallMs\": ").append(format(toMillis(wallTime))).append(",").append(newLine);
+			json.append(innerIndent).append("\"selfWallMs\": ").append(format(toMillis(getSelfTime()))).append(",").append(newLine);
+			json.append(innerIndent).append("\"cpuMs\": ").append(format(toMillis(cpuTime))).append(",").append(newLine);
+			json.append(innerIndent).append("\"allocatedKB\": ").append(toKiloBytes(allocatedBytes)).append(",").append(newLine);
+			json.append(innerIndent).append("\"heapUsedAfterKB\": ").append(toKiloBytes(heapUsedAfter)).append(",").append(newLine);
+			json.append(innerIndent).append("\"phases\": [");
+			
+			for(int i=0; i<children.size(); i++)
+			{
+				json.append(i == 0 ? "" : ",").append(newLine).append(innerIndent).append("  ");
+				json.append(children.get(i).toJSON(innerIndent + "  "));
+			}
+			
+			if(!children.isEmpty())
+				json.append(newLine).append(innerIndent);
+			
+			json.append("]").append(newLine);
+			json.append(indent).append("}");
+			return json.toString();
+		}
+		
+		
+		private void appendSummary(StringBuffer summary, String indent)
+		{
+			summary.append(indent).append(name).append(": ").append(format(toMillis(wallTime))).append(" ms (CPU: ")
+				.append(format(toMillis(cpuTime))).append(" ms, allocated: ").append(toKiloBytes(allocatedBytes))
+				.append(" KB, heap: ").append(toKiloBytes(heapUsedAfter)).append(" KB)").append(newLine);
+			
+			for(Phase child : children)
+				child.appendSummary(summary, indent + "  ");
+		}
+	}
+}
@@ -0,0 +1,274 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+
+package eu.opends.tools;
+
+/**
+ * Hashed timer wheel driven by an external clock. Tasks are assigned to one of 
+ * a fixed number of slots by their deadline tick, hence scheduling and 
+ * cancelling a task takes constant time, independent of the number of pending 
+ * tasks. Advancing the wheel only visits the slots of the ticks that have 
+ * passed by since the last call.<br>
+ * <br>
+ * The wheel is not thread-safe. All methods (and therefore all scheduled 
+ * tasks) have to be called from the same thread, i.e. the jME update thread.
+ * 
+ * @author agent
+ */
+public class TimerWheel 
+{
+	private final double tickDuration;
+	private final int mask;
+	private final Timer[] slotHead;
+	private final Timer[] slotTail;
+	
+	// current time and next tick to be processed
+	private double time = 0;
+	private long currentTick = 0;
+	private int pendingTimers = 0;
+	
+	
+	/**
+	 * Creates a new timer wheel.
+	 * 
+	 * @param tickDuration
+	 * 			Resolution of the wheel (in seconds). Tasks will not be run 
+	 * 			before their deadline, but up to one tick (plus one frame) later.
+	 * 
+	 * @param wheelSize
+	 * 			Number of slots (will be rounded up to the next power of two).
+	 * 			Tasks with a delay longer than wheelSize*tickDuration will be 
+	 * 			visited more than once until they expire.
+	 */
+	public TimerWheel(double tickDuration, int wheelSize)
+	{
+		int size = 1;
+		while(size < wheelSize)
+			size <<= 1;
+		
+		this.tickDuration = tickDuration;
+		this.mask = size - 1;
+		this.slotHead = new Timer[size];
+		this.slotTail = new Timer[size];
+	}
+	
+	
+	/**
+	 * Schedules the given task to be run once after the given delay has 
+	 * passed by on the clock driving this wheel.
+	 * 
+	 * @param task
+	 * 			Task to run.
+	 * 
+	 * @param delay
+	 * 			Delay (in seconds). Tasks with a delay of zero or less will be 
+	 * 			run on the next call of {@link #advanceTo(double)} that 
+	 * 			completes a tick.
+	 * 
+	 * @return
+	 * 			Handle to cancel the task.
+	 */
+	public Timer schedule(Runnable task, double delay)
+	{
+		long deadlineTick = (long) Math.ceil((time + Math.max(0, delay)) / tickDuration);
+		if(deadlineTick < currentTick)
+			deadlineTick = currentTick;
+		
+		Timer timer = new Timer(task, deadlineTick);
+		insert(timer);
+		return timer;
+	}
+	
+	
+	/**
+	 * Advances the wheel to the given time and runs all tasks whose deadline 
+	 * has been reached, in order of their deadline tick.
+	 * 
+	 * @param newTime
+	 * 			Current time of the driving clock (in seconds). Must not 
+	 * 			decrease between calls.
+	 */
+	public void advanceTo(double newTime)
+	{
+		if(newTime > time)
+			time = newTime;
+		
+		long lastTick = (long) Math.floor(time / tickDuration);
+		
+		while(currentTick <= lastTick)
+		{
+			// timers scheduled by expiring tasks will go to the next tick
+			long tick = currentTick++;
+			
+			if(pendingTimers > 0)
+				expire(tick);
+		}
+	}
+	
+	
+	/**
+	 * @return current time of the wheel (in seconds)
+	 */
+	public double getTime()
+	{
+		return time;
+	}
+	
+	
+	/**
+	 * @return number of scheduled tasks that have neither been run nor cancelled
+	 */
+	public int getPendingTimers()
+	{
+		return pendingTimers;
+	}
+	
+	
+	private void expire(long tick)
+	{
+		int slot = (int) (tick & mask);
+		
+		// detach all due timers first, as tasks may schedule or cancel timers
+		Timer expired = null;
+		Timer expiredTail = null;
+		
+		Timer timer = slotHead[slot];
+		while(timer != null)
+		{
+			Timer next = timer.next;
+			
+			if(timer.deadlineTick <= tick)
+			{
+				unlink(timer);
+				
+				if(expiredTail == null)
+					expired = timer;
+				else
+					expiredTail.next = timer;
+				expiredTail = timer;
+			}
+			
+			timer = next;
+		}
+		
+		while(expired != null)
+		{
+			Timer next = expired.next;
+			expired.next = null;
+			
+			Runnable task = expired.task;
+			expired.task = null;
+			
+			if(task != null)
+			{
+				try {
+					
+					task.run();
+					
+				} catch (RuntimeException e) {
+					
+					e.printStackTrace();
+				}
+			}
+			
+			expired = next;
+		}
+	}
+	
+	
+	private void insert(Timer timer)
+	{
+		int slot = (int) (timer.deadlineTick & mask);
+		timer.slot = slot;
+		timer.previous = slotTail[slot];
+		timer.next = null;
+		
+		if(slotTail[slot] == null)
+			slotHead[slot] = timer;
+		else
+			slotTail[slot].next = timer;
+		slotTail[slot] = timer;
+		
+		pendingTimers++;
+	}
+	
+	
+	private void unlink(Timer timer)
+	{
+		int slot = timer.slot;
+		
+		if(timer.previous == null)
+			slotHead[slot] = timer.next;
+		else
+			timer.previous.next = timer.next;
+		
+		if(timer.next == null)
+			slotTail[slot] = timer.previous;
+		else
+			timer.next.previous = timer.previous;
+		
+		timer.previous = null;
+		timer.next = null;
+		timer.slot = -1;
+		
+		pendingTimers--;
+	}
+	
+	
+	/**
+	 * Handle of a scheduled task.
+	 */
+	public class Timer
+	{
+		private Runnable task;
+		private long deadlineTick;
+		private int slot = -1;
+		private Timer previous;
+		private Timer next;
+		
+		
+		private Timer(Runnable task, long deadlineTick)
+		{
+			this.task = task;
+			this.deadlineTick = deadlineTick;
+		}
+		
+		
+		/**
+		 * @return true, if the task has neither been run nor cancelled yet
+		 */
+		public boolean isPending()
+		{
+			return task != null;
+		}
+		
+		
+		/**
+		 * Removes the task from the wheel. Has no effect if the task 
+		 * has already been run or cancelled.
+		 */
+		public void cancel()
+		{
+			if(slot >= 0)
+				unlink(this);
+			
+			task = null;
+		}
+	}
+}
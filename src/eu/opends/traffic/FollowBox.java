@@ -26,7 +26,6 @@ import com.jme3.cinematic.MotionPathListener;
 import com.jme3.cinematic.events.MotionTrack;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.FastMath;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.jme3.math.Spline.SplineType;
@@ -47,12 +46,14 @@ public class FollowBox
 	private TrafficCar vehicle;
 	private FollowBoxSettings settings;
 	private List<Waypoint> waypointList;
+	private TrafficRoute route;
 	private float maxDistance;
     private MotionPath motionPath;
     private MotionTrack motionControl;
     private Spatial followBox;
 	private boolean setWayPoint = false;
 	private int setToWayPointIndex = 0;
+	private boolean hold = false;
 
 	
 	public FollowBox(Simulator sim, final TrafficCar vehicle, FollowBoxSettings settings)
@@ -62,6 +63,7 @@ public class FollowBox
 		this.settings = settings;
 		
 		waypointList = settings.getWayPoints();
+		route = TrafficRoute.getInstance(waypointList, settings.isPathCyclic(), settings.getCurveTension());
 		maxDistance = settings.getMaxDistance();
 		
 		motionPath = new MotionPath();
@@ -162,7 +164,7 @@ public class FollowBox
 		{
 			// pause movement of follower box if vehicle's distance
 			// has exceeded maximum
-			if(maxDistanceExceeded(vehiclePos) || sim.isPause())
+			if(maxDistanceExceeded(vehiclePos) || sim.isPause() || hold)
 				motionControl.pause();
 			else
 				motionControl.play();
@@ -170,6 +172,25 @@ public class FollowBox
 	}
 
 	
+	/**
+	 * Stops the follow box regardless of the vehicle's distance (e.g. in front 
+	 * of an obstacle while the vehicle is moved kinematically along the path).
+	 * 
+	 * @param hold
+	 * 			If true, the follow box will not move.
+	 */
+	public void setHold(boolean hold)
+	{
+		this.hold = hold;
+	}
+	
+	
+	public boolean isHold()
+	{
+		return hold;
+	}
+	
+	
 	public void setToWayPoint(int index)
 	{
 		// set follow box to WP (performed in update())
@@ -198,52 +219,7 @@ public class FollowBox
 	
 	public float getHeadingAtWP(int index) 
 	{
-		float heading = 0;
-		Waypoint nextWayPoint = getNextWayPoint(index);
-		
-		// if next way point available, compute heading towards it
-		if(nextWayPoint != null)
-		{
-			// compute driving direction by looking at next way point from current position 
-			Vector3f targetPosition = nextWayPoint.getPosition().clone();
-			targetPosition.setY(0);
-			
-			Vector3f currentPosition = waypointList.get(index).getPosition().clone();
-			currentPosition.setY(0);
-			
-			Vector3f drivingDirection = targetPosition.subtract(currentPosition).normalize();
-
-			// compute heading (orientation) from driving direction vector for
-			// angle between driving direction and heading "0"
-			float angle0  = drivingDirection.angleBetween(new Vector3f(0,0,-1));
-			// angle between driving direction and heading "90"
-			float angle90 = drivingDirection.angleBetween(new Vector3f(1,0,0));
-			
-			// get all candidates for heading
-			// find the value from {heading1,heading2} which matches with one of {heading3,heading4}
-			float heading1 = (2.0f * FastMath.PI + angle0)  % FastMath.TWO_PI;
-			float heading2 = (2.0f * FastMath.PI - angle0)  % FastMath.TWO_PI;
-			float heading3 = (2.5f * FastMath.PI + angle90) % FastMath.TWO_PI;
-			float heading4 = (2.5f * FastMath.PI - angle90) % FastMath.TWO_PI;
-			
-			float diff_1_3 = FastMath.abs(heading1-heading3);
-			float diff_1_4 = FastMath.abs(heading1-heading4);
-			float diff_2_3 = FastMath.abs(heading2-heading3);
-			float diff_2_4 = FastMath.abs(heading2-heading4);
-			
-			if((diff_1_3 < diff_1_4 && diff_1_3 < diff_2_3 && diff_1_3 < diff_2_4) ||
-				(diff_1_4 < diff_1_3 && diff_1_4 < diff_2_3 && diff_1_4 < diff_2_4))
-			{
-				// if diff_1_3 or diff_1_4 are smallest --> the correct heading is heading1
-				heading = heading1;
-			}
-			else
-			{
-				// if diff_2_3 or diff_2_4 are smallest --> the correct heading is heading2
-				heading = heading2;
-			}
-		}
-		return heading;
+		return route.getHeadingAtWayPoint(index);
 	}
 	
 
@@ -254,6 +230,21 @@ public class FollowBox
 	}
 
 
+	public int getCurrentWayPointIndex() 
+	{
+		return motionControl.getCurrentWayPoint();
+	}
+
+
+	/**
+	 * @return traveled share [0,1] of the follow box between current and next way point
+	 */
+	public float getCurrentValue() 
+	{
+		return motionControl.getCurrentValue();
+	}
+
+
 	public Waypoint getNextWayPoint() 
 	{
 		int currentIndex = motionControl.getCurrentWayPoint();
@@ -263,27 +254,14 @@ public class FollowBox
 
 	public Waypoint getNextWayPoint(int index) 
 	{
-		Waypoint nextWayPoint = null;
-		
-		if(motionPath.isCycle())
-		{
-			// if path is cyclic, the successor of the last WP will be the first WP
-			nextWayPoint = waypointList.get((index+1) % waypointList.size());
-		}
-		else if(motionPath.getNbWayPoints() > index+1)
-		{
-			// if not cyclic, only successors for way points 0 .. n-1 exist
-			nextWayPoint = waypointList.get(index+1);
-		}
-		
-		return nextWayPoint;
+		return route.getNextWayPoint(index);
 	}
 	
 	
     public float getSpeed()
     {
     	float duration = motionControl.getInitialDuration();
-    	float distanceMeters = motionPath.getLength();
+    	float distanceMeters = route.getLength();
     	float speed = distanceMeters / duration;
     	return 3.6f * speed;
     }
@@ -291,7 +269,7 @@ public class FollowBox
     
     public void setSpeed(float speedKmh)
     {
-    	float distanceMeters = motionPath.getLength();
+    	float distanceMeters = route.getLength();
         float speed = speedKmh / 3.6f;
         float duration = distanceMeters / speed;
         motionControl.setInitialDuration(duration);
@@ -308,6 +286,20 @@ public class FollowBox
 	{
 		return motionControl;
 	}
+	
+	
+	/**
+	 * Stops the follow box and removes it from the scene (e.g. when the 
+	 * vehicle is despawned).
+	 */
+	public void close()
+	{
+		motionControl.stop();
+		followBox.removeFromParent();
+		
+		if(settings.isPathVisible())
+			motionPath.disableDebugShape();
+	}
 
     
     private Spatial createFollowBox() 
@@ -331,101 +323,27 @@ public class FollowBox
     
 	private boolean maxDistanceExceeded(Vector3f vehiclePos) 
 	{
-		// get box's position on xz-plane (ignore y component)
+		// distance between box and vehicle on xz-plane (ignore y component)
 		Vector3f followBoxPosition = getPosition();
-		followBoxPosition.setY(0);
-		
-		// get vehicle's position on xz-plane (ignore y component)
-		Vector3f vehiclePosition = vehiclePos;
-		vehiclePosition.setY(0);
-		
-		// distance between box and vehicle
-		float currentDistance = followBoxPosition.distance(vehiclePosition);
+		float distanceX = followBoxPosition.getX() - vehiclePos.getX();
+		float distanceZ = followBoxPosition.getZ() - vehiclePos.getZ();
 		
 		// report whether maximum distance is exceeded 
-		return currentDistance > maxDistance;
+		return distanceX * distanceX + distanceZ * distanceZ > maxDistance * maxDistance;
 	}
 
 
 	public float getReducedSpeed()
 	{
-		// return a temporarily reduced speed for the traffic car
-		// in order to reach next (lower) speed limit in time
-		float reducedSpeedInKmh = Float.POSITIVE_INFINITY;
-		
-		// if next way point with lower speed comes closer --> reduce speed
-		int currentIndex = motionControl.getCurrentWayPoint();
-		Waypoint nextWP = getNextWayPoint(currentIndex);
-		if(nextWP != null)
-		{
-			// current way point (already passed)
-			Waypoint curentWP = waypointList.get(currentIndex);
-			
-			// speed at current way point
-			float currentSpeedInKmh = curentWP.getSpeed();
-			float currentSpeed = currentSpeedInKmh / 3.6f;
-			
-			// speed at next way point
-			float targetSpeedInKmh = nextWP.getSpeed();
-			float targetSpeed = targetSpeedInKmh / 3.6f;
-			
-			// if speed at the next WP is lower than at the current WP --> brake vehicle
-			if(targetSpeed < currentSpeed)
-			{
-				// % of traveled distance between current and next way point
-				float wayPercentage = motionControl.getCurrentValue();
-				
-				// distance between current and next way point
-				Vector3f currentPos = curentWP.getPosition().clone();
-				currentPos.setY(0);
-				Vector3f nextPos = nextWP.getPosition().clone();
-				nextPos.setY(0);
-				float distance = currentPos.distance(nextPos);
-				
-				// distance (in meters) between follow box and next way point
-				float distanceToNextWP = (1 - wayPercentage) * distance;
-			
-				// speed difference in m/s between current WP's speed and next WP's speed
-				float speedDifference = currentSpeed - targetSpeed;
-				
-				// compute the distance in front of the next WP at what the vehicle has to start 
-				// braking with 50% brake force in order to reach the next WP's (lower) speed in time.
-				float deceleration50Percent = 50f * vehicle.getMaxBrakeForce()/vehicle.getMass();
-				
-				// time in seconds needed for braking process
-				float time = speedDifference / deceleration50Percent;
-				
-				// distance covered during braking process
-				float coveredDistance = 0.5f * -deceleration50Percent * time * time + currentSpeed * time;
+		float deceleration50Percent = 50f * vehicle.getMaxBrakeForce()/vehicle.getMass();
+		return route.getReducedSpeed(motionControl.getCurrentWayPoint(), motionControl.getCurrentValue(), 
+				deceleration50Percent);
+	}
 
-				// start braking in x meters
-				float distanceToBrakingPoint = distanceToNextWP - coveredDistance;
-				
-				if(distanceToBrakingPoint < 0)
-				{
-					// reduce speed linearly beginning from braking point
-					
-					// % of traveled distance between braking point and next way point
-					float speedPercentage = -distanceToBrakingPoint/coveredDistance;
-					
-					//   0% traveled: reduced speed = currentSpeed
-					//  50% traveled: reduced speed = (currentSpeed+targetSpeed)/2
-					// 100% traveled: reduced speed = targetSpeed
-					float reducedSpeed = currentSpeed - (speedPercentage * speedDifference);
-					reducedSpeedInKmh = reducedSpeed * 3.6f;
-					
-					/*
-					if(vehicle.getName().equals("car1"))
-					{
-						float vehicleSpeedInKmh = vehicle.getLinearSpeedInKmh();
-						System.out.println(curentWP.getName() + " : " + speedPercentage + " : " + 
-								reducedSpeedInKmh + " : " + vehicleSpeedInKmh + " : " + targetSpeedInKmh);
-					}
-					*/
-				}
-			}
-		}
-		return reducedSpeedInKmh;
+
+	public TrafficRoute getRoute()
+	{
+		return route;
 	}
 
 }
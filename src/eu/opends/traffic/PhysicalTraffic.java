@@ -19,29 +19,174 @@
 package eu.opends.traffic;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.PhysicsTickListener;
+import com.jme3.math.Vector3f;
+
+import eu.opends.drivingTask.settings.SettingsLoader;
+import eu.opends.drivingTask.settings.SettingsLoader.Setting;
+import eu.opends.main.SimulationDefaults;
 import eu.opends.main.Simulator;
+import eu.opends.tools.AllocationCounter;
+import eu.opends.tools.FrameProfiler;
 
 /**
+ * Runs the traffic AI (path following, obstacle checks, speed control) on a 
+ * dedicated fixed-rate thread.<br>
+ * <br>
+ * Before every physics step, the jME thread applies the latest control outputs 
+ * to the vehicle controls and, if requested, captures a {@link TrafficSnapshot} 
+ * of the driving car and all traffic cars. The traffic thread computes new control 
+ * outputs from the latest snapshot only and hands them back through a double 
+ * buffer. Hence, the traffic thread never accesses the physics space or the 
+ * scene graph. Lights and follow boxes are updated on the jME thread by 
+ * {@link #update()}.<br>
+ * <br>
+ * If a level-of-detail radius is set, vehicles farther away from the driving 
+ * car are removed from the physics space and moved kinematically along the 
+ * path of their follow box (see {@link TrafficCar#setKinematic(boolean)}).<br>
+ * <br>
+ * If a pool size is set, only a bounded number of vehicles is live: traffic 
+ * participants are spawned onto free way points of their route inside a ring 
+ * around the driving car and recycled when leaving it (see {@link TrafficPool}).<br>
+ * <br>
+ * While the {@link FrameProfiler} is enabled, the bytes allocated by the 
+ * traffic cycle (control application, snapshot capture and vehicle updates 
+ * on the jME thread; grid rebuild and sense phase on the traffic and sense 
+ * threads) are counted after a warm-up and reported by {@link #getReport()}. 
+ * Apart from spawning and level-of-detail transitions, they should be zero.
  * 
  * @author Rafael Math
  */
-public class PhysicalTraffic extends Thread
+public class PhysicalTraffic extends Thread implements PhysicsTickListener
 {
 	private static ArrayList<TrafficCarData> vehicleDataList = new ArrayList<TrafficCarData>();
     private ArrayList<TrafficCar> vehicleList = new ArrayList<TrafficCar>();
-	private boolean isRunning = true;
+    private HashMap<String, TrafficCar> vehicleByName = new HashMap<String, TrafficCar>();
+    private Simulator sim;
+	private volatile boolean isRunning = true;
 	private int updateIntervalMsec = 20;
 	private long lastUpdate = 0;
+	private TrafficGrid grid = new TrafficGrid(25);
+	private TrafficSensePhase sensePhase;
+	
+	// level of detail (vehicles beyond lodRadius will be moved kinematically)
+	private float lodRadius;
+	private float lodHysteresis = 20;
+	private int kinematicVehicles = 0;
+	private long promotions = 0;
+	private long demotions = 0;
+	
+	// head lights of traffic cars attached to the scene
+	private TrafficHeadLightBudget headLightBudget;
+	
+	// snapshot hand-off (jME thread --> traffic thread)
+	// (two reused snapshots: one may be read by the traffic thread while the 
+	// other one is captured)
+	private final TrafficSnapshot[] snapshotBuffers = {new TrafficSnapshot(), new TrafficSnapshot()};
+	private int nextSnapshotBuffer = 0;
+	private volatile TrafficSnapshot snapshot = null;
+	private volatile boolean snapshotRequested = true;
+	private long nextSnapshotSequence = 0;
+	private long lastSensedSequence = -1;
+	
+	// control hand-off (traffic thread --> jME thread)
+	private final Object controlLock = new Object();
+	private TrafficControl[] writeBuffer;
+	private TrafficControl[] readBuffer;
+	private boolean newControlsAvailable = false;
+	private TrafficSnapshot controlSnapshot = null;
+	
+	// vehicle pool (null if all vehicles are live)
+	private TrafficPool pool = null;
+	private HashSet<TrafficCarData> liveVehicleDataSet = new HashSet<TrafficCarData>();
+	private HashSet<TrafficCarData> spawnedVehicleDataSet = new HashSet<TrafficCarData>();
+	private float spawnRadiusMin;
+	private float spawnRadiusMax;
+	private float despawnHysteresis = 50;
+	private float spawnClearance = 20;
+	private int poolUpdateIntervalMsec = 500;
+	private long lastPoolUpdate = 0;
+	
+	// positions of the current frame (reused)
+	private Vector3f drivingCarPosition = new Vector3f();
+	private Vector3f vehiclePosition = new Vector3f();
+	
+	// allocation measurement (frame profiler only, after warm-up in order to 
+	// exclude lazy initializations and JIT compilation)
+	private static final int ALLOCATION_WARM_UP_FRAMES = 1000;
+	private long measuredFrames = 0;
+	private long frameAllocatedBytes = 0;
+	private volatile long measuredSteps = 0;
+	private volatile long stepAllocatedBytes = 0;
+	
+	// statistics
+	private volatile long stepCount = 0;
+	private volatile long totalStepTime = 0;
+	private volatile long maxStepTime = 0;
+	private volatile long frameCount = 0;
+	// duration of the whole Bullet step (all rigid bodies, not only the physics tier)
+	private long physicsStepStart = 0;
+	private long totalPhysicsStepTime = 0;
+	private long totalKinematicTime = 0;
 
        
 	public PhysicalTraffic(Simulator sim)
 	{
-		for(TrafficCarData vehicleData : vehicleDataList)
+		super("PhysicalTraffic");
+		setDaemon(true);
+		
+		this.sim = sim;
+		
+		SettingsLoader settingsLoader = Simulator.getSettingsLoader();
+		
+		// maximum number of live vehicles (0: all vehicles live from the beginning)
+		int poolSize = settingsLoader.getSetting(Setting.Traffic_poolSize, SimulationDefaults.Traffic_poolSize);
+		spawnRadiusMin = settingsLoader.getSetting(Setting.Traffic_spawnRadiusMin, SimulationDefaults.Traffic_spawnRadiusMin);
+		spawnRadiusMax = settingsLoader.getSetting(Setting.Traffic_spawnRadiusMax, SimulationDefaults.Traffic_spawnRadiusMax);
+		
+		// render slaves rely on identical vehicle lists --> no pooling in render clusters
+		String renderClusterMode = settingsLoader.getSetting(Setting.RenderCluster_mode, SimulationDefaults.RenderCluster_mode);
+		
+		if(poolSize > 0 && renderClusterMode.equalsIgnoreCase("off"))
 		{
-			// build and add traffic car
-			vehicleList.add(new TrafficCar(sim, vehicleData));
+			pool = new TrafficPool(sim, poolSize);
+			
+			writeBuffer = createControlBuffer(poolSize);
+			readBuffer = createControlBuffer(poolSize);
+			
+			// spawn vehicles around initial position of driving car
+			updatePool();
 		}
+		else
+		{
+			for(TrafficCarData vehicleData : vehicleDataList)
+			{
+				// build and add traffic car
+				addVehicle(new TrafficCar(sim, vehicleData));
+			}
+			
+			writeBuffer = createControlBuffer(vehicleList.size());
+			readBuffer = createControlBuffer(vehicleList.size());
+		}
+		
+		// number of threads sensing in parallel (0: all processors, 1: serial)
+		int senseThreads = settingsLoader.getSetting(Setting.Traffic_senseThreads, 
+				SimulationDefaults.Traffic_senseThreads);
+		sensePhase = new TrafficSensePhase(senseThreads);
+		
+		// distance from driving car beyond which vehicles have no physics body (0: disabled)
+		lodRadius = settingsLoader.getSetting(Setting.Traffic_lodRadius, 
+				SimulationDefaults.Traffic_lodRadius);
+		
+		// maximum number of traffic cars with head lights in the scene (negative: unlimited)
+		int maxHeadLights = settingsLoader.getSetting(Setting.Traffic_maxHeadLights, 
+				SimulationDefaults.Traffic_maxHeadLights);
+		headLightBudget = new TrafficHeadLightBudget(sim, maxHeadLights);
 	}
 	
 	
@@ -51,21 +196,63 @@ public class PhysicalTraffic extends Thread
     }
 
 
+	public TrafficHeadLightBudget getHeadLightBudget()
+	{
+		return headLightBudget;
+	}
+	
+	
+	public ArrayList<TrafficCar> getVehicleList()
+	{
+		return vehicleList;
+	}
+	
+	
+	/**
+	 * Looks up the live traffic car with the given name.
+	 * 
+	 * @param trafficCarName
+	 * 			Name of the traffic car.
+	 * 
+	 * @return
+	 * 			Traffic car or null if no such car is live.
+	 */
 	public TrafficCar getTrafficCar(String trafficCarName) 
 	{
-		for(TrafficCar vehicle : vehicleList)
-		{
-			if(vehicle.getName().equals(trafficCarName))
-				return vehicle;
-		}
+		return vehicleByName.get(trafficCarName);
+	}
+	
+	
+	private void addVehicle(TrafficCar vehicle)
+	{
+		vehicleList.add(vehicle);
+		
+		// first vehicle with a given name wins (as in list order)
+		if(!vehicleByName.containsKey(vehicle.getName()))
+			vehicleByName.put(vehicle.getName(), vehicle);
+	}
+	
+	
+	private void removeVehicleName(TrafficCar vehicle)
+	{
+		if(vehicleByName.get(vehicle.getName()) != vehicle)
+			return;
+		
+		vehicleByName.remove(vehicle.getName());
 		
-		return null;
+		// another live vehicle with the same name takes over
+		for(TrafficCar otherVehicle : vehicleList)
+			if(otherVehicle != vehicle && otherVehicle.getName().equals(vehicle.getName()))
+			{
+				vehicleByName.put(otherVehicle.getName(), otherVehicle);
+				break;
+			}
 	}
 	
 	
 	public void run()
 	{
-		if(vehicleList.size() >= 1)
+		if(vehicleDataList.size() >= 1)
 		{
 			/*
 			for(TrafficCar vehicle : vehicleList)
@@ -80,9 +267,8 @@ public class PhysicalTraffic extends Thread
 				{
 					lastUpdate = System.currentTimeMillis();
 					
-					// update every vehicle
-					for(TrafficCar vehicle : vehicleList)
-						vehicle.update(vehicleList);
+					// compute controls of every vehicle
+					step();
 				}
 				else
 				{
@@ -99,11 +285,301 @@ public class PhysicalTraffic extends Thread
 	}
 	
 	
-	// TODO use thread instead
+	private void step()
+	{
+		TrafficSnapshot currentSnapshot = snapshot;
+		
+		// nothing to do if no new snapshot available (previous request pending)
+		if(currentSnapshot == null || currentSnapshot.getSequence() == lastSensedSequence)
+			return;
+		
+		lastSensedSequence = currentSnapshot.getSequence();
+		
+		// request a new snapshot for the next step. Only one request per taken 
+		// snapshot, so the jME thread captures into the other buffer and never
+		// overwrites the snapshot that is read in this step
+		snapshotRequested = true;
+		
+		if(currentSnapshot.isPause())
+			return;
+		
+		long startTime = System.nanoTime();
+		
+		boolean measureAllocation = isMeasuringAllocation();
+		long startBytes = 0;
+		if(measureAllocation)
+			startBytes = AllocationCounter.getAllocatedBytes() + 
+				AllocationCounter.getAllocatedBytes(sensePhase.getWorkerThreads());
+		
+		// index vehicle positions once per step for obstacle checks
+		grid.rebuild(currentSnapshot);
+		
+		// sense and decide (read-only, in parallel if enabled)
+		sensePhase.run(currentSnapshot, grid, writeBuffer);
+		
+		// hand new controls over to the jME thread
+		synchronized(controlLock)
+		{
+			TrafficControl[] buffer = readBuffer;
+			readBuffer = writeBuffer;
+			writeBuffer = buffer;
+			controlSnapshot = currentSnapshot;
+			newControlsAvailable = true;
+		}
+		
+		if(measureAllocation)
+		{
+			stepAllocatedBytes += AllocationCounter.getAllocatedBytes() + 
+				AllocationCounter.getAllocatedBytes(sensePhase.getWorkerThreads()) - startBytes;
+			measuredSteps++;
+		}
+		
+		long stepTime = System.nanoTime() - startTime;
+		totalStepTime += stepTime;
+		maxStepTime = Math.max(maxStepTime, stepTime);
+		stepCount++;
+	}
+
+
+	@Override
+	public void prePhysicsTick(PhysicsSpace space, float tpf)
+	{
+		boolean measureAllocation = isMeasuringAllocation();
+		long startBytes = measureAllocation ? AllocationCounter.getAllocatedBytes() : 0;
+		
+		// act: apply latest controls computed by the traffic thread
+		synchronized(controlLock)
+		{
+			if(newControlsAvailable)
+			{
+				for(int i=0; i<controlSnapshot.getNumberOfTrafficCars(); i++)
+				{
+					// skip vehicles that have been despawned meanwhile
+					TrafficCar vehicle = controlSnapshot.getVehicle(i);
+					if(vehicle != null)
+						vehicle.applyControl(readBuffer[i]);
+				}
+				
+				newControlsAvailable = false;
+			}
+		}
+		
+		// provide consistent state of all vehicles for next step of traffic thread
+		if(snapshotRequested)
+		{
+			snapshotRequested = false;
+			
+			// controls of the snapshot overwritten here have been applied above
+			TrafficSnapshot nextSnapshot = snapshotBuffers[nextSnapshotBuffer];
+			nextSnapshotBuffer = 1 - nextSnapshotBuffer;
+			nextSnapshot.capture(nextSnapshotSequence++, sim, vehicleList);
+			snapshot = nextSnapshot;
+		}
+		
+		if(measureAllocation)
+			frameAllocatedBytes += AllocationCounter.getAllocatedBytes() - startBytes;
+		
+		physicsStepStart = System.nanoTime();
+	}
+
+
+	@Override
+	public void physicsTick(PhysicsSpace space, float tpf)
+	{
+		// duration of the whole physics step (driving car, traffic cars of the 
+		// physics tier and all other rigid bodies of the scene)
+		if(physicsStepStart > 0)
+			totalPhysicsStepTime += System.nanoTime() - physicsStepStart;
+	}
+	
+	
+	/**
+	 * Updates simulation level, lights and follow boxes of all traffic cars. 
+	 * Must be called on the jME update thread every frame.
+	 */
 	public void update()
 	{
-		for(TrafficCar vehicle : vehicleList)
-			vehicle.update(vehicleList);	
+		// spawning allocates and is not measured
+		if(pool != null && System.currentTimeMillis() - lastPoolUpdate > poolUpdateIntervalMsec)
+			updatePool();
+		
+		boolean measureAllocation = isMeasuringAllocation();
+		long startBytes = measureAllocation ? AllocationCounter.getAllocatedBytes() : 0;
+		
+		if(lodRadius > 0)
+			updateLevelOfDetail();
+		
+		headLightBudget.update(vehicleList);
+		
+		for(int i=0; i<vehicleList.size(); i++)
+		{
+			TrafficCar vehicle = vehicleList.get(i);
+			if(vehicle.isKinematic())
+			{
+				long startTime = System.nanoTime();
+				vehicle.update();
+				totalKinematicTime += System.nanoTime() - startTime;
+			}
+			else
+				vehicle.update();
+		}
+		
+		if(measureAllocation)
+		{
+			frameAllocatedBytes += AllocationCounter.getAllocatedBytes() - startBytes;
+			measuredFrames++;
+		}
+		
+		frameCount++;
+	}
+	
+	
+	private boolean isMeasuringAllocation()
+	{
+		return FrameProfiler.isEnabled() && AllocationCounter.isSupported() && 
+				frameCount >= ALLOCATION_WARM_UP_FRAMES;
+	}
+	
+	
+	private void updatePool()
+	{
+		lastPoolUpdate = System.currentTimeMillis();
+		
+		sim.getCar().getPosition(drivingCarPosition);
+		float despawnDistance = (spawnRadiusMax + despawnHysteresis) * (spawnRadiusMax + despawnHysteresis);
+		
+		// recycle vehicles that left the ring around the driving car
+		for(int i=vehicleList.size()-1; i>=0; i--)
+		{
+			TrafficCar vehicle = vehicleList.get(i);
+			if(vehicle.getPosition(vehiclePosition).distanceSquared(drivingCarPosition) > despawnDistance)
+			{
+				vehicleList.remove(i);
+				removeVehicleName(vehicle);
+				liveVehicleDataSet.remove(vehicle.getTrafficCarData());
+				pool.release(vehicle);
+			}
+		}
+		
+		// spawn traffic participants that are not live onto free way points inside the ring
+		for(TrafficCarData vehicleData : vehicleDataList)
+		{
+			if(liveVehicleDataSet.contains(vehicleData))
+				continue;
+			
+			int wayPointIndex = getSpawnWayPoint(vehicleData, drivingCarPosition);
+			if(wayPointIndex < 0)
+				continue;
+			
+			TrafficCar vehicle = pool.acquire(vehicleData, wayPointIndex);
+			if(vehicle == null)
+				break;
+			
+			addVehicle(vehicle);
+			liveVehicleDataSet.add(vehicleData);
+			spawnedVehicleDataSet.add(vehicleData);
+		}
+	}
+	
+	
+	private int getSpawnWayPoint(TrafficCarData vehicleData, Vector3f drivingCarPosition)
+	{
+		FollowBoxSettings settings = vehicleData.getFollowBoxSettings();
+		List<Waypoint> wayPointList = settings.getWayPoints();
+		int startIndex = settings.getStartWayPointIndex();
+		
+		// first spawn: use start way point of the scenario (even close to the driving car)
+		if(!spawnedVehicleDataSet.contains(vehicleData))
+		{
+			float distance = wayPointList.get(startIndex).getPosition().distance(drivingCarPosition);
+			if(distance <= spawnRadiusMax && isFree(wayPointList.get(startIndex).getPosition()))
+				return startIndex;
+		}
+		
+		// otherwise: first free way point inside the ring (last one of open paths excluded)
+		for(int i=0; i<wayPointList.size(); i++)
+		{
+			int index = (startIndex + i) % wayPointList.size();
+			if(!settings.isPathCyclic() && index == wayPointList.size() - 1)
+				continue;
+			
+			Vector3f position = wayPointList.get(index).getPosition();
+			float distance = position.distance(drivingCarPosition);
+			if(distance >= spawnRadiusMin && distance <= spawnRadiusMax && isFree(position))
+				return index;
+		}
+		
+		return -1;
+	}
+	
+	
+	private boolean isFree(Vector3f position)
+	{
+		for(int i=0; i<vehicleList.size(); i++)
+			if(vehicleList.get(i).getPosition(vehiclePosition).distanceSquared(position) < spawnClearance * spawnClearance)
+				return false;
+		
+		return true;
+	}
+	
+	
+	private void updateLevelOfDetail()
+	{
+		sim.getCar().getPosition(drivingCarPosition);
+		float promotionDistance = lodRadius * lodRadius;
+		float demotionDistance = (lodRadius + lodHysteresis) * (lodRadius + lodHysteresis);
+		
+		kinematicVehicles = 0;
+		for(int i=0; i<vehicleList.size(); i++)
+		{
+			TrafficCar vehicle = vehicleList.get(i);
+			float distance = vehicle.getPosition(vehiclePosition).distanceSquared(drivingCarPosition);
+			
+			if(vehicle.isKinematic() && distance < promotionDistance)
+			{
+				// approaching --> full physics vehicle
+				vehicle.setKinematic(false);
+				promotions++;
+			}
+			else if(!vehicle.isKinematic() && distance > demotionDistance)
+			{
+				// leaving --> move along path without physics body
+				vehicle.setKinematic(true);
+				demotions++;
+			}
+			
+			if(vehicle.isKinematic())
+				kinematicVehicles++;
+		}
+	}
+
+
+	/**
+	 * Statistics of the traffic thread as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Number of steps and computation time per step, duration of the 
+	 * 			whole physics step per frame, vehicles per level of detail.
+	 */
+	public String getReport()
+	{
+		long steps = stepCount;
+		float avgStepTime = (steps > 0) ? (totalStepTime / steps) / 1000000f : 0;
+		float physicsStepTime = (frameCount > 0) ? (totalPhysicsStepTime / frameCount) / 1000000f : 0;
+		float kinematicTime = (frameCount > 0) ? (totalKinematicTime / frameCount) / 1000000f : 0;
+		String allocation = "";
+		if(measuredFrames > 0 && measuredSteps > 0)
+			allocation = ", allocation: jME thread=" + (frameAllocatedBytes / (float) measuredFrames) + 
+				" B/frame, traffic thread=" + (stepAllocatedBytes / (float) measuredSteps) + " B/step";
+		return "vehicles=" + vehicleList.size() + ", senseThreads=" + sensePhase.getNumberOfThreads() + 
+				", steps=" + steps + ", avgStepTime=" + avgStepTime + 
+				" ms, maxStepTime=" + (maxStepTime / 1000000f) + " ms" + 
+				", physicsStep=" + physicsStepTime + " ms/frame (all rigid bodies), physicsTier=" + 
+				(vehicleList.size() - kinematicVehicles) + " vehicles, kinematicTier=" + kinematicVehicles + 
+				" vehicles (" + kinematicTime + 
+				" ms/frame), promotions=" + promotions + ", demotions=" + demotions + 
+				", headLights: " + headLightBudget.getReport() + allocation + 
+				((pool != null) ? ", pool: " + pool.getReport() : "");
 	}
 
 
@@ -111,9 +587,23 @@ public class PhysicalTraffic extends Thread
 	{
 		isRunning = false;
 		
+		sensePhase.close();
+		
 		// close all traffic cars
 		for(TrafficCar vehicle : vehicleList)
 			vehicle.close();
+		
+		if(pool != null)
+			pool.close();
+	}
+	
+	
+	private static TrafficControl[] createControlBuffer(int size)
+	{
+		TrafficControl[] buffer = new TrafficControl[size];
+		for(int i=0; i<size; i++)
+			buffer[i] = new TrafficControl();
+		return buffer;
 	}
 
 }
@@ -18,23 +18,16 @@
 
 package eu.opends.traffic;
 
-import java.awt.geom.Line2D;
-import java.awt.geom.Point2D;
-import java.util.ArrayList;
-
-import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.FastMath;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
-import com.jme3.scene.Geometry;
-import com.jme3.scene.Node;
-import com.jme3.scene.Spatial.CullHint;
-import com.jme3.scene.shape.Box;
 
 import eu.opends.car.Car;
+import eu.opends.car.CarModelLoader;
+import eu.opends.car.LightTexturesContainer;
+import eu.opends.car.LightTexturesContainer.LightState;
+import eu.opends.car.VehicleTemplate;
 import eu.opends.environment.TrafficLight;
-import eu.opends.environment.TrafficLightCenter;
 import eu.opends.environment.TrafficLight.TrafficLightState;
 import eu.opends.main.Simulator;
 
@@ -45,13 +38,28 @@ import eu.opends.main.Simulator;
 public class TrafficCar extends Car
 {
 	private String name;
-	private Geometry frontGeometry;
-	private Geometry centerGeometry;
 	private FollowBox followBox;
+	private VehicleTemplate vehicleTemplate;
 	private float minForwardSafetyDistance = 5;
 	private float minLateralSafetyDistance = 2;
 	private float overwriteSpeed = -1;
 	private float overwriteReducedSpeed = 0;
+	private boolean isKinematic = false;
+	private boolean headLightsActive = true;
+	private float kinematicHeightOffset = 0;
+	private Vector3f kinematicDirection = new Vector3f();
+	private Vector3f kinematicPosition = new Vector3f();
+	
+	// reused every frame in order to avoid allocations
+	private Vector3f currentPosition = new Vector3f();
+	private Vector3f headLightDirection = new Vector3f();
+	private ColorRGBA headLightColor = new ColorRGBA();
+	private Quaternion kinematicRotation = new Quaternion();
+	private Vector3f capturePosition = new Vector3f();
+	private Vector3f captureFrontPosition = new Vector3f();
+	private Quaternion captureRotation = new Quaternion();
+	private TrafficCarData trafficCarData;
+	private int spawnID = 0;
 
 	
 	public TrafficCar(Simulator sim, TrafficCarData trafficCarData)
@@ -63,13 +71,42 @@ public class TrafficCar extends Car
 		initialPosition = new Vector3f(0,0,0);
 		initialRotation = new Quaternion();
 		
-		name = trafficCarData.getName();
-		
 		mass = trafficCarData.getMass();
 		
 		minSpeed = 0;
 		maxSpeed = Float.POSITIVE_INFINITY;
 		
+		engineOn = trafficCarData.isEngineOn();
+		showEngineStatusMessage(engineOn);
+		
+		modelPath = trafficCarData.getModelPath();
+		
+		init();
+		
+		setup(trafficCarData);
+	}
+	
+	
+	/**
+	 * Assigns the given traffic participant to this car. Model, physics control 
+	 * and lights are kept, hence model path and mass of the given data must 
+	 * match the ones this car has been created with.
+	 * 
+	 * @param trafficCarData
+	 * 			Name, driving parameters and route of the traffic participant.
+	 */
+	private void setup(TrafficCarData trafficCarData)
+	{
+		this.trafficCarData = trafficCarData;
+		spawnID++;
+		
+		name = trafficCarData.getName();
+		
+		minForwardSafetyDistance = 5;
+		minLateralSafetyDistance = 2;
+		overwriteSpeed = -1;
+		overwriteReducedSpeed = 0;
+		
 		acceleration = trafficCarData.getAcceleration();
 		accelerationForce = 0.30375f * acceleration * mass;
 		
@@ -80,353 +117,381 @@ public class TrafficCar extends Car
 		maxFreeWheelBrakeForce = 0.004375f * decelerationFreeWheel * mass;
 		
 		engineOn = trafficCarData.isEngineOn();
-		showEngineStatusMessage(engineOn);
 		
-		modelPath = trafficCarData.getModelPath();
+		followBox = new FollowBox(sim, this, trafficCarData.getFollowBoxSettings());
+	}
+	
+	
+	/**
+	 * Re-activates this (pooled) car as the given traffic participant and 
+	 * places it at the given way point of its route.
+	 * 
+	 * @param trafficCarData
+	 * 			Traffic participant (same model path and mass as this car).
+	 * 
+	 * @param wayPointIndex
+	 * 			Way point to start from.
+	 */
+	void spawn(TrafficCarData trafficCarData, int wayPointIndex)
+	{
+		// reuse scene node, physics control and lights
+		sim.getRootNode().attachChild(carNode);
+		setHeadLightsActive(true);
+		carControl.setEnabled(true);
 		
-		init();
+		setup(trafficCarData);
 		
-		setupReferencePoints();
+		startAt(wayPointIndex);
+	}
+	
+	
+	/**
+	 * Places the car at the given way point with the way point's speed limit.
+	 * 
+	 * @param wayPointIndex
+	 * 			Way point of the route to start from.
+	 */
+	void startAt(int wayPointIndex)
+	{
+		followBox.setSpeed(trafficCarData.getFollowBoxSettings().getWayPoints().get(wayPointIndex).getSpeed());
+		followBox.setToWayPoint(wayPointIndex);
+	}
+	
+	
+	/**
+	 * Removes this car from scene and physics space in order to be spawned 
+	 * again later (see {@link TrafficPool}). The car must not be used until 
+	 * it has been spawned again.
+	 */
+	void despawn()
+	{
+		spawnID++;
+		isKinematic = false;
 		
-		followBox = new FollowBox(sim, this, trafficCarData.getFollowBoxSettings());
+		followBox.close();
+		carControl.setEnabled(false);
+		carNode.removeFromParent();
+		setHeadLightsActive(false);
 	}
 	
 	
-	public String getName() 
+	/**
+	 * Attaches the head lights of this car to or detaches them from the root 
+	 * node (see {@link TrafficHeadLightBudget}).
+	 * 
+	 * @param active
+	 * 			If true, head lights will be attached.
+	 */
+	void setHeadLightsActive(boolean active)
 	{
-		return name;
+		if(active == headLightsActive)
+			return;
+		
+		if(active)
+		{
+			sim.getRootNode().addLight(leftHeadLight);
+			sim.getRootNode().addLight(rightHeadLight);
+		}
+		else
+		{
+			sim.getRootNode().removeLight(leftHeadLight);
+			sim.getRootNode().removeLight(rightHeadLight);
+		}
+		
+		headLightsActive = active;
 	}
 	
 	
-	public void setMinForwardSafetyDistance(float distance) 
+	/**
+	 * Shows the lights of this car as replicated from a render master, 
+	 * including whether the head lights are attached to the scene (see 
+	 * {@link Car#applyReplicatedLights(int, LightState)}).
+	 * 
+	 * @param headLightsActive
+	 * 			If true, head lights will be attached.
+	 */
+	public void applyReplicatedLights(int lightIntensity, LightState lightState, boolean headLightsActive)
 	{
-		minForwardSafetyDistance = distance;
+		setHeadLightsActive(headLightsActive);
+		applyReplicatedLights(lightIntensity, lightState);
 	}
 	
 	
-	public void setMinLateralSafetyDistance(float distance) 
+	public boolean isHeadLightsActive()
 	{
-		minLateralSafetyDistance = distance;
+		return headLightsActive;
 	}
 	
 	
-	public void setToWayPoint(String wayPointID) 
+	/**
+	 * Releases all resources of a despawned car that will not be reused.
+	 */
+	void destroy()
 	{
-		int index = followBox.getIndexOfWP(wayPointID);
-		if(index != -1)
-			followBox.setToWayPoint(index);
-		else
-			System.err.println("Invalid way point ID: " + wayPointID);
+		// already removed from physics space and scene by despawn()
+		close();
 	}
 	
 	
-	public void setToWayPoint(int index)
+	public TrafficCarData getTrafficCarData()
 	{
-		followBox.setToWayPoint(index);
+		return trafficCarData;
 	}
 	
 	
-	private void setupReferencePoints() 
+	/**
+	 * Traffic cars of the same model share meshes, materials, light textures 
+	 * and collision shape.
+	 */
+	@Override
+	protected CarModelLoader createCarModel()
 	{
-		// add node representing position of front box
-		Box frontBox = new Box(new Vector3f(0, 0, 0), 0.01f, 0.01f, 0.01f);
-		frontGeometry = new Geometry("frontBox", frontBox);
-        frontGeometry.setLocalTranslation(0, 0, -1);
-		Material frontMaterial = new Material(sim.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
-		frontMaterial.setColor("Color", ColorRGBA.Red);
-		frontGeometry.setMaterial(frontMaterial);
-		Node frontNode = new Node();
-		frontNode.attachChild(frontGeometry);
-		frontNode.setCullHint(CullHint.Always);
-		getCarNode().attachChild(frontNode);
-		
-		// add node representing position of center box
-		Box centerBox = new Box(new Vector3f(0, 0, 0), 0.01f, 0.01f, 0.01f);
-		centerGeometry = new Geometry("centerBox", centerBox);
-		centerGeometry.setLocalTranslation(0, 0, 0);
-		Material centerMaterial = new Material(sim.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
-		centerMaterial.setColor("Color", ColorRGBA.Green);
-		centerGeometry.setMaterial(centerMaterial);
-		Node centerNode = new Node();
-		centerNode.attachChild(centerGeometry);
-		centerNode.setCullHint(CullHint.Always);
-		getCarNode().attachChild(centerNode);
+		vehicleTemplate = VehicleTemplate.getInstance(sim, modelPath);
+		return new CarModelLoader(vehicleTemplate, mass);
 	}
-
-
-	public void update(ArrayList<TrafficCar> vehicleList) 
+	
+	
+	@Override
+	protected LightTexturesContainer createLightTexturesContainer()
 	{
-		if(!sim.isPause())
-		{
-			// update steering
-			Vector3f wayPoint = followBox.getPosition();
-			steerTowardsPosition(wayPoint);
-			
-			// update speed
-			updateSpeed(vehicleList);
-			
-			// update lights
-			updateLightState();
-		}
-		
-		// update movement of follow box according to vehicle's position
-		Vector3f vehicleCenterPos = centerGeometry.getWorldTranslation();
-		followBox.update(vehicleCenterPos);
+		return new LightTexturesContainer(sim, carNode, vehicleTemplate.getLightTextureList());
 	}
 	
 	
-	private void steerTowardsPosition(Vector3f wayPoint) 
+	/**
+	 * @return number identifying the current assignment of this car (changes 
+	 * 			whenever the car is spawned or despawned)
+	 */
+	int getSpawnID()
 	{
-		// get relative position of way point --> steering direction
-		// -1: way point is located on the left side of the vehicle
-		//  0: way point is located in driving direction 
-		//  1: way point is located on the right side of the vehicle
-		int steeringDirection = getRelativePosition(wayPoint);
-		
-		// get angle between driving direction and way point direction --> steering intensity
-		// only consider 2D space (projection of WPs to xz-plane)
-		float steeringAngle = getAngleBetweenDirections(frontGeometry.getWorldTranslation(), wayPoint, true);
-		
-		// compute steering intensity in percent
-		//  0  degree =   0%
-		//  45 degree =  50%
-		//  90 degree = 100%
-		// >90 degree = 100%
-		float steeringIntensity = Math.max(Math.min(2*steeringAngle/FastMath.PI,1f),0f);
-		
-		// apply steering instruction
-		steer(steeringDirection*steeringIntensity);
-		
-		//System.out.println(steeringDirection*steeringIntensity);
+		return spawnID;
 	}
-
 	
-	private int getRelativePosition(Vector3f wayPoint)
+	
+	public String getName() 
 	{
-		// get vehicles center point and point in driving direction
-		Vector3f frontPosition = frontGeometry.getWorldTranslation();
-		Vector3f centerPosition = centerGeometry.getWorldTranslation();
-		
-		// convert Vector3f to Point2D.Float, as needed for Line2D.Float
-		Point2D.Float centerPoint = new Point2D.Float(centerPosition.getX(),centerPosition.getZ());
-		Point2D.Float frontPoint = new Point2D.Float(frontPosition.getX(),frontPosition.getZ());
-		
-		// line in direction of driving
-		Line2D.Float line = new Line2D.Float(centerPoint,frontPoint);
-		
-		// convert Vector3f to Point2D.Float
-		Point2D point = new Point2D.Float(wayPoint.getX(),wayPoint.getZ());
-
-		// check way point's relative position to the line
-		if(line.relativeCCW(point) == -1)
-		{
-			// point on the left --> return -1
-			return -1;
-		}
-		else if(line.relativeCCW(point) == 1)
-		{
-			// point on the right --> return 1
-			return 1;
-		}
+		return name;
+	}
+	
+	
+	public void setMinForwardSafetyDistance(float distance) 
+	{
+		minForwardSafetyDistance = distance;
+	}
+	
+	
+	public void setMinLateralSafetyDistance(float distance) 
+	{
+		minLateralSafetyDistance = distance;
+	}
+	
+	
+	public void setToWayPoint(String wayPointID) 
+	{
+		int index = followBox.getIndexOfWP(wayPointID);
+		if(index != -1)
+			followBox.setToWayPoint(index);
 		else
-		{
-			// point on line --> return 0
-			return 0;
-		}
+			System.err.println("Invalid way point ID: " + wayPointID);
 	}
 	
-
-	private float getAngleBetweenDirections(Vector3f position1, Vector3f position2, boolean is2DSpace) 
+	
+	public void setToWayPoint(int index)
 	{
-		// get vehicle's center
-		Vector3f carCenterPos = centerGeometry.getWorldTranslation();
-		
-		// vector pointing from vehicle's center towards position 1
-		Vector3f frontLine = position1.subtract(carCenterPos);
-		if(is2DSpace)
-			frontLine.setY(0);
-		frontLine.normalizeLocal();
-		
-		// vector pointing from vehicle's center towards position 2
-		Vector3f wayPointLine = position2.subtract(carCenterPos);
-		if(is2DSpace)
-			wayPointLine.setY(0);
-		wayPointLine.normalizeLocal();
-		
-		// angle between both vectors
-		return frontLine.angleBetween(wayPointLine);
+		followBox.setToWayPoint(index);
 	}
 	
 	
-	private void updateSpeed(ArrayList<TrafficCar> vehicleList) 
+	/**
+	 * Reads the current state of this car (and its follow box) for the traffic 
+	 * thread into the given slot. Must be called on the jME update thread.
+	 * 
+	 * @param state
+	 * 			Slot of the snapshot to overwrite.
+	 */
+	void captureState(TrafficCarState state)
 	{
-		float regularSpeed;
+		// vehicle's center point and point in driving direction
+		carControl.getPhysicsLocation(capturePosition);
+		carControl.getPhysicsRotation(captureRotation);
+		captureFrontPosition.set(0, 0, -1);
+		captureRotation.multLocal(captureFrontPosition).addLocal(capturePosition);
+		
 		// maximum speed for current way point segment
-		if(overwriteSpeed >= 0){
-		regularSpeed = overwriteSpeed;
-		}
-		else{
+		float regularSpeed;
+		if(overwriteSpeed >= 0)
+			regularSpeed = overwriteSpeed;
+		else
 			regularSpeed = followBox.getSpeed();
-		}
-		// reduced speed to reach next speed limit in time
-		float reducedSpeed = followBox.getReducedSpeed();
-		
-		// stop car in order to avoid collision with other traffic objects and driving car
-		// also for red traffic lights
-		if(obstaclesInTheWay(vehicleList))
-			reducedSpeed = Math.min(overwriteReducedSpeed , reducedSpeed);
 		
-		float targetSpeed = Math.max(Math.min(regularSpeed, reducedSpeed),0);
-		float currentSpeed = getCurrentSpeedKmh();
+		// state of traffic light at next way point (if any)
+		int currentWayPointIndex = followBox.getCurrentWayPointIndex();
+		TrafficLightState nextTrafficLightState = null;
+		Waypoint nextWayPoint = followBox.getNextWayPoint(currentWayPointIndex);
+		if(nextWayPoint != null)
+		{
+			TrafficLight trafficLight = nextWayPoint.getTrafficLight();
+			if(trafficLight != null)
+				nextTrafficLightState = trafficLight.getState();
+		}
 		
-		//System.out.print(name + ": " + targetSpeed + " *** " + currentSpeed);
+		// speed of kinematic vehicles equals speed of follow box
+		float speedKmh;
+		if(isKinematic)
+			speedKmh = followBox.isHold() ? 0 : followBox.getSpeed();
+		else
+			speedKmh = getCurrentSpeedKmh();
 		
+		// deceleration at 50% brake force
+		float deceleration50Percent = 50f * maxBrakeForce/mass;
 		
-		// set pedal positions
-		if(currentSpeed < targetSpeed)
-		{
-			// too slow --> accelerate
-			setGasPedalIntensity(-1);
-			setBrakePedalPressIntensity(0);
-			//System.out.println("gas");
-			//System.out.print(" *** gas");
-		}
-		else if(currentSpeed > targetSpeed+1)
+		state.set(followBox.getRoute(), capturePosition, captureFrontPosition, followBox.getPosition(), 
+				speedKmh, currentWayPointIndex, followBox.getCurrentValue(), regularSpeed, 
+				overwriteReducedSpeed, deceleration50Percent, minForwardSafetyDistance, minLateralSafetyDistance, 
+				nextTrafficLightState);
+	}
+	
+	
+	/**
+	 * Applies the control outputs computed by the traffic thread to the vehicle 
+	 * control. Must be called on the jME update thread before a physics step.
+	 * 
+	 * @param control
+	 * 			Control outputs of this car.
+	 */
+	void applyControl(TrafficControl control)
+	{
+		if(isKinematic)
 		{
-			// too fast --> brake
+			// stop (obstacle, red traffic light) or continue moving along the path
+			if(control.getGasPedalIntensity() != 0)
+				followBox.setHold(false);
+			else if(control.getBrakePedalIntensity() > 0)
+				followBox.setHold(true);
 			
-			// currentSpeed >= targetSpeed+3 --> brake intensity: 100%
-			// currentSpeed == targetSpeed+2 --> brake intensity:  50%
-			// currentSpeed <= targetSpeed+1 --> brake intensity:   0%
-			float brakeIntensity = (currentSpeed - targetSpeed - 1)/2.0f;
-			brakeIntensity = Math.max(Math.min(brakeIntensity, 1.0f), 0.0f);
-			
-			// TODO
-			brakeIntensity = 1.0f;
-			
-			setBrakePedalPressIntensity(brakeIntensity);
-			setGasPedalIntensity(0);
-			//System.out.println("brake: " + brakeIntensity);
-			//System.out.print(" *** brake");
-		}
-		else
-		{
-			// else release pedals
-			setGasPedalIntensity(0);
-			setBrakePedalPressIntensity(0);
-			//System.out.print(" *** free");
+			return;
 		}
 		
+		steer(control.getSteering());
 		
+		setGasPedalIntensity(control.getGasPedalIntensity());
+		setBrakePedalPressIntensity(control.getBrakePedalIntensity());
 		
 		// accelerate
 		if(engineOn)
 			carControl.accelerate(gasPedalPressIntensity * accelerationForce);
 		else
 			carControl.accelerate(0);
-		//System.out.print(" *** " + gasPedalPressIntensity * accelerationForce);
 		
 		// brake	
 		float appliedBrakeForce = brakePedalPressIntensity * maxBrakeForce;
 		float currentFriction = 0.2f * maxFreeWheelBrakeForce;
 		carControl.brake(appliedBrakeForce + currentFriction);
-		
-		//System.out.print(" *** " + appliedBrakeForce + currentFriction);
-		//System.out.println("");
 	}
 
 
-	private boolean obstaclesInTheWay(ArrayList<TrafficCar> vehicleList)
+	/**
+	 * Updates lights and follow box. Must be called on the jME update thread 
+	 * every frame.
+	 */
+	public void update() 
 	{
-		// check distance from driving car
-		if(obstacleTooClose(sim.getCar().getPosition()))
-			return true;
-		
-		// check distance from other traffic (except oneself)
-		for(TrafficCar vehicle : vehicleList)
-		{
-			if(!vehicle.getName().equals(name))		
-				if(obstacleTooClose(vehicle.getPosition()))
-					return true;
-		}
+		// update lights (detached head lights do not need to follow the car)
+		if(!sim.isPause() && headLightsActive)
+			updateLightState();
 		
-		// check if red traffic light ahead
-		Waypoint nextWayPoint = followBox.getNextWayPoint();
-		if(hasRedTrafficLight(nextWayPoint))
-			if(obstacleTooClose(nextWayPoint.getPosition()))
-				return true;
+		// update movement of follow box according to vehicle's position
+		followBox.update(carControl.getPhysicsLocation(currentPosition));
 		
-		return false;
+		// move vehicle along the path of the follow box
+		if(isKinematic)
+			updateKinematicPose();
 	}
-
-
-	private boolean obstacleTooClose(Vector3f obstaclePos)
+	
+	
+	public boolean isKinematic()
 	{
-		float distanceToObstacle = obstaclePos.distance(getPosition());
+		return isKinematic;
+	}
+	
+	
+	/**
+	 * Switches between full physics simulation and kinematic movement. A 
+	 * kinematic vehicle is removed from the physics space and placed at the 
+	 * position of its follow box every frame. When switching back, position, 
+	 * heading and speed of the vehicle will be kept. Must be called on the jME 
+	 * update thread.
+	 * 
+	 * @param kinematic
+	 * 			If true, the vehicle will be moved kinematically.
+	 */
+	public void setKinematic(boolean kinematic)
+	{
+		if(kinematic == isKinematic)
+			return;
 		
-		// angle between driving direction of traffic car and direction towards obstacle
-		// (consider 3D space, because obstacle could be located on a bridge above traffic car)
-		float angle = getAngleBetweenDirections(frontGeometry.getWorldTranslation(), obstaclePos, false);
-		if(belowSafetyDistance(angle, distanceToObstacle))
-			return true;
-
-		// considering direction towards next way point (if available)
-		Waypoint nextWP = followBox.getNextWayPoint();
-		if(nextWP != null)
+		if(kinematic)
 		{
-			// angle between direction towards next WP and direction towards obstacle
-			// (consider 3D space, because obstacle could be located on a bridge above traffic car)
-			angle = getAngleBetweenDirections(nextWP.getPosition(), obstaclePos, false);
-			if(belowSafetyDistance(angle, distanceToObstacle))
-				return true;
+			// keep height of vehicle's center above the path
+			Vector3f followBoxPosition = followBox.getPosition();
+			kinematicHeightOffset = carControl.getPhysicsLocation(currentPosition).getY() - followBoxPosition.getY();
+			carControl.getPhysicsRotation(kinematicRotation);
+			
+			// remove from physics space
+			carControl.setEnabled(false);
+		}
+		else
+		{
+			// continue with speed of follow box in driving direction
+			float speed = followBox.isHold() ? 0 : followBox.getSpeed() / 3.6f;
+			Vector3f velocity = kinematicRotation.mult(kinematicDirection.set(0, 0, -1), kinematicDirection).multLocal(speed);
+			followBox.setHold(false);
+			
+			// add to physics space (at the current position of the car node)
+			carControl.setEnabled(true);
+			carControl.setPhysicsLocation(carNode.getLocalTranslation());
+			carControl.setPhysicsRotation(kinematicRotation);
+			carControl.setLinearVelocity(velocity);
+			carControl.setAngularVelocity(Vector3f.ZERO);
+			carControl.resetSuspension();
 		}
-		return false;
+		
+		isKinematic = kinematic;
 	}
 	
 	
-	private boolean belowSafetyDistance(float angle, float distance) 
-	{	
-		float lateralDistance = distance * FastMath.sin(angle);
-		float forwardDistance = distance * FastMath.cos(angle);
+	private void updateKinematicPose()
+	{
+		Vector3f followBoxPosition = followBox.getPosition();
 		
-		//if(name.equals("car1"))
-		//	System.out.println(lateralDist + " *** " + forwardDist);
+		// head towards direction of the path (front of vehicle is -z)
+		followBox.getRoute().getDirection(followBox.getCurrentWayPointIndex(), followBox.getCurrentValue(), 
+				kinematicDirection);
+		if(kinematicDirection.lengthSquared() > 0.0001f)
+			kinematicRotation.lookAt(kinematicDirection.negateLocal(), Vector3f.UNIT_Y);
 		
-		if((lateralDistance < minLateralSafetyDistance) && (forwardDistance > 0) && 
-				(forwardDistance < Math.max(0.5f * getCurrentSpeedKmh(), minForwardSafetyDistance)))
-			return true;
+		kinematicPosition.set(followBoxPosition).addLocal(0, kinematicHeightOffset, 0);
+		carNode.setLocalTranslation(kinematicPosition);
+		carNode.setLocalRotation(kinematicRotation);
 		
-		return false;
+		// keep physics location up to date as it is used for snapshots and network output
+		carControl.setPhysicsLocation(kinematicPosition);
+		carControl.setPhysicsRotation(kinematicRotation);
 	}
-
 	
-	private boolean hasRedTrafficLight(Waypoint wayPoint)
-	{
-		String trafficLightID = wayPoint.getTrafficLightID();
-		
-		TrafficLight trafficLight = TrafficLightCenter.getTrafficLightByID(trafficLightID);
-		if(trafficLight != null &&
-			 (
-				trafficLight.getState() == TrafficLightState.RED ||
-				trafficLight.getState() == TrafficLightState.YELLOW ||
-				trafficLight.getState() == TrafficLightState.YELLOWRED
-			 )
-		  )
-			return true;
-		
-		return false;
-	}
-
-
+	
 	private void updateLightState() 
 	{
-		leftHeadLight.setColor(ColorRGBA.White.mult(lightIntensity));
+		// lights copy color, position and direction
+		headLightColor.set(ColorRGBA.White).multLocal(lightIntensity);
+		
+		leftHeadLight.setColor(headLightColor);
         leftHeadLight.setPosition(carModel.getLeftLightPosition());
-        leftHeadLight.setDirection(carModel.getLeftLightDirection());
+        leftHeadLight.setDirection(carModel.getLeftLightDirection(headLightDirection));
         
-        rightHeadLight.setColor(ColorRGBA.White.mult(lightIntensity));
+        rightHeadLight.setColor(headLightColor);
         rightHeadLight.setPosition(carModel.getRightLightPosition());
-        rightHeadLight.setDirection(carModel.getRightLightDirection());
+        rightHeadLight.setDirection(carModel.getRightLightDirection(headLightDirection));
 	}
 	
 	
@@ -0,0 +1,183 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import com.jme3.math.Vector3f;
+
+import eu.opends.environment.TrafficLight.TrafficLightState;
+
+/**
+ * State of one traffic car as seen by the traffic thread. Captured on the jME 
+ * thread (see {@link TrafficCar#captureState(TrafficCarState)}) together with 
+ * the state of all other vehicles, so the traffic AI can run without accessing 
+ * the physics space or the scene graph. Instances are slots of a reused 
+ * {@link TrafficSnapshot} and will be overwritten by a later capture; hence, 
+ * the traffic thread must not keep references beyond the current step.
+ * 
+ * @author agent
+ */
+public final class TrafficCarState
+{
+	private TrafficRoute route;
+	private final Vector3f position = new Vector3f();
+	private final Vector3f frontPosition = new Vector3f();
+	private final Vector3f followBoxPosition = new Vector3f();
+	private float speedKmh;
+	private int currentWayPointIndex;
+	private float wayPointProgress;
+	private float regularSpeed;
+	private float overwriteReducedSpeed;
+	private float deceleration50Percent;
+	private float minForwardSafetyDistance;
+	private float minLateralSafetyDistance;
+	private TrafficLightState nextTrafficLightState;
+
+
+	/**
+	 * Overwrites this state. The given vectors will be copied (no references 
+	 * kept), so capturing does not allocate memory.
+	 */
+	public void set(TrafficRoute route, Vector3f position, Vector3f frontPosition, 
+			Vector3f followBoxPosition, float speedKmh, int currentWayPointIndex, float wayPointProgress, 
+			float regularSpeed, float overwriteReducedSpeed, float deceleration50Percent, 
+			float minForwardSafetyDistance, float minLateralSafetyDistance, 
+			TrafficLightState nextTrafficLightState)
+	{
+		this.route = route;
+		this.position.set(position);
+		this.frontPosition.set(frontPosition);
+		this.followBoxPosition.set(followBoxPosition);
+		this.speedKmh = speedKmh;
+		this.currentWayPointIndex = currentWayPointIndex;
+		this.wayPointProgress = wayPointProgress;
+		this.regularSpeed = regularSpeed;
+		this.overwriteReducedSpeed = overwriteReducedSpeed;
+		this.deceleration50Percent = deceleration50Percent;
+		this.minForwardSafetyDistance = minForwardSafetyDistance;
+		this.minLateralSafetyDistance = minLateralSafetyDistance;
+		this.nextTrafficLightState = nextTrafficLightState;
+	}
+
+
+	/**
+	 * @return way points the vehicle is following
+	 */
+	public TrafficRoute getRoute()
+	{
+		return route;
+	}
+
+
+	/**
+	 * @return center of the vehicle (must not be modified)
+	 */
+	public Vector3f getPosition()
+	{
+		return position;
+	}
+
+
+	/**
+	 * @return point 1 m ahead of the vehicle's center in driving direction 
+	 * 			(must not be modified)
+	 */
+	public Vector3f getFrontPosition()
+	{
+		return frontPosition;
+	}
+
+
+	/**
+	 * @return position of the follow box the vehicle is steering towards
+	 * 			(must not be modified)
+	 */
+	public Vector3f getFollowBoxPosition()
+	{
+		return followBoxPosition;
+	}
+
+
+	public float getSpeedKmh()
+	{
+		return speedKmh;
+	}
+
+
+	/**
+	 * @return index of the way point the follow box has passed last
+	 */
+	public int getCurrentWayPointIndex()
+	{
+		return currentWayPointIndex;
+	}
+
+
+	/**
+	 * @return traveled share [0,1] of the follow box between current and next way point
+	 */
+	public float getWayPointProgress()
+	{
+		return wayPointProgress;
+	}
+
+
+	/**
+	 * @return speed limit (in km/h) of the current way point segment or overwritten speed
+	 */
+	public float getRegularSpeed()
+	{
+		return regularSpeed;
+	}
+
+
+	public float getOverwriteReducedSpeed()
+	{
+		return overwriteReducedSpeed;
+	}
+
+
+	/**
+	 * @return deceleration (in m/s^2) of the vehicle at 50% brake force
+	 */
+	public float getDeceleration50Percent()
+	{
+		return deceleration50Percent;
+	}
+
+
+	public float getMinForwardSafetyDistance()
+	{
+		return minForwardSafetyDistance;
+	}
+
+
+	public float getMinLateralSafetyDistance()
+	{
+		return minLateralSafetyDistance;
+	}
+
+
+	/**
+	 * @return state of the traffic light at the next way point (null if none)
+	 */
+	public TrafficLightState getNextTrafficLightState()
+	{
+		return nextTrafficLightState;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+/**
+ * Control outputs of one traffic car computed by the traffic thread. Instances
+ * are kept in the double buffer of {@link PhysicalTraffic} and reused every step.
+ * 
+ * @author agent
+ */
+public class TrafficControl
+{
+	private float steering = 0;
+	private float gasPedalIntensity = 0;
+	private float brakePedalIntensity = 0;
+
+
+	/**
+	 * @return steering direction and intensity [-1,1]
+	 */
+	public float getSteering()
+	{
+		return steering;
+	}
+
+
+	public void setSteering(float steering)
+	{
+		this.steering = steering;
+	}
+
+
+	/**
+	 * @return gas pedal intensity (-1 for full ahead, see {@link eu.opends.car.Car#setGasPedalIntensity(float)})
+	 */
+	public float getGasPedalIntensity()
+	{
+		return gasPedalIntensity;
+	}
+
+
+	public void setGasPedalIntensity(float gasPedalIntensity)
+	{
+		this.gasPedalIntensity = gasPedalIntensity;
+	}
+
+
+	/**
+	 * @return brake pedal intensity [0,1]
+	 */
+	public float getBrakePedalIntensity()
+	{
+		return brakePedalIntensity;
+	}
+
+
+	public void setBrakePedalIntensity(float brakePedalIntensity)
+	{
+		this.brakePedalIntensity = brakePedalIntensity;
+	}
+}
@@ -0,0 +1,326 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.awt.geom.Line2D;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+import eu.opends.environment.TrafficLight.TrafficLightState;
+
+/**
+ * Sense/decide phase of the traffic AI: path following, obstacle checks and
+ * speed control of a traffic car based on a {@link TrafficSnapshot}. All methods
+ * are free of side effects apart from writing the car's {@link TrafficControl},
+ * so the result does not depend on the order in which cars are processed.
+ * Vector math is done on plain floats, hence sensing does not allocate any
+ * objects.
+ * 
+ * @author agent
+ */
+public final class TrafficDriver
+{
+	private TrafficDriver()
+	{
+	}
+
+
+	/**
+	 * Computes steering and pedal positions of one traffic car from the given 
+	 * snapshot. Only reads the snapshot and the grid and only writes the given
+	 * control, hence any number of cars may be sensed concurrently.
+	 * 
+	 * @param snapshot
+	 * 			State of all vehicles at the beginning of the current step.
+	 * 
+	 * @param grid
+	 * 			Spatial hash of all traffic cars of the snapshot.
+	 * 
+	 * @param index
+	 * 			Index of the car in the snapshot.
+	 * 
+	 * @param control
+	 * 			Control outputs of the car to write to.
+	 */
+	public static void sense(TrafficSnapshot snapshot, TrafficGrid grid, int index, TrafficControl control)
+	{
+		TrafficCarState state = snapshot.getTrafficCarState(index);
+		
+		// update steering
+		control.setSteering(getSteering(state, state.getFollowBoxPosition()));
+		
+		// update speed
+		updatePedals(snapshot, grid, index, control);
+	}
+	
+	
+
+
+	private static float getSteering(TrafficCarState state, Vector3f wayPoint) 
+	{
+		// get relative position of way point --> steering direction
+		// -1: way point is located on the left side of the vehicle
+		//  0: way point is located in driving direction 
+		//  1: way point is located on the right side of the vehicle
+		int steeringDirection = getRelativePosition(state, wayPoint);
+		
+		// get angle between driving direction and way point direction --> steering intensity
+		// only consider 2D space (projection of WPs to xz-plane)
+		float steeringAngle = getAngleBetweenDirections(state, state.getFrontPosition(), wayPoint, true);
+		
+		// compute steering intensity in percent
+		//  0  degree =   0%
+		//  45 degree =  50%
+		//  90 degree = 100%
+		// >90 degree = 100%
+		float steeringIntensity = Math.max(Math.min(2*steeringAngle/FastMath.PI,1f),0f);
+		
+		return steeringDirection*steeringIntensity;
+	}
+
+	
+	private static int getRelativePosition(TrafficCarState state, Vector3f wayPoint)
+	{
+		// get vehicles center point and point in driving direction
+		Vector3f frontPosition = state.getFrontPosition();
+		Vector3f centerPosition = state.getPosition();
+		
+		// check way point's relative position to the line in direction of driving
+		// (projection to xz-plane)
+		int relativeCCW = Line2D.relativeCCW(centerPosition.getX(), centerPosition.getZ(), 
+				frontPosition.getX(), frontPosition.getZ(), wayPoint.getX(), wayPoint.getZ());
+		
+		if(relativeCCW == -1)
+		{
+			// point on the left --> return -1
+			return -1;
+		}
+		else if(relativeCCW == 1)
+		{
+			// point on the right --> return 1
+			return 1;
+		}
+		else
+		{
+			// point on line --> return 0
+			return 0;
+		}
+	}
+	
+
+	private static float getAngleBetweenDirections(TrafficCarState state, Vector3f position1, 
+			Vector3f position2, boolean is2DSpace) 
+	{
+		// get vehicle's center
+		Vector3f carCenterPos = state.getPosition();
+		
+		// vector pointing from vehicle's center towards position 1
+		float frontX = position1.getX() - carCenterPos.getX();
+		float frontY = is2DSpace ? 0 : position1.getY() - carCenterPos.getY();
+		float frontZ = position1.getZ() - carCenterPos.getZ();
+		
+		// vector pointing from vehicle's center towards position 2
+		float wayPointX = position2.getX() - carCenterPos.getX();
+		float wayPointY = is2DSpace ? 0 : position2.getY() - carCenterPos.getY();
+		float wayPointZ = position2.getZ() - carCenterPos.getZ();
+		
+		// angle between both vectors (zero vectors will not be normalized)
+		float dotProduct = frontX * wayPointX + frontY * wayPointY + frontZ * wayPointZ;
+		float frontLength = FastMath.sqrt(frontX * frontX + frontY * frontY + frontZ * frontZ);
+		if(frontLength > 0)
+			dotProduct /= frontLength;
+		float wayPointLength = FastMath.sqrt(wayPointX * wayPointX + wayPointY * wayPointY + wayPointZ * wayPointZ);
+		if(wayPointLength > 0)
+			dotProduct /= wayPointLength;
+		
+		return FastMath.acos(dotProduct);
+	}
+	
+	
+	private static void updatePedals(TrafficSnapshot snapshot, TrafficGrid grid, int index, TrafficControl control) 
+	{
+		TrafficCarState state = snapshot.getTrafficCarState(index);
+		
+		// maximum speed for current way point segment
+		float regularSpeed = state.getRegularSpeed();
+		
+		// reduced speed to reach next speed limit in time
+		float reducedSpeed = state.getRoute().getReducedSpeed(state.getCurrentWayPointIndex(), 
+				state.getWayPointProgress(), state.getDeceleration50Percent());
+		
+		// stop car in order to avoid collision with other traffic objects and driving car
+		// also for red traffic lights
+		if(obstaclesInTheWay(snapshot, grid, index))
+			reducedSpeed = Math.min(state.getOverwriteReducedSpeed(), reducedSpeed);
+		
+		float targetSpeed = Math.max(Math.min(regularSpeed, reducedSpeed),0);
+		float currentSpeed = state.getSpeedKmh();
+		
+		//System.out.print(name + ": " + targetSpeed + " *** " + currentSpeed);
+		
+		
+		// set pedal positions
+		if(currentSpeed < targetSpeed)
+		{
+			// too slow --> accelerate
+			control.setGasPedalIntensity(-1);
+			control.setBrakePedalIntensity(0);
+			//System.out.println("gas");
+			//System.out.print(" *** gas");
+		}
+		else if(currentSpeed > targetSpeed+1)
+		{
+			// too fast --> brake
+			
+			// currentSpeed >= targetSpeed+3 --> brake intensity: 100%
+			// currentSpeed == targetSpeed+2 --> brake intensity:  50%
+			// currentSpeed <= targetSpeed+1 --> brake intensity:   0%
+			float brakeIntensity = (currentSpeed - targetSpeed - 1)/2.0f;
+			brakeIntensity = Math.max(Math.min(brakeIntensity, 1.0f), 0.0f);
+			
+			// TODO
+			brakeIntensity = 1.0f;
+			
+			control.setBrakePedalIntensity(brakeIntensity);
+			control.setGasPedalIntensity(0);
+			//System.out.println("brake: " + brakeIntensity);
+			//System.out.print(" *** brake");
+		}
+		else
+		{
+			// else release pedals
+			control.setGasPedalIntensity(0);
+			control.setBrakePedalIntensity(0);
+			//System.out.print(" *** free");
+		}
+	}
+
+
+	private static boolean obstaclesInTheWay(TrafficSnapshot snapshot, TrafficGrid grid, int index)
+	{
+		TrafficCarState state = snapshot.getTrafficCarState(index);
+		
+		// check distance from driving car
+		if(obstacleTooClose(state, snapshot.getDrivingCarPosition()))
+			return true;
+		
+		// obstacles can only be too close within the safety envelope, i.e. if
+		// lateral distance < min lateral and forward distance < max forward distance
+		Vector3f position = state.getPosition();
+		float forwardRange = Math.max(0.5f * state.getSpeedKmh(), state.getMinForwardSafetyDistance());
+		float lateralRange = state.getMinLateralSafetyDistance();
+		float range = FastMath.sqrt(forwardRange * forwardRange + lateralRange * lateralRange);
+		
+		int minCellX = grid.getCell(position.getX() - range);
+		int maxCellX = grid.getCell(position.getX() + range);
+		int minCellZ = grid.getCell(position.getZ() - range);
+		int maxCellZ = grid.getCell(position.getZ() + range);
+		
+		// check distance from other traffic (except oneself)
+		if((maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) >= grid.getNumberOfBuckets())
+		{
+			// envelope covers more cells than buckets available --> check all vehicles
+			for(int i=0; i<snapshot.getNumberOfTrafficCars(); i++)
+				if(i != index && obstacleInRange(state, snapshot.getTrafficCarState(i).getPosition(), range))
+					return true;
+		}
+		else
+		{
+			// only check vehicles in cells overlapping the safety envelope
+			for(int cellX=minCellX; cellX<=maxCellX; cellX++)
+				for(int cellZ=minCellZ; cellZ<=maxCellZ; cellZ++)
+				{
+					int bucket = grid.getBucket(cellX, cellZ);
+					for(int k=grid.getBucketStart(bucket); k<grid.getBucketEnd(bucket); k++)
+					{
+						int i = grid.getEntry(k);
+						if(i != index && obstacleInRange(state, snapshot.getTrafficCarState(i).getPosition(), range))
+							return true;
+					}
+				}
+		}
+		
+		// check if red traffic light ahead
+		Waypoint nextWayPoint = state.getRoute().getNextWayPoint(state.getCurrentWayPointIndex());
+		if(nextWayPoint != null && isRed(state.getNextTrafficLightState()))
+			if(obstacleTooClose(state, nextWayPoint.getPosition()))
+				return true;
+		
+		return false;
+	}
+
+
+	private static boolean obstacleInRange(TrafficCarState state, Vector3f obstaclePos, float range)
+	{
+		// cheap distance check before computing angles
+		if(obstaclePos.distanceSquared(state.getPosition()) >= range * range)
+			return false;
+		
+		return obstacleTooClose(state, obstaclePos);
+	}
+
+
+	private static boolean obstacleTooClose(TrafficCarState state, Vector3f obstaclePos)
+	{
+		float distanceToObstacle = obstaclePos.distance(state.getPosition());
+		
+		// angle between driving direction of traffic car and direction towards obstacle
+		// (consider 3D space, because obstacle could be located on a bridge above traffic car)
+		float angle = getAngleBetweenDirections(state, state.getFrontPosition(), obstaclePos, false);
+		if(belowSafetyDistance(state, angle, distanceToObstacle))
+			return true;
+
+		// considering direction towards next way point (if available)
+		Waypoint nextWP = state.getRoute().getNextWayPoint(state.getCurrentWayPointIndex());
+		if(nextWP != null)
+		{
+			// angle between direction towards next WP and direction towards obstacle
+			// (consider 3D space, because obstacle could be located on a bridge above traffic car)
+			angle = getAngleBetweenDirections(state, nextWP.getPosition(), obstaclePos, false);
+			if(belowSafetyDistance(state, angle, distanceToObstacle))
+				return true;
+		}
+		return false;
+	}
+	
+	
+	private static boolean belowSafetyDistance(TrafficCarState state, float angle, float distance) 
+	{	
+		float lateralDistance = distance * FastMath.sin(angle);
+		float forwardDistance = distance * FastMath.cos(angle);
+		
+		//if(name.equals("car1"))
+		//	System.out.println(lateralDist + " *** " + forwardDist);
+		
+		if((lateralDistance < state.getMinLateralSafetyDistance()) && (forwardDistance > 0) && 
+				(forwardDistance < Math.max(0.5f * state.getSpeedKmh(), state.getMinForwardSafetyDistance())))
+			return true;
+		
+		return false;
+	}
+
+	
+	private static boolean isRed(TrafficLightState trafficLightState)
+	{
+		return trafficLightState == TrafficLightState.RED ||
+				trafficLightState == TrafficLightState.YELLOW ||
+				trafficLightState == TrafficLightState.YELLOWRED;
+	}
+}
@@ -0,0 +1,182 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+/**
+ * Uniform grid (spatial hash) over the positions of all traffic cars of one
+ * {@link TrafficSnapshot} on the xz-plane. Rebuilt once per traffic step by the
+ * traffic thread and read-only afterwards, so each car only needs to check the 
+ * vehicles in the cells overlapping its safety envelope instead of all vehicles.<br>
+ * <br>
+ * Cells are mapped to a power-of-two number of buckets by hashing the cell
+ * coordinates; vehicles of a bucket are stored consecutively (counting sort),
+ * hence a rebuild does not allocate unless the number of vehicles grows.
+ * A bucket may contain vehicles of several cells, so callers must check the 
+ * actual distance of every returned vehicle.
+ * 
+ * @author agent
+ */
+public class TrafficGrid
+{
+	private final float cellSize;
+	private int mask = 0;
+	private int[] bucketStart = new int[1];
+	private int[] fillPosition = new int[0];
+	private int[] entries = new int[0];
+	private int[] bucketOfVehicle = new int[0];
+
+
+	/**
+	 * Creates an empty grid.
+	 * 
+	 * @param cellSize
+	 * 			Edge length of a cell in meters.
+	 */
+	public TrafficGrid(float cellSize)
+	{
+		this.cellSize = cellSize;
+	}
+
+
+	/**
+	 * Sorts the positions of all traffic cars of the given snapshot into the grid.
+	 * 
+	 * @param snapshot
+	 * 			Snapshot to index.
+	 */
+	public void rebuild(TrafficSnapshot snapshot)
+	{
+		int numberOfVehicles = snapshot.getNumberOfTrafficCars();
+		ensureCapacity(numberOfVehicles);
+		
+		for(int i=0; i<bucketStart.length; i++)
+			bucketStart[i] = 0;
+		
+		// count vehicles per bucket
+		for(int i=0; i<numberOfVehicles; i++)
+		{
+			Vector3f position = snapshot.getTrafficCarState(i).getPosition();
+			int bucket = getBucket(getCell(position.getX()), getCell(position.getZ()));
+			bucketOfVehicle[i] = bucket;
+			bucketStart[bucket+1]++;
+		}
+		
+		// prefix sum --> first entry of each bucket
+		for(int i=1; i<bucketStart.length; i++)
+			bucketStart[i] += bucketStart[i-1];
+		
+		// fill entries (ascending vehicle index within each bucket)
+		System.arraycopy(bucketStart, 0, fillPosition, 0, fillPosition.length);
+		for(int i=0; i<numberOfVehicles; i++)
+			entries[fillPosition[bucketOfVehicle[i]]++] = i;
+	}
+
+
+	/**
+	 * @param coordinate
+	 * 			x or z coordinate in meters.
+	 * 
+	 * @return
+	 * 			Cell coordinate containing the given coordinate.
+	 */
+	public int getCell(float coordinate)
+	{
+		return (int) FastMath.floor(coordinate / cellSize);
+	}
+
+
+	/**
+	 * @param cellX
+	 * 			Cell coordinate in x direction.
+	 * 
+	 * @param cellZ
+	 * 			Cell coordinate in z direction.
+	 * 
+	 * @return
+	 * 			Bucket the given cell is mapped to.
+	 */
+	public int getBucket(int cellX, int cellZ)
+	{
+		return ((cellX * 73856093) ^ (cellZ * 19349663)) & mask;
+	}
+
+
+	/**
+	 * @return index of the first entry of the given bucket
+	 */
+	public int getBucketStart(int bucket)
+	{
+		return bucketStart[bucket];
+	}
+
+
+	/**
+	 * @return index after the last entry of the given bucket
+	 */
+	public int getBucketEnd(int bucket)
+	{
+		return bucketStart[bucket+1];
+	}
+
+
+	/**
+	 * @return vehicle index (i.e. index in the snapshot) stored at the given entry
+	 */
+	public int getEntry(int entryIndex)
+	{
+		return entries[entryIndex];
+	}
+
+
+	public float getCellSize()
+	{
+		return cellSize;
+	}
+
+
+	public int getNumberOfBuckets()
+	{
+		return mask + 1;
+	}
+
+
+	private void ensureCapacity(int numberOfVehicles)
+	{
+		if(entries.length < numberOfVehicles)
+		{
+			entries = new int[numberOfVehicles];
+			bucketOfVehicle = new int[numberOfVehicles];
+		}
+		
+		// use at least twice as many buckets as vehicles to keep collisions rare
+		int numberOfBuckets = 1;
+		while(numberOfBuckets < 2 * numberOfVehicles)
+			numberOfBuckets <<= 1;
+		
+		if(bucketStart.length != numberOfBuckets + 1)
+		{
+			bucketStart = new int[numberOfBuckets + 1];
+			fillPosition = new int[numberOfBuckets];
+			mask = numberOfBuckets - 1;
+		}
+	}
+}
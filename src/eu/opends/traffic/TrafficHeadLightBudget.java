@@ -0,0 +1,235 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.List;
+
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import com.jme3.renderer.Camera.FrustumIntersect;
+
+import eu.opends.camera.CameraFactory;
+import eu.opends.main.Simulator;
+
+/**
+ * Limits the number of head light pairs of traffic cars in the scene. With 
+ * the forward renderer, every light adds shading cost to every lit geometry, 
+ * so only the most relevant head lights will be attached to the root node:
+ * vehicles are ranked by distance to the main camera node, vehicles outside 
+ * the view frustums of all scene cameras count as farther away. Head lights of vehicles with lights off 
+ * are never attached.
+ * 
+ * @author agent
+ */
+public class TrafficHeadLightBudget
+{
+	// distance factor of vehicles outside the view frustum (their lights may still shine into it)
+	private static final float OUTSIDE_FRUSTUM_PENALTY = 4f;
+	
+	private Simulator sim;
+	private int maxHeadLights;
+	private int qualityLimit = -1;
+	
+	// ranking buffers (reused every frame)
+	private TrafficCar[] candidates = new TrafficCar[0];
+	private float[] scores = new float[0];
+	
+	private int activeHeadLights = 0;
+	private int maxActiveHeadLights = 0;
+	private long totalActiveHeadLights = 0;
+	private long frameCount = 0;
+
+
+	/**
+	 * Creates a new budget.
+	 * 
+	 * @param sim
+	 * 			Simulator providing camera and root node.
+	 * 
+	 * @param maxHeadLights
+	 * 			Maximum number of vehicles with active head lights (negative: unlimited).
+	 */
+	public TrafficHeadLightBudget(Simulator sim, int maxHeadLights)
+	{
+		this.sim = sim;
+		this.maxHeadLights = maxHeadLights;
+	}
+
+
+	/**
+	 * Activates the head lights of the most relevant vehicles and deactivates 
+	 * all others. Must be called on the jME update thread every frame (before 
+	 * the vehicles are updated).
+	 * 
+	 * @param vehicleList
+	 * 			All live traffic cars.
+	 */
+	public void update(List<TrafficCar> vehicleList)
+	{
+		int numberOfVehicles = vehicleList.size();
+		if(candidates.length < numberOfVehicles)
+		{
+			candidates = new TrafficCar[numberOfVehicles];
+			scores = new float[numberOfVehicles];
+		}
+		
+		// all scene cameras are attached to the main camera node (the default 
+		// camera does not move if several screens are used)
+		CameraFactory cameraFactory = sim.getCameraFactory();
+		Vector3f cameraPosition = cameraFactory.getMainCameraNode().getWorldTranslation();
+		List<Camera> sceneCameraList = cameraFactory.getSceneCameraList();
+		
+		int numberOfCandidates = 0;
+		for(int i=0; i<numberOfVehicles; i++)
+		{
+			TrafficCar vehicle = vehicleList.get(i);
+			
+			if(!vehicle.isLightOn())
+			{
+				vehicle.setHeadLightsActive(false);
+				continue;
+			}
+			
+			float score = vehicle.getCarNode().getWorldTranslation().distanceSquared(cameraPosition);
+			
+			BoundingVolume bound = vehicle.getCarNode().getWorldBound();
+			if(!isVisible(bound, sceneCameraList))
+				score *= OUTSIDE_FRUSTUM_PENALTY;
+			
+			candidates[numberOfCandidates] = vehicle;
+			scores[numberOfCandidates] = score;
+			numberOfCandidates++;
+		}
+		
+		int limit = numberOfCandidates;
+		if(maxHeadLights >= 0)
+			limit = Math.min(maxHeadLights, numberOfCandidates);
+		if(qualityLimit >= 0)
+			limit = Math.min(qualityLimit, limit);
+		
+		// partial selection sort: move the best candidates to the front
+		if(limit < numberOfCandidates)
+		{
+			for(int i=0; i<limit; i++)
+			{
+				int best = i;
+				for(int j=i+1; j<numberOfCandidates; j++)
+					if(scores[j] < scores[best])
+						best = j;
+				
+				swap(i, best);
+			}
+		}
+		
+		for(int i=0; i<numberOfCandidates; i++)
+		{
+			candidates[i].setHeadLightsActive(i < limit);
+			candidates[i] = null;
+		}
+		
+		activeHeadLights = limit;
+		maxActiveHeadLights = Math.max(maxActiveHeadLights, limit);
+		totalActiveHeadLights += limit;
+		frameCount++;
+	}
+	
+	
+	/**
+	 * @return number of vehicles with active head lights in the last frame
+	 */
+	public int getActiveHeadLights()
+	{
+		return activeHeadLights;
+	}
+	
+	
+	public int getMaxHeadLights()
+	{
+		return maxHeadLights;
+	}
+	
+	
+	/**
+	 * Further limits the number of active head light pairs below the configured 
+	 * maximum, e.g. to reduce rendering costs.
+	 * 
+	 * @param qualityLimit
+	 * 			Maximum number of vehicles with active head lights (negative: 
+	 * 			configured maximum only).
+	 */
+	public void setQualityLimit(int qualityLimit)
+	{
+		this.qualityLimit = qualityLimit;
+	}
+	
+	
+	/**
+	 * Statistics as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Budget, average and maximum number of active head light pairs.
+	 */
+	public String getReport()
+	{
+		float avgActive = (frameCount > 0) ? totalActiveHeadLights / (float) frameCount : 0;
+		return "budget=" + (maxHeadLights < 0 ? "unlimited" : String.valueOf(maxHeadLights)) + 
+				", avgActive=" + avgActive + ", maxActive=" + maxActiveHeadLights;
+	}
+	
+	
+	/**
+	 * Tests the given bound against all planes of the frustums of the given 
+	 * cameras.
+	 * 
+	 * @return
+	 * 			true, if the bound is not outside of at least one frustum.
+	 */
+	private static boolean isVisible(BoundingVolume bound, List<Camera> cameraList)
+	{
+		if(bound == null)
+			return false;
+		
+		for(int i=0; i<cameraList.size(); i++)
+		{
+			Camera cam = cameraList.get(i);
+			int planeState = cam.getPlaneState();
+			cam.setPlaneState(0);
+			FrustumIntersect intersect = cam.contains(bound);
+			cam.setPlaneState(planeState);
+			
+			if(intersect != FrustumIntersect.Outside)
+				return true;
+		}
+		
+		return false;
+	}
+	
+	
+	private void swap(int i, int j)
+	{
+		TrafficCar vehicle = candidates[i];
+		candidates[i] = candidates[j];
+		candidates[j] = vehicle;
+		
+		float score = scores[i];
+		scores[i] = scores[j];
+		scores[j] = score;
+	}
+}
@@ -0,0 +1,216 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+
+import eu.opends.main.Simulator;
+
+/**
+ * Keeps a bounded number of traffic cars. Despawned cars are kept idle (without
+ * scene node, physics body and lights being attached) and reused for the next
+ * traffic participant with the same model and mass, so spawning does not need 
+ * to load a model or set up physics and lights again. Cars are only created if 
+ * no matching idle car exists; if the limit has been reached, an idle car of 
+ * another model will be destroyed first.
+ * 
+ * @author agent
+ */
+public class TrafficPool
+{
+	private Simulator sim;
+	private int capacity;
+	private HashMap<String, LinkedList<TrafficCar>> idleCarMap = new HashMap<String, LinkedList<TrafficCar>>();
+	private int numberOfCars = 0;
+	private int numberOfIdleCars = 0;
+	private long startTime = System.currentTimeMillis();
+	
+	// statistics
+	private long spawns = 0;
+	private long hits = 0;
+	private long allocations = 0;
+	private long evictions = 0;
+	private long despawns = 0;
+
+
+	/**
+	 * Creates an empty pool.
+	 * 
+	 * @param sim
+	 * 			Simulator.
+	 * 
+	 * @param capacity
+	 * 			Maximum number of cars (live and idle).
+	 */
+	public TrafficPool(Simulator sim, int capacity)
+	{
+		this.sim = sim;
+		this.capacity = capacity;
+	}
+
+
+	/**
+	 * Spawns the given traffic participant at the given way point, reusing an 
+	 * idle car if possible.
+	 * 
+	 * @param trafficCarData
+	 * 			Traffic participant to spawn.
+	 * 
+	 * @param wayPointIndex
+	 * 			Way point of the participant's route to start from.
+	 * 
+	 * @return
+	 * 			Spawned car or null if the maximum number of cars is live.
+	 */
+	public TrafficCar acquire(TrafficCarData trafficCarData, int wayPointIndex)
+	{
+		TrafficCar car;
+		LinkedList<TrafficCar> idleCarList = idleCarMap.get(getKey(trafficCarData));
+		
+		if(idleCarList != null && !idleCarList.isEmpty())
+		{
+			// reuse idle car with same model
+			car = idleCarList.removeFirst();
+			numberOfIdleCars--;
+			car.spawn(trafficCarData, wayPointIndex);
+			hits++;
+		}
+		else
+		{
+			// make room for a new car
+			if(numberOfCars >= capacity && !evictIdleCar())
+				return null;
+			
+			car = new TrafficCar(sim, trafficCarData);
+			car.startAt(wayPointIndex);
+			numberOfCars++;
+			allocations++;
+		}
+		
+		spawns++;
+		return car;
+	}
+
+
+	/**
+	 * Despawns the given car and keeps it for reuse.
+	 * 
+	 * @param car
+	 * 			Live car acquired from this pool.
+	 */
+	public void release(TrafficCar car)
+	{
+		car.despawn();
+		
+		String key = getKey(car.getTrafficCarData());
+		LinkedList<TrafficCar> idleCarList = idleCarMap.get(key);
+		if(idleCarList == null)
+		{
+			idleCarList = new LinkedList<TrafficCar>();
+			idleCarMap.put(key, idleCarList);
+		}
+		idleCarList.add(car);
+		numberOfIdleCars++;
+		despawns++;
+	}
+
+
+	/**
+	 * @return share of spawns served by an idle car [0,1]
+	 */
+	public float getHitRate()
+	{
+		return (spawns > 0) ? ((float) hits) / spawns : 0;
+	}
+
+
+	/**
+	 * @return number of created cars per minute since the pool has been created
+	 */
+	public float getAllocationRate()
+	{
+		float minutes = (System.currentTimeMillis() - startTime) / 60000f;
+		return (minutes > 0) ? allocations / minutes : 0;
+	}
+
+
+	public long getAllocations()
+	{
+		return allocations;
+	}
+
+
+	public int getNumberOfIdleCars()
+	{
+		return numberOfIdleCars;
+	}
+
+
+	/**
+	 * Statistics of the pool as human readable string, e.g. for log output.
+	 * 
+	 * @return
+	 * 			Spawns, hit rate and allocations.
+	 */
+	public String getReport()
+	{
+		return "capacity=" + capacity + ", cars=" + numberOfCars + ", idle=" + numberOfIdleCars + 
+				", spawns=" + spawns + ", despawns=" + despawns + ", hitRate=" + getHitRate() + 
+				", allocations=" + allocations + " (" + getAllocationRate() + "/min), evictions=" + evictions;
+	}
+
+
+	/**
+	 * Destroys all idle cars.
+	 */
+	public void close()
+	{
+		for(LinkedList<TrafficCar> idleCarList : idleCarMap.values())
+			for(TrafficCar car : idleCarList)
+				car.destroy();
+		
+		idleCarMap.clear();
+		numberOfIdleCars = 0;
+	}
+
+
+	private boolean evictIdleCar()
+	{
+		for(LinkedList<TrafficCar> idleCarList : idleCarMap.values())
+		{
+			if(!idleCarList.isEmpty())
+			{
+				idleCarList.removeFirst().destroy();
+				numberOfIdleCars--;
+				numberOfCars--;
+				evictions++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	private static String getKey(TrafficCarData trafficCarData)
+	{
+		// model and physics control depend on model path and mass
+		return trafficCarData.getModelPath() + "|" + trafficCarData.getMass();
+	}
+}
@@ -0,0 +1,480 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Spline;
+import com.jme3.math.Spline.SplineType;
+import com.jme3.math.Vector3f;
+
+/**
+ * Immutable sequence of way points a traffic car is following, together with
+ * lookup tables of the CatmullRom spline the follow box is moving along: 
+ * cumulative arc length at the way points, positions sampled along each 
+ * segment, headings at the way points and braking terms of segments with 
+ * decreasing speed limit. Segment lengths are taken from the spline itself,
+ * hence arc lengths are consistent with the motion track of the follow box
+ * (which moves linearly in spline parameter per segment length).
+ * Tables are computed once per path and shared by all vehicles following the 
+ * same path (see {@link #getInstance(List, boolean, float)}). In contrast to 
+ * the {@link FollowBox}, a route does not refer to the scene graph, hence it 
+ * may be used by the traffic thread.
+ * 
+ * @author agent
+ */
+public class TrafficRoute
+{
+	// number of samples per segment of the spline
+	private static final int SAMPLES_PER_SEGMENT = 16;
+	
+	private static HashMap<String, TrafficRoute> routeCache = new HashMap<String, TrafficRoute>();
+	
+	private List<Waypoint> wayPointList;
+	private boolean isCyclic;
+	private int numberOfSegments;
+	
+	// arc length (in meters) from the first way point to the start of each segment (+ total length)
+	private float[] segmentStart;
+	
+	// position of sample k = segment * SAMPLES_PER_SEGMENT + step
+	private float[] sampleX, sampleY, sampleZ;
+	
+	// heading (in radians) at each way point
+	private float[] headingAtWayPoint;
+	
+	// (v_current^2 - v_next^2)/2 in m^2/s^2 if speed decreases at the end of a segment, else 0
+	private float[] brakingTerm;
+
+
+	/**
+	 * Returns the (shared) route for the given path. Routes with equal way 
+	 * point names, positions and speeds, cycle flag and curve tension will 
+	 * only be computed once.
+	 * 
+	 * @param wayPointList
+	 * 			Way points of the path.
+	 * 
+	 * @param isCyclic
+	 * 			Whether the path is closed.
+	 * 
+	 * @param curveTension
+	 * 			Curve tension of the CatmullRom spline.
+	 * 
+	 * @return
+	 * 			Route for the given path.
+	 */
+	public static synchronized TrafficRoute getInstance(List<Waypoint> wayPointList, boolean isCyclic, 
+			float curveTension)
+	{
+		StringBuffer key = new StringBuffer();
+		key.append(isCyclic).append('|').append(curveTension);
+		for(Waypoint wayPoint : wayPointList)
+			key.append('|').append(wayPoint.getName()).append('@').append(wayPoint.getPosition())
+				.append('@').append(wayPoint.getSpeed()).append('@').append(wayPoint.getTrafficLightID());
+		
+		TrafficRoute route = routeCache.get(key.toString());
+		if(route == null)
+		{
+			route = new TrafficRoute(wayPointList, isCyclic, curveTension);
+			routeCache.put(key.toString(), route);
+		}
+		return route;
+	}
+	
+	
+	/**
+	 * Releases all cached routes (e.g. at the end of a session).
+	 */
+	public static synchronized void clearCache()
+	{
+		routeCache.clear();
+	}
+
+
+	public TrafficRoute(List<Waypoint> wayPointList, boolean isCyclic, float curveTension)
+	{
+		this.wayPointList = wayPointList;
+		this.isCyclic = isCyclic;
+		
+		computeSplineTables(curveTension);
+		computeHeadings();
+		computeBrakingTerms();
+	}
+
+
+	public List<Waypoint> getWayPointList()
+	{
+		return wayPointList;
+	}
+
+
+	public boolean isCyclic()
+	{
+		return isCyclic;
+	}
+
+
+	/**
+	 * @return arc length of the whole path in meters
+	 */
+	public float getLength()
+	{
+		return segmentStart[numberOfSegments];
+	}
+
+
+	/**
+	 * @return arc length of the segment starting at the given way point in meters
+	 */
+	public float getSegmentLength(int index)
+	{
+		return segmentStart[index+1] - segmentStart[index];
+	}
+
+
+	/**
+	 * Converts a position on the path given as segment and spline parameter (as
+	 * used by the motion track of the follow box) to arc length. O(1).
+	 * 
+	 * @param index
+	 * 			Index of the way point at the beginning of the segment.
+	 * 
+	 * @param value
+	 * 			Spline parameter [0,1] within the segment.
+	 * 
+	 * @return
+	 * 			Arc length from the first way point in meters.
+	 */
+	public float getArcLength(int index, float value)
+	{
+		if(index >= numberOfSegments)
+			return getLength();
+		
+		return segmentStart[index] + Math.max(0, Math.min(value, 1)) * getSegmentLength(index);
+	}
+
+
+	/**
+	 * @return index of the segment containing the given arc length. O(log n).
+	 */
+	public int getSegmentIndex(float arcLength)
+	{
+		int low = 0;
+		int high = numberOfSegments - 1;
+		while(low < high)
+		{
+			int middle = (low + high + 1) >>> 1;
+			if(segmentStart[middle] <= arcLength)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+
+
+	/**
+	 * Looks up the position on the path at the given arc length (linearly 
+	 * interpolated between samples of the spline). O(log n).
+	 * 
+	 * @param arcLength
+	 * 			Arc length from the first way point in meters (will be wrapped 
+	 * 			for cyclic paths and clamped otherwise).
+	 * 
+	 * @param store
+	 * 			Vector to store the result in.
+	 * 
+	 * @return
+	 * 			Position on the path.
+	 */
+	public Vector3f getPosition(float arcLength, Vector3f store)
+	{
+		arcLength = wrap(arcLength);
+		int segment = getSegmentIndex(arcLength);
+		float segmentLength = getSegmentLength(segment);
+		float value = (segmentLength > 0) ? (arcLength - segmentStart[segment]) / segmentLength : 0;
+		
+		float samplePosition = Math.min(value, 1) * SAMPLES_PER_SEGMENT;
+		int step = Math.min((int) samplePosition, SAMPLES_PER_SEGMENT - 1);
+		int sample = segment * SAMPLES_PER_SEGMENT + step;
+		float fraction = samplePosition - step;
+		return store.set(sampleX[sample] + fraction * (sampleX[sample+1] - sampleX[sample]),
+				sampleY[sample] + fraction * (sampleY[sample+1] - sampleY[sample]),
+				sampleZ[sample] + fraction * (sampleZ[sample+1] - sampleZ[sample]));
+	}
+
+
+	/**
+	 * Looks up the driving direction (on the xz-plane) at the given segment and 
+	 * spline parameter. O(1).
+	 * 
+	 * @param index
+	 * 			Index of the way point at the beginning of the segment.
+	 * 
+	 * @param value
+	 * 			Spline parameter [0,1] within the segment.
+	 * 
+	 * @param store
+	 * 			Vector to store the (normalized) result in.
+	 * 
+	 * @return
+	 * 			Driving direction.
+	 */
+	public Vector3f getDirection(int index, float value, Vector3f store)
+	{
+		int step = Math.min((int) (Math.max(0, value) * SAMPLES_PER_SEGMENT), SAMPLES_PER_SEGMENT - 1);
+		int sample = Math.min(index, numberOfSegments - 1) * SAMPLES_PER_SEGMENT + step;
+		store.set(sampleX[sample+1] - sampleX[sample], 0, sampleZ[sample+1] - sampleZ[sample]);
+		return store.normalizeLocal();
+	}
+
+
+	/**
+	 * @return speed limit (in km/h) at the given arc length. O(log n).
+	 */
+	public float getSpeedLimit(float arcLength)
+	{
+		return wayPointList.get(getSegmentIndex(wrap(arcLength))).getSpeed();
+	}
+
+
+	/**
+	 * @return heading (in radians) of a vehicle at the given way point facing 
+	 * 			the next way point
+	 */
+	public float getHeadingAtWayPoint(int index)
+	{
+		return headingAtWayPoint[index];
+	}
+
+
+	public Waypoint getNextWayPoint(int index) 
+	{
+		Waypoint nextWayPoint = null;
+		
+		if(isCyclic)
+		{
+			// if path is cyclic, the successor of the last WP will be the first WP
+			nextWayPoint = wayPointList.get((index+1) % wayPointList.size());
+		}
+		else if(wayPointList.size() > index+1)
+		{
+			// if not cyclic, only successors for way points 0 .. n-1 exist
+			nextWayPoint = wayPointList.get(index+1);
+		}
+		
+		return nextWayPoint;
+	}
+
+
+	/**
+	 * Computes a temporarily reduced speed for a traffic car in order to reach 
+	 * the next (lower) speed limit in time. O(1) and free of allocations.
+	 * 
+	 * @param currentIndex
+	 * 			Index of the way point the follow box has passed last.
+	 * 
+	 * @param wayPercentage
+	 * 			Spline parameter [0,1] of the follow box between current and next way point.
+	 * 
+	 * @param deceleration50Percent
+	 * 			Deceleration (in m/s^2) of the vehicle at 50% brake force.
+	 * 
+	 * @return
+	 * 			Reduced speed in km/h (infinity if no reduction necessary).
+	 */
+	public float getReducedSpeed(int currentIndex, float wayPercentage, float deceleration50Percent)
+	{
+		// return a temporarily reduced speed for the traffic car
+		// in order to reach next (lower) speed limit in time
+		float reducedSpeedInKmh = Float.POSITIVE_INFINITY;
+		
+		// if next way point with lower speed comes closer --> reduce speed
+		if(currentIndex < numberOfSegments && brakingTerm[currentIndex] > 0)
+		{
+			// speed at current and next way point
+			float currentSpeed = wayPointList.get(currentIndex).getSpeed() / 3.6f;
+			float targetSpeed = getNextWayPoint(currentIndex).getSpeed() / 3.6f;
+			
+			// distance (in meters) between follow box and next way point
+			float distanceToNextWP = segmentStart[currentIndex+1] - getArcLength(currentIndex, wayPercentage);
+			
+			// speed difference in m/s between current WP's speed and next WP's speed
+			float speedDifference = currentSpeed - targetSpeed;
+			
+			// distance covered while braking with 50% brake force from current to target speed
+			float coveredDistance = brakingTerm[currentIndex] / deceleration50Percent;
+			
+			// start braking in x meters
+			float distanceToBrakingPoint = distanceToNextWP - coveredDistance;
+			
+			if(distanceToBrakingPoint < 0)
+			{
+				// reduce speed linearly beginning from braking point
+				
+				// % of traveled distance between braking point and next way point
+				float speedPercentage = -distanceToBrakingPoint/coveredDistance;
+				
+				//   0% traveled: reduced speed = currentSpeed
+				//  50% traveled: reduced speed = (currentSpeed+targetSpeed)/2
+				// 100% traveled: reduced speed = targetSpeed
+				float reducedSpeed = currentSpeed - (speedPercentage * speedDifference);
+				reducedSpeedInKmh = reducedSpeed * 3.6f;
+			}
+		}
+		return reducedSpeedInKmh;
+	}
+	
+	
+	private void computeSplineTables(float curveTension)
+	{
+		List<Vector3f> controlPoints = new ArrayList<Vector3f>();
+		for(Waypoint wayPoint : wayPointList)
+			controlPoints.add(wayPoint.getPosition());
+		
+		// same spline as used by the motion path of the follow box
+		Spline spline = new Spline(SplineType.CatmullRom, controlPoints, curveTension, isCyclic);
+		
+		List<Float> segmentsLength = spline.getSegmentsLength();
+		numberOfSegments = Math.max(segmentsLength == null ? 0 : segmentsLength.size(), 1);
+		int numberOfSamples = numberOfSegments * SAMPLES_PER_SEGMENT + 1;
+		segmentStart = new float[numberOfSegments + 1];
+		sampleX = new float[numberOfSamples];
+		sampleY = new float[numberOfSamples];
+		sampleZ = new float[numberOfSamples];
+		
+		for(int segment=0; segment<numberOfSegments; segment++)
+		{
+			float segmentLength = (controlPoints.size() > 1) ? segmentsLength.get(segment) : 0;
+			segmentStart[segment+1] = segmentStart[segment] + segmentLength;
+		}
+		
+		Vector3f position = new Vector3f();
+		for(int sample=0; sample<numberOfSamples; sample++)
+		{
+			int segment = Math.min(sample / SAMPLES_PER_SEGMENT, numberOfSegments - 1);
+			float value = (sample - segment * SAMPLES_PER_SEGMENT) / (float) SAMPLES_PER_SEGMENT;
+			
+			if(controlPoints.size() > 1)
+				spline.interpolate(value, segment, position);
+			else
+				position.set(controlPoints.get(0));
+			
+			sampleX[sample] = position.getX();
+			sampleY[sample] = position.getY();
+			sampleZ[sample] = position.getZ();
+		}
+	}
+	
+	
+	private void computeHeadings()
+	{
+		headingAtWayPoint = new float[wayPointList.size()];
+		for(int index=0; index<headingAtWayPoint.length; index++)
+			headingAtWayPoint[index] = computeHeading(index);
+	}
+	
+	
+	private float computeHeading(int index)
+	{
+		float heading = 0;
+		Waypoint nextWayPoint = getNextWayPoint(index);
+		
+		// if next way point available, compute heading towards it
+		if(nextWayPoint != null)
+		{
+			// compute driving direction by looking at next way point from current position 
+			Vector3f targetPosition = nextWayPoint.getPosition().clone();
+			targetPosition.setY(0);
+			
+			Vector3f currentPosition = wayPointList.get(index).getPosition().clone();
+			currentPosition.setY(0);
+			
+			Vector3f drivingDirection = targetPosition.subtract(currentPosition).normalize();
+
+			// compute heading (orientation) from driving direction vector for
+			// angle between driving direction and heading "0"
+			float angle0  = drivingDirection.angleBetween(new Vector3f(0,0,-1));
+			// angle between driving direction and heading "90"
+			float angle90 = drivingDirection.angleBetween(new Vector3f(1,0,0));
+			
+			// get all candidates for heading
+			// find the value from {heading1,heading2} which matches with one of {heading3,heading4}
+			float heading1 = (2.0f * FastMath.PI + angle0)  % FastMath.TWO_PI;
+			float heading2 = (2.0f * FastMath.PI - angle0)  % FastMath.TWO_PI;
+			float heading3 = (2.5f * FastMath.PI + angle90) % FastMath.TWO_PI;
+			float heading4 = (2.5f * FastMath.PI - angle90) % FastMath.TWO_PI;
+			
+			float diff_1_3 = FastMath.abs(heading1-heading3);
+			float diff_1_4 = FastMath.abs(heading1-heading4);
+			float diff_2_3 = FastMath.abs(heading2-heading3);
+			float diff_2_4 = FastMath.abs(heading2-heading4);
+			
+			if((diff_1_3 < diff_1_4 && diff_1_3 < diff_2_3 && diff_1_3 < diff_2_4) ||
+				(diff_1_4 < diff_1_3 && diff_1_4 < diff_2_3 && diff_1_4 < diff_2_4))
+			{
+				// if diff_1_3 or diff_1_4 are smallest --> the correct heading is heading1
+				heading = heading1;
+			}
+			else
+			{
+				// if diff_2_3 or diff_2_4 are smallest --> the correct heading is heading2
+				heading = heading2;
+			}
+		}
+		return heading;
+	}
+	
+	
+	private void computeBrakingTerms()
+	{
+		brakingTerm = new float[numberOfSegments];
+		for(int index=0; index<numberOfSegments; index++)
+		{
+			Waypoint nextWayPoint = getNextWayPoint(index);
+			if(nextWayPoint != null)
+			{
+				float currentSpeed = wayPointList.get(index).getSpeed() / 3.6f;
+				float targetSpeed = nextWayPoint.getSpeed() / 3.6f;
+				
+				// distance covered during braking process: v*t - a/2*t^2 with t = (v-v')/a
+				if(targetSpeed < currentSpeed)
+					brakingTerm[index] = 0.5f * (currentSpeed * currentSpeed - targetSpeed * targetSpeed);
+			}
+		}
+	}
+	
+	
+	private float wrap(float arcLength)
+	{
+		float length = getLength();
+		if(isCyclic && length > 0)
+		{
+			arcLength = arcLength % length;
+			if(arcLength < 0)
+				arcLength += length;
+			return arcLength;
+		}
+		return Math.max(0, Math.min(arcLength, length));
+	}
+}
@@ -0,0 +1,300 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the sense/decide phase ({@link TrafficDriver#sense}) for all cars of a 
+ * {@link TrafficSnapshot}, either serially on the calling thread or split into 
+ * contiguous chunks of cars on a group of worker threads. As every car only 
+ * writes its own {@link TrafficControl}, both modes produce identical results.
+ * <br>
+ * The worker threads are persistent and wait for the next step on a reused
+ * barrier; chunks are claimed from a shared counter by the workers and the 
+ * calling thread. Hence, a step does not allocate memory.
+ * 
+ * @author agent
+ */
+public class TrafficSensePhase
+{
+	// chunks per thread (compensates for unequal costs per car)
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	// cars per chunk below which dispatching is more expensive than sensing
+	private static final int MIN_CHUNK_SIZE = 8;
+	
+	private int numberOfThreads;
+	private Worker[] workers = new Worker[0];
+	
+	// chunk boundaries (only change if the number of cars changes)
+	private int numberOfChunks = 0;
+	private int[] chunkStart = new int[0];
+	private int[] chunkEnd = new int[0];
+	private int numberOfChunkedCars = -1;
+	
+	// barrier of the current step (guarded by barrier)
+	private final Object barrier = new Object();
+	private int step = 0;
+	private int runningWorkers = 0;
+	private boolean closed = false;
+	private final AtomicInteger nextChunk = new AtomicInteger();
+	private volatile RuntimeException workerError = null;
+	
+	// input and output of the current step (published to the workers by the barrier)
+	private TrafficSnapshot snapshot;
+	private TrafficGrid grid;
+	private TrafficControl[] controls;
+
+
+	/**
+	 * Creates a new sense phase.
+	 * 
+	 * @param numberOfThreads
+	 * 			Number of threads sensing in parallel, including the calling 
+	 * 			thread (0: number of available processors, 1: serial execution 
+	 * 			on the calling thread).
+	 */
+	public TrafficSensePhase(int numberOfThreads)
+	{
+		if(numberOfThreads <= 0)
+			numberOfThreads = Runtime.getRuntime().availableProcessors();
+		
+		this.numberOfThreads = numberOfThreads;
+		
+		if(numberOfThreads > 1)
+		{
+			workers = new Worker[numberOfThreads - 1];
+			for(int i=0; i<workers.length; i++)
+			{
+				workers[i] = new Worker("TrafficSense-" + i);
+				workers[i].start();
+			}
+		}
+	}
+
+
+	public int getNumberOfThreads()
+	{
+		return numberOfThreads;
+	}
+	
+	
+	/**
+	 * @return
+	 * 			Worker threads (excluding the calling thread, empty if serial). 
+	 * 			Must not be modified.
+	 */
+	public Thread[] getWorkerThreads()
+	{
+		return workers;
+	}
+
+
+	/**
+	 * Computes the controls of all cars of the given snapshot. Returns when 
+	 * all controls have been written.
+	 * 
+	 * @param snapshot
+	 * 			State of all vehicles.
+	 * 
+	 * @param grid
+	 * 			Spatial hash of the snapshot (already rebuilt).
+	 * 
+	 * @param controls
+	 * 			Controls to write to (one per car of the snapshot).
+	 */
+	public void run(TrafficSnapshot snapshot, TrafficGrid grid, TrafficControl[] controls)
+	{
+		int numberOfCars = snapshot.getNumberOfTrafficCars();
+		
+		if(workers.length == 0 || numberOfCars < 2 * MIN_CHUNK_SIZE)
+		{
+			senseRange(snapshot, grid, controls, 0, numberOfCars);
+			return;
+		}
+		
+		updateChunks(numberOfCars);
+		
+		// release the workers
+		synchronized(barrier)
+		{
+			this.snapshot = snapshot;
+			this.grid = grid;
+			this.controls = controls;
+			nextChunk.set(0);
+			runningWorkers = workers.length;
+			step++;
+			barrier.notifyAll();
+		}
+		
+		// sense on the calling thread, too (errors re-thrown after the workers finished)
+		try {
+			processChunks(snapshot, grid, controls);
+		} catch (RuntimeException e) {
+			workerError = e;
+		}
+		
+		// wait for all workers to finish the step (or for close())
+		boolean interrupted = false;
+		synchronized(barrier)
+		{
+			while(runningWorkers > 0 && !closed)
+			{
+				try {
+					barrier.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			
+			this.snapshot = null;
+			this.grid = null;
+			this.controls = null;
+		}
+		
+		if(interrupted)
+			Thread.currentThread().interrupt();
+		
+		// re-throw errors of this step
+		RuntimeException error = workerError;
+		if(error != null)
+		{
+			workerError = null;
+			throw new RuntimeException(error);
+		}
+	}
+
+
+	/**
+	 * Stops all worker threads.
+	 */
+	public void close()
+	{
+		synchronized(barrier)
+		{
+			closed = true;
+			barrier.notifyAll();
+		}
+	}
+	
+	
+	private void updateChunks(int numberOfCars)
+	{
+		// chunks only change if the number of cars changes
+		if(numberOfCars == numberOfChunkedCars)
+			return;
+		
+		numberOfChunks = Math.min(numberOfThreads * CHUNKS_PER_THREAD, numberOfCars / MIN_CHUNK_SIZE);
+		numberOfChunks = Math.max(numberOfChunks, 1);
+		
+		if(chunkStart.length < numberOfChunks)
+		{
+			chunkStart = new int[numberOfChunks];
+			chunkEnd = new int[numberOfChunks];
+		}
+		
+		for(int i=0; i<numberOfChunks; i++)
+		{
+			chunkStart[i] = (int) ((long) numberOfCars * i / numberOfChunks);
+			chunkEnd[i] = (int) ((long) numberOfCars * (i+1) / numberOfChunks);
+		}
+		
+		numberOfChunkedCars = numberOfCars;
+	}
+	
+	
+	/**
+	 * Senses chunks until all chunks of the current step have been claimed.
+	 */
+	private void processChunks(TrafficSnapshot snapshot, TrafficGrid grid, TrafficControl[] controls)
+	{
+		int chunk;
+		while((chunk = nextChunk.getAndIncrement()) < numberOfChunks)
+			senseRange(snapshot, grid, controls, chunkStart[chunk], chunkEnd[chunk]);
+	}
+	
+	
+	private static void senseRange(TrafficSnapshot snapshot, TrafficGrid grid, 
+			TrafficControl[] controls, int start, int end)
+	{
+		for(int i=start; i<end; i++)
+			TrafficDriver.sense(snapshot, grid, i, controls[i]);
+	}
+	
+	
+	private class Worker extends Thread
+	{
+		public Worker(String name)
+		{
+			super(name);
+			setDaemon(true);
+		}
+		
+		
+		@Override
+		public void run()
+		{
+			int lastStep = 0;
+			
+			while(true)
+			{
+				TrafficSnapshot currentSnapshot;
+				TrafficGrid currentGrid;
+				TrafficControl[] currentControls;
+				
+				// wait for the next step
+				synchronized(barrier)
+				{
+					while(step == lastStep && !closed)
+					{
+						try {
+							barrier.wait();
+						} catch (InterruptedException e) {
+							// only close() stops the worker
+						}
+					}
+					
+					if(closed)
+						return;
+					
+					lastStep = step;
+					currentSnapshot = snapshot;
+					currentGrid = grid;
+					currentControls = controls;
+				}
+				
+				try {
+					
+					processChunks(currentSnapshot, currentGrid, currentControls);
+					
+				} catch (RuntimeException e) {
+					workerError = e;
+				} finally {
+					synchronized(barrier)
+					{
+						runningWorkers--;
+						if(runningWorkers == 0)
+							barrier.notifyAll();
+					}
+				}
+			}
+		}
+	}
+}
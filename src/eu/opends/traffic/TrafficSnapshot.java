@@ -0,0 +1,172 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.traffic;
+
+import java.util.List;
+
+import com.jme3.math.Vector3f;
+
+import eu.opends.main.Simulator;
+
+/**
+ * Consistent view of the driving car and all traffic cars at the beginning of
+ * one physics step. Captured on the jME thread and handed to the traffic thread,
+ * which computes the control outputs of all traffic cars from it. Snapshots are
+ * reused: capturing overwrites the preallocated state slots, which only grow 
+ * if the number of traffic cars increases.
+ * 
+ * @author agent
+ */
+public final class TrafficSnapshot
+{
+	private long sequence = -1;
+	private boolean pause = false;
+	private final Vector3f drivingCarPosition = new Vector3f();
+	private TrafficCarState[] trafficCarStates = new TrafficCarState[0];
+	private int numberOfTrafficCars = 0;
+	
+	// vehicles the states have been captured from (jME thread only)
+	private TrafficCar[] vehicles = new TrafficCar[0];
+	private int[] spawnIDs = new int[0];
+
+
+	/**
+	 * Prepares this snapshot for a new capture. The states of all traffic cars 
+	 * have to be written to the slots returned by {@link #getTrafficCarState(int)}
+	 * afterwards.
+	 * 
+	 * @param sequence
+	 * 			Sequence number of the snapshot.
+	 * 
+	 * @param pause
+	 * 			Whether the simulation is paused.
+	 * 
+	 * @param drivingCarPosition
+	 * 			Position of the driving car (will be copied).
+	 * 
+	 * @param numberOfTrafficCars
+	 * 			Number of traffic cars to capture.
+	 */
+	public void begin(long sequence, boolean pause, Vector3f drivingCarPosition, int numberOfTrafficCars)
+	{
+		this.sequence = sequence;
+		this.pause = pause;
+		this.drivingCarPosition.set(drivingCarPosition);
+		this.numberOfTrafficCars = numberOfTrafficCars;
+		
+		if(trafficCarStates.length < numberOfTrafficCars)
+		{
+			TrafficCarState[] states = new TrafficCarState[numberOfTrafficCars];
+			System.arraycopy(trafficCarStates, 0, states, 0, trafficCarStates.length);
+			for(int i=trafficCarStates.length; i<numberOfTrafficCars; i++)
+				states[i] = new TrafficCarState();
+			trafficCarStates = states;
+		}
+	}
+	
+
+	/**
+	 * Reads the state of the driving car and of all given traffic cars into this
+	 * snapshot. Must be called on the thread that owns the physics space (i.e. 
+	 * the jME update thread) and only while the traffic thread does not read 
+	 * this snapshot.
+	 * 
+	 * @param sequence
+	 * 			Sequence number of the snapshot.
+	 * 
+	 * @param sim
+	 * 			Simulator providing the driving car.
+	 * 
+	 * @param vehicleList
+	 * 			Traffic cars (order will be preserved).
+	 */
+	void capture(long sequence, Simulator sim, List<TrafficCar> vehicleList)
+	{
+		int size = vehicleList.size();
+		
+		sim.getCar().getCarControl().getPhysicsLocation(drivingCarPosition);
+		begin(sequence, sim.isPause(), drivingCarPosition, size);
+		
+		if(vehicles.length < size)
+		{
+			vehicles = new TrafficCar[size];
+			spawnIDs = new int[size];
+		}
+		
+		for(int i=0; i<size; i++)
+		{
+			vehicles[i] = vehicleList.get(i);
+			spawnIDs[i] = vehicles[i].getSpawnID();
+			vehicles[i].captureState(trafficCarStates[i]);
+		}
+	}
+	
+	
+	/**
+	 * Returns the vehicle the state with the given index has been captured from, 
+	 * if it still represents the same traffic participant (vehicles may have been
+	 * despawned or reassigned since). Must only be called on the jME thread.
+	 * 
+	 * @param index
+	 * 			Index in the snapshot.
+	 * 
+	 * @return
+	 * 			Vehicle or null if not available any more.
+	 */
+	TrafficCar getVehicle(int index)
+	{
+		if(vehicles[index] == null || vehicles[index].getSpawnID() != spawnIDs[index])
+			return null;
+		
+		return vehicles[index];
+	}
+
+
+	public long getSequence()
+	{
+		return sequence;
+	}
+
+
+	public boolean isPause()
+	{
+		return pause;
+	}
+
+
+	/**
+	 * @return position of the driving car (must not be modified)
+	 */
+	public Vector3f getDrivingCarPosition()
+	{
+		return drivingCarPosition;
+	}
+
+
+	public int getNumberOfTrafficCars()
+	{
+		return numberOfTrafficCars;
+	}
+
+
+	public TrafficCarState getTrafficCarState(int index)
+	{
+		return trafficCarStates[index];
+	}
+}
@@ -20,6 +20,9 @@ package eu.opends.traffic;
 
 import com.jme3.math.Vector3f;
 
+import eu.opends.environment.TrafficLight;
+import eu.opends.environment.TrafficLightCenter;
+
 /**
  * This class represents a way point for traffic participants. Each
  * way point consists of a name, a speed value that the traffic object 
@@ -34,6 +37,8 @@ public class Waypoint
 	private float speed;
 	private Vector3f position;
 	private String trafficLightID;
+	private TrafficLight trafficLight = null;
+	private boolean isTrafficLightResolved = false;
 	
 	
 	/**
@@ -109,6 +114,27 @@ public class Waypoint
 	}
 	
 	
+	/**
+	 * Getter method for the related traffic light. As paths are loaded before
+	 * the traffic light center has been set up, the ID will be resolved on the
+	 * first call after setup and kept for the rest of the session.
+	 * 
+	 * @return
+	 * 			Related traffic light (null if none available)
+	 */
+	public TrafficLight getTrafficLight() 
+	{
+		if(!isTrafficLightResolved && TrafficLightCenter.isInitialized())
+		{
+			if(trafficLightID != null)
+				trafficLight = TrafficLightCenter.getTrafficLightByID(trafficLightID);
+			
+			isTrafficLightResolved = true;
+		}
+		return trafficLight;
+	}
+	
+	
 	
 	/**
 	 * String representation of a way point
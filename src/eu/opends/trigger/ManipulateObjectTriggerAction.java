@@ -77,6 +77,15 @@ public class ManipulateObjectTriggerAction extends TriggerAction
 	}
 
 	
+	/**
+	 * @return ID of the object to manipulate
+	 */
+	public String getObjectID()
+	{
+		return objectID;
+	}
+	
+	
 	public void setTranslation(Float[] translation)
 	{
 		this.translation = translation;
@@ -53,35 +53,21 @@ public class PauseTriggerAction extends TriggerAction
 			{
 				sim.setPause(true);
 				
+				// frame time continues during pause (simulation time does not)
 				if(duration > 0)
 				{
-					StopPauseThread st = new StopPauseThread(duration);
-					st.start();
+					SimulationBasics.getSimulationClock().scheduleOnFrameTime(new Runnable()
+					{
+						public void run()
+						{
+							sim.setPause(false);
+						}
+					}, duration);
 				}
 				
 				updateCounter();
 			}
 		}
 	}
-	
-	
-	class StopPauseThread extends Thread 
-	{
-        int duration;
-        
-        StopPauseThread(int duration) 
-        {
-            this.duration = duration;
-        }
 
-        public void run() 
-        {
-        	try {Thread.sleep(1000*duration);} 
-        	catch (InterruptedException e){}
-
-    		sim.setPause(false);
-        }
-    }
-
-	
 }
@@ -18,6 +18,7 @@
 
 package eu.opends.trigger;
 
+import eu.opends.basics.SimulationBasics;
 
 /**
  * This abstract class represents a trigger action, which will be 
@@ -49,11 +50,23 @@ public abstract class TriggerAction
 	
 	/**
 	 * Method will be called on trigger collision, await delay and perform some action.
+	 * The delay is measured in simulation time (i.e. it does not elapse during pause)
+	 * and the action will be performed on the jME update thread.
 	 */
 	public void performAction()
 	{
-		TriggerActionDelayThread triggerActionDelayThread = new TriggerActionDelayThread(this, delay);
-		triggerActionDelayThread.start();
+		if(delay > 0)
+		{
+			SimulationBasics.getSimulationClock().schedule(new Runnable()
+			{
+				public void run()
+				{
+					execute();
+				}
+			}, delay);
+		}
+		else
+			execute();
 	}
 	
 	
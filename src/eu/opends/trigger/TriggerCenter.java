@@ -20,12 +20,15 @@ package eu.opends.trigger;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.bullet.control.RigidBodyControl;
 import com.jme3.collision.CollisionResults;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
@@ -37,6 +40,8 @@ import eu.opends.car.Car;
 import eu.opends.environment.TrafficLight;
 import eu.opends.environment.TrafficLightCenter;
 import eu.opends.main.Simulator;
+import eu.opends.multiDriver.MultiDriverCenter;
+import eu.opends.tools.Util;
 
 
 /**
@@ -54,7 +59,15 @@ public class TriggerCenter
 	private String[] triggerID;
 
 	private LinkedList<Spatial> triggerListTrafficLight,triggerListRoadObjects;
-	public static ArrayList<String> triggerReportList = new ArrayList<String>(5);
+	
+	// triggers reported during the last seconds (only accessed by the jME update thread)
+	private static HashSet<String> triggerReportSet = new HashSet<String>();
+	private static final float TRIGGER_LOCKOUT = 2;
+	
+	// static spatial index of the trigger volumes and candidates of the current frame
+	private TriggerGrid triggerGridTrafficLight = new TriggerGrid(20);
+	private TriggerGrid triggerGridRoadObjects = new TriggerGrid(20);
+	private ArrayList<Spatial> candidateList = new ArrayList<Spatial>();
 
 	public TriggerCenter(Simulator sim) 
 	{
@@ -93,13 +106,71 @@ public class TriggerCenter
 			}
 
 		}
+		
+		// index the world bounds of static triggers once, moving triggers 
+		// will be checked every frame
+		HashSet<Spatial> movingTriggerSet = getMovingTriggers();
+		triggerGridTrafficLight.build(triggerListTrafficLight, movingTriggerSet);
+		triggerGridRoadObjects.build(triggerListRoadObjects, movingTriggerSet);
+	}
+	
+	
+	/**
+	 * Collects all triggers that may change their position: triggers with a 
+	 * physics control and triggers affected by a ManipulateObject trigger action
+	 * (the manipulated object is the trigger itself, one of its children or 
+	 * one of its parents).
+	 * 
+	 * @return
+	 * 			Set of moving triggers.
+	 */
+	private HashSet<Spatial> getMovingTriggers()
+	{
+		HashSet<Spatial> movingTriggerSet = new HashSet<Spatial>();
+		
+		ArrayList<Spatial> triggerList = new ArrayList<Spatial>(triggerListTrafficLight);
+		triggerList.addAll(triggerListRoadObjects);
+		
+		for(Spatial trigger : triggerList)
+			if(trigger.getControl(RigidBodyControl.class) != null)
+				movingTriggerSet.add(trigger);
+		
+		for(List<TriggerAction> triggerActionList : SimulationBasics.getTriggerActionListMap().values())
+		{
+			for(TriggerAction triggerAction : triggerActionList)
+			{
+				if(triggerAction instanceof ManipulateObjectTriggerAction)
+				{
+					String objectID = ((ManipulateObjectTriggerAction) triggerAction).getObjectID();
+					Node object = Util.findNode(sim.getRootNode(), objectID);
+					if(object == null)
+						continue;
+					
+					for(Spatial trigger : triggerList)
+					{
+						if(object == trigger || trigger.hasAncestor(object) || 
+								(trigger instanceof Node && object.hasAncestor((Node) trigger)))
+							movingTriggerSet.add(trigger);
+					}
+				}
+			}
+		}
+		
+		return movingTriggerSet;
 	}
 
 	
 	public void doTriggerChecks() 
 	{
-		handleTrafficLightCollision(triggerListTrafficLight);
-		handleRoadObjectsCollision(triggerListRoadObjects);
+		BoundingVolume carBound = sim.getCar().getCarNode().getWorldBound();
+		
+		// only check triggers in cells overlapping the car
+		triggerGridTrafficLight.query(carBound, candidateList);
+		handleTrafficLightCollision(candidateList);
+		
+		triggerGridRoadObjects.query(carBound, candidateList);
+		handleRoadObjectsCollision(candidateList);
+		
 		//computeContactWithCar();
 	}
 
@@ -117,17 +188,16 @@ public class TriggerCenter
 	 * 			list of all traffic light triggers in order to monitor approximation 
 	 * 			to traffic lights
 	 */
-	private void handleTrafficLightCollision(LinkedList<Spatial> triggerList)
+	private void handleTrafficLightCollision(List<Spatial> triggerList)
 	{
-		for (Spatial trigger : triggerList)
+		for (int i=0; i<triggerList.size(); i++)
 		{
+			Spatial trigger = triggerList.get(i);
 			resultCollision.clear();
 			triggerName = trigger.getName();
 			
 			// calculate collision of the car with a road object trigger
-			//TODO use trigger node
-			Spatial triggerObject = sim.getRootNode().getChild(triggerName);
-			sim.getCar().getCarNode().collideWith(triggerObject.getWorldBound(), resultCollision);
+			sim.getCar().getCarNode().collideWith(trigger.getWorldBound(), resultCollision);
 			
 			if (
 					(resultCollision.size() > 0) 
@@ -143,7 +213,12 @@ public class TriggerCenter
 				// convert "TrafficLight.01_05.R" to "TrafficLight.01_05"
 				String trafficLightName = TrafficLight.parseName(triggerID[1]);
 
-				TrafficLightCenter.reportCollision(trafficLightName,triggerID[0]);
+				// in multi-driver mode traffic lights are controlled by the authoritative node
+				MultiDriverCenter multiDriverCenter = sim.getMultiDriverCenter();
+				if(multiDriverCenter != null)
+					multiDriverCenter.reportTrafficLightHit(trafficLightName,triggerID[0]);
+				else
+					TrafficLightCenter.reportCollision(trafficLightName,triggerID[0]);
 			}
 		}
 	}
@@ -158,12 +233,14 @@ public class TriggerCenter
 	 * 			list of all road object triggers in order to monitor approximation 
 	 * 			to such an object
 	 */
-	private void handleRoadObjectsCollision(LinkedList<Spatial> triggerList)
+	private void handleRoadObjectsCollision(List<Spatial> triggerList)
 	{
 		Car car = sim.getCar();
 		
-		for (Spatial trigger : triggerList) 
+		for (int i=0; i<triggerList.size(); i++) 
 		{	
+			Spatial trigger = triggerList.get(i);
+			
 			// TODO: caution! trigger center may be farther away than 10 meters when hitting
 			if(trigger.getWorldTranslation().distance(car.getCarNode().getWorldTranslation()) < 10)
 			{
@@ -171,16 +248,20 @@ public class TriggerCenter
 				String triggerName = trigger.getName();
 					
 				// calculate collision of the car with a road object trigger
-				
-				//TODO: use trigger node
-				Spatial triggerObject = sim.getRootNode().getChild(triggerName);
-				car.getCarNode().collideWith(triggerObject.getWorldBound(), resultCollision);
+				car.getCarNode().collideWith(trigger.getWorldBound(), resultCollision);
 				
 				// if car has collided with a trigger --> report trigger to HMI Center
 				if(resultCollision.size() > 0)
 				{
 					if(SimulationBasics.getTriggerActionListMap().containsKey(triggerName))
-						TriggerCenter.performTriggerAction(triggerName, car);
+					{
+						// in multi-driver mode triggers are performed when accepted by the authoritative node
+						MultiDriverCenter multiDriverCenter = sim.getMultiDriverCenter();
+						if(multiDriverCenter != null)
+							multiDriverCenter.reportTriggerHit(triggerName);
+						else
+							TriggerCenter.performTriggerAction(triggerName, car);
+					}
 				}
 			}
 		}
@@ -305,31 +386,35 @@ public class TriggerCenter
 	 * 
 	 * @param car
 	 * 			user-controlled car of simulator 
+	 * 
+	 * @return
+	 * 			true, if the action has been performed (false, if the trigger 
+	 * 			has already been reported during the last seconds)
 	 */
-	public static void performTriggerAction(String triggerID, Car car) 
+	public static boolean performTriggerAction(final String triggerID, Car car) 
 	{
-		if(!triggerReportList.contains(triggerID))
+		if(triggerReportSet.add(triggerID))
 		{
 			System.err.println("Trigger hit: " + triggerID);
-			// add trigger to report list
-			triggerReportList.add(triggerID);
 			
-			// remove trigger from report list after 2 seconds
-			int seconds = 2;
+			// remove trigger from report list after 2 seconds of simulation time
+			// (simulation clock stands still while a pause trigger is active)
+			SimulationBasics.getSimulationClock().schedule(new Runnable()
+			{
+				public void run()
+				{
+					removeTriggerReport(triggerID);
+				}
+			}, TRIGGER_LOCKOUT);
 		
 			List<TriggerAction> triggerActionList = SimulationBasics.getTriggerActionListMap().get(triggerID);
 			for(TriggerAction triggerAction : triggerActionList)
-			{
 				triggerAction.performAction();
-				
-				// extend two seconds by time of pause duration, if pause trigger was contained in list
-				if(triggerAction instanceof PauseTriggerAction)
-					seconds += ((PauseTriggerAction)triggerAction).getDuration();
-			}
 			
-			RemoveFromReportListThread removeThread = new RemoveFromReportListThread(triggerID, seconds);
-			removeThread.start();
+			return true;
 		}
+		
+		return false;
 	}
 	
 	
@@ -344,7 +429,7 @@ public class TriggerCenter
 	 */
 	public static void removeTriggerReport(String objectID)
 	{
-		if(!triggerReportList.remove(objectID))
+		if(!triggerReportSet.remove(objectID))
 			System.err.println("Could not remove '" + objectID + "' from trigger report list!");
 	}
 
@@ -0,0 +1,286 @@
+/*
+*  This file is part of OpenDS (Open Source Driving Simulator).
+*  Copyright (C) 2026 agent
+*
+*  OpenDS is free software: you can redistribute it and/or modify
+*  it under the terms of the GNU General Public License as published by
+*  the Free Software Foundation, either version 3 of the License, or
+*  (at your option) any later version.
+*
+*  OpenDS is distributed in the hope that it will be useful,
+*  but WITHOUT ANY WARRANTY; without even the implied warranty of
+*  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*  GNU General Public License for more details.
+*
+*  You should have received a copy of the GNU General Public License
+*  along with OpenDS. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package eu.opends.trigger;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingSphere;
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
+
+/**
+ * Static uniform grid over the world bounds of trigger volumes on the 
+ * xz-plane. Built once when the triggers are registered; every frame only 
+ * the triggers registered in cells overlapping the bounds of the car will
+ * be returned. Triggers are stored per cell consecutively (counting sort),
+ * moving triggers and triggers without a box or sphere bound are returned 
+ * by every query.
+ * 
+ * @author agent
+ */
+public class TriggerGrid
+{
+	// upper limit of the number of cells (cell size will be increased if necessary)
+	private static final int MAX_CELLS = 1 << 20;
+	
+	private float cellSize;
+	private float minX = 0;
+	private float minZ = 0;
+	private int columns = 0;
+	private int rows = 0;
+	private Spatial[] triggers = new Spatial[0];
+	private int[] cellStart = new int[1];
+	private int[] entries = new int[0];
+	private int[] unindexedTriggers = new int[0];
+	
+	// query stamp of every trigger in order to return triggers spanning several cells only once
+	private int[] queryStamp = new int[0];
+	private int currentQuery = 0;
+	
+	// scratch values (min x, min z, max x, max z) of a bound
+	private float[] extent = new float[4];
+
+
+	/**
+	 * Creates an empty grid.
+	 * 
+	 * @param cellSize
+	 * 			Edge length of a cell in meters.
+	 */
+	public TriggerGrid(float cellSize)
+	{
+		this.cellSize = cellSize;
+	}
+
+
+	/**
+	 * Registers the given triggers (replacing all previous ones). The world 
+	 * bounds of the triggers must not change afterwards.
+	 * 
+	 * @param triggerList
+	 * 			Triggers to index.
+	 */
+	public void build(List<Spatial> triggerList)
+	{
+		build(triggerList, new HashSet<Spatial>());
+	}
+
+
+	/**
+	 * Registers the given triggers (replacing all previous ones). Only the 
+	 * static triggers will be indexed by their world bounds, which must not 
+	 * change afterwards; moving triggers are returned by every query.
+	 * 
+	 * @param triggerList
+	 * 			Triggers to register.
+	 * 
+	 * @param movingTriggerSet
+	 * 			Triggers of the list that may move (e.g. by physics or by 
+	 * 			trigger actions).
+	 */
+	public void build(List<Spatial> triggerList, Set<Spatial> movingTriggerSet)
+	{
+		int numberOfTriggers = triggerList.size();
+		triggers = triggerList.toArray(new Spatial[numberOfTriggers]);
+		queryStamp = new int[numberOfTriggers];
+		
+		boolean[] indexed = new boolean[numberOfTriggers];
+		for(int i=0; i<numberOfTriggers; i++)
+			indexed[i] = !movingTriggerSet.contains(triggers[i]) && getExtent(triggers[i].getWorldBound(), extent);
+		
+		// bounding rectangle of all triggers
+		float maxX = Float.NEGATIVE_INFINITY;
+		float maxZ = Float.NEGATIVE_INFINITY;
+		minX = Float.POSITIVE_INFINITY;
+		minZ = Float.POSITIVE_INFINITY;
+		int numberOfUnindexed = 0;
+		
+		for(int i=0; i<numberOfTriggers; i++)
+		{
+			if(indexed[i])
+			{
+				getExtent(triggers[i].getWorldBound(), extent);
+				minX = Math.min(minX, extent[0]);
+				minZ = Math.min(minZ, extent[1]);
+				maxX = Math.max(maxX, extent[2]);
+				maxZ = Math.max(maxZ, extent[3]);
+			}
+			else
+				numberOfUnindexed++;
+		}
+		
+		if(maxX < minX)
+		{
+			// no indexed triggers
+			minX = 0;
+			minZ = 0;
+			maxX = 0;
+			maxZ = 0;
+		}
+		
+		// grid dimensions (coarser cells for very large areas)
+		columns = (int) ((maxX - minX) / cellSize) + 1;
+		rows = (int) ((maxZ - minZ) / cellSize) + 1;
+		while((long) columns * rows > MAX_CELLS)
+		{
+			cellSize *= 2;
+			columns = (int) ((maxX - minX) / cellSize) + 1;
+			rows = (int) ((maxZ - minZ) / cellSize) + 1;
+		}
+		
+		int numberOfCells = columns * rows;
+		cellStart = new int[numberOfCells + 1];
+		unindexedTriggers = new int[numberOfUnindexed];
+		
+		// count triggers per cell
+		int numberOfEntries = 0;
+		numberOfUnindexed = 0;
+		for(int i=0; i<numberOfTriggers; i++)
+		{
+			if(indexed[i])
+			{
+				getExtent(triggers[i].getWorldBound(), extent);
+				for(int row=getRow(extent[1]); row<=getRow(extent[3]); row++)
+					for(int column=getColumn(extent[0]); column<=getColumn(extent[2]); column++)
+					{
+						cellStart[row * columns + column + 1]++;
+						numberOfEntries++;
+					}
+			}
+			else
+				unindexedTriggers[numberOfUnindexed++] = i;
+		}
+		
+		// prefix sum --> start index of each cell
+		for(int cell=0; cell<numberOfCells; cell++)
+			cellStart[cell+1] += cellStart[cell];
+		
+		// fill cells
+		entries = new int[numberOfEntries];
+		int[] fillPosition = new int[numberOfCells];
+		System.arraycopy(cellStart, 0, fillPosition, 0, numberOfCells);
+		for(int i=0; i<numberOfTriggers; i++)
+		{
+			if(indexed[i])
+			{
+				getExtent(triggers[i].getWorldBound(), extent);
+				for(int row=getRow(extent[1]); row<=getRow(extent[3]); row++)
+					for(int column=getColumn(extent[0]); column<=getColumn(extent[2]); column++)
+						entries[fillPosition[row * columns + column]++] = i;
+			}
+		}
+	}
+
+
+	/**
+	 * Collects all triggers registered in cells overlapping the given bound. 
+	 * Callers must check for an actual collision.
+	 * 
+	 * @param bound
+	 * 			World bound of the car.
+	 * 
+	 * @param result
+	 * 			List the triggers will be added to (will be cleared first).
+	 */
+	public void query(BoundingVolume bound, List<Spatial> result)
+	{
+		result.clear();
+		
+		for(int k=0; k<unindexedTriggers.length; k++)
+			result.add(triggers[unindexedTriggers[k]]);
+		
+		// no triggers outside the grid
+		if(!getExtent(bound, extent) || extent[2] < minX || extent[3] < minZ || 
+				extent[0] > minX + columns * cellSize || extent[1] > minZ + rows * cellSize)
+			return;
+		
+		currentQuery++;
+		
+		for(int row=getRow(extent[1]); row<=getRow(extent[3]); row++)
+			for(int column=getColumn(extent[0]); column<=getColumn(extent[2]); column++)
+			{
+				int cell = row * columns + column;
+				for(int k=cellStart[cell]; k<cellStart[cell+1]; k++)
+				{
+					int i = entries[k];
+					if(queryStamp[i] != currentQuery)
+					{
+						queryStamp[i] = currentQuery;
+						result.add(triggers[i]);
+					}
+				}
+			}
+	}
+
+
+	public int getNumberOfTriggers()
+	{
+		return triggers.length;
+	}
+	
+	
+	private int getColumn(float x)
+	{
+		return Math.max(0, Math.min((int) ((x - minX) / cellSize), columns - 1));
+	}
+	
+	
+	private int getRow(float z)
+	{
+		return Math.max(0, Math.min((int) ((z - minZ) / cellSize), rows - 1));
+	}
+
+
+	/**
+	 * Writes the rectangle covered by the given bound on the xz-plane to 
+	 * store (min x, min z, max x, max z).
+	 * 
+	 * @return
+	 * 			false, if the bound is neither a box nor a sphere
+	 */
+	private static boolean getExtent(BoundingVolume bound, float[] store)
+	{
+		float extentX;
+		float extentZ;
+		
+		if(bound instanceof BoundingBox)
+		{
+			extentX = ((BoundingBox) bound).getXExtent();
+			extentZ = ((BoundingBox) bound).getZExtent();
+		}
+		else if(bound instanceof BoundingSphere)
+		{
+			extentX = ((BoundingSphere) bound).getRadius();
+			extentZ = extentX;
+		}
+		else
+			return false;
+		
+		Vector3f center = bound.getCenter();
+		store[0] = center.getX() - extentX;
+		store[1] = center.getZ() - extentZ;
+		store[2] = center.getX() + extentX;
+		store[3] = center.getZ() + extentZ;
+		return true;
+	}
+}